@@ -33,6 +33,9 @@ import org.jspecify.annotations.Nullable;
 
 import jcompute.core.io.LongMarshaller;
 import jcompute.core.shape.Shape;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
 
 public record LongArray(
         Shape shape,
@@ -40,6 +43,9 @@ public record LongArray(
 
     private final static ValueLayout.OfLong VALUE_LAYOUT = JAVA_LONG;
 
+    public final static VectorSpecies<Long> SPECIES = VectorShape.forBitSize(VECTOR_BIT_SIZE)
+        .withLanes(long.class); //  e.g. LongVector.SPECIES_256;
+
     public static LongArray of(final Arena arena, final Shape shape) {
         var layout = MemoryLayout.sequenceLayout(shape.totalSize(), VALUE_LAYOUT);
         var memorySegment = arena.allocate(layout);
@@ -126,6 +132,12 @@ public record LongArray(
         return toStringHelper.toString(gid->""+get(gid));
     }
 
+    // -- VECTOR API
+
+    public LongVector longVector(final VectorSpecies<Long> species, final long offset) {
+        return LongVector.fromMemorySegment(species, memorySegment, offset * Long.BYTES, VALUE_LAYOUT.order());
+    }
+
     // -- CONTRACT
 
     @Override
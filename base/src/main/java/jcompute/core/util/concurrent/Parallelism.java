@@ -0,0 +1,207 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.core.util.concurrent;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.jspecify.annotations.Nullable;
+
+///Where parallel work runs, optionally collecting {@link RunStats}.
+///
+///Parallel streams run in the {@link ForkJoinPool} of the thread, that invokes their terminal operation,
+///which is the common pool unless invoked from a worker of another pool.
+///Hence running the terminal operation via {@link #run(Runnable)} or {@link #call(Supplier)}
+///within a dedicated pool isolates a workload from the common pool and from other workloads.
+///
+///Example:
+/// ```
+///  try(var pool = new ForkJoinPool(4)) {
+///      var stats = new Parallelism.RunStats();
+///      var parallelism = Parallelism.of(pool).withStats(stats);
+///      indexSpace.forEach(Visiting.parallel().withParallelism(parallelism), v->...);
+///      System.out.println(stats);
+///  }
+/// ```
+/// @param pool - the pool to run parallel work in
+/// @param stats - nullable, statistics to add to, if any
+public record Parallelism(
+        ForkJoinPool pool,
+        @Nullable RunStats stats) {
+
+    private static final Parallelism COMMON = new Parallelism(ForkJoinPool.commonPool(), null);
+
+    /**
+     * Runs in the {@link ForkJoinPool#commonPool()}, without collecting statistics.
+     */
+    public static Parallelism common() {
+        return COMMON;
+    }
+
+    /**
+     * Runs in given pool, without collecting statistics. The pool is owned by the caller.
+     */
+    public static Parallelism of(final ForkJoinPool pool) {
+        return new Parallelism(pool, null);
+    }
+
+    /**
+     * Same pool, adding statistics of all subsequent runs to given stats.
+     */
+    public Parallelism withStats(final RunStats stats) {
+        return new Parallelism(pool, stats);
+    }
+
+    /**
+     * Runs given action within this pool, waiting for its completion.
+     */
+    public void run(final Runnable action) {
+        call(()->{
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls given action within this pool, waiting for its completion.
+     * If the current thread already runs in this pool, the action is called directly.
+     */
+    public <T> T call(final Supplier<T> action) {
+        if(stats==null) {
+            return isCurrentPool()
+                ? action.get()
+                : pool.invoke(ForkJoinTask.adapt(action::get));
+        }
+        final long stealsBefore = pool.getStealCount();
+        final long t0 = System.nanoTime();
+        try {
+            return isCurrentPool()
+                ? action.get()
+                : pool.invoke(ForkJoinTask.adapt(action::get));
+        } finally {
+            stats.addRun(System.nanoTime() - t0, pool.getStealCount() - stealsBefore);
+        }
+    }
+
+    /**
+     * Runs given task (typically one of many, that make up a parallel run), counting it and its busy time.
+     */
+    public void task(final Runnable task) {
+        if(stats==null) {
+            task.run();
+            return;
+        }
+        final long t0 = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            stats.addTask(System.nanoTime() - t0);
+        }
+    }
+
+    /**
+     * Calls given task (typically one of many, that make up a parallel run), counting it and its busy time.
+     */
+    public <T> T task(final Supplier<T> task) {
+        if(stats==null) return task.get();
+        final long t0 = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            stats.addTask(System.nanoTime() - t0);
+        }
+    }
+
+    /**
+     * Thread-safe accumulator of statistics over parallel runs.
+     * <p>
+     * Steals are taken from {@link ForkJoinPool#getStealCount()} before and after each run,
+     * hence include those of concurrent runs sharing the same pool.
+     */
+    public static final class RunStats {
+
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder tasks = new LongAdder();
+        private final LongAdder steals = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+
+        /** Number of (top-level) runs. */
+        public long runs() { return runs.sum(); }
+        /** Number of tasks, the runs were split into. */
+        public long tasks() { return tasks.sum(); }
+        /** Number of tasks, executed by another worker than the one, that forked them. */
+        public long steals() { return steals.sum(); }
+        /** Time spent in tasks, summed up over all workers. */
+        public long busyNanos() { return busyNanos.sum(); }
+        /** Elapsed (wall clock) time of all runs. */
+        public long wallNanos() { return wallNanos.sum(); }
+
+        /**
+         * Average number of busy workers, that is busy time over wall time.
+         */
+        public double averageConcurrency() {
+            final long wall = wallNanos();
+            return wall>0
+                ? (double)busyNanos() / wall
+                : 0.;
+        }
+
+        public void reset() {
+            runs.reset();
+            tasks.reset();
+            steals.reset();
+            busyNanos.reset();
+            wallNanos.reset();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "RunStats[runs=%d, tasks=%d, steals=%d, busy=%d ms, wall=%d ms, concurrency=%.2f]",
+                    runs(), tasks(), steals(), busyNanos()/1000_000L, wallNanos()/1000_000L, averageConcurrency());
+        }
+
+        // -- HELPER
+
+        void addRun(final long elapsedNanos, final long stealCount) {
+            runs.increment();
+            wallNanos.add(elapsedNanos);
+            steals.add(stealCount);
+        }
+
+        void addTask(final long elapsedNanos) {
+            tasks.increment();
+            busyNanos.add(elapsedNanos);
+        }
+    }
+
+    // -- HELPER
+
+    private boolean isCurrentPool() {
+        final ForkJoinPool current = ForkJoinTask.getPool();
+        return current!=null
+            ? current==pool
+            // not a worker thread, where parallel streams default to the common pool
+            : pool==ForkJoinPool.commonPool();
+    }
+
+}
@@ -0,0 +1,381 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.base;
+
+import java.lang.foreign.Arena;
+import java.math.BigInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.jspecify.annotations.Nullable;
+
+import lombok.experimental.UtilityClass;
+
+import jcompute.core.mem.IntArray;
+import jcompute.core.mem.LongArray;
+import jcompute.core.shape.Shape;
+import jcompute.core.util.concurrent.Parallelism;
+
+/**
+ * Bulk generation of all k-combinations (k-subsets) of {@code {0, 1, ..., v-1}} in colex order.
+ * <p>
+ * The rank range is split into chunks. For each chunk its first combination is unranked,
+ * then the remaining ones follow by successor steps ({@link Combinations#next_colex(long)}, known as Gosper's hack).
+ * Hence chunks are independent and can be generated in parallel, given a {@link Parallelism}.
+ * Parallel generation writes from pool threads, hence requires the target to be accessible by any thread,
+ * e.g. allocated from {@link Arena#ofShared()}, whereas without a {@link Parallelism} chunks are generated
+ * in the calling thread, which works with any arena.
+ * <p>
+ * Combinations are represented either as bitmasks, where for {@code v <= 64} a single {@code long} word
+ * holds one combination, otherwise {@link #wordCount(int)} words per combination (row-major),
+ * or as index tuples {@code c[0] < c[1] < ... < c[k-1]}.
+ */
+@UtilityClass
+public class ColexCombinations {
+
+    /**
+     * Lower bound for the number of combinations per chunk,
+     * below which parallel generation does not pay off.
+     */
+    private final static long MIN_CHUNK_SIZE = 1L << 12;
+
+    /**
+     * Number of {@code long} words required to hold a bitmask of v bits.
+     */
+    public int wordCount(final int v) {
+        return (v + 63) >>> 6;
+    }
+
+    /**
+     * Number of k-combinations of v elements, that is {@code binomial(v, k)}.
+     * @throws ArithmeticException if not representable as {@code long}
+     */
+    public long count(final int v, final int k) {
+        checkArguments(v, k);
+        return Combinations.binomialAsLongValueExact(v, k);
+    }
+
+    // -- RANKING
+
+    /**
+     * Colex rank of given combination {@code c[0] < c[1] < ... < c[k-1]},
+     * that is {@code sum binomial(c[i], i+1)}.
+     */
+    public long rank_colex(final int[] c) {
+        long rank = 0L;
+        for (int i = 0; i < c.length; i++) {
+            rank = Math.addExact(rank, Combinations.binomial(c[i], i + 1).longValueExact());
+        }
+        return rank;
+    }
+
+    /**
+     * Inverse of {@link #rank_colex(int[])}, writes the combination with given colex rank into
+     * {@code c[0] < c[1] < ... < c[k-1]}, where {@code k = c.length}.
+     * @param v - number of elements to choose from
+     * @return c
+     */
+    public int[] unrank_colex(final int v, final long rank, final int[] c) {
+        final int k = c.length;
+        if(rank<0
+                || rank>=count(v, k)) throw new IllegalArgumentException(
+                        "rank %d out of bounds for binomial(%d, %d)".formatted(rank, v, k));
+        long r = rank;
+        int upperExclusive = v;
+        for (int i = k; i > 0; i--) {
+            // largest element c < upperExclusive with binomial(c, i) <= r
+            int x = upperExclusive - 1;
+            long b = binomialSaturated(x, i);
+            while(b > r) {
+                b = binomialSaturated(--x, i);
+            }
+            c[i - 1] = x;
+            r -= b;
+            upperExclusive = x;
+        }
+        return c;
+    }
+
+    /**
+     * Single word bitmask of the combination with given colex rank.
+     * @param v - number of elements to choose from, must not exceed 64
+     */
+    public long unrank_colex_mask(final int v, final int k, final long rank) {
+        checkSingleWord(v);
+        return toMask(unrank_colex(v, rank, new int[k]));
+    }
+
+    /**
+     * Successor of given combination {@code c[0] < c[1] < ... < c[k-1]} in colex order,
+     * that is, the lowest element, that can be incremented, is incremented and all elements below are reset.
+     * @return whether a successor exists, that is {@code c} was not the last combination
+     */
+    public boolean next_colex(final int v, final int[] c) {
+        final int k = c.length;
+        for (int i = 0; i < k; i++) {
+            final int upperExclusive = i + 1 < k
+                    ? c[i + 1]
+                    : v;
+            if(c[i] + 1 < upperExclusive) {
+                ++c[i];
+                for (int j = 0; j < i; j++) {
+                    c[j] = j;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // -- BULK
+
+    /**
+     * Allocates and fills all k-combinations of v elements as bitmasks in colex order.
+     * <p>
+     * For {@code v <= 64} the resulting shape is {@code (binomial(v, k))},
+     * otherwise {@code (binomial(v, k), wordCount(v))}, where word {@code w} holds the bits {@code 64*w ..64*w+63}.
+     */
+    public LongArray masks(final Arena arena, final int v, final int k) {
+        return masks(arena, v, k, null);
+    }
+
+    /**
+     * Same as {@link #masks(Arena, int, int)}, but generating chunks within given {@link Parallelism},
+     * where each chunk counts as a task.
+     * @param arena - must allocate segments accessible by the threads of given parallelism (e.g. {@link Arena#ofShared()})
+     * @param parallelism - nullable, generates in the calling thread if {@code null}
+     */
+    public LongArray masks(final Arena arena, final int v, final int k, final @Nullable Parallelism parallelism) {
+        final long count = count(v, k);
+        final int wordCount = wordCount(v);
+        var masks = LongArray.of(arena, wordCount<=1
+                ? Shape.of(count)
+                : Shape.of(count, wordCount));
+        fillMasks(v, k, masks, parallelism);
+        return masks;
+    }
+
+    /**
+     * Fills given (pre-allocated) array with all k-combinations of v elements as bitmasks in colex order,
+     * see {@link #masks(Arena, int, int)} for the expected shape.
+     */
+    public void fillMasks(final int v, final int k, final LongArray masks) {
+        fillMasks(v, k, masks, null);
+    }
+
+    /**
+     * Same as {@link #fillMasks(int, int, LongArray)}, but generating chunks within given {@link Parallelism},
+     * where each chunk counts as a task.
+     * @param masks - must be accessible by the threads of given parallelism (e.g. allocated from {@link Arena#ofShared()})
+     * @param parallelism - nullable, generates in the calling thread if {@code null}
+     */
+    public void fillMasks(final int v, final int k, final LongArray masks, final @Nullable Parallelism parallelism) {
+        final long count = count(v, k);
+        final int wordCount = wordCount(v);
+        if(masks.shape().totalSize() != count * Math.max(1, wordCount)) throw new IllegalArgumentException(
+                "shape %s does not fit %d combinations of %d word(s)".formatted(masks.shape(), count, wordCount));
+        if(wordCount<=1) {
+            visitChunks(count, parallelism, (start, end)->{
+                long mask = unrank_colex_mask(v, k, start);
+                masks.put(start, mask);
+                for (long gid = start + 1; gid < end; gid++) {
+                    mask = Combinations.next_colex(mask);
+                    masks.put(gid, mask);
+                }
+            });
+            return;
+        }
+        visitChunks(count, parallelism, (start, end)->{
+            final int[] c = unrank_colex(v, start, new int[k]);
+            for (long gid = start; gid < end; gid++) {
+                final long offset = gid * wordCount;
+                for (int w = 0; w < wordCount; w++) {
+                    masks.put(offset + w, 0L);
+                }
+                for (int i = 0; i < k; i++) {
+                    final long wordIndex = offset + (c[i] >>> 6);
+                    masks.put(wordIndex, masks.get(wordIndex) | (1L << c[i]));
+                }
+                next_colex(v, c);
+            }
+        });
+    }
+
+    /**
+     * Allocates and fills all k-combinations of v elements as index tuples in colex order,
+     * with resulting shape {@code (binomial(v, k), k)}.
+     */
+    public IntArray tuples(final Arena arena, final int v, final int k) {
+        return tuples(arena, v, k, null);
+    }
+
+    /**
+     * Same as {@link #tuples(Arena, int, int)}, but generating chunks within given {@link Parallelism},
+     * where each chunk counts as a task.
+     * @param arena - must allocate segments accessible by the threads of given parallelism (e.g. {@link Arena#ofShared()})
+     * @param parallelism - nullable, generates in the calling thread if {@code null}
+     */
+    public IntArray tuples(final Arena arena, final int v, final int k, final @Nullable Parallelism parallelism) {
+        var tuples = IntArray.of(arena, Shape.of(count(v, k), k));
+        fillTuples(v, k, tuples, parallelism);
+        return tuples;
+    }
+
+    /**
+     * Fills given (pre-allocated) array with all k-combinations of v elements as index tuples in colex order,
+     * see {@link #tuples(Arena, int, int)} for the expected shape.
+     */
+    public void fillTuples(final int v, final int k, final IntArray tuples) {
+        fillTuples(v, k, tuples, null);
+    }
+
+    /**
+     * Same as {@link #fillTuples(int, int, IntArray)}, but generating chunks within given {@link Parallelism},
+     * where each chunk counts as a task.
+     * @param tuples - must be accessible by the threads of given parallelism (e.g. allocated from {@link Arena#ofShared()})
+     * @param parallelism - nullable, generates in the calling thread if {@code null}
+     */
+    public void fillTuples(final int v, final int k, final IntArray tuples, final @Nullable Parallelism parallelism) {
+        final long count = count(v, k);
+        if(tuples.shape().totalSize() != count * k) throw new IllegalArgumentException(
+                "shape %s does not fit %d combinations of size %d".formatted(tuples.shape(), count, k));
+        visitChunks(count, parallelism, (start, end)->{
+            final int[] c = unrank_colex(v, start, new int[k]);
+            for (long gid = start; gid < end; gid++) {
+                final long offset = gid * k;
+                for (int i = 0; i < k; i++) {
+                    tuples.put(offset + i, c[i]);
+                }
+                next_colex(v, c);
+            }
+        });
+    }
+
+    // -- STREAMING
+
+    /**
+     * Streams all k-combinations of v elements as single word bitmasks in colex order,
+     * without materializing them. When run in parallel, chunks are unranked independently.
+     * @param v - number of elements to choose from, must not exceed 64
+     */
+    public LongStream streamMasks(final int v, final int k) {
+        checkSingleWord(v);
+        final long count = count(v, k);
+        return chunks(count)
+            .flatMap(chunk->{
+                final long start = chunkStart(count, chunk);
+                final long length = chunkStart(count, chunk + 1) - start;
+                return LongStream.iterate(unrank_colex_mask(v, k, start), Combinations::next_colex)
+                    .limit(length);
+            });
+    }
+
+    /**
+     * Streams all k-combinations of v elements as index tuples in colex order,
+     * without materializing them. When run in parallel, chunks are unranked independently.
+     * <p>
+     * Each streamed tuple is a fresh array.
+     */
+    public Stream<int[]> streamTuples(final int v, final int k) {
+        final long count = count(v, k);
+        return chunks(count)
+            .boxed()
+            .flatMap(chunk->{
+                final long start = chunkStart(count, chunk);
+                final long length = chunkStart(count, chunk + 1) - start;
+                final int[] c = unrank_colex(v, start, new int[k]);
+                return Stream.iterate(c, prev->{
+                        final int[] next = prev.clone();
+                        next_colex(v, next);
+                        return next;
+                    })
+                    .limit(length);
+            });
+    }
+
+    // -- HELPER
+
+    @FunctionalInterface
+    private interface ChunkVisitor {
+        void visit(long startInclusive, long endExclusive);
+    }
+
+    /**
+     * Visits chunks of the rank range {@code 0..count-1}, within given {@link Parallelism}
+     * or in the calling thread if {@code null}.
+     */
+    private void visitChunks(final long count, final @Nullable Parallelism parallelism, final ChunkVisitor chunkVisitor) {
+        if(parallelism==null) {
+            chunks(count).forEach(chunk->chunkVisitor.visit(chunkStart(count, chunk), chunkStart(count, chunk + 1)));
+            return;
+        }
+        parallelism.run(()->chunks(count)
+            .parallel()
+            .forEach(chunk->parallelism.task(()->
+                chunkVisitor.visit(chunkStart(count, chunk), chunkStart(count, chunk + 1)))));
+    }
+
+    private LongStream chunks(final long count) {
+        return LongStream.range(0L, chunkCount(count));
+    }
+
+    private long chunkCount(final long count) {
+        if(count<=MIN_CHUNK_SIZE) return count==0 ? 0 : 1;
+        final long maxChunks = 16L * Runtime.getRuntime().availableProcessors();
+        return Math.min(maxChunks, count / MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Start of given chunk, where chunks are fairly sized, such that their lengths differ by at most one.
+     */
+    private long chunkStart(final long count, final long chunk) {
+        final long chunkCount = chunkCount(count);
+        final long baseSize = count / chunkCount;
+        final long remainder = count % chunkCount;
+        return chunk * baseSize + Math.min(chunk, remainder);
+    }
+
+    private long toMask(final int[] c) {
+        long mask = 0L;
+        for (int i = 0; i < c.length; i++) {
+            mask |= 1L << c[i];
+        }
+        return mask;
+    }
+
+    /**
+     * Same as {@link Combinations#binomial(int, int)}, but saturating at {@link Long#MAX_VALUE}.
+     */
+    private long binomialSaturated(final int n, final int k) {
+        final BigInteger binomial = Combinations.binomial(n, k);
+        return binomial.bitLength() < Long.SIZE
+                ? binomial.longValue()
+                : Long.MAX_VALUE;
+    }
+
+    private void checkArguments(final int v, final int k) {
+        if(v<0) throw new IllegalArgumentException("v (%d) must be non-negative".formatted(v));
+        if(k<0 || k>v) throw new IllegalArgumentException("k (%d) must be within [0, %d]".formatted(k, v));
+    }
+
+    private void checkSingleWord(final int v) {
+        if(v>64) throw new IllegalArgumentException("v (%d) exceeds single word capacity of 64 bits".formatted(v));
+    }
+
+}
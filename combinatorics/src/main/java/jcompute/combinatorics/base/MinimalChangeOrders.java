@@ -0,0 +1,360 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.base;
+
+import java.util.stream.LongStream;
+
+import lombok.experimental.UtilityClass;
+
+import jcompute.core.util.concurrent.Parallelism;
+
+/**
+ * Minimal-change (Gray code) orders, where consecutive tuples differ by a single small change,
+ * which is reported to a {@link DeltaVisitor}. Hence scores can be maintained incrementally,
+ * rather than recomputed per tuple.
+ * <ul>
+ * <li>subsets of {@code {0, 1, ..., n-1}} as bitmasks in binary reflected Gray code order,
+ * where each step adds or removes one element</li>
+ * <li>k-combinations {@code c[0] < c[1] < ... < c[k-1]} in revolving door order,
+ * where each step removes one element and adds another</li>
+ * <li>permutations of {@code {0, 1, ..., n-1}} in Steinhaus-Johnson-Trotter order,
+ * where each step swaps two adjacent positions</li>
+ * </ul>
+ * Each order can be ranked and unranked, hence split into chunks, that are visited independently
+ * (see {@link #visitChunks(Parallelism, long, ChunkVisitor)}):
+ * <pre>
+ * MinimalChangeOrders.visitChunks(Parallelism.common(), count, (start, end)-&gt;{
+ *     var c = MinimalChangeOrders.unrank_revdoor(n, start, new int[k]);
+ *     var scorer = new Scorer(c); // full evaluation, once per chunk
+ *     MinimalChangeOrders.visit_revdoor(n, k, start, end, (rank, out, in)-&gt;scorer.swap(out, in));
+ * });
+ * </pre>
+ */
+@UtilityClass
+public class MinimalChangeOrders {
+
+    /**
+     * Lower bound for the number of tuples per chunk,
+     * below which parallel visiting does not pay off.
+     */
+    private final static long MIN_CHUNK_SIZE = 1L << 12;
+
+    @FunctionalInterface
+    public interface DeltaVisitor {
+        /**
+         * Called per step, once the current tuple was changed into the one with given rank.
+         * @param rank - rank of the (new) current tuple
+         * @param out - the removed element (-1 if none), or for permutations the lower of both swapped positions
+         * @param in - the added element (-1 if none), or for permutations the upper of both swapped positions
+         */
+        void step(long rank, int out, int in);
+    }
+
+    @FunctionalInterface
+    public interface ChunkVisitor {
+        void visit(long startInclusive, long endExclusive);
+    }
+
+    /**
+     * Splits the rank range {@code 0..count-1} into chunks, which are visited in parallel within given {@link Parallelism},
+     * where each chunk counts as a task.
+     */
+    public void visitChunks(final Parallelism parallelism, final long count, final ChunkVisitor chunkVisitor) {
+        final long chunkCount = count<=MIN_CHUNK_SIZE
+                ? (count==0 ? 0 : 1)
+                : Math.min(16L * parallelism.pool().getParallelism(), count / MIN_CHUNK_SIZE);
+        parallelism.run(()->LongStream.range(0, chunkCount)
+            .parallel()
+            .forEach(chunk->parallelism.task(()->chunkVisitor.visit(
+                    chunkStart(count, chunkCount, chunk),
+                    chunkStart(count, chunkCount, chunk + 1)))));
+    }
+
+    // -- GRAY CODE
+
+    /**
+     * Number of subsets of n elements, that is {@code 2^n}.
+     * @param n - must be within {@code [0, 62]}
+     */
+    public long count_gray(final int n) {
+        if(n<0 || n>62) throw new IllegalArgumentException("n (%d) must be within [0, 62]".formatted(n));
+        return 1L << n;
+    }
+
+    /**
+     * Bitmask of the subset with given rank in binary reflected Gray code order.
+     */
+    public long unrank_gray(final long rank) {
+        return rank ^ (rank >>> 1);
+    }
+
+    /**
+     * Inverse of {@link #unrank_gray(long)}.
+     */
+    public long rank_gray(final long mask) {
+        long rank = mask;
+        for (int shift = 1; shift < Long.SIZE; shift <<= 1) {
+            rank ^= rank >>> shift;
+        }
+        return rank;
+    }
+
+    /**
+     * Starting with the subset of rank {@code startRank} (not reported), steps through the subsets
+     * of rank {@code startRank+1 ..endRank-1}, where each step adds or removes a single element.
+     */
+    public void visit_gray(final int n, final long startRank, final long endRank, final DeltaVisitor deltaVisitor) {
+        checkRange(startRank, endRank, count_gray(n));
+        long mask = unrank_gray(startRank);
+        for (long rank = startRank + 1; rank < endRank; rank++) {
+            // the bit flipped from rank-1 to rank is the lowest set bit of rank
+            final int element = Long.numberOfTrailingZeros(rank);
+            mask ^= 1L << element;
+            if((mask & (1L << element))!=0) {
+                deltaVisitor.step(rank, -1, element);
+            } else {
+                deltaVisitor.step(rank, element, -1);
+            }
+        }
+    }
+
+    // -- REVOLVING DOOR
+
+    /**
+     * Number of k-combinations of n elements, that is {@code binomial(n, k)}.
+     */
+    public long count_revdoor(final int n, final int k) {
+        if(n<0) throw new IllegalArgumentException("n (%d) must be non-negative".formatted(n));
+        if(k<0 || k>n) throw new IllegalArgumentException("k (%d) must be within [0, %d]".formatted(k, n));
+        return Combinations.binomialAsLongValueExact(n, k);
+    }
+
+    /**
+     * Revolving door rank of given combination {@code c[0] < c[1] < ... < c[k-1]},
+     * that is {@code sum (-1)^(k-i) * (binomial(c[i-1]+1, i) - 1)} for {@code i = 1..k}.
+     */
+    public long rank_revdoor(final int[] c) {
+        final int k = c.length;
+        long rank = 0L;
+        for (int i = 1; i <= k; i++) {
+            final long term = Combinations.binomialAsLongValueExact(c[i - 1] + 1, i) - 1;
+            rank += ((k - i) & 1)==0
+                    ? term
+                    : -term;
+        }
+        return rank;
+    }
+
+    /**
+     * Inverse of {@link #rank_revdoor(int[])}, writes the combination with given revolving door rank into
+     * {@code c[0] < c[1] < ... < c[k-1]}, where {@code k = c.length}.
+     * @param n - number of elements to choose from
+     * @return c
+     */
+    public int[] unrank_revdoor(final int n, final long rank, final int[] c) {
+        final int k = c.length;
+        checkRange(rank, rank + 1, count_revdoor(n, k));
+        long r = rank;
+        int x = n;
+        for (int i = k; i > 0; i--) {
+            while(Combinations.binomialAsLongValueExact(x, i) > r) --x;
+            c[i - 1] = x;
+            r = Combinations.binomialAsLongValueExact(x + 1, i) - r - 1;
+        }
+        return c;
+    }
+
+    /**
+     * Starting with the combination of rank {@code startRank} (not reported), steps through the combinations
+     * of rank {@code startRank+1 ..endRank-1}, where each step removes one element and adds another.
+     */
+    public void visit_revdoor(final int n, final int k, final long startRank, final long endRank,
+            final DeltaVisitor deltaVisitor) {
+        checkRange(startRank, endRank, count_revdoor(n, k));
+        // 1-based elements t[1..k], with sentinels t[0] (unused) and t[k+1] = n+1
+        final int[] t = new int[k + 2];
+        final int[] c = unrank_revdoor(n, startRank, new int[k]);
+        for (int i = 0; i < k; i++) {
+            t[i + 1] = c[i] + 1;
+        }
+        t[k + 1] = n + 1;
+        for (long rank = startRank + 1; rank < endRank; rank++) {
+            int j = 1;
+            while(j <= k && t[j] == j) ++j;
+            final int out;
+            final int in;
+            if(((k - j) & 1)!=0) {
+                if(j==1) {
+                    out = t[1];
+                    in = --t[1];
+                } else if(j==2) {
+                    // {1} -> {2}
+                    t[1] = 2;
+                    out = 1;
+                    in = 2;
+                } else {
+                    // {.., j-2, j-1} -> {.., j-1, j}
+                    t[j - 1] = j;
+                    t[j - 2] = j - 1;
+                    out = j - 2;
+                    in = j;
+                }
+            } else if(t[j + 1] != t[j] + 1) {
+                // {j-1, t_j} -> {t_j, t_j+1}, where j-1 is absent for j==1
+                out = j==1 ? t[1] : j - 1;
+                in = t[j] + 1;
+                t[j - 1] = t[j];
+                t[j] = t[j] + 1;
+            } else {
+                // {t_j, t_j+1} -> {j, t_j}
+                out = t[j] + 1;
+                in = j;
+                t[j + 1] = t[j];
+                t[j] = j;
+            }
+            deltaVisitor.step(rank, out - 1, in - 1);
+        }
+    }
+
+    // -- STEINHAUS-JOHNSON-TROTTER
+
+    /**
+     * Number of permutations of n elements, that is {@code n!}.
+     * @param n - must be within {@code [0, 20]}
+     */
+    public long count_sjt(final int n) {
+        if(n<0 || n>20) throw new IllegalArgumentException("n (%d) must be within [0, 20]".formatted(n));
+        long count = 1L;
+        for (int i = 2; i <= n; i++) {
+            count *= i;
+        }
+        return count;
+    }
+
+    /**
+     * Steinhaus-Johnson-Trotter rank of given permutation of {@code {0, 1, ..., n-1}}.
+     */
+    public long rank_sjt(final int[] perm) {
+        final int n = perm.length;
+        long rank = 0L;
+        for (int j = 2; j <= n; j++) {
+            // k: 1-based position of element j among the elements 1..j
+            int k = 1;
+            for (int i = 0; perm[i] + 1 != j; i++) {
+                if(perm[i] + 1 < j) ++k;
+            }
+            rank = (rank & 1)==0
+                    ? j * rank + j - k
+                    : j * rank + k - 1;
+        }
+        return rank;
+    }
+
+    /**
+     * Inverse of {@link #rank_sjt(int[])}, writes the permutation with given rank into perm,
+     * where {@code n = perm.length}.
+     * @return perm
+     */
+    public int[] unrank_sjt(final long rank, final int[] perm) {
+        final int n = perm.length;
+        final long count = count_sjt(n);
+        checkRange(rank, rank + 1, count);
+        if(n==0) return perm;
+        // 1-based elements, inserted one by one
+        perm[0] = 1;
+        long r2 = 0;
+        long jFactorial = 1;
+        for (int j = 2; j <= n; j++) {
+            jFactorial *= j;
+            final long r1 = rank / (count / jFactorial);
+            final int k = (int)(r1 - j * r2);
+            final int position = (r2 & 1)==0
+                    ? j - 1 - k
+                    : k;
+            System.arraycopy(perm, position, perm, position + 1, j - 1 - position);
+            perm[position] = j;
+            r2 = r1;
+        }
+        for (int i = 0; i < n; i++) {
+            --perm[i];
+        }
+        return perm;
+    }
+
+    /**
+     * Starting with the permutation of rank {@code startRank} (not reported), steps through the permutations
+     * of rank {@code startRank+1 ..endRank-1}, where each step swaps the adjacent positions {@code (out, in = out+1)}.
+     */
+    public void visit_sjt(final int n, final long startRank, final long endRank, final DeltaVisitor deltaVisitor) {
+        final long count = count_sjt(n);
+        checkRange(startRank, endRank, count);
+        final int[] perm = unrank_sjt(startRank, new int[n]);
+        final int[] position = new int[n];
+        for (int i = 0; i < n; i++) {
+            position[perm[i]] = i;
+        }
+        // direction of each element (-1 left, +1 right), element e moves left while the rank of the
+        // permutation of the elements 0..e-1 is even (as during unranking)
+        final int[] direction = new int[n];
+        long factorial = 1;
+        for (int e = 1; e < n; e++) {
+            factorial *= e;
+            final long subRank = startRank / (count / factorial);
+            direction[e] = (subRank & 1)==0 ? -1 : 1;
+        }
+        for (long rank = startRank + 1; rank < endRank; rank++) {
+            // largest mobile element, that is, its neighbour in its direction is smaller
+            int mobile = n - 1;
+            while(mobile > 0) {
+                final int neighbour = position[mobile] + direction[mobile];
+                if(neighbour >= 0
+                        && neighbour < n
+                        && perm[neighbour] < mobile) break;
+                --mobile;
+            }
+            final int from = position[mobile];
+            final int to = from + direction[mobile];
+            final int other = perm[to];
+            perm[to] = mobile;
+            perm[from] = other;
+            position[mobile] = to;
+            position[other] = from;
+            for (int e = mobile + 1; e < n; e++) {
+                direction[e] = -direction[e];
+            }
+            deltaVisitor.step(rank, Math.min(from, to), Math.max(from, to));
+        }
+    }
+
+    // -- HELPER
+
+    private long chunkStart(final long count, final long chunkCount, final long chunk) {
+        final long baseSize = count / chunkCount;
+        final long remainder = count % chunkCount;
+        return chunk * baseSize + Math.min(chunk, remainder);
+    }
+
+    private void checkRange(final long startRank, final long endRank, final long count) {
+        if(startRank<0
+                || startRank>endRank
+                || endRank>count) throw new IllegalArgumentException(
+                        "rank range [%d, %d) out of bounds for count %d".formatted(startRank, endRank, count));
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+///Cooperative cancellation token for {@link IndexSpace} visits, see {@link IndexSpace.Visiting#withCancellation(Cancellation)}.
+///
+///A visit checks the token before descending into a branch at depth `0..checkDepth`,
+///where depth `d` is the position of the index within the tuple.
+///Hence a larger check depth reacts faster, at the cost of more frequent checks.
+///Once a branch at depth `checkDepth` was entered, it is visited to completion,
+///so the check depth should be chosen such that those branches are reasonably small.
+///
+///Once cancelled, either explicitly via {@link #cancel()} or because its timeout elapsed,
+///`forEach` returns early without having visited all tuples,
+///while `findAny` and `findFirst` return empty, unless a match was found before.
+///
+///Example:
+/// ```
+///  // search for at most 10 seconds
+///  var cancellation = Cancellation.timeout(Duration.ofSeconds(10));
+///  var found = indexSpace.findAny(Visiting.parallel().withCancellation(cancellation), v->isWitness(v));
+///  if(found.isEmpty() && cancellation.isCancelled()) {
+///      // timed out, search was not exhaustive
+///  }
+/// ```
+public final class Cancellation {
+
+    /// Checks once per index of the first two dimensions.
+    public static final int DEFAULT_CHECK_DEPTH = 1;
+
+    private static final Cancellation NONE = new Cancellation(false, DEFAULT_CHECK_DEPTH, 0L);
+
+    private final boolean cancellable;
+    /// max depth (inclusive) at which visits check this token
+    @Getter @Accessors(fluent = true) private final int checkDepth;
+    /// {@link System#nanoTime()} based, 0 if there is no timeout
+    private final long deadline;
+    private volatile boolean cancelled;
+
+    private Cancellation(final boolean cancellable, final int checkDepth, final long deadline) {
+        if(checkDepth<0) throw new IllegalArgumentException("checkDepth (%d) must be non-negative".formatted(checkDepth));
+        this.cancellable = cancellable;
+        this.checkDepth = checkDepth;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Never cancelled, the default for {@link IndexSpace.Visiting}.
+     */
+    public static Cancellation none() {
+        return NONE;
+    }
+
+    /**
+     * Cancelled only explicitly via {@link #cancel()}.
+     */
+    public static Cancellation create() {
+        return create(DEFAULT_CHECK_DEPTH);
+    }
+
+    /**
+     * Cancelled only explicitly via {@link #cancel()}.
+     * @param checkDepth - max depth (inclusive) at which visits check this token
+     */
+    public static Cancellation create(final int checkDepth) {
+        return new Cancellation(true, checkDepth, 0L);
+    }
+
+    /**
+     * Cancelled once given timeout elapsed (counting from now), or explicitly via {@link #cancel()}.
+     */
+    public static Cancellation timeout(final Duration timeout) {
+        return timeout(timeout, DEFAULT_CHECK_DEPTH);
+    }
+
+    /**
+     * Cancelled once given timeout elapsed (counting from now), or explicitly via {@link #cancel()}.
+     * @param checkDepth - max depth (inclusive) at which visits check this token
+     */
+    public static Cancellation timeout(final Duration timeout, final int checkDepth) {
+        if(timeout.isNegative()) throw new IllegalArgumentException("timeout (%s) must not be negative".formatted(timeout));
+        // a deadline of 0 means none
+        return new Cancellation(true, checkDepth, (System.nanoTime() + timeout.toNanos()) | 1L);
+    }
+
+    /**
+     * Requests cancellation, honored by all (current and future) visits using this token.
+     * @throws UnsupportedOperationException for {@link #none()}
+     */
+    public void cancel() {
+        if(!cancellable) throw new UnsupportedOperationException("Cancellation.none() cannot be cancelled");
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        if(cancelled) return true;
+        if(deadline!=0L
+                && System.nanoTime() - deadline >= 0) {
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+
+    // -- HELPER
+
+    /**
+     * Max depth at which {@code forEach} visits need to check this token, -1 if never cancelled.
+     */
+    int visitCheckDepth() {
+        return cancellable
+                ? checkDepth
+                : -1;
+    }
+
+}
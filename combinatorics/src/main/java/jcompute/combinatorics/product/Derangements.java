@@ -0,0 +1,160 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+/**
+ * Derangements of {@code {0, 1, ..., n-1}}, that is permutations without fixed points ({@code v[i] != i}),
+ * in lexicographic order.
+ * <p>
+ * Ranking counts completions: with r positions left to fill, m of which still have their own element available
+ * (hence must avoid it), there are {@code D(r, m) = sum (-1)^j * binomial(m, j) * (r-j)!} completions,
+ * computed via {@code D(r, m) = D(r, m-1) - D(r-1, m-1)}.
+ * @param n - must be within {@code [0, 20]}
+ */
+public record Derangements(int n) implements RankedTuples {
+
+    public Derangements {
+        if(n<0 || n>20) throw new IllegalArgumentException("n (%d) must be within [0, 20]".formatted(n));
+    }
+
+    @Override public long count() { return completions(n, n); }
+    @Override public int tupleLength() { return n; }
+
+    @Override
+    public long rank(final int[] v) {
+        int used = 0;
+        long rank = 0L;
+        for (int p = 0; p < n; p++) {
+            for (int c = 0; c < v[p]; c++) {
+                if(isSet(used, c) || c == p) continue;
+                rank += completionsAfter(used, p, c);
+            }
+            used |= 1 << v[p];
+        }
+        return rank;
+    }
+
+    @Override
+    public int[] unrank(final long rank, final int[] v) {
+        Permutations.checkRank(rank, count());
+        int used = 0;
+        long r = rank;
+        for (int p = 0; p < n; p++) {
+            for (int c = 0; c < n; c++) {
+                if(isSet(used, c) || c == p) continue;
+                final long completions = completionsAfter(used, p, c);
+                if(r < completions) {
+                    v[p] = c;
+                    used |= 1 << c;
+                    break;
+                }
+                r -= completions;
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Finds the rightmost position, whose element can be replaced by a larger one of the suffix,
+     * such that the remaining positions can still be deranged, then fills those with their smallest completion.
+     * Allocation free, sets of elements are bitmasks (as {@code n <= 20}).
+     */
+    @Override
+    public boolean next(final int[] v) {
+        int available = 0;
+        for (int p = n - 1; p >= 0; p--) {
+            available |= 1 << v[p];
+            // available elements larger than v[p], except p itself
+            int candidates = available & (-2 << v[p]) & ~(1 << p);
+            while(candidates != 0) {
+                final int c = Integer.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                final int remaining = available & ~(1 << c);
+                if(isCompletable(remaining, p + 1)) {
+                    v[p] = c;
+                    fillSmallest(v, remaining, p + 1);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // -- HELPER
+
+    private static boolean isSet(final int bits, final int i) {
+        return (bits & (1 << i)) != 0;
+    }
+
+    /**
+     * Number of completions of positions {@code p+1..n-1}, once element c was put at position p.
+     */
+    private long completionsAfter(final int used, final int p, final int c) {
+        int m = 0;
+        for (int i = p + 1; i < n; i++) {
+            if(!isSet(used, i) && i != c) ++m;
+        }
+        return completions(n - 1 - p, m);
+    }
+
+    /**
+     * Whether the available elements can be put at positions {@code from..n-1} without fixed points,
+     * which fails only if a single position is left, and its own element is the one available.
+     */
+    private boolean isCompletable(final int available, final int from) {
+        return from != n - 1
+                || !isSet(available, n - 1);
+    }
+
+    /**
+     * Puts the smallest available element (other than its own) at each position,
+     * unless that leaves the last position with its own element, in which case the second smallest.
+     */
+    private void fillSmallest(final int[] v, final int available, final int from) {
+        int remaining = available;
+        for (int p = from; p < n; p++) {
+            int candidates = remaining & ~(1 << p);
+            int c = Integer.numberOfTrailingZeros(candidates);
+            if(!isCompletable(remaining & ~(1 << c), p + 1)) {
+                candidates &= candidates - 1;
+                c = Integer.numberOfTrailingZeros(candidates);
+            }
+            v[p] = c;
+            remaining &= ~(1 << c);
+        }
+    }
+
+    /**
+     * {@code D(r, m)}, the number of permutations of r elements, where m given ones must not stay in place.
+     */
+    static long completions(final int r, final int m) {
+        // D(r, 0) = r!, D(r, m) = D(r, m-1) - D(r-1, m-1)
+        final long[] d = new long[r + 1];
+        for (int i = 0; i <= r; i++) {
+            d[i] = Permutations.factorial(i);
+        }
+        for (int j = 1; j <= m; j++) {
+            for (int i = r; i >= j; i--) {
+                d[i] -= d[i - 1];
+            }
+        }
+        return d[r];
+    }
+
+}
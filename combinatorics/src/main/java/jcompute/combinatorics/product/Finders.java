@@ -0,0 +1,112 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.jspecify.annotations.Nullable;
+
+import lombok.experimental.UtilityClass;
+
+import jcompute.combinatorics.product.IndexSpace.Visiting;
+
+///Short-circuiting `findAny` and `findFirst`, shared by the {@link IndexSpace} implementations.
+///
+///Searches are split into branches (tasks), one per index of the first dimension, which run concurrently
+///as controlled by {@link Visiting}. Each branch is searched sequentially (in visiting order) by a {@link BranchFinder},
+///which checks the given stop condition at depth `1..checkDepth` (see {@link Cancellation#checkDepth()}).
+@UtilityClass
+class Finders {
+
+    @FunctionalInterface
+    interface BranchFinder {
+        /**
+         * Searches the branch, where the first index is {@code i}.
+         * @param stop - to be checked at depth {@code 1..checkDepth}, when {@code true} the search is to be abandoned
+         * @return the first match within the branch, or {@code null} if none was found or the search was abandoned
+         */
+        @Nullable int[] find(int i, BooleanSupplier stop);
+    }
+
+    /**
+     * Once any branch found a match, all others stop.
+     */
+    Optional<int[]> findAny(final Visiting visiting, final int n0, final BranchFinder finder) {
+        final Cancellation cancellation = visiting.cancellation();
+        final AtomicBoolean found = new AtomicBoolean();
+        final BooleanSupplier stop = ()->found.get() || cancellation.isCancelled();
+        return visiting.invoke(()->visiting
+            .mapToObj(n0, i->{
+                if(stop.getAsBoolean()) return null;
+                final int[] match = finder.find(i, stop);
+                if(match!=null) {
+                    found.set(true);
+                }
+                return match;
+            })
+            .filter(Objects::nonNull)
+            .findAny());
+    }
+
+    /**
+     * Finds the first match in visiting order, which is the lexicographically smallest.
+     * Once a branch found a match, all branches with a higher index stop,
+     * while those with a lower index continue.
+     */
+    Optional<int[]> findFirst(final Visiting visiting, final int n0, final BranchFinder finder) {
+        final Cancellation cancellation = visiting.cancellation();
+        // lowest branch index with a match so far
+        final AtomicInteger firstBranch = new AtomicInteger(Integer.MAX_VALUE);
+        return visiting.invoke(()->visiting
+            .mapToObj(n0, i->{
+                final BooleanSupplier stop = ()->firstBranch.get() < i || cancellation.isCancelled();
+                if(stop.getAsBoolean()) return null;
+                final int[] match = finder.find(i, stop);
+                if(match!=null) {
+                    firstBranch.accumulateAndGet(i, Math::min);
+                }
+                return match;
+            })
+            .filter(Objects::nonNull)
+            .findFirst());
+    }
+
+    /**
+     * Whether {@code tuple} is known and precedes any tuple starting with given prefix (in visiting order).
+     */
+    boolean precedes(final @Nullable int[] tuple, final int[] prefix) {
+        return tuple!=null
+                && Arrays.compare(tuple, 0, prefix.length, prefix, 0, prefix.length) < 0;
+    }
+
+    /**
+     * Lexicographically smaller of both, where {@code null} counts as largest.
+     */
+    int[] first(final @Nullable int[] a, final int[] b) {
+        return a==null || Arrays.compare(b, a) < 0
+                ? b
+                : a;
+    }
+
+}
@@ -20,10 +20,14 @@ package jcompute.combinatorics.product;
 
 import java.math.BigInteger;
 import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import jcompute.core.util.concurrent.Parallelism;
 import jcompute.core.util.function.MultiIntConsumer;
 import jcompute.core.util.function.MultiIntPredicate;
 import jcompute.core.util.function.PrefixedMultiIntConsumer;
@@ -39,15 +43,39 @@ import jcompute.core.util.function.PrefixedMultiIntConsumer;
 ///  var indexSpace = IndexSpace.create(3, 2);
 ///  indexSpace.forEachSequential(tuple->System.out.println("tuple: %d, %d".formatted(tuple[0], tuple[1])));
 /// ```
-///Caveats / Future Work:
-///- no branch filtering
 public interface IndexSpace {
 
     enum IndexOrder {
         /// Unconstraint, meaning all tuples are considered.
         ANY,
         /// Only tuples are considered, where index<sub>0</sub> < index<sub>1</sub> < ...
-        ASCENDING;
+        ASCENDING,
+        /// Only tuples are considered, where index<sub>0</sub> > index<sub>1</sub> > ...
+        DESCENDING,
+        /// Only tuples are considered, where index<sub>0</sub> <= index<sub>1</sub> <= ...
+        ///
+        /// (For equal index ranges, these are the multisets, also known as combinations with repetition.)
+        NON_DECREASING;
+
+        /**
+         * Lower bound (inclusive) of an index, that follows given preceding index.
+         */
+        int lowerBound(final int precedingIndex) {
+            return switch (this) {
+                case ANY, DESCENDING -> 0;
+                case ASCENDING -> precedingIndex + 1;
+                case NON_DECREASING -> precedingIndex;
+            };
+        }
+
+        /**
+         * Upper bound (exclusive) of an index with given range, that follows given preceding index.
+         */
+        int upperBound(final int precedingIndex, final int range) {
+            return this == DESCENDING
+                ? Math.min(precedingIndex, range)
+                : range;
+        }
     }
 
     enum Concurrency {
@@ -66,16 +94,56 @@ public interface IndexSpace {
         abstract IntStream range(int upperExclusive);
     }
 
-    public record Visiting(IndexOrder indexOrder, Concurrency concurrency) {
+    /**
+     * @param cancellation - checked by {@code forEach}, {@code findAny} and {@code findFirst},
+     *      see {@link Cancellation}
+     * @param parallelism - the pool {@link Concurrency#PARALLEL} visits run in, also collecting statistics (if any),
+     *      where each index of the first dimension counts as a task
+     */
+    public record Visiting(IndexOrder indexOrder, Concurrency concurrency, Cancellation cancellation, Parallelism parallelism) {
+        public Visiting(final IndexOrder indexOrder, final Concurrency concurrency) {
+            this(indexOrder, concurrency, Cancellation.none(), Parallelism.common());
+        }
         public static Visiting sequential() {
             return new Visiting(IndexOrder.ANY, Concurrency.SEQUENTIAL);
         }
         public static Visiting parallel() {
             return new Visiting(IndexOrder.ANY, Concurrency.PARALLEL);
         }
+        public Visiting withCancellation(final Cancellation cancellation) {
+            return new Visiting(indexOrder, concurrency, cancellation, parallelism);
+        }
+        public Visiting withParallelism(final Parallelism parallelism) {
+            return new Visiting(indexOrder, concurrency, cancellation, parallelism);
+        }
         public IntStream range(final int upperExclusive) {
             return concurrency.range(upperExclusive);
         }
+        /**
+         * Runs given action for each index {@code 0..upperExclusive-1} as a task, honoring {@link Concurrency}
+         * and {@link Parallelism}.
+         */
+        public void forEach(final int upperExclusive, final IntConsumer action) {
+            invoke(()->{
+                range(upperExclusive).forEach(i->parallelism.task(()->action.accept(i)));
+                return null;
+            });
+        }
+        /**
+         * Maps each index {@code 0..upperExclusive-1} as a task, honoring {@link Concurrency}.
+         * (To also honor {@link Parallelism}, the terminal operation is to be run via {@link #invoke(Supplier)}.)
+         */
+        public <T> Stream<T> mapToObj(final int upperExclusive, final IntFunction<T> mapper) {
+            return range(upperExclusive).mapToObj(i->parallelism.task(()->mapper.apply(i)));
+        }
+        /**
+         * Runs given terminal operation within the pool of {@link #parallelism()}, if {@link Concurrency#PARALLEL}.
+         */
+        public <T> T invoke(final Supplier<T> terminalOperation) {
+            return concurrency==Concurrency.PARALLEL
+                ? parallelism.call(terminalOperation)
+                : terminalOperation.get();
+        }
     }
 
     /**
@@ -93,27 +161,81 @@ public interface IndexSpace {
 
     /**
      * Visits all distinct tuples honoring given {@link IndexOrder}.
+     * Returns early, once given {@link Visiting#cancellation()} is cancelled.
      */
     void forEach(Visiting visiting, MultiIntConsumer intConsumer);
     /**
      * Visits all distinct tuples, that pass given branchFilter also honoring given {@link IndexOrder}.
+     * Returns early, once given {@link Visiting#cancellation()} is cancelled.
      */
     void forEach(Visiting visiting, MultiIntPredicate branchFilter, MultiIntConsumer intConsumer);
 
     /**
      * Streams all distinct tuples, honoring given {@link IndexOrder}.
+     * (To run in the pool of {@link Visiting#parallelism()}, the terminal operation is to be run via
+     * {@link Visiting#invoke(Supplier)}.)
      */
     Stream<int[]> stream(Visiting visiting);
 
     /**
-     * Creates a collector for each possible integer of the first dimension, then streams them after they passed given prefixedIntConsumer.
+     * Creates a collector for each possible integer of the first dimension, then streams them after they passed given prefixedIntConsumer,
+     * honoring given {@link IndexOrder}.
+     * (To run in the pool of {@link Visiting#parallelism()}, the terminal operation is to be run via
+     * {@link Visiting#invoke(Supplier)}.)
      */
-    <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer);
+    <T> Stream<T> streamCollectors(Visiting visiting, IntFunction<T> collectorFactory, PrefixedMultiIntConsumer<T> prefixedIntConsumer);
 
     /**
-     * Visits up to all distinct tuples, optionally returning any that matches given predicate.
+     * Visits up to all distinct tuples honoring given {@link IndexOrder},
+     * optionally returning any that matches given predicate.
+     * <p>
+     * Once a match was found, concurrent branches stop at their next check (see {@link Cancellation#checkDepth()}).
+     * Returns empty, if given {@link Visiting#cancellation()} was cancelled before a match was found.
+     */
+    Optional<int[]> findAny(Visiting visiting, MultiIntPredicate intPredicate);
+    /**
+     * Visits up to all distinct tuples honoring given {@link IndexOrder},
+     * optionally returning the first (that is, the lexicographically smallest) that matches given predicate.
+     * <p>
+     * Once a match was found, concurrent branches with a higher first index stop at their next check
+     * (see {@link Cancellation#checkDepth()}), while those with a lower first index continue.
+     * Returns empty, if given {@link Visiting#cancellation()} was cancelled before a match was found.
      */
-    Optional<int[]> findAny(MultiIntPredicate intPredicate);
+    Optional<int[]> findFirst(Visiting visiting, MultiIntPredicate intPredicate);
+
+    /**
+     * Mutable reduction over all distinct tuples honoring given {@link IndexOrder}, where each worker thread
+     * accumulates into its own accumulator, finally combined pairwise (in a tree).
+     * <p>
+     * Accumulators are typically mutable containers of primitives (e.g. {@code long[]} counters or histograms),
+     * such that accumulation does not box. The tuple passed to the accumulator is only valid during the call.
+     * (Does not honor {@link Visiting#cancellation()}.)
+     * @param accumulatorFactory - creates a fresh accumulator, called once per worker thread
+     * @param accumulator - adds a tuple to an accumulator
+     * @param combiner - combines two accumulators, may return either of them after merging the other into it
+     */
+    default <A> A reduce(
+            final Visiting visiting,
+            final Supplier<A> accumulatorFactory,
+            final PrefixedMultiIntConsumer<A> accumulator,
+            final BinaryOperator<A> combiner) {
+        return Reducers.reduce(this, visiting, accumulatorFactory, accumulator, combiner);
+    }
+
+    /**
+     * Number of distinct tuples honoring given {@link IndexOrder}, that match given predicate.
+     */
+    default long count(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return reduce(visiting,
+                ()->new long[1],
+                (count, v)->{
+                    if(intPredicate.test(v)) ++count[0];
+                },
+                (a, b)->{
+                    a[0] += b[0];
+                    return a;
+                })[0];
+    }
 
     // -- SHORTCUTS
 
@@ -135,6 +257,22 @@ public interface IndexSpace {
     default Stream<int[]> streamParallel() {
         return stream(Visiting.parallel());
     }
+    default <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+        return streamCollectors(Visiting.parallel(), collectorFactory, prefixedIntConsumer);
+    }
+    default Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
+        return findAny(Visiting.parallel(), intPredicate);
+    }
+    default Optional<int[]> findFirst(final MultiIntPredicate intPredicate) {
+        return findFirst(Visiting.parallel(), intPredicate);
+    }
+    default <A> A reduce(final Supplier<A> accumulatorFactory, final PrefixedMultiIntConsumer<A> accumulator,
+            final BinaryOperator<A> combiner) {
+        return reduce(Visiting.parallel(), accumulatorFactory, accumulator, combiner);
+    }
+    default long count(final MultiIntPredicate intPredicate) {
+        return count(Visiting.parallel(), intPredicate);
+    }
 
     // -- FACTORY
 
@@ -155,10 +293,8 @@ public interface IndexSpace {
                 dim[5], dim[6]);
             case 8 -> new IndexSpace8(dim[0], dim[1], dim[2], dim[3], dim[4],
                 dim[5], dim[6], dim[7]);
-//            case 8 -> new IndexSpaceComposite(
-//                new IndexSpace3(dim[0], dim[1], dim[2]),
-//                new IndexSpace5(dim[3], dim[4], dim[5], dim[6], dim[7]));
-            default -> new IndexSpaceN(dim);
+            // composed of unrolled blocks
+            default -> IndexSpaceComposite.of(dim);
         };
     }
 
@@ -54,12 +54,17 @@ record IndexSpace0() implements IndexSpace {
     }
 
     @Override
-    public <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+    public <T> Stream<T> streamCollectors(final Visiting visiting, final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
         return Stream.empty();
     }
 
     @Override
-    public Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
+    public Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<int[]> findFirst(final Visiting visiting, final MultiIntPredicate intPredicate) {
         return Optional.empty();
     }
 
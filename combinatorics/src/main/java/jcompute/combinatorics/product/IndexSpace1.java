@@ -20,7 +20,9 @@ package jcompute.combinatorics.product;
 
 import java.math.BigInteger;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 import java.util.stream.Gatherer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -29,7 +31,7 @@ import jcompute.core.util.function.MultiIntConsumer;
 import jcompute.core.util.function.MultiIntPredicate;
 import jcompute.core.util.function.PrefixedMultiIntConsumer;
 
-record IndexSpace1(int n0) implements IndexSpace {
+record IndexSpace1(int n0) implements IndexSpaceBlock {
 
     @Override public int indexCount() { return 1; }
     @Override public BigInteger cardinality() { return BigInteger.valueOf(n0); }
@@ -41,14 +43,20 @@ record IndexSpace1(int n0) implements IndexSpace {
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntConsumer intConsumer) {
-        visiting.range(n0).forEach(i->{
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        visiting.forEach(n0, i->{
+            if(checkDepth>=0 && cancellation.isCancelled()) return;
             intConsumer.accept(i);
         });
     }
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntPredicate branchFilter, final MultiIntConsumer intConsumer) {
-        visiting.range(n0).forEach(i->{
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        visiting.forEach(n0, i->{
+            if(checkDepth>=0 && cancellation.isCancelled()) return;
             if(branchFilter.test(i)) intConsumer.accept(i);
         });
     }
@@ -61,8 +69,9 @@ record IndexSpace1(int n0) implements IndexSpace {
     }
 
     @Override
-    public <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
-        return Concurrency.PARALLEL.range(n0).mapToObj(i->{
+    public <T> Stream<T> streamCollectors(final Visiting visiting, final IntFunction<T> collectorFactory,
+            final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+        return visiting.mapToObj(n0, i->{
             T t = collectorFactory.apply(i);
             prefixedIntConsumer.accept(t, i);
             return t;
@@ -70,11 +79,89 @@ record IndexSpace1(int n0) implements IndexSpace {
     }
 
     @Override
-    public Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
-        return Concurrency.PARALLEL.range(n0)
-            .filter(intPredicate::test)
-            .mapToObj(i->new int[] {i})
-            .findAny();
+    public Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findAny(visiting, n0, finder(visiting, intPredicate));
+    }
+
+    @Override
+    public Optional<int[]> findFirst(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findFirst(visiting, n0, finder(visiting, intPredicate));
+    }
+
+    private Finders.BranchFinder finder(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return (i, stop)->intPredicate.test(i)
+            ? new int[] {i}
+            : null;
+    }
+
+    // -- BLOCK
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    if(!onTuple.getAsBoolean()) return false;
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    if(!onTuple.getAsBoolean()) return false;
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    if(!onTuple.getAsBoolean()) return false;
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    if(!onTuple.getAsBoolean()) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final IntPredicate prefixFilter, final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)
+                            && !onTuple.getAsBoolean()) return false;
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)
+                            && !onTuple.getAsBoolean()) return false;
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)
+                            && !onTuple.getAsBoolean()) return false;
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)
+                            && !onTuple.getAsBoolean()) return false;
+                }
+            }
+        }
+        return true;
     }
 
 }
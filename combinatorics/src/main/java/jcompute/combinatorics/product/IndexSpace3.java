@@ -19,9 +19,10 @@
 package jcompute.combinatorics.product;
 
 import java.math.BigInteger;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 import java.util.stream.Gatherer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -30,7 +31,7 @@ import jcompute.core.util.function.MultiIntConsumer;
 import jcompute.core.util.function.MultiIntPredicate;
 import jcompute.core.util.function.PrefixedMultiIntConsumer;
 
-record IndexSpace3(int n0, int n1, int n2) implements IndexSpace {
+record IndexSpace3(int n0, int n1, int n2) implements IndexSpaceBlock {
 
     @Override public int indexCount() { return 3; }
     @Override public BigInteger cardinality() {
@@ -46,24 +47,98 @@ record IndexSpace3(int n0, int n1, int n2) implements IndexSpace {
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntConsumer intConsumer) {
-        visiting.range(n0).forEach(i->{
-            for(int j=0; j<n1; ++j){
-                for(int k=0; k<n2; ++k){
-                    intConsumer.accept(i, j, k);
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        switch (visiting.indexOrder()) {
+            case ANY -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        intConsumer.accept(i, j, k);
+                    }
                 }
-            }
-        });
+            });
+            case ASCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        intConsumer.accept(i, j, k);
+                    }
+                }
+            });
+            case DESCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        intConsumer.accept(i, j, k);
+                    }
+                }
+            });
+            case NON_DECREASING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        intConsumer.accept(i, j, k);
+                    }
+                }
+            });
+        }
     }
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntPredicate branchFilter, final MultiIntConsumer intConsumer) {
-        visiting.range(n0).forEach(i->{
-            if(branchFilter.test(i)) for(int j=0; j<n1; ++j){
-                if(branchFilter.test(i, j)) for(int k=0; k<n2; ++k){
-                    if(branchFilter.test(i, j, k)) intConsumer.accept(i, j, k);
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        switch (visiting.indexOrder()) {
+            case ANY -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) intConsumer.accept(i, j, k);
+                    }
                 }
-            }
-        });
+            });
+            case ASCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) intConsumer.accept(i, j, k);
+                    }
+                }
+            });
+            case DESCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) intConsumer.accept(i, j, k);
+                    }
+                }
+            });
+            case NON_DECREASING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) intConsumer.accept(i, j, k);
+                    }
+                }
+            });
+        }
     }
 
     @Override
@@ -73,37 +148,235 @@ record IndexSpace3(int n0, int n1, int n2) implements IndexSpace {
             .gather(Gatherer.of(switch (visiting.indexOrder()) {
                 case ANY -> new Integrators.Integrator3(n1, n2);
                 case ASCENDING -> new Integrators.IntegratorAsc3(n1, n2);
+                case DESCENDING -> new Integrators.IntegratorDesc3(n1, n2);
+                case NON_DECREASING -> new Integrators.IntegratorNonDec3(n1, n2);
             }));
     }
 
     @Override
-    public <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
-        return Concurrency.PARALLEL.range(n0).mapToObj(i->{
-            T t = collectorFactory.apply(i);
-            for(int j=0; j<n1; ++j){
-                for(int k=0; k<n2; ++k){
-                    prefixedIntConsumer.accept(t, i, j, k);
+    public <T> Stream<T> streamCollectors(final Visiting visiting, final IntFunction<T> collectorFactory,
+            final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+        final IntFunction<T> collecting = switch (visiting.indexOrder()) {
+            case ANY -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=0; j<n1; ++j){
+                    for(int k=0; k<n2; ++k){
+                        prefixedIntConsumer.accept(t, i, j, k);
+                    }
                 }
-            }
-            return t;
-        });
+                return t;
+            };
+            case ASCENDING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=i+1; j<n1; ++j){
+                    for(int k=j+1; k<n2; ++k){
+                        prefixedIntConsumer.accept(t, i, j, k);
+                    }
+                }
+                return t;
+            };
+            case DESCENDING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        prefixedIntConsumer.accept(t, i, j, k);
+                    }
+                }
+                return t;
+            };
+            case NON_DECREASING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=i; j<n1; ++j){
+                    for(int k=j; k<n2; ++k){
+                        prefixedIntConsumer.accept(t, i, j, k);
+                    }
+                }
+                return t;
+            };
+        };
+        return visiting.mapToObj(n0, collecting);
     }
 
     @Override
-    public Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
-        return Concurrency.PARALLEL.range(n0)
-            .mapToObj(i->{
+    public Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findAny(visiting, n0, finder(visiting, intPredicate));
+    }
+
+    @Override
+    public Optional<int[]> findFirst(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findFirst(visiting, n0, finder(visiting, intPredicate));
+    }
+
+    private Finders.BranchFinder finder(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        final int checkDepth = visiting.cancellation().checkDepth();
+        return switch (visiting.indexOrder()) {
+            case ANY -> (i, stop)->{
                 for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
                     for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
                         if(intPredicate.test(i, j, k)) {
                             return new int[] {i, j, k};
                         }
                     }
                 }
-                return (int[]) null;
-            })
-            .filter(Objects::nonNull)
-            .findAny();
+                return null;
+            };
+            case ASCENDING -> (i, stop)->{
+                for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        if(intPredicate.test(i, j, k)) {
+                            return new int[] {i, j, k};
+                        }
+                    }
+                }
+                return null;
+            };
+            case DESCENDING -> (i, stop)->{
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        if(intPredicate.test(i, j, k)) {
+                            return new int[] {i, j, k};
+                        }
+                    }
+                }
+                return null;
+            };
+            case NON_DECREASING -> (i, stop)->{
+                for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        if(intPredicate.test(i, j, k)) {
+                            return new int[] {i, j, k};
+                        }
+                    }
+                }
+                return null;
+            };
+        };
+    }
+
+    // -- BLOCK
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=0; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=0; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(!onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=i+1; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=j+1; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(!onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    for(int j=0; j<Math.min(i, n1); ++j){
+                        v[offset+1] = j;
+                        for(int k=0; k<Math.min(j, n2); ++k){
+                            v[offset+2] = k;
+                            if(!onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=i; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=j; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(!onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final IntPredicate prefixFilter, final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=0; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=0; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)
+                                    && !onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=i+1; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=j+1; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)
+                                    && !onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=0; j<Math.min(i, n1); ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=0; k<Math.min(j, n2); ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)
+                                    && !onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=i; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=j; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)
+                                    && !onTuple.getAsBoolean()) return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
     }
 
 }
@@ -19,9 +19,10 @@
 package jcompute.combinatorics.product;
 
 import java.math.BigInteger;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 import java.util.stream.Gatherer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -30,7 +31,7 @@ import jcompute.core.util.function.MultiIntConsumer;
 import jcompute.core.util.function.MultiIntPredicate;
 import jcompute.core.util.function.PrefixedMultiIntConsumer;
 
-record IndexSpace4(int n0, int n1, int n2, int n3) implements IndexSpace {
+record IndexSpace4(int n0, int n1, int n2, int n3) implements IndexSpaceBlock {
 
     @Override public int indexCount() { return 4; }
     @Override public BigInteger cardinality() {
@@ -47,28 +48,122 @@ record IndexSpace4(int n0, int n1, int n2, int n3) implements IndexSpace {
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntConsumer intConsumer) {
-        visiting.range(n0).forEach(i->{
-            for(int j=0; j<n1; ++j){
-                for(int k=0; k<n2; ++k){
-                    for(int l=0; l<n3; ++l){
-                        intConsumer.accept(i, j, k, l);
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        switch (visiting.indexOrder()) {
+            case ANY -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        for(int l=0; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            intConsumer.accept(i, j, k, l);
+                        }
                     }
                 }
-            }
-        });
+            });
+            case ASCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        for(int l=k+1; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            intConsumer.accept(i, j, k, l);
+                        }
+                    }
+                }
+            });
+            case DESCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        for(int l=0; l<Math.min(k, n3); ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            intConsumer.accept(i, j, k, l);
+                        }
+                    }
+                }
+            });
+            case NON_DECREASING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        for(int l=k; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            intConsumer.accept(i, j, k, l);
+                        }
+                    }
+                }
+            });
+        }
     }
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntPredicate branchFilter, final MultiIntConsumer intConsumer) {
-        visiting.range(n0).forEach(i->{
-            if(branchFilter.test(i)) for(int j=0; j<n1; ++j){
-                if(branchFilter.test(i, j)) for(int k=0; k<n2; ++k){
-                    if(branchFilter.test(i, j, k)) for(int l=0; l<n3; ++l){
-                        if(branchFilter.test(i, j, k, l)) intConsumer.accept(i, j, k, l);
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        switch (visiting.indexOrder()) {
+            case ANY -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) for(int l=0; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            if(branchFilter.test(i, j, k, l)) intConsumer.accept(i, j, k, l);
+                        }
                     }
                 }
-            }
-        });
+            });
+            case ASCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) for(int l=k+1; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            if(branchFilter.test(i, j, k, l)) intConsumer.accept(i, j, k, l);
+                        }
+                    }
+                }
+            });
+            case DESCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) for(int l=0; l<Math.min(k, n3); ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            if(branchFilter.test(i, j, k, l)) intConsumer.accept(i, j, k, l);
+                        }
+                    }
+                }
+            });
+            case NON_DECREASING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) for(int l=k; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            if(branchFilter.test(i, j, k, l)) intConsumer.accept(i, j, k, l);
+                        }
+                    }
+                }
+            });
+        }
     }
 
     @Override
@@ -78,41 +173,279 @@ record IndexSpace4(int n0, int n1, int n2, int n3) implements IndexSpace {
             .gather(Gatherer.of(switch (visiting.indexOrder()) {
                 case ANY -> new Integrators.Integrator4(n1, n2, n3);
                 case ASCENDING -> new Integrators.IntegratorAsc4(n1, n2, n3);
+                case DESCENDING -> new Integrators.IntegratorDesc4(n1, n2, n3);
+                case NON_DECREASING -> new Integrators.IntegratorNonDec4(n1, n2, n3);
             }));
     }
 
     @Override
-    public <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
-        return Concurrency.PARALLEL.range(n0).mapToObj(i->{
-            T t = collectorFactory.apply(i);
-            for(int j=0; j<n1; ++j){
-                for(int k=0; k<n2; ++k){
-                    for(int l=0; l<n3; ++l){
-                        prefixedIntConsumer.accept(t, i, j, k, l);
+    public <T> Stream<T> streamCollectors(final Visiting visiting, final IntFunction<T> collectorFactory,
+            final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+        final IntFunction<T> collecting = switch (visiting.indexOrder()) {
+            case ANY -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=0; j<n1; ++j){
+                    for(int k=0; k<n2; ++k){
+                        for(int l=0; l<n3; ++l){
+                            prefixedIntConsumer.accept(t, i, j, k, l);
+                        }
                     }
                 }
-            }
-            return t;
-        });
+                return t;
+            };
+            case ASCENDING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=i+1; j<n1; ++j){
+                    for(int k=j+1; k<n2; ++k){
+                        for(int l=k+1; l<n3; ++l){
+                            prefixedIntConsumer.accept(t, i, j, k, l);
+                        }
+                    }
+                }
+                return t;
+            };
+            case DESCENDING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        for(int l=0; l<Math.min(k, n3); ++l){
+                            prefixedIntConsumer.accept(t, i, j, k, l);
+                        }
+                    }
+                }
+                return t;
+            };
+            case NON_DECREASING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=i; j<n1; ++j){
+                    for(int k=j; k<n2; ++k){
+                        for(int l=k; l<n3; ++l){
+                            prefixedIntConsumer.accept(t, i, j, k, l);
+                        }
+                    }
+                }
+                return t;
+            };
+        };
+        return visiting.mapToObj(n0, collecting);
+    }
+
+    @Override
+    public Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findAny(visiting, n0, finder(visiting, intPredicate));
     }
 
     @Override
-    public Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
-        return Concurrency.PARALLEL.range(n0)
-            .mapToObj(i->{
+    public Optional<int[]> findFirst(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findFirst(visiting, n0, finder(visiting, intPredicate));
+    }
+
+    private Finders.BranchFinder finder(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        final int checkDepth = visiting.cancellation().checkDepth();
+        return switch (visiting.indexOrder()) {
+            case ANY -> (i, stop)->{
                 for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
                     for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
                         for(int l=0; l<n3; ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
                             if(intPredicate.test(i, j, k, l)) {
                                 return new int[] {i, j, k, l};
                             }
                         }
                     }
                 }
-                return (int[]) null;
-            })
-            .filter(Objects::nonNull)
-            .findAny();
+                return null;
+            };
+            case ASCENDING -> (i, stop)->{
+                for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        for(int l=k+1; l<n3; ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
+                            if(intPredicate.test(i, j, k, l)) {
+                                return new int[] {i, j, k, l};
+                            }
+                        }
+                    }
+                }
+                return null;
+            };
+            case DESCENDING -> (i, stop)->{
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        for(int l=0; l<Math.min(k, n3); ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
+                            if(intPredicate.test(i, j, k, l)) {
+                                return new int[] {i, j, k, l};
+                            }
+                        }
+                    }
+                }
+                return null;
+            };
+            case NON_DECREASING -> (i, stop)->{
+                for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        for(int l=k; l<n3; ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
+                            if(intPredicate.test(i, j, k, l)) {
+                                return new int[] {i, j, k, l};
+                            }
+                        }
+                    }
+                }
+                return null;
+            };
+        };
+    }
+
+    // -- BLOCK
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=0; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=0; k<n2; ++k){
+                            v[offset+2] = k;
+                            for(int l=0; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(!onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=i+1; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=j+1; k<n2; ++k){
+                            v[offset+2] = k;
+                            for(int l=k+1; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(!onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    for(int j=0; j<Math.min(i, n1); ++j){
+                        v[offset+1] = j;
+                        for(int k=0; k<Math.min(j, n2); ++k){
+                            v[offset+2] = k;
+                            for(int l=0; l<Math.min(k, n3); ++l){
+                                v[offset+3] = l;
+                                if(!onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=i; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=j; k<n2; ++k){
+                            v[offset+2] = k;
+                            for(int l=k; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(!onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final IntPredicate prefixFilter, final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=0; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=0; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=0; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)
+                                        && !onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=i+1; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=j+1; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=k+1; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)
+                                        && !onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=0; j<Math.min(i, n1); ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=0; k<Math.min(j, n2); ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=0; l<Math.min(k, n3); ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)
+                                        && !onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=i; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=j; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=k; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)
+                                        && !onTuple.getAsBoolean()) return false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
     }
 
 }
@@ -19,9 +19,10 @@
 package jcompute.combinatorics.product;
 
 import java.math.BigInteger;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 import java.util.stream.Gatherer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -30,7 +31,7 @@ import jcompute.core.util.function.MultiIntConsumer;
 import jcompute.core.util.function.MultiIntPredicate;
 import jcompute.core.util.function.PrefixedMultiIntConsumer;
 
-record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n7) implements IndexSpace {
+record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n7) implements IndexSpaceBlock {
 
     @Override public int indexCount() { return 8; }
     @Override public BigInteger cardinality() {
@@ -51,15 +52,25 @@ record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntConsumer intConsumer) {
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
         switch (visiting.indexOrder()) {
-            case ANY -> visiting.range(n0).forEach(i->{
+            case ANY -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
                 for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
                     for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
                         for(int l=0; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
                             for(int m=0; m<n4; ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
                                 for(int n=0; n<n5; ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
                                     for(int o=0; o<n6; ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
                                         for(int p=0; p<n7; ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
                                             intConsumer.accept(i, j, k, l, m, n, o, p);
                                         }
                                     }
@@ -69,14 +80,72 @@ record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n
                     }
                 }
             });
-            case ASCENDING -> visiting.range(n0).forEach(i->{
-                for(int j=0; j<n1; ++j){
+            case ASCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
                     for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
                         for(int l=k+1; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
                             for(int m=l+1; m<n4; ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
                                 for(int n=m+1; n<n5; ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
                                     for(int o=n+1; o<n6; ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
                                         for(int p=o+1; p<n7; ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
+                                            intConsumer.accept(i, j, k, l, m, n, o, p);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+            case DESCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        for(int l=0; l<Math.min(k, n3); ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            for(int m=0; m<Math.min(l, n4); ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
+                                for(int n=0; n<Math.min(m, n5); ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
+                                    for(int o=0; o<Math.min(n, n6); ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
+                                        for(int p=0; p<Math.min(o, n7); ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
+                                            intConsumer.accept(i, j, k, l, m, n, o, p);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+            case NON_DECREASING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        for(int l=k; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            for(int m=l; m<n4; ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
+                                for(int n=m; n<n5; ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
+                                    for(int o=n; o<n6; ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
+                                        for(int p=o; p<n7; ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
                                             intConsumer.accept(i, j, k, l, m, n, o, p);
                                         }
                                     }
@@ -91,15 +160,25 @@ record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntPredicate branchFilter, final MultiIntConsumer intConsumer) {
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
         switch (visiting.indexOrder()) {
-            case ANY -> visiting.range(n0).forEach(i->{
+            case ANY -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
                 if(branchFilter.test(i)) for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
                     if(branchFilter.test(i, j)) for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
                         if(branchFilter.test(i, j, k)) for(int l=0; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
                             if(branchFilter.test(i, j, k, l)) for(int m=0; m<n4; ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
                                 if(branchFilter.test(i, j, k, l, m)) for(int n=0; n<n5; ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
                                     if(branchFilter.test(i, j, k, l, m, n)) for(int o=0; o<n6; ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
                                         if(branchFilter.test(i, j, k, l, m, n, o)) for(int p=0; p<n7; ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
                                             if(branchFilter.test(i, j, k, l, m, n, o, p)) intConsumer.accept(i, j, k, l, m, n, o, p);
                                         }
                                     }
@@ -109,14 +188,72 @@ record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n
                     }
                 }
             });
-            case ASCENDING -> visiting.range(n0).forEach(i->{
-                if(branchFilter.test(i)) for(int j=0; j<n1; ++j){
+            case ASCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
                     if(branchFilter.test(i, j)) for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
                         if(branchFilter.test(i, j, k)) for(int l=k+1; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
                             if(branchFilter.test(i, j, k, l)) for(int m=l+1; m<n4; ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
                                 if(branchFilter.test(i, j, k, l, m)) for(int n=m+1; n<n5; ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
                                     if(branchFilter.test(i, j, k, l, m, n)) for(int o=n+1; o<n6; ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
                                         if(branchFilter.test(i, j, k, l, m, n, o)) for(int p=o+1; p<n7; ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
+                                            if(branchFilter.test(i, j, k, l, m, n, o, p)) intConsumer.accept(i, j, k, l, m, n, o, p);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+            case DESCENDING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) for(int l=0; l<Math.min(k, n3); ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            if(branchFilter.test(i, j, k, l)) for(int m=0; m<Math.min(l, n4); ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
+                                if(branchFilter.test(i, j, k, l, m)) for(int n=0; n<Math.min(m, n5); ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
+                                    if(branchFilter.test(i, j, k, l, m, n)) for(int o=0; o<Math.min(n, n6); ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
+                                        if(branchFilter.test(i, j, k, l, m, n, o)) for(int p=0; p<Math.min(o, n7); ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
+                                            if(branchFilter.test(i, j, k, l, m, n, o, p)) intConsumer.accept(i, j, k, l, m, n, o, p);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+            case NON_DECREASING -> visiting.forEach(n0, i->{
+                if(checkDepth>=0 && cancellation.isCancelled()) return;
+                if(branchFilter.test(i)) for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && cancellation.isCancelled()) return;
+                    if(branchFilter.test(i, j)) for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && cancellation.isCancelled()) return;
+                        if(branchFilter.test(i, j, k)) for(int l=k; l<n3; ++l){
+                            if(checkDepth>=3 && cancellation.isCancelled()) return;
+                            if(branchFilter.test(i, j, k, l)) for(int m=l; m<n4; ++m){
+                                if(checkDepth>=4 && cancellation.isCancelled()) return;
+                                if(branchFilter.test(i, j, k, l, m)) for(int n=m; n<n5; ++n){
+                                    if(checkDepth>=5 && cancellation.isCancelled()) return;
+                                    if(branchFilter.test(i, j, k, l, m, n)) for(int o=n; o<n6; ++o){
+                                        if(checkDepth>=6 && cancellation.isCancelled()) return;
+                                        if(branchFilter.test(i, j, k, l, m, n, o)) for(int p=o; p<n7; ++p){
+                                            if(checkDepth>=7 && cancellation.isCancelled()) return;
                                             if(branchFilter.test(i, j, k, l, m, n, o, p)) intConsumer.accept(i, j, k, l, m, n, o, p);
                                         }
                                     }
@@ -136,43 +273,177 @@ record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n
             .gather(Gatherer.of(switch (visiting.indexOrder()) {
                 case ANY -> new Integrators.Integrator8(n1, n2, n3, n4, n5, n6, n7);
                 case ASCENDING -> new Integrators.IntegratorAsc8(n1, n2, n3, n4, n5, n6, n7);
+                case DESCENDING -> new Integrators.IntegratorDesc8(n1, n2, n3, n4, n5, n6, n7);
+                case NON_DECREASING -> new Integrators.IntegratorNonDec8(n1, n2, n3, n4, n5, n6, n7);
             }));
     }
 
     @Override
-    public <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
-        return Concurrency.PARALLEL.range(n0).mapToObj(i->{
-            T t = collectorFactory.apply(i);
-            for(int j=0; j<n1; ++j){
-                for(int k=0; k<n2; ++k){
-                    for(int l=0; l<n3; ++l){
-                        for(int m=0; m<n4; ++m){
-                            for(int n=0; n<n5; ++n){
-                                for(int o=0; o<n6; ++o){
-                                    for(int p=0; p<n7; ++p){
-                                        prefixedIntConsumer.accept(t, i, j, k, l, m, n, o, p);
+    public <T> Stream<T> streamCollectors(final Visiting visiting, final IntFunction<T> collectorFactory,
+            final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+        final IntFunction<T> collecting = switch (visiting.indexOrder()) {
+            case ANY -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=0; j<n1; ++j){
+                    for(int k=0; k<n2; ++k){
+                        for(int l=0; l<n3; ++l){
+                            for(int m=0; m<n4; ++m){
+                                for(int n=0; n<n5; ++n){
+                                    for(int o=0; o<n6; ++o){
+                                        for(int p=0; p<n7; ++p){
+                                            prefixedIntConsumer.accept(t, i, j, k, l, m, n, o, p);
+                                        }
                                     }
                                 }
                             }
                         }
                     }
                 }
-            }
-            return t;
-        });
+                return t;
+            };
+            case ASCENDING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=i+1; j<n1; ++j){
+                    for(int k=j+1; k<n2; ++k){
+                        for(int l=k+1; l<n3; ++l){
+                            for(int m=l+1; m<n4; ++m){
+                                for(int n=m+1; n<n5; ++n){
+                                    for(int o=n+1; o<n6; ++o){
+                                        for(int p=o+1; p<n7; ++p){
+                                            prefixedIntConsumer.accept(t, i, j, k, l, m, n, o, p);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                return t;
+            };
+            case DESCENDING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        for(int l=0; l<Math.min(k, n3); ++l){
+                            for(int m=0; m<Math.min(l, n4); ++m){
+                                for(int n=0; n<Math.min(m, n5); ++n){
+                                    for(int o=0; o<Math.min(n, n6); ++o){
+                                        for(int p=0; p<Math.min(o, n7); ++p){
+                                            prefixedIntConsumer.accept(t, i, j, k, l, m, n, o, p);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                return t;
+            };
+            case NON_DECREASING -> i->{
+                T t = collectorFactory.apply(i);
+                for(int j=i; j<n1; ++j){
+                    for(int k=j; k<n2; ++k){
+                        for(int l=k; l<n3; ++l){
+                            for(int m=l; m<n4; ++m){
+                                for(int n=m; n<n5; ++n){
+                                    for(int o=n; o<n6; ++o){
+                                        for(int p=o; p<n7; ++p){
+                                            prefixedIntConsumer.accept(t, i, j, k, l, m, n, o, p);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                return t;
+            };
+        };
+        return visiting.mapToObj(n0, collecting);
     }
 
     @Override
-    public Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
-        return Concurrency.PARALLEL.range(n0)
-            .mapToObj(i->{
+    public Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findAny(visiting, n0, finder(visiting, intPredicate));
+    }
+
+    @Override
+    public Optional<int[]> findFirst(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findFirst(visiting, n0, finder(visiting, intPredicate));
+    }
+
+    private Finders.BranchFinder finder(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        final int checkDepth = visiting.cancellation().checkDepth();
+        return switch (visiting.indexOrder()) {
+            case ANY -> (i, stop)->{
                 for(int j=0; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
                     for(int k=0; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
                         for(int l=0; l<n3; ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
                             for(int m=0; m<n4; ++m){
+                                if(checkDepth>=4 && stop.getAsBoolean()) return null;
                                 for(int n=0; n<n5; ++n){
+                                    if(checkDepth>=5 && stop.getAsBoolean()) return null;
                                     for(int o=0; o<n6; ++o){
+                                        if(checkDepth>=6 && stop.getAsBoolean()) return null;
                                         for(int p=0; p<n7; ++p){
+                                            if(checkDepth>=7 && stop.getAsBoolean()) return null;
+                                            if(intPredicate.test(i, j, k, l, m, n, o, p)) {
+                                                return new int[] {i, j, k, l, m, n, o, p};
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                return null;
+            };
+            case ASCENDING -> (i, stop)->{
+                for(int j=i+1; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=j+1; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        for(int l=k+1; l<n3; ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
+                            for(int m=l+1; m<n4; ++m){
+                                if(checkDepth>=4 && stop.getAsBoolean()) return null;
+                                for(int n=m+1; n<n5; ++n){
+                                    if(checkDepth>=5 && stop.getAsBoolean()) return null;
+                                    for(int o=n+1; o<n6; ++o){
+                                        if(checkDepth>=6 && stop.getAsBoolean()) return null;
+                                        for(int p=o+1; p<n7; ++p){
+                                            if(checkDepth>=7 && stop.getAsBoolean()) return null;
+                                            if(intPredicate.test(i, j, k, l, m, n, o, p)) {
+                                                return new int[] {i, j, k, l, m, n, o, p};
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                return null;
+            };
+            case DESCENDING -> (i, stop)->{
+                for(int j=0; j<Math.min(i, n1); ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=0; k<Math.min(j, n2); ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        for(int l=0; l<Math.min(k, n3); ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
+                            for(int m=0; m<Math.min(l, n4); ++m){
+                                if(checkDepth>=4 && stop.getAsBoolean()) return null;
+                                for(int n=0; n<Math.min(m, n5); ++n){
+                                    if(checkDepth>=5 && stop.getAsBoolean()) return null;
+                                    for(int o=0; o<Math.min(n, n6); ++o){
+                                        if(checkDepth>=6 && stop.getAsBoolean()) return null;
+                                        for(int p=0; p<Math.min(o, n7); ++p){
+                                            if(checkDepth>=7 && stop.getAsBoolean()) return null;
                                             if(intPredicate.test(i, j, k, l, m, n, o, p)) {
                                                 return new int[] {i, j, k, l, m, n, o, p};
                                             }
@@ -183,10 +454,274 @@ record IndexSpace8(int n0, int n1, int n2, int n3, int n4, int n5, int n6, int n
                         }
                     }
                 }
-                return (int[]) null;
-            })
-            .filter(Objects::nonNull)
-            .findAny();
+                return null;
+            };
+            case NON_DECREASING -> (i, stop)->{
+                for(int j=i; j<n1; ++j){
+                    if(checkDepth>=1 && stop.getAsBoolean()) return null;
+                    for(int k=j; k<n2; ++k){
+                        if(checkDepth>=2 && stop.getAsBoolean()) return null;
+                        for(int l=k; l<n3; ++l){
+                            if(checkDepth>=3 && stop.getAsBoolean()) return null;
+                            for(int m=l; m<n4; ++m){
+                                if(checkDepth>=4 && stop.getAsBoolean()) return null;
+                                for(int n=m; n<n5; ++n){
+                                    if(checkDepth>=5 && stop.getAsBoolean()) return null;
+                                    for(int o=n; o<n6; ++o){
+                                        if(checkDepth>=6 && stop.getAsBoolean()) return null;
+                                        for(int p=o; p<n7; ++p){
+                                            if(checkDepth>=7 && stop.getAsBoolean()) return null;
+                                            if(intPredicate.test(i, j, k, l, m, n, o, p)) {
+                                                return new int[] {i, j, k, l, m, n, o, p};
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+                return null;
+            };
+        };
+    }
+
+    // -- BLOCK
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=0; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=0; k<n2; ++k){
+                            v[offset+2] = k;
+                            for(int l=0; l<n3; ++l){
+                                v[offset+3] = l;
+                                for(int m=0; m<n4; ++m){
+                                    v[offset+4] = m;
+                                    for(int n=0; n<n5; ++n){
+                                        v[offset+5] = n;
+                                        for(int o=0; o<n6; ++o){
+                                            v[offset+6] = o;
+                                            for(int p=0; p<n7; ++p){
+                                                v[offset+7] = p;
+                                                if(!onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=i+1; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=j+1; k<n2; ++k){
+                            v[offset+2] = k;
+                            for(int l=k+1; l<n3; ++l){
+                                v[offset+3] = l;
+                                for(int m=l+1; m<n4; ++m){
+                                    v[offset+4] = m;
+                                    for(int n=m+1; n<n5; ++n){
+                                        v[offset+5] = n;
+                                        for(int o=n+1; o<n6; ++o){
+                                            v[offset+6] = o;
+                                            for(int p=o+1; p<n7; ++p){
+                                                v[offset+7] = p;
+                                                if(!onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    for(int j=0; j<Math.min(i, n1); ++j){
+                        v[offset+1] = j;
+                        for(int k=0; k<Math.min(j, n2); ++k){
+                            v[offset+2] = k;
+                            for(int l=0; l<Math.min(k, n3); ++l){
+                                v[offset+3] = l;
+                                for(int m=0; m<Math.min(l, n4); ++m){
+                                    v[offset+4] = m;
+                                    for(int n=0; n<Math.min(m, n5); ++n){
+                                        v[offset+5] = n;
+                                        for(int o=0; o<Math.min(n, n6); ++o){
+                                            v[offset+6] = o;
+                                            for(int p=0; p<Math.min(o, n7); ++p){
+                                                v[offset+7] = p;
+                                                if(!onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    for(int j=i; j<n1; ++j){
+                        v[offset+1] = j;
+                        for(int k=j; k<n2; ++k){
+                            v[offset+2] = k;
+                            for(int l=k; l<n3; ++l){
+                                v[offset+3] = l;
+                                for(int m=l; m<n4; ++m){
+                                    v[offset+4] = m;
+                                    for(int n=m; n<n5; ++n){
+                                        v[offset+5] = n;
+                                        for(int o=n; o<n6; ++o){
+                                            v[offset+6] = o;
+                                            for(int p=o; p<n7; ++p){
+                                                v[offset+7] = p;
+                                                if(!onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final IntPredicate prefixFilter, final BooleanSupplier onTuple) {
+        switch (indexOrder) {
+            case ANY -> {
+                for(int i=0; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=0; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=0; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=0; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)) for(int m=0; m<n4; ++m){
+                                    v[offset+4] = m;
+                                    if(prefixFilter.test(offset+5)) for(int n=0; n<n5; ++n){
+                                        v[offset+5] = n;
+                                        if(prefixFilter.test(offset+6)) for(int o=0; o<n6; ++o){
+                                            v[offset+6] = o;
+                                            if(prefixFilter.test(offset+7)) for(int p=0; p<n7; ++p){
+                                                v[offset+7] = p;
+                                                if(prefixFilter.test(offset+8)
+                                                        && !onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            case ASCENDING -> {
+                for(int i=precedingIndex+1; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=i+1; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=j+1; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=k+1; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)) for(int m=l+1; m<n4; ++m){
+                                    v[offset+4] = m;
+                                    if(prefixFilter.test(offset+5)) for(int n=m+1; n<n5; ++n){
+                                        v[offset+5] = n;
+                                        if(prefixFilter.test(offset+6)) for(int o=n+1; o<n6; ++o){
+                                            v[offset+6] = o;
+                                            if(prefixFilter.test(offset+7)) for(int p=o+1; p<n7; ++p){
+                                                v[offset+7] = p;
+                                                if(prefixFilter.test(offset+8)
+                                                        && !onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            case DESCENDING -> {
+                for(int i=0; i<Math.min(precedingIndex, n0); ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=0; j<Math.min(i, n1); ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=0; k<Math.min(j, n2); ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=0; l<Math.min(k, n3); ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)) for(int m=0; m<Math.min(l, n4); ++m){
+                                    v[offset+4] = m;
+                                    if(prefixFilter.test(offset+5)) for(int n=0; n<Math.min(m, n5); ++n){
+                                        v[offset+5] = n;
+                                        if(prefixFilter.test(offset+6)) for(int o=0; o<Math.min(n, n6); ++o){
+                                            v[offset+6] = o;
+                                            if(prefixFilter.test(offset+7)) for(int p=0; p<Math.min(o, n7); ++p){
+                                                v[offset+7] = p;
+                                                if(prefixFilter.test(offset+8)
+                                                        && !onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            case NON_DECREASING -> {
+                for(int i=precedingIndex; i<n0; ++i){
+                    v[offset] = i;
+                    if(prefixFilter.test(offset+1)) for(int j=i; j<n1; ++j){
+                        v[offset+1] = j;
+                        if(prefixFilter.test(offset+2)) for(int k=j; k<n2; ++k){
+                            v[offset+2] = k;
+                            if(prefixFilter.test(offset+3)) for(int l=k; l<n3; ++l){
+                                v[offset+3] = l;
+                                if(prefixFilter.test(offset+4)) for(int m=l; m<n4; ++m){
+                                    v[offset+4] = m;
+                                    if(prefixFilter.test(offset+5)) for(int n=m; n<n5; ++n){
+                                        v[offset+5] = n;
+                                        if(prefixFilter.test(offset+6)) for(int o=n; o<n6; ++o){
+                                            v[offset+6] = o;
+                                            if(prefixFilter.test(offset+7)) for(int p=o; p<n7; ++p){
+                                                v[offset+7] = p;
+                                                if(prefixFilter.test(offset+8)
+                                                        && !onTuple.getAsBoolean()) return false;
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
     }
 
 }
@@ -0,0 +1,53 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+
+///Building block of an {@link IndexSpaceComposite}.
+///
+///Writes the indices of its tuples directly into a shared tuple buffer `v`,
+///starting at a given `offset`, such that multiple blocks can be chained
+///without copying or allocating per tuple.
+interface IndexSpaceBlock extends IndexSpace {
+
+    /**
+     * Visits all distinct tuples of this block, honoring given {@link IndexOrder},
+     * writing indices to {@code v[offset]} up to {@code v[offset + indexCount() - 1]}.
+     * @param precedingIndex - the index preceding this block's first index, which bounds the latter
+     *      unless {@link IndexOrder#ANY}
+     * @param onTuple - called once all indices of a tuple are written, returning {@code false} stops the visit
+     * @return whether all tuples were visited, that is, {@code onTuple} did not stop the visit
+     */
+    boolean visitInto(IndexOrder indexOrder, int[] v, int offset, int precedingIndex, BooleanSupplier onTuple);
+
+    /**
+     * Visits all distinct tuples of this block, that pass given prefixFilter, also honoring given {@link IndexOrder},
+     * writing indices to {@code v[offset]} up to {@code v[offset + indexCount() - 1]}.
+     * @param precedingIndex - the index preceding this block's first index, which bounds the latter
+     *      unless {@link IndexOrder#ANY}
+     * @param prefixFilter - tested with the (absolute) prefix length {@code v[0..len-1]} after each index was written,
+     *      a failed test skips the branch
+     * @param onTuple - called once all indices of a tuple are written, returning {@code false} stops the visit
+     * @return whether all tuples were visited, that is, {@code onTuple} did not stop the visit
+     */
+    boolean visitInto(IndexOrder indexOrder, int[] v, int offset, int precedingIndex, IntPredicate prefixFilter, BooleanSupplier onTuple);
+
+}
@@ -19,17 +19,49 @@
 package jcompute.combinatorics.product;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.stream.Gatherer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.jspecify.annotations.Nullable;
+
 import jcompute.core.util.function.MultiIntConsumer;
 import jcompute.core.util.function.MultiIntPredicate;
 import jcompute.core.util.function.PrefixedMultiIntConsumer;
 
-//experimental
-record IndexSpaceComposite(IndexSpace a, IndexSpace b) implements IndexSpace {
+///Cartesian product of an outer index space `a` and an inner block `b`,
+///where tuples are `(a-indices..., b-indices...)`.
+///
+///Visiting is driven by the outer space (which also controls concurrency),
+///while for each outer tuple, the inner block writes its indices directly into a shared tuple buffer.
+///Hence there is no copying or allocation per inner tuple.
+///(With a branch filter, each tested inner prefix is copied into a reused buffer of its length,
+///as {@link MultiIntPredicate} expects the prefix as an array of exactly that length.)
+///
+///Blocks can be nested, which allows to build any dimension count from the unrolled
+///`IndexSpace1..8` implementations (see {@link #of(int...)}).
+///Both parts are blocks, such that any composite can itself be nested as a block.
+record IndexSpaceComposite(IndexSpaceBlock a, IndexSpaceBlock b) implements IndexSpaceBlock {
+
+    /// Max dimension count of a single (unrolled) block.
+    static final int MAX_BLOCK_SIZE = 8;
+
+    /**
+     * Composes an index space from (unrolled) blocks, where the first dimension is handled by
+     * an outer {@link IndexSpace1}, such that concurrency is controlled by the first dimension,
+     * same as for the other {@link IndexSpace} implementations.
+     */
+    static IndexSpaceComposite of(final int... dim) {
+        return new IndexSpaceComposite(
+            new IndexSpace1(dim[0]),
+            block(Arrays.copyOfRange(dim, 1, dim.length)));
+    }
 
     @Override public int indexCount() { return a.indexCount() + b.indexCount(); }
     @Override public BigInteger cardinality() {
@@ -44,35 +76,184 @@ record IndexSpaceComposite(IndexSpace a, IndexSpace b) implements IndexSpace {
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntConsumer intConsumer) {
+        final IndexOrder indexOrder = visiting.indexOrder();
+        final Cancellation cancellation = visiting.cancellation();
         a.forEach(visiting, va->{
-            var v = new int[indexCount()];
-            System.arraycopy(va, 0, v, 0, va.length);
-            b.forEach(Visiting.sequential(), vb->{
-                System.arraycopy(vb, 0, v, va.length, vb.length); // this hurts performance
+            final int[] v = outerPrefix(va);
+            final BooleanSupplier onTuple = ()->{
                 intConsumer.accept(v);
-            });
+                return true;
+            };
+            if(cancellation.visitCheckDepth() < va.length) {
+                b.visitInto(indexOrder, v, va.length, va[va.length - 1], onTuple);
+            } else {
+                b.visitInto(indexOrder, v, va.length, va[va.length - 1],
+                    stopFilter(cancellation.visitCheckDepth(), cancellation::isCancelled), onTuple);
+            }
         });
     }
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntPredicate branchFilter, final MultiIntConsumer intConsumer) {
-        throw new UnsupportedOperationException();
+        final IndexOrder indexOrder = visiting.indexOrder();
+        final Cancellation cancellation = visiting.cancellation();
+        a.forEach(visiting, branchFilter, va->{
+            final int[] v = outerPrefix(va);
+            final IntPredicate prefixFilter = prefixFilter(v, va.length, branchFilter);
+            b.visitInto(indexOrder, v, va.length, va[va.length - 1],
+                cancellation.visitCheckDepth() < va.length
+                    ? prefixFilter
+                    : stopFilter(cancellation.visitCheckDepth(), cancellation::isCancelled).and(prefixFilter),
+                ()->{
+                    intConsumer.accept(v);
+                    return true;
+                });
+        });
+    }
+
+    @Override
+    public Stream<int[]> stream(final Visiting visiting) {
+        return a.stream(visiting)
+            .gather(Gatherer.of(new Integrators.IntegratorComposite(visiting.indexOrder(), indexCount(), b)));
     }
 
     @Override
-    public <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory,
-        final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
-        throw new UnsupportedOperationException();
+    public <T> Stream<T> streamCollectors(final Visiting visiting, final IntFunction<T> collectorFactory,
+            final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+        final IndexOrder indexOrder = visiting.indexOrder();
+        return a.streamCollectors(visiting, collectorFactory, (t, va)->{
+            final int[] v = outerPrefix(va);
+            b.visitInto(indexOrder, v, va.length, va[va.length - 1], ()->{
+                prefixedIntConsumer.accept(t, v);
+                return true;
+            });
+        });
     }
 
     @Override
-    public Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
-        throw new UnsupportedOperationException();
+    public Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        final Cancellation cancellation = visiting.cancellation();
+        final AtomicReference<int[]> result = new AtomicReference<>();
+        final BooleanSupplier stop = ()->result.get()!=null || cancellation.isCancelled();
+        return a.findAny(visiting, va->{
+                final int[] match = findInner(visiting, va, intPredicate, stop);
+                if(match!=null) {
+                    result.compareAndSet(null, match);
+                }
+                return match!=null;
+            })
+            .map(found->result.get());
     }
 
     @Override
-    public Stream<int[]> stream(final Visiting visiting) {
-        throw new UnsupportedOperationException();
+    public Optional<int[]> findFirst(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        final Cancellation cancellation = visiting.cancellation();
+        // the first match so far, any later match of a preceding outer tuple replaces it
+        final AtomicReference<int[]> result = new AtomicReference<>();
+        return a.findFirst(visiting, va->{
+                final BooleanSupplier stop = ()->Finders.precedes(result.get(), va) || cancellation.isCancelled();
+                final int[] match = findInner(visiting, va, intPredicate, stop);
+                if(match!=null) {
+                    result.accumulateAndGet(match, Finders::first);
+                }
+                return match!=null;
+            })
+            .map(found->result.get());
+    }
+
+    // -- BLOCK
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final BooleanSupplier onTuple) {
+        final int bOffset = offset + a.indexCount();
+        return a.visitInto(indexOrder, v, offset, precedingIndex, ()->
+            b.visitInto(indexOrder, v, bOffset, v[bOffset - 1], onTuple));
+    }
+
+    @Override
+    public boolean visitInto(final IndexOrder indexOrder, final int[] v, final int offset, final int precedingIndex,
+            final IntPredicate prefixFilter, final BooleanSupplier onTuple) {
+        final int bOffset = offset + a.indexCount();
+        return a.visitInto(indexOrder, v, offset, precedingIndex, prefixFilter, ()->
+            b.visitInto(indexOrder, v, bOffset, v[bOffset - 1], prefixFilter, onTuple));
+    }
+
+    // -- HELPER
+
+    /**
+     * Searches the inner block for the first match, given the outer tuple {@code va}.
+     * @param stop - checked at depth up to {@link Cancellation#checkDepth()}
+     * @return the match or {@code null} if none was found or the search was stopped
+     */
+    private @Nullable int[] findInner(final Visiting visiting, final int[] va, final MultiIntPredicate intPredicate,
+            final BooleanSupplier stop) {
+        final int checkDepth = visiting.cancellation().checkDepth();
+        final int[] v = outerPrefix(va);
+        final BooleanSupplier onTuple = ()->!intPredicate.test(v);
+        final boolean found = checkDepth < va.length
+            ? !b.visitInto(visiting.indexOrder(), v, va.length, va[va.length - 1], onTuple)
+            : !b.visitInto(visiting.indexOrder(), v, va.length, va[va.length - 1], stopFilter(checkDepth, stop), onTuple);
+        return found
+            ? v
+            : null;
+    }
+
+    /**
+     * Prefix filter, that skips all branches at depth up to checkDepth, once stopped.
+     * (Branches at the first inner depths are still iterated, but no longer descended into.)
+     */
+    private static IntPredicate stopFilter(final int checkDepth, final BooleanSupplier stop) {
+        return len->len > checkDepth + 1
+            || !stop.getAsBoolean();
+    }
+
+    /**
+     * Returns a new tuple buffer (sized to hold all indices), initialized with given outer indices.
+     */
+    private int[] outerPrefix(final int[] va) {
+        final int[] v = new int[indexCount()];
+        System.arraycopy(va, 0, v, 0, va.length);
+        return v;
+    }
+
+    /**
+     * Adapts given branchFilter to be tested with prefix lengths, reusing one buffer per prefix length.
+     * @param v - the tuple buffer
+     * @param outerCount - prefixes up to this length are already tested by the outer space
+     */
+    private IntPredicate prefixFilter(final int[] v, final int outerCount, final MultiIntPredicate branchFilter) {
+        final int[][] prefixes = new int[v.length + 1][];
+        for (int len = outerCount + 1; len <= v.length; len++) {
+            prefixes[len] = new int[len];
+        }
+        return len->{
+            final int[] prefix = prefixes[len];
+            System.arraycopy(v, 0, prefix, 0, len);
+            return branchFilter.test(prefix);
+        };
+    }
+
+    /**
+     * Chains blocks of up to {@value #MAX_BLOCK_SIZE} dimensions.
+     */
+    private static IndexSpaceBlock block(final int... dim) {
+        return switch (dim.length) {
+            case 1 -> new IndexSpace1(dim[0]);
+            case 2 -> new IndexSpace2(dim[0], dim[1]);
+            case 3 -> new IndexSpace3(dim[0], dim[1], dim[2]);
+            case 4 -> new IndexSpace4(dim[0], dim[1], dim[2], dim[3]);
+            case 5 -> new IndexSpace5(dim[0], dim[1], dim[2], dim[3], dim[4]);
+            case 6 -> new IndexSpace6(dim[0], dim[1], dim[2], dim[3], dim[4],
+                dim[5]);
+            case 7 -> new IndexSpace7(dim[0], dim[1], dim[2], dim[3], dim[4],
+                dim[5], dim[6]);
+            case 8 -> new IndexSpace8(dim[0], dim[1], dim[2], dim[3], dim[4],
+                dim[5], dim[6], dim[7]);
+            default -> new IndexSpaceComposite(
+                block(Arrays.copyOf(dim, MAX_BLOCK_SIZE)),
+                block(Arrays.copyOfRange(dim, MAX_BLOCK_SIZE, dim.length)));
+        };
     }
 
 }
@@ -20,10 +20,9 @@ package jcompute.combinatorics.product;
 
 import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntFunction;
 import java.util.stream.Gatherer;
 import java.util.stream.Gatherer.Downstream;
@@ -31,6 +30,8 @@ import java.util.stream.Gatherer.Integrator;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.jspecify.annotations.Nullable;
+
 import jcompute.core.util.function.MultiIntConsumer;
 import jcompute.core.util.function.MultiIntPredicate;
 import jcompute.core.util.function.PrefixedMultiIntConsumer;
@@ -51,28 +52,41 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntConsumer intConsumer) {
-        visiting.range(dim[0]).forEach(i->{
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        final BooleanSupplier stop = cancellation::isCancelled;
+        visiting.forEach(dim[0], i->{
+            if(checkDepth>=0 && stop.getAsBoolean()) return;
             var v = new int[dim.length];
             v[0] = i;
             switch (visiting.indexOrder()) {
                 case ANY ->
-                    new RecursiveVisitor(dim, v, intConsumer).recur(1);
+                    new RecursiveVisitor(dim, v, intConsumer, checkDepth, stop).recur(1);
                 case ASCENDING ->
-                    new RecursiveVisitorAsc(dim, v, intConsumer).recur(1);
+                    new RecursiveVisitorAsc(dim, v, intConsumer, checkDepth, stop).recur(1);
+                case DESCENDING, NON_DECREASING ->
+                    new RecursiveVisitorOrdered(visiting.indexOrder(), dim, v, intConsumer, checkDepth, stop).recur(1);
             }
         });
     }
 
     @Override
     public void forEach(final Visiting visiting, final MultiIntPredicate branchFilter, final MultiIntConsumer intConsumer) {
-        visiting.range(dim[0]).forEach(i->{
+        final Cancellation cancellation = visiting.cancellation();
+        final int checkDepth = cancellation.visitCheckDepth();
+        final BooleanSupplier stop = cancellation::isCancelled;
+        visiting.forEach(dim[0], i->{
+            if(checkDepth>=0 && stop.getAsBoolean()) return;
             var v = new int[dim.length];
             v[0] = i;
             switch (visiting.indexOrder()) {
                 case ANY ->
-                    new RecursiveVisitorWithBranchFilter(dim, v, branchFilter, intConsumer).recur(1);
+                    new RecursiveVisitorWithBranchFilter(dim, v, branchFilter, intConsumer, checkDepth, stop).recur(1);
                 case ASCENDING ->
-                    new RecursiveVisitorWithBranchFilterAsc(dim, v, branchFilter, intConsumer).recur(1);
+                    new RecursiveVisitorWithBranchFilterAsc(dim, v, branchFilter, intConsumer, checkDepth, stop).recur(1);
+                case DESCENDING, NON_DECREASING ->
+                    new RecursiveVisitorWithBranchFilterOrdered(visiting.indexOrder(), dim, v, branchFilter, intConsumer,
+                            checkDepth, stop).recur(1);
             }
         });
     }
@@ -85,29 +99,34 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
     }
 
     @Override
-    public <T> Stream<T> streamCollectors(final IntFunction<T> collectorFactory, final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
-        return Concurrency.PARALLEL.range(dim[0]).mapToObj(i->{
+    public <T> Stream<T> streamCollectors(final Visiting visiting, final IntFunction<T> collectorFactory,
+            final PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+        return visiting.mapToObj(dim[0], i->{
             var t = collectorFactory.apply(i);
             var v = new int[dim.length];
             v[0] = i;
-            new RecursiveCollector<>(dim, v, t, prefixedIntConsumer).recur(1);
+            new RecursiveCollector<>(visiting.indexOrder(), dim, v, t, prefixedIntConsumer).recur(1);
             return t;
         });
     }
 
     @Override
-    public Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
-        final AtomicReference<int[]> result = new AtomicReference<>();
-        return Concurrency.PARALLEL.range(dim[0])
-            .mapToObj(i->{
-                if(result.get()!=null) return null;
-                var v = new int[dim.length];
-                v[0] = i;
-                new RecursiveFinder(dim, v, intPredicate, result).recur(1);
-                return result.get();
-            })
-            .filter(Objects::nonNull)
-            .findAny();
+    public Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findAny(visiting, dim[0], finder(visiting, intPredicate));
+    }
+
+    @Override
+    public Optional<int[]> findFirst(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        return Finders.findFirst(visiting, dim[0], finder(visiting, intPredicate));
+    }
+
+    private Finders.BranchFinder finder(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        final int checkDepth = visiting.cancellation().checkDepth();
+        return (i, stop)->{
+            var v = new int[dim.length];
+            v[0] = i;
+            return new RecursiveFinder(visiting.indexOrder(), dim, v, intPredicate, checkDepth, stop).recur(1);
+        };
     }
 
     // -- HELPER
@@ -116,7 +135,8 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
     implements Integrator<Void, Integer, int[]> {
         @Override
         public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
-            final MultiIntPredicate mip = downstream::push;
+            // the tuple buffer v is reused, hence push copies
+            final MultiIntPredicate mip = tuple->downstream.push(tuple.clone());
             final AtomicBoolean stop = new AtomicBoolean();
             var v = new int[dim.length];
             v[0] = i;
@@ -125,25 +145,35 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
                     new RecursiveWhile(dim, v, mip::test, stop).recur(1);
                 case ASCENDING ->
                     new RecursiveWhileAsc(dim, v, mip::test, stop).recur(1);
+                case DESCENDING, NON_DECREASING ->
+                    new RecursiveWhileOrdered(indexOrder, dim, v, mip::test, stop).recur(1);
             }
             return !stop.get();
         }
     }
 
-    private record RecursiveVisitor(int[] dim, int[] v, MultiIntConsumer intConsumer) {
+    private record RecursiveVisitor(int[] dim, int[] v, MultiIntConsumer intConsumer, int checkDepth, BooleanSupplier stop) {
         void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                intConsumer.accept(v);
+                return;
+            }
             if(dimIndex == v.length-4) {
                 final int lRange = dim[dimIndex];
                 for(int l=0; l<lRange; ++l){
+                    if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                     v[dimIndex] = l;
                     final int kRange = dim[dimIndex+1];
                     for(int k=0; k<kRange; ++k){
+                        if(checkDepth>=dimIndex+1 && stop.getAsBoolean()) return;
                         v[dimIndex+1] = k;
                         final int jRange = dim[dimIndex+2];
                         for(int j=0; j<jRange; ++j){
+                            if(checkDepth>=dimIndex+2 && stop.getAsBoolean()) return;
                             v[dimIndex+2] = j;
                             final int iRange = dim[dimIndex+3];
                             for(int i=0; i<iRange; ++i){
+                                if(checkDepth>=dimIndex+3 && stop.getAsBoolean()) return;
                                 v[dimIndex+3] = i;
                                 intConsumer.accept(v);
                             }
@@ -153,26 +183,35 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
                 return;
             }
             for(int i=0; i<dim[dimIndex]; ++i){
+                if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                 v[dimIndex] = i;
                 recur(dimIndex + 1);
             }
         }
     }
 
-    private record RecursiveVisitorAsc(int[] dim, int[] v, MultiIntConsumer intConsumer) {
+    private record RecursiveVisitorAsc(int[] dim, int[] v, MultiIntConsumer intConsumer, int checkDepth, BooleanSupplier stop) {
         void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                intConsumer.accept(v);
+                return;
+            }
             if(dimIndex == v.length-4) {
                 final int lRange = dim[dimIndex];
-                for(int l=dim[dimIndex-1]+1; l<lRange; ++l){
+                for(int l=v[dimIndex-1]+1; l<lRange; ++l){
+                    if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                     v[dimIndex] = l;
                     final int kRange = dim[dimIndex+1];
                     for(int k=l+1; k<kRange; ++k){
+                        if(checkDepth>=dimIndex+1 && stop.getAsBoolean()) return;
                         v[dimIndex+1] = k;
                         final int jRange = dim[dimIndex+2];
                         for(int j=k+1; j<jRange; ++j){
+                            if(checkDepth>=dimIndex+2 && stop.getAsBoolean()) return;
                             v[dimIndex+2] = j;
                             final int iRange = dim[dimIndex+3];
                             for(int i=j+1; i<iRange; ++i){
+                                if(checkDepth>=dimIndex+3 && stop.getAsBoolean()) return;
                                 v[dimIndex+3] = i;
                                 intConsumer.accept(v);
                             }
@@ -181,7 +220,8 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
                 }
                 return;
             }
-            for(int i=dim[dimIndex-1]+1; i<dim[dimIndex]; ++i){
+            for(int i=v[dimIndex-1]+1; i<dim[dimIndex]; ++i){
+                if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                 v[dimIndex] = i;
                 recur(dimIndex + 1);
             }
@@ -192,23 +232,33 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
             int[] dim,
             int[] v,
             MultiIntPredicate branchFilter,
-            MultiIntConsumer intConsumer) {
+            MultiIntConsumer intConsumer,
+            int checkDepth,
+            BooleanSupplier stop) {
         void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                intConsumer.accept(v);
+                return;
+            }
             if(dimIndex == v.length-4) {
                 final int lRange = dim[dimIndex];
                 for(int l=0; l<lRange; ++l){
+                    if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                     v[dimIndex] = l;
                     if(!testBranch(v, dimIndex + 1)) continue;
                     final int kRange = dim[dimIndex+1];
                     for(int k=0; k<kRange; ++k){
+                        if(checkDepth>=dimIndex+1 && stop.getAsBoolean()) return;
                         v[dimIndex+1] = k;
                         if(!testBranch(v, dimIndex + 2)) continue;
                         final int jRange = dim[dimIndex+2];
                         for(int j=0; j<jRange; ++j){
+                            if(checkDepth>=dimIndex+2 && stop.getAsBoolean()) return;
                             v[dimIndex+2] = j;
                             if(!testBranch(v, dimIndex + 3)) continue;
                             final int iRange = dim[dimIndex+3];
                             for(int i=0; i<iRange; ++i){
+                                if(checkDepth>=dimIndex+3 && stop.getAsBoolean()) return;
                                 v[dimIndex+3] = i;
                                 if(!testBranch(v, dimIndex + 4)) continue;
                                 intConsumer.accept(v);
@@ -219,6 +269,7 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
                 return;
             }
             for(int i=0; i<dim[dimIndex]; ++i){
+                if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                 v[dimIndex] = i;
                 if(testBranch(v, dimIndex + 1)) {
                     recur(dimIndex + 1);
@@ -234,23 +285,33 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
             int[] dim,
             int[] v,
             MultiIntPredicate branchFilter,
-            MultiIntConsumer intConsumer) {
+            MultiIntConsumer intConsumer,
+            int checkDepth,
+            BooleanSupplier stop) {
         void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                intConsumer.accept(v);
+                return;
+            }
             if(dimIndex == v.length-4) {
                 final int lRange = dim[dimIndex];
-                for(int l=dim[dimIndex-1]+1; l<lRange; ++l){
+                for(int l=v[dimIndex-1]+1; l<lRange; ++l){
+                    if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                     v[dimIndex] = l;
                     if(!testBranch(v, dimIndex + 1)) continue;
                     final int kRange = dim[dimIndex+1];
                     for(int k=l+1; k<kRange; ++k){
+                        if(checkDepth>=dimIndex+1 && stop.getAsBoolean()) return;
                         v[dimIndex+1] = k;
                         if(!testBranch(v, dimIndex + 2)) continue;
                         final int jRange = dim[dimIndex+2];
                         for(int j=k+1; j<jRange; ++j){
+                            if(checkDepth>=dimIndex+2 && stop.getAsBoolean()) return;
                             v[dimIndex+2] = j;
                             if(!testBranch(v, dimIndex + 3)) continue;
                             final int iRange = dim[dimIndex+3];
                             for(int i=j+1; i<iRange; ++i){
+                                if(checkDepth>=dimIndex+3 && stop.getAsBoolean()) return;
                                 v[dimIndex+3] = i;
                                 if(!testBranch(v, dimIndex + 4)) continue;
                                 intConsumer.accept(v);
@@ -260,7 +321,8 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
                 }
                 return;
             }
-            for(int i=dim[dimIndex-1]+1; i<dim[dimIndex]; ++i){
+            for(int i=v[dimIndex-1]+1; i<dim[dimIndex]; ++i){
+                if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
                 v[dimIndex] = i;
                 if(testBranch(v, dimIndex + 1)) {
                     recur(dimIndex + 1);
@@ -272,37 +334,60 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
         }
     }
 
-    private record RecursiveCollector<T>(int[] dim, int[] v, T t, PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
+    private record RecursiveCollector<T>(
+            IndexOrder indexOrder,
+            int[] dim,
+            int[] v,
+            T t,
+            PrefixedMultiIntConsumer<T> prefixedIntConsumer) {
         void recur(final int dimIndex){
             if(dimIndex == v.length) {
                 prefixedIntConsumer.accept(t, v);
                 return;
             }
-            for(int i=0; i<dim[dimIndex]; ++i){
+            final int upper = indexOrder.upperBound(v[dimIndex-1], dim[dimIndex]);
+            for(int i=indexOrder.lowerBound(v[dimIndex-1]); i<upper; ++i){
                 v[dimIndex] = i;
                 recur(dimIndex + 1);
             }
         }
     }
 
-    // perhaps use stream().filter(...).findAny() instead - needs benchmarks
-    private record RecursiveFinder(int[] dim, int[] v, MultiIntPredicate intPredicate, AtomicReference<int[]> result) {
-        void recur(final int dimIndex){
+    private record RecursiveFinder(
+            IndexOrder indexOrder,
+            int[] dim,
+            int[] v,
+            MultiIntPredicate intPredicate,
+            int checkDepth,
+            BooleanSupplier stop) {
+        /**
+         * @return the first match (in visiting order), or {@code null} if none was found or the search was stopped
+         */
+        @Nullable int[] recur(final int dimIndex){
             if(dimIndex == v.length) {
-                if(intPredicate.test(v)) {
-                    result.set(v.clone());
-                }
-                return;
+                return intPredicate.test(v)
+                    ? v.clone()
+                    : null;
             }
-            for(int i=0; i<dim[dimIndex]; ++i){
+            final int upper = indexOrder.upperBound(v[dimIndex-1], dim[dimIndex]);
+            for(int i=indexOrder.lowerBound(v[dimIndex-1]); i<upper; ++i){
+                if(checkDepth>=dimIndex && stop.getAsBoolean()) return null;
                 v[dimIndex] = i;
-                recur(dimIndex + 1);
+                final int[] match = recur(dimIndex + 1);
+                if(match!=null) return match;
             }
+            return null;
         }
     }
 
     private record RecursiveWhile(int[] dim, int[] v, MultiIntPredicate condition, AtomicBoolean stop) {
         void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                if(!condition.test(v)) {
+                    stop.set(true);
+                }
+                return;
+            }
             if(dimIndex == v.length-4) {
                 final int lRange = dim[dimIndex];
                 for(int l=0; l<lRange; ++l){
@@ -336,6 +421,12 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
 
     private record RecursiveWhileAsc(int[] dim, int[] v, MultiIntPredicate condition, AtomicBoolean stop) {
         void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                if(!condition.test(v)) {
+                    stop.set(true);
+                }
+                return;
+            }
             if(dimIndex == v.length-4) {
                 final int lRange = dim[dimIndex];
                 for(int l=v[dimIndex-1]+1; l<lRange; ++l){
@@ -367,4 +458,63 @@ public record IndexSpaceN(int ...dim) implements IndexSpace {
         }
     }
 
+    // -- ORDERED (not unrolled, bounds given by the IndexOrder)
+
+    private record RecursiveVisitorOrdered(IndexOrder indexOrder, int[] dim, int[] v, MultiIntConsumer intConsumer,
+            int checkDepth, BooleanSupplier stop) {
+        void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                intConsumer.accept(v);
+                return;
+            }
+            final int upper = indexOrder.upperBound(v[dimIndex-1], dim[dimIndex]);
+            for(int i=indexOrder.lowerBound(v[dimIndex-1]); i<upper; ++i){
+                if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
+                v[dimIndex] = i;
+                recur(dimIndex + 1);
+            }
+        }
+    }
+
+    private record RecursiveVisitorWithBranchFilterOrdered(
+            IndexOrder indexOrder,
+            int[] dim,
+            int[] v,
+            MultiIntPredicate branchFilter,
+            MultiIntConsumer intConsumer,
+            int checkDepth,
+            BooleanSupplier stop) {
+        void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                intConsumer.accept(v);
+                return;
+            }
+            final int upper = indexOrder.upperBound(v[dimIndex-1], dim[dimIndex]);
+            for(int i=indexOrder.lowerBound(v[dimIndex-1]); i<upper; ++i){
+                if(checkDepth>=dimIndex && stop.getAsBoolean()) return;
+                v[dimIndex] = i;
+                if(branchFilter.test(Arrays.copyOf(v, dimIndex + 1))) {
+                    recur(dimIndex + 1);
+                }
+            }
+        }
+    }
+
+    private record RecursiveWhileOrdered(IndexOrder indexOrder, int[] dim, int[] v, MultiIntPredicate condition, AtomicBoolean stop) {
+        void recur(final int dimIndex){
+            if(dimIndex == v.length) {
+                if(!condition.test(v)) {
+                    stop.set(true);
+                }
+                return;
+            }
+            final int upper = indexOrder.upperBound(v[dimIndex-1], dim[dimIndex]);
+            for(int i=indexOrder.lowerBound(v[dimIndex-1]); i<upper; ++i){
+                v[dimIndex] = i;
+                recur(dimIndex + 1);
+                if(stop.get()) return;
+            }
+        }
+    }
+
 }
@@ -285,4 +285,267 @@ final class Integrators {
             return true;
         }
     }
+
+    record IntegratorDesc2(int n1)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=0; j<Math.min(i, n1); ++j){
+                if(!mip.test(i, j)) return false;
+            }
+            return true;
+        }
+    }
+
+    record IntegratorDesc3(int n1, int n2)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=0; j<Math.min(i, n1); ++j){
+                for(int k=0; k<Math.min(j, n2); ++k){
+                    if(!mip.test(i, j, k)) return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorDesc4(int n1, int n2, int n3)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=0; j<Math.min(i, n1); ++j){
+                for(int k=0; k<Math.min(j, n2); ++k){
+                    for(int l=0; l<Math.min(k, n3); ++l){
+                        if(!mip.test(i, j, k, l)) return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorDesc5(int n1, int n2, int n3, int n4)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=0; j<Math.min(i, n1); ++j){
+                for(int k=0; k<Math.min(j, n2); ++k){
+                    for(int l=0; l<Math.min(k, n3); ++l){
+                        for(int m=0; m<Math.min(l, n4); ++m){
+                            if(!mip.test(i, j, k, l, m)) return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorDesc6(int n1, int n2, int n3, int n4, int n5)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=0; j<Math.min(i, n1); ++j){
+                for(int k=0; k<Math.min(j, n2); ++k){
+                    for(int l=0; l<Math.min(k, n3); ++l){
+                        for(int m=0; m<Math.min(l, n4); ++m){
+                            for(int n=0; n<Math.min(m, n5); ++n){
+                                if(!mip.test(i, j, k, l, m, n)) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorDesc7(int n1, int n2, int n3, int n4, int n5, int n6)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=0; j<Math.min(i, n1); ++j){
+                for(int k=0; k<Math.min(j, n2); ++k){
+                    for(int l=0; l<Math.min(k, n3); ++l){
+                        for(int m=0; m<Math.min(l, n4); ++m){
+                            for(int n=0; n<Math.min(m, n5); ++n){
+                                for(int o=0; o<Math.min(n, n6); ++o){
+                                    if(!mip.test(i, j, k, l, m, n, o)) return false;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorDesc8(int n1, int n2, int n3, int n4, int n5, int n6, int n7)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=0; j<Math.min(i, n1); ++j){
+                for(int k=0; k<Math.min(j, n2); ++k){
+                    for(int l=0; l<Math.min(k, n3); ++l){
+                        for(int m=0; m<Math.min(l, n4); ++m){
+                            for(int n=0; n<Math.min(m, n5); ++n){
+                                for(int o=0; o<Math.min(n, n6); ++o){
+                                    for(int p=0; p<Math.min(o, n7); ++p){
+                                        if(!mip.test(i, j, k, l, m, n, o, p)) return false;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorNonDec2(int n1)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=i; j<n1; ++j){
+                if(!mip.test(i, j)) return false;
+            }
+            return true;
+        }
+    }
+
+    record IntegratorNonDec3(int n1, int n2)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=i; j<n1; ++j){
+                for(int k=j; k<n2; ++k){
+                    if(!mip.test(i, j, k)) return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorNonDec4(int n1, int n2, int n3)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=i; j<n1; ++j){
+                for(int k=j; k<n2; ++k){
+                    for(int l=k; l<n3; ++l){
+                        if(!mip.test(i, j, k, l)) return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorNonDec5(int n1, int n2, int n3, int n4)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=i; j<n1; ++j){
+                for(int k=j; k<n2; ++k){
+                    for(int l=k; l<n3; ++l){
+                        for(int m=l; m<n4; ++m){
+                            if(!mip.test(i, j, k, l, m)) return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorNonDec6(int n1, int n2, int n3, int n4, int n5)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=i; j<n1; ++j){
+                for(int k=j; k<n2; ++k){
+                    for(int l=k; l<n3; ++l){
+                        for(int m=l; m<n4; ++m){
+                            for(int n=m; n<n5; ++n){
+                                if(!mip.test(i, j, k, l, m, n)) return false;
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorNonDec7(int n1, int n2, int n3, int n4, int n5, int n6)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=i; j<n1; ++j){
+                for(int k=j; k<n2; ++k){
+                    for(int l=k; l<n3; ++l){
+                        for(int m=l; m<n4; ++m){
+                            for(int n=m; n<n5; ++n){
+                                for(int o=n; o<n6; ++o){
+                                    if(!mip.test(i, j, k, l, m, n, o)) return false;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorNonDec8(int n1, int n2, int n3, int n4, int n5, int n6, int n7)
+    implements Integrator<Void, Integer, int[]> {
+        @Override
+        public boolean integrate(final Void state, final Integer i, final Downstream<? super int[]> downstream) {
+            final MultiIntPredicate mip = downstream::push;
+            for(int j=i; j<n1; ++j){
+                for(int k=j; k<n2; ++k){
+                    for(int l=k; l<n3; ++l){
+                        for(int m=l; m<n4; ++m){
+                            for(int n=m; n<n5; ++n){
+                                for(int o=n; o<n6; ++o){
+                                    for(int p=o; p<n7; ++p){
+                                        if(!mip.test(i, j, k, l, m, n, o, p)) return false;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    record IntegratorComposite(IndexSpace.IndexOrder indexOrder, int indexCount, IndexSpaceBlock b)
+    implements Integrator<Void, int[], int[]> {
+        @Override
+        public boolean integrate(final Void state, final int[] va, final Downstream<? super int[]> downstream) {
+            final int[] v = new int[indexCount];
+            System.arraycopy(va, 0, v, 0, va.length);
+            return b.visitInto(indexOrder, v, va.length, va[va.length - 1], ()->
+                downstream.push(v.clone()));
+        }
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.util.stream.IntStream;
+
+import jcompute.combinatorics.base.Combinations;
+
+/**
+ * Permutations of a multiset in lexicographic order, where element {@code e} occurs {@code multiplicities[e]} times.
+ * (For instance, multiplicities {@code {2, 1}} yields {@code (0, 0, 1), (0, 1, 0), (1, 0, 0)}.)
+ * <p>
+ * Ranking counts the permutations of the remaining elements by their multinomial coefficient.
+ * @param multiplicities - non-negative, such that the multinomial coefficient fits a {@code long}
+ */
+public record MultisetPermutations(int... multiplicities) implements RankedTuples {
+
+    public MultisetPermutations {
+        if(IntStream.of(multiplicities).anyMatch(m->m<0)) throw new IllegalArgumentException(
+                "multiplicities must be non-negative");
+        multiplicities = multiplicities.clone();
+        // fail early, if the count does not fit
+        multinomial(multiplicities);
+    }
+
+    @Override public long count() { return multinomial(multiplicities); }
+    @Override public int tupleLength() { return IntStream.of(multiplicities).sum(); }
+
+    @Override
+    public long rank(final int[] v) {
+        final int[] remaining = multiplicities.clone();
+        long rank = 0L;
+        for (int p = 0; p < v.length; p++) {
+            for (int e = 0; e < v[p]; e++) {
+                if(remaining[e]==0) continue;
+                --remaining[e];
+                rank += multinomial(remaining);
+                ++remaining[e];
+            }
+            --remaining[v[p]];
+        }
+        return rank;
+    }
+
+    @Override
+    public int[] unrank(final long rank, final int[] v) {
+        Permutations.checkRank(rank, count());
+        final int[] remaining = multiplicities.clone();
+        long r = rank;
+        for (int p = 0; p < v.length; p++) {
+            for (int e = 0; e < remaining.length; e++) {
+                if(remaining[e]==0) continue;
+                --remaining[e];
+                final long completions = multinomial(remaining);
+                if(r < completions) {
+                    v[p] = e;
+                    break;
+                }
+                r -= completions;
+                ++remaining[e];
+            }
+        }
+        return v;
+    }
+
+    @Override
+    public boolean next(final int[] v) {
+        return Permutations.next_permutation(v);
+    }
+
+    // -- HELPER
+
+    /**
+     * {@code (sum m)! / prod m!}, as a product of binomials.
+     * @throws ArithmeticException if not representable as {@code long}
+     */
+    static long multinomial(final int[] multiplicities) {
+        long multinomial = 1L;
+        int total = 0;
+        for (int m : multiplicities) {
+            total += m;
+            multinomial = Math.multiplyExact(multinomial, Combinations.binomialAsLongValueExact(total, m));
+        }
+        return multinomial;
+    }
+
+}
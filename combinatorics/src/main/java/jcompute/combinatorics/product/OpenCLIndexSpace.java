@@ -0,0 +1,414 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import jcompute.combinatorics.base.Combinations;
+import jcompute.combinatorics.product.IndexSpace.IndexOrder;
+import jcompute.core.mem.IntArray;
+import jcompute.core.mem.LongArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+
+///Enumerates an {@link IndexSpace} on an OpenCL device, where each work item decodes (unranks) its global id
+///into a tuple, which is then passed to user supplied OpenCL code.
+///
+///Supported are {@link IndexOrder#ANY} (mixed radix decoding, same order as visiting on the CPU)
+///and {@link IndexOrder#ASCENDING} for equal index ranges `n` (colex unranking of the k-combinations).
+///
+///The generated prelude defines `INDEX_COUNT` and `void decode(ulong rank, int* v)`,
+///followed by the user source, which is to define either
+///- `bool test(const int* v)`, for {@link #count(String)} and {@link #matches(String, int)}, or
+///- `int bin(const int* v)`, for {@link #histogram(String, LongArray)}, where bins out of range are ignored.
+///
+///The rank range is launched in tiles of up to `tileSize` work items, such that per tile counts fit 32 bits,
+///while totals are accumulated on the host as `long`. Hence cardinalities beyond 2<sup>32</sup> work.
+///
+///Example:
+/// ```
+///  // count the tuples of 100^6, whose indices sum up to 300
+///  var clSpace = OpenCLIndexSpace.of(device, IndexSpace.create(100, 100, 100, 100, 100, 100), IndexOrder.ANY);
+///  long count = clSpace.count("""
+///      bool test(const int* v) {
+///          int sum = 0;
+///          for(int d=0; d<INDEX_COUNT; ++d) sum += v[d];
+///          return sum == 300;
+///      }
+///      """);
+/// ```
+/// @param tileSize - max number of work items per kernel launch
+public record OpenCLIndexSpace(
+        ClDevice device,
+        IndexSpace indexSpace,
+        IndexOrder indexOrder,
+        long tileSize) {
+
+    /// default number of work items per kernel launch
+    public static final long DEFAULT_TILE_SIZE = 1L << 24;
+
+    public OpenCLIndexSpace {
+        if(indexOrder!=IndexOrder.ANY
+                && indexOrder!=IndexOrder.ASCENDING) throw new IllegalArgumentException(
+                        "index order %s is not supported, only ANY and ASCENDING".formatted(indexOrder));
+        if(indexOrder==IndexOrder.ASCENDING
+                && indexSpace.streamIndexRanges().distinct().count()>1) throw new IllegalArgumentException(
+                        "ASCENDING requires equal index ranges, got %s".formatted(
+                                Arrays.toString(indexSpace.streamIndexRanges().toArray())));
+        if(tileSize<1
+                || tileSize>(1L << 31)) throw new IllegalArgumentException(
+                        "tileSize (%d) must be within [1, 2^31]".formatted(tileSize));
+    }
+
+    public static OpenCLIndexSpace of(final ClDevice device, final IndexSpace indexSpace, final IndexOrder indexOrder) {
+        return new OpenCLIndexSpace(device, indexSpace, indexOrder, DEFAULT_TILE_SIZE);
+    }
+
+    public OpenCLIndexSpace withTileSize(final long tileSize) {
+        return new OpenCLIndexSpace(device, indexSpace, indexOrder, tileSize);
+    }
+
+    /**
+     * @param count - total number of matches
+     * @param tuples - the matches, up to given capacity, ordered by rank.
+     *      (If there were more matches than capacity, which of them are kept is unspecified.)
+     */
+    public record Matches(
+            long count,
+            List<int[]> tuples) {
+    }
+
+    /**
+     * Number of tuples, for which {@code test(v)} holds.
+     */
+    public long count(final String testSource) {
+        final long cardinality = cardinality();
+        if(cardinality==0) return 0L;
+        try (var arena = Arena.ofConfined();
+             var context = device.createContext()) {
+
+            var queue = context.createQueue();
+            var program = context.createProgram(prelude() + testSource + COUNT_KERNEL_SOURCE);
+            var kernel = program.createKernel("count");
+
+            var counter = IntArray.of(arena, Shape.of(1));
+            var memCounter = context.createMemoryReadWrite(counter);
+
+            long count = 0L;
+            for (long offset = 0; offset < cardinality; offset += tileSize) {
+                counter.put(0, 0);
+                queue.enqueueWriteBuffer(memCounter);
+                kernel.setArgs(offset, memCounter);
+                queue.enqueueNDRangeKernel(kernel, Shape.of(Math.min(tileSize, cardinality - offset)));
+                queue.enqueueReadBuffer(memCounter);
+                count += Integer.toUnsignedLong(counter.get(0));
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Tuples, for which {@code test(v)} holds, compacted on the device into a list of up to capacity ranks,
+     * which are decoded on the host.
+     */
+    public Matches matches(final String testSource, final int capacity) {
+        if(capacity<1) throw new IllegalArgumentException("capacity (%d) must be positive".formatted(capacity));
+        final long cardinality = cardinality();
+        if(cardinality==0) return new Matches(0L, List.of());
+        try (var arena = Arena.ofConfined();
+             var context = device.createContext()) {
+
+            var queue = context.createQueue();
+            var program = context.createProgram(prelude() + testSource + MATCHES_KERNEL_SOURCE);
+            var kernel = program.createKernel("matches");
+
+            var counter = IntArray.of(arena, Shape.of(1));
+            var ranks = LongArray.of(arena, Shape.of(capacity));
+            var memCounter = context.createMemoryReadWrite(counter);
+            var memRanks = context.createMemoryWriteOnly(ranks);
+
+            final long[] matchRanks = new long[capacity];
+            int matchCount = 0;
+            long count = 0L;
+            for (long offset = 0; offset < cardinality; offset += tileSize) {
+                counter.put(0, 0);
+                queue.enqueueWriteBuffer(memCounter);
+                kernel.setArgs(offset, memCounter, memRanks, capacity - matchCount);
+                queue.enqueueNDRangeKernel(kernel, Shape.of(Math.min(tileSize, cardinality - offset)));
+                queue.enqueueReadBuffer(memCounter);
+                final long tileCount = Integer.toUnsignedLong(counter.get(0));
+                count += tileCount;
+                final int stored = (int)Math.min(tileCount, capacity - matchCount);
+                if(stored>0) {
+                    queue.enqueueReadBuffer(memRanks);
+                    // tiles are in rank order, within a tile slots are assigned concurrently
+                    final long[] tileRanks = new long[stored];
+                    for (int i = 0; i < stored; i++) {
+                        tileRanks[i] = ranks.get(i);
+                    }
+                    Arrays.sort(tileRanks);
+                    System.arraycopy(tileRanks, 0, matchRanks, matchCount, stored);
+                    matchCount += stored;
+                }
+            }
+            final List<int[]> tuples = new ArrayList<>(matchCount);
+            for (int i = 0; i < matchCount; i++) {
+                tuples.add(decode(matchRanks[i], new int[indexSpace.indexCount()]));
+            }
+            return new Matches(count, tuples);
+        }
+    }
+
+    /**
+     * Adds to given histogram, for each tuple, one to the bin {@code bin(v)}.
+     * Each work-group accumulates in local memory first, hence the number of bins is bounded by the device's
+     * local memory size.
+     */
+    public void histogram(final String binSource, final LongArray histogram) {
+        final long cardinality = cardinality();
+        if(cardinality==0) return;
+        final int binCount = Math.toIntExact(histogram.shape().totalSize());
+        try (var arena = Arena.ofConfined();
+             var context = device.createContext()) {
+
+            var queue = context.createQueue();
+            var program = context.programBuilder(prelude() + binSource + HISTOGRAM_KERNEL_SOURCE)
+                    .define("BIN_COUNT", binCount)
+                    .build();
+            var kernel = program.createKernel("histogram");
+
+            var tileHistogram = IntArray.of(arena, Shape.of(binCount));
+            var memHistogram = context.createMemoryReadWrite(tileHistogram);
+
+            for (long offset = 0; offset < cardinality; offset += tileSize) {
+                tileHistogram.fill(j->0);
+                queue.enqueueWriteBuffer(memHistogram);
+                kernel.setArgs(offset, memHistogram);
+                queue.enqueueNDRangeKernel(kernel, Shape.of(Math.min(tileSize, cardinality - offset)));
+                queue.enqueueReadBuffer(memHistogram);
+                for (int j = 0; j < binCount; j++) {
+                    histogram.put(j, histogram.get(j) + Integer.toUnsignedLong(tileHistogram.get(j)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of tuples, that is the rank range.
+     * @throws ArithmeticException if not representable as {@code long}
+     */
+    public long cardinality() {
+        return switch (indexOrder) {
+            case ASCENDING -> indexSpace.indexCount()==0
+                ? 0L
+                : Combinations.binomialAsLongValueExact(
+                        indexSpace.streamIndexRanges().findFirst().orElseThrow(),
+                        indexSpace.indexCount());
+            default -> indexSpace.cardinality().longValueExact();
+        };
+    }
+
+    // -- DECODING
+
+    /**
+     * Host side equivalent of the device's {@code decode(rank, v)}.
+     * @return v
+     */
+    int[] decode(final long rank, final int[] v) {
+        final int[] dim = indexSpace.streamIndexRanges().toArray();
+        if(indexOrder==IndexOrder.ASCENDING) {
+            final long[][] binomials = binomials(dim[0], dim.length);
+            long r = rank;
+            int upper = dim[0];
+            for (int i = dim.length; i > 0; i--) {
+                int x = upper - 1;
+                while(binomials[x][i] > r) --x;
+                v[i - 1] = x;
+                r -= binomials[x][i];
+                upper = x;
+            }
+            return v;
+        }
+        long r = rank;
+        for (int d = dim.length - 1; d >= 0; d--) {
+            v[d] = (int)(r % dim[d]);
+            r /= dim[d];
+        }
+        return v;
+    }
+
+    /**
+     * Generated OpenCL source, that defines {@code INDEX_COUNT} and {@code decode(rank, v)}.
+     */
+    String prelude() {
+        final int[] dim = indexSpace.streamIndexRanges().toArray();
+        final var sb = new StringBuilder()
+            .append("#define INDEX_COUNT %d\n".formatted(dim.length));
+        if(indexOrder==IndexOrder.ASCENDING) {
+            final int n = dim[0];
+            sb.append("#define N %d\n".formatted(n));
+            sb.append("// BINOMIAL[x][i] = binomial(x, i), saturated at LONG_MAX\n");
+            sb.append("__constant ulong BINOMIAL[N][INDEX_COUNT+1] = {\n");
+            sb.append(Arrays.stream(binomials(n, dim.length))
+                .map(row->Arrays.stream(row)
+                    .mapToObj(b->b + "UL")
+                    .collect(Collectors.joining(", ", "    {", "}")))
+                .collect(Collectors.joining(",\n")));
+            sb.append("\n};\n");
+            sb.append(DECODE_COLEX_SOURCE);
+        } else {
+            sb.append("__constant int DIM[INDEX_COUNT] = {%s};\n".formatted(
+                IntStream.of(dim)
+                    .mapToObj(Integer::toString)
+                    .collect(Collectors.joining(", "))));
+            sb.append(DECODE_MIXED_RADIX_SOURCE);
+        }
+        return sb.toString();
+    }
+
+    // -- KERNELS
+
+    private static final String DECODE_MIXED_RADIX_SOURCE =
+    """
+        void decode(ulong rank, int* v) {
+            for(int d=INDEX_COUNT-1; d>=0; --d){
+                v[d] = (int)(rank % DIM[d]);
+                rank /= DIM[d];
+            }
+        }
+    """;
+
+    private static final String DECODE_COLEX_SOURCE =
+    """
+        void decode(ulong rank, int* v) {
+            int upper = N;
+            for(int i=INDEX_COUNT; i>0; --i){
+                // largest x < upper with binomial(x, i) <= rank
+                int x = upper - 1;
+                while(BINOMIAL[x][i] > rank) --x;
+                v[i-1] = x;
+                rank -= BINOMIAL[x][i];
+                upper = x;
+            }
+        }
+    """;
+
+    private static final String COUNT_KERNEL_SOURCE =
+    """
+
+        __kernel void count(
+            const ulong offset,
+            __global unsigned int* counter) {
+
+            __local unsigned int localCount;
+            if(get_local_id(0)==0) {
+                localCount = 0;
+            }
+            barrier(CLK_LOCAL_MEM_FENCE);
+
+            int v[INDEX_COUNT];
+            decode(offset + get_global_id(0), v);
+            if(test(v)) {
+                atomic_inc(&localCount);
+            }
+            barrier(CLK_LOCAL_MEM_FENCE);
+
+            if(get_local_id(0)==0 && localCount>0) {
+                atomic_add(counter, localCount);
+            }
+        }
+    """;
+
+    private static final String MATCHES_KERNEL_SOURCE =
+    """
+
+        __kernel void matches(
+            const ulong offset,
+            __global unsigned int* counter,
+            __global ulong* ranks,
+            const int capacity) {
+
+            const ulong rank = offset + get_global_id(0);
+            int v[INDEX_COUNT];
+            decode(rank, v);
+            if(test(v)) {
+                const unsigned int slot = atomic_inc(counter);
+                if(slot < capacity) {
+                    ranks[slot] = rank;
+                }
+            }
+        }
+    """;
+
+    private static final String HISTOGRAM_KERNEL_SOURCE =
+    """
+
+        __kernel void histogram(
+            const ulong offset,
+            __global unsigned int* histogram) {
+
+            __local unsigned int localHistogram[BIN_COUNT];
+
+            const int lid = get_local_id(0);
+            const int localSize = get_local_size(0);
+
+            for(int j=lid; j<BIN_COUNT; j+=localSize){
+                localHistogram[j] = 0;
+            }
+            barrier(CLK_LOCAL_MEM_FENCE);
+
+            int v[INDEX_COUNT];
+            decode(offset + get_global_id(0), v);
+            const int b = bin(v);
+            if(b>=0 && b<BIN_COUNT) {
+                atomic_inc(&localHistogram[b]);
+            }
+            barrier(CLK_LOCAL_MEM_FENCE);
+
+            for(int j=lid; j<BIN_COUNT; j+=localSize){
+                if(localHistogram[j] > 0) {
+                    atomic_add(&histogram[j], localHistogram[j]);
+                }
+            }
+        }
+    """;
+
+    // -- HELPER
+
+    /**
+     * {@code binomials[x][i] = binomial(x, i)} for {@code x < n} and {@code i <= k}, saturated at {@link Long#MAX_VALUE}.
+     */
+    private static long[][] binomials(final int n, final int k) {
+        final long[][] binomials = new long[n][k + 1];
+        for (int x = 0; x < n; x++) {
+            binomials[x][0] = 1;
+            for (int i = 1; i <= Math.min(x, k); i++) {
+                final long sum = binomials[x - 1][i - 1] + binomials[x - 1][i];
+                binomials[x][i] = sum < 0 ? Long.MAX_VALUE : sum;
+            }
+        }
+        return binomials;
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+/**
+ * Permutations of {@code {0, 1, ..., n-1}} in lexicographic order,
+ * ranked by their Lehmer code (factorial number system).
+ * @param n - must be within {@code [0, 20]}, such that {@code n!} fits a {@code long}
+ */
+public record Permutations(int n) implements RankedTuples {
+
+    public Permutations {
+        if(n<0 || n>20) throw new IllegalArgumentException("n (%d) must be within [0, 20]".formatted(n));
+    }
+
+    @Override public long count() { return factorial(n); }
+    @Override public int tupleLength() { return n; }
+
+    /**
+     * Lehmer rank, that is {@code sum d[i] * (n-1-i)!}, where {@code d[i]} is the number of
+     * elements right of position i, that are smaller than {@code v[i]}.
+     */
+    @Override
+    public long rank(final int[] v) {
+        long rank = 0L;
+        for (int i = 0; i < n; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < n; j++) {
+                if(v[j] < v[i]) ++smaller;
+            }
+            rank += smaller * factorial(n - 1 - i);
+        }
+        return rank;
+    }
+
+    @Override
+    public int[] unrank(final long rank, final int[] v) {
+        checkRank(rank, count());
+        // Lehmer code digits, then pick the d-th smallest of the remaining elements
+        long r = rank;
+        for (int i = 0; i < n; i++) {
+            final long f = factorial(n - 1 - i);
+            v[i] = (int)(r / f);
+            r %= f;
+        }
+        final boolean[] used = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            // the (v[i]+1)-th unused element
+            int x = -1;
+            for (int d = v[i]; d >= 0; ) {
+                if(!used[++x]) --d;
+            }
+            used[x] = true;
+            v[i] = x;
+        }
+        return v;
+    }
+
+    @Override
+    public boolean next(final int[] v) {
+        return next_permutation(v);
+    }
+
+    // -- UTILITY
+
+    /**
+     * Advances v (in place) to its lexicographic successor, also in the presence of equal elements.
+     * @return whether a successor exists, that is {@code v} was not the last (non-increasing) permutation
+     */
+    public static boolean next_permutation(final int[] v) {
+        int i = v.length - 2;
+        while(i >= 0 && v[i] >= v[i + 1]) --i;
+        if(i < 0) return false;
+        int j = v.length - 1;
+        while(v[j] <= v[i]) --j;
+        swap(v, i, j);
+        for (int lo = i + 1, hi = v.length - 1; lo < hi; lo++, hi--) {
+            swap(v, lo, hi);
+        }
+        return true;
+    }
+
+    public static long factorial(final int n) {
+        long factorial = 1L;
+        for (int i = 2; i <= n; i++) {
+            factorial = Math.multiplyExact(factorial, i);
+        }
+        return factorial;
+    }
+
+    // -- HELPER
+
+    static void checkRank(final long rank, final long count) {
+        if(rank<0 || rank>=count) throw new IllegalArgumentException(
+                "rank %d out of bounds for count %d".formatted(rank, count));
+    }
+
+    private static void swap(final int[] v, final int i, final int j) {
+        final int t = v[i];
+        v[i] = v[j];
+        v[j] = t;
+    }
+
+}
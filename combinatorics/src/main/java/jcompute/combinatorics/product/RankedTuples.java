@@ -0,0 +1,223 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import jcompute.combinatorics.base.MinimalChangeOrders;
+import jcompute.combinatorics.product.IndexSpace.Concurrency;
+import jcompute.combinatorics.product.IndexSpace.Visiting;
+import jcompute.core.util.function.MultiIntConsumer;
+import jcompute.core.util.function.MultiIntPredicate;
+import jcompute.core.util.function.PrefixedMultiIntConsumer;
+
+///A finite sequence of tuples (of fixed length), that can be ranked and unranked.
+///Hence the rank range is split into chunks, where each chunk unranks its first tuple into a reusable buffer,
+///then steps through the remaining ones via {@link #next(int[])}.
+///
+///Visits honor {@link Visiting#concurrency()}, {@link Visiting#parallelism()} (where each chunk counts as a task)
+///and {@link Visiting#cancellation()} (checked per chunk and every {@value #CANCELLATION_CHECK_INTERVAL} tuples),
+///while {@link Visiting#indexOrder()} does not apply, tuples are always visited in rank order (per chunk).
+///
+///Example:
+/// ```
+///  // all derangements of 9 elements, visited in parallel
+///  new Derangements(9).forEach(Visiting.parallel(), perm->...);
+/// ```
+public interface RankedTuples {
+
+    /// number of tuples between cancellation checks
+    int CANCELLATION_CHECK_INTERVAL = 4096;
+    /// lower bound for the number of tuples per chunk, below which parallel visiting does not pay off
+    long MIN_CHUNK_SIZE = 1L << 12;
+
+    /**
+     * Number of tuples, that is the rank range.
+     */
+    long count();
+    /**
+     * Length of each tuple.
+     */
+    int tupleLength();
+    /**
+     * Rank of given tuple.
+     */
+    long rank(int[] v);
+    /**
+     * Writes the tuple with given rank into v.
+     * @return v
+     */
+    int[] unrank(long rank, int[] v);
+    /**
+     * Advances v (in place) to its successor in rank order.
+     * @return whether a successor exists, that is {@code v} was not the last tuple
+     */
+    boolean next(int[] v);
+
+    // -- VISITING
+
+    /**
+     * Visits all tuples, where the tuple passed to the consumer is a reused buffer.
+     */
+    default void forEach(final Visiting visiting, final MultiIntConsumer intConsumer) {
+        final Cancellation cancellation = visiting.cancellation();
+        visitChunks(visiting, (start, end)->{
+            final int[] v = unrank(start, new int[tupleLength()]);
+            for (long rank = start; rank < end; rank++) {
+                if((rank - start) % CANCELLATION_CHECK_INTERVAL == 0
+                        && cancellation.isCancelled()) return;
+                if(rank > start) next(v);
+                intConsumer.accept(v);
+            }
+        });
+    }
+
+    /**
+     * Streams all tuples, where each streamed tuple is a fresh array.
+     * (To run in the pool of {@link Visiting#parallelism()}, the terminal operation is to be run via
+     * {@link Visiting#invoke(Supplier)}.)
+     */
+    default Stream<int[]> stream(final Visiting visiting) {
+        final long count = count();
+        final long chunkCount = chunkCount(visiting, count);
+        final LongStream chunks = LongStream.range(0, chunkCount);
+        return (visiting.concurrency()==Concurrency.PARALLEL
+                ? chunks.parallel()
+                : chunks)
+            .boxed()
+            .flatMap(chunk->{
+                final long start = chunkStart(count, chunkCount, chunk);
+                final long length = chunkStart(count, chunkCount, chunk + 1) - start;
+                return Stream.iterate(unrank(start, new int[tupleLength()]), prev->{
+                        final int[] next = prev.clone();
+                        next(next);
+                        return next;
+                    })
+                    .limit(length);
+            });
+    }
+
+    /**
+     * Optionally returns any tuple, that matches given predicate. Once found, all other chunks stop.
+     */
+    default Optional<int[]> findAny(final Visiting visiting, final MultiIntPredicate intPredicate) {
+        final Cancellation cancellation = visiting.cancellation();
+        final AtomicBoolean found = new AtomicBoolean();
+        final long count = count();
+        final long chunkCount = chunkCount(visiting, count);
+        return visiting.invoke(()->visiting.mapToObj(Math.toIntExact(chunkCount), chunk->{
+                final long start = chunkStart(count, chunkCount, chunk);
+                final long end = chunkStart(count, chunkCount, chunk + 1);
+                final int[] v = unrank(start, new int[tupleLength()]);
+                for (long rank = start; rank < end; rank++) {
+                    if((rank - start) % CANCELLATION_CHECK_INTERVAL == 0
+                            && (found.get() || cancellation.isCancelled())) return null;
+                    if(rank > start) next(v);
+                    if(intPredicate.test(v)) {
+                        found.set(true);
+                        return v;
+                    }
+                }
+                return null;
+            })
+            .filter(Objects::nonNull)
+            .findAny());
+    }
+
+    /**
+     * Mutable reduction with one accumulator per chunk, finally combined pairwise (in a tree).
+     * The tuple passed to the accumulator is a reused buffer.
+     * @see jcompute.combinatorics.product.IndexSpace#reduce(Visiting, Supplier, PrefixedMultiIntConsumer, BinaryOperator)
+     */
+    default <A> A reduce(
+            final Visiting visiting,
+            final Supplier<A> accumulatorFactory,
+            final PrefixedMultiIntConsumer<A> accumulator,
+            final BinaryOperator<A> combiner) {
+        final Cancellation cancellation = visiting.cancellation();
+        final long count = count();
+        final long chunkCount = chunkCount(visiting, count);
+        return visiting.invoke(()->visiting.mapToObj(Math.toIntExact(chunkCount), chunk->{
+                final A acc = accumulatorFactory.get();
+                final long start = chunkStart(count, chunkCount, chunk);
+                final long end = chunkStart(count, chunkCount, chunk + 1);
+                final int[] v = unrank(start, new int[tupleLength()]);
+                for (long rank = start; rank < end; rank++) {
+                    if((rank - start) % CANCELLATION_CHECK_INTERVAL == 0
+                            && cancellation.isCancelled()) break;
+                    if(rank > start) next(v);
+                    accumulator.accept(acc, v);
+                }
+                return acc;
+            })
+            .reduce(combiner)
+            .orElseGet(accumulatorFactory));
+    }
+
+    // -- SHORTCUTS
+
+    default void forEachSequential(final MultiIntConsumer intConsumer) {
+        forEach(Visiting.sequential(), intConsumer);
+    }
+    default void forEachParallel(final MultiIntConsumer intConsumer) {
+        forEach(Visiting.parallel(), intConsumer);
+    }
+    default Stream<int[]> streamSequential() {
+        return stream(Visiting.sequential());
+    }
+    default Stream<int[]> streamParallel() {
+        return stream(Visiting.parallel());
+    }
+    default Optional<int[]> findAny(final MultiIntPredicate intPredicate) {
+        return findAny(Visiting.parallel(), intPredicate);
+    }
+
+    // -- HELPER
+
+    private void visitChunks(final Visiting visiting, final MinimalChangeOrders.ChunkVisitor chunkVisitor) {
+        final long count = count();
+        final long chunkCount = chunkCount(visiting, count);
+        visiting.forEach(Math.toIntExact(chunkCount), chunk->chunkVisitor.visit(
+                chunkStart(count, chunkCount, chunk),
+                chunkStart(count, chunkCount, chunk + 1)));
+    }
+
+    private static long chunkCount(final Visiting visiting, final long count) {
+        if(count==0) return 0;
+        if(visiting.concurrency()==Concurrency.SEQUENTIAL
+                || count<=MIN_CHUNK_SIZE) return 1;
+        return Math.min(16L * visiting.parallelism().pool().getParallelism(), count / MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Start of given chunk, where chunks are fairly sized, such that their lengths differ by at most one.
+     */
+    private static long chunkStart(final long count, final long chunkCount, final long chunk) {
+        final long baseSize = count / chunkCount;
+        final long remainder = count % chunkCount;
+        return chunk * baseSize + Math.min(chunk, remainder);
+    }
+
+}
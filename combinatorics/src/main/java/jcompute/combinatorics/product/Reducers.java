@@ -0,0 +1,114 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import lombok.experimental.UtilityClass;
+
+import jcompute.combinatorics.product.IndexSpace.Concurrency;
+import jcompute.combinatorics.product.IndexSpace.IndexOrder;
+import jcompute.combinatorics.product.IndexSpace.Visiting;
+import jcompute.core.util.function.PrefixedMultiIntConsumer;
+
+///Mutable reduction with one accumulator per worker thread, shared by the {@link IndexSpace} implementations.
+///
+///Branches (one per index of the first dimension) are visited via
+///{@link IndexSpace#streamCollectors(Visiting, IntFunction, PrefixedMultiIntConsumer)},
+///where the collector of a branch is the accumulator of the worker running it.
+///Hence accumulators are looked up once per branch, not per tuple, and their count is bounded by the number of workers,
+///no matter how many branches there are. Finally, accumulators are combined pairwise in a tree.
+///
+///If there are fewer branches than workers, the first two dimensions are fused into one
+///(for {@link IndexOrder#ANY} only), such that all workers get some share of the work.
+@UtilityClass
+class Reducers {
+
+    <A> A reduce(
+            final IndexSpace indexSpace,
+            final Visiting visiting,
+            final Supplier<A> accumulatorFactory,
+            final PrefixedMultiIntConsumer<A> accumulator,
+            final BinaryOperator<A> combiner) {
+
+        final int indexCount = indexSpace.indexCount();
+        final Map<Thread, Slot<A>> slots = new ConcurrentHashMap<>();
+        final IntFunction<Slot<A>> slotOfCurrentWorker = _->slots.computeIfAbsent(Thread.currentThread(),
+                _->new Slot<>(accumulatorFactory.get(), new int[indexCount]));
+
+        if(isFusable(indexSpace, visiting)) {
+            final int[] dim = indexSpace.streamIndexRanges().toArray();
+            final int n1 = dim[1];
+            final int[] fusedDim = IntStream.concat(
+                    IntStream.of(dim[0] * n1),
+                    IntStream.of(dim).skip(2))
+                .toArray();
+            visit(visiting, IndexSpace.create(fusedDim), slotOfCurrentWorker, (slot, w)->{
+                final int[] v = slot.tuple();
+                v[0] = w[0] / n1;
+                v[1] = w[0] % n1;
+                System.arraycopy(w, 1, v, 2, w.length - 1);
+                accumulator.accept(slot.accumulator(), v);
+            });
+        } else {
+            visit(visiting, indexSpace, slotOfCurrentWorker, (slot, v)->accumulator.accept(slot.accumulator(), v));
+        }
+
+        return visiting.invoke(()->slots.values().stream()
+            .parallel()
+            .map(Slot::accumulator)
+            .reduce(combiner)
+            .orElseGet(accumulatorFactory));
+    }
+
+    // -- HELPER
+
+    /**
+     * Per worker accumulator and tuple buffer.
+     */
+    private record Slot<A>(A accumulator, int[] tuple) {}
+
+    private <A> void visit(
+            final Visiting visiting,
+            final IndexSpace indexSpace,
+            final IntFunction<Slot<A>> slotFactory,
+            final PrefixedMultiIntConsumer<Slot<A>> onTuple) {
+        visiting.invoke(()->{
+            // not count(), which may skip the visits, as the stream size is known up front
+            indexSpace.streamCollectors(visiting, slotFactory, onTuple)
+                .forEach(_->{});
+            return null;
+        });
+    }
+
+    private boolean isFusable(final IndexSpace indexSpace, final Visiting visiting) {
+        if(visiting.concurrency()!=Concurrency.PARALLEL
+                || visiting.indexOrder()!=IndexOrder.ANY
+                || indexSpace.indexCount()<2) return false;
+        final int[] dim = indexSpace.streamIndexRanges().limit(2).toArray();
+        return dim[0] < visiting.parallelism().pool().getParallelism()
+                && (long)dim[0] * dim[1] <= Integer.MAX_VALUE;
+    }
+
+}
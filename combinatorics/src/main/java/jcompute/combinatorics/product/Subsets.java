@@ -0,0 +1,102 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import jcompute.combinatorics.base.ColexCombinations;
+import jcompute.combinatorics.base.MinimalChangeOrders;
+import jcompute.combinatorics.product.IndexSpace.Concurrency;
+import jcompute.combinatorics.product.IndexSpace.Visiting;
+
+/**
+ * All subsets of {@code {0, 1, ..., n-1}}, where the subset of rank r is given by the bits of r,
+ * either as bitmask ({@link #forEachMask(Visiting, LongConsumer)}, {@link #streamMasks(Visiting)})
+ * or as indicator tuple {@code v[i] = 1} if i is an element, else {@code 0}.
+ * <p>
+ * For subsets in minimal-change order see {@link MinimalChangeOrders}, for subsets of fixed size see
+ * {@link ColexCombinations}.
+ * @param n - must be within {@code [0, 62]}
+ */
+public record Subsets(int n) implements RankedTuples {
+
+    public Subsets {
+        if(n<0 || n>62) throw new IllegalArgumentException("n (%d) must be within [0, 62]".formatted(n));
+    }
+
+    @Override public long count() { return 1L << n; }
+    @Override public int tupleLength() { return n; }
+
+    @Override
+    public long rank(final int[] v) {
+        long mask = 0L;
+        for (int i = 0; i < n; i++) {
+            if(v[i]!=0) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    @Override
+    public int[] unrank(final long rank, final int[] v) {
+        Permutations.checkRank(rank, count());
+        for (int i = 0; i < n; i++) {
+            v[i] = (int)((rank >>> i) & 1);
+        }
+        return v;
+    }
+
+    /**
+     * Binary increment of the indicator tuple.
+     */
+    @Override
+    public boolean next(final int[] v) {
+        for (int i = 0; i < n; i++) {
+            if(v[i]==0) {
+                v[i] = 1;
+                return true;
+            }
+            v[i] = 0;
+        }
+        return false;
+    }
+
+    // -- MASKS
+
+    /**
+     * Visits all subsets as bitmasks, honoring given {@link Visiting#concurrency()} and {@link Visiting#parallelism()}.
+     */
+    public void forEachMask(final Visiting visiting, final LongConsumer maskConsumer) {
+        visiting.invoke(()->{
+            streamMasks(visiting).forEach(maskConsumer);
+            return null;
+        });
+    }
+
+    /**
+     * Streams all subsets as bitmasks in rank order.
+     */
+    public LongStream streamMasks(final Visiting visiting) {
+        final LongStream masks = LongStream.range(0, count());
+        return visiting.concurrency()==Concurrency.PARALLEL
+                ? masks.parallel()
+                : masks;
+    }
+
+}
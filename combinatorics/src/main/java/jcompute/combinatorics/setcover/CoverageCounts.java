@@ -0,0 +1,355 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.setcover;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import jcompute.combinatorics.base.ColexCombinations;
+import jcompute.core.util.concurrent.Parallelism;
+
+/**
+ * Incremental coverage counts for local search (e.g. simulated annealing or tabu search)
+ * over covers made of kSets (k-subsets of {@code {0, 1, ..., v-1}}), where a kSet covers
+ * a pSet (m-subset), if they share at least t elements.
+ * <p>
+ * Per pSet, the number of kSets (of the current cover) covering it, is maintained.
+ * Both, pSets and kSets are identified by their colex rank (see {@link ColexCombinations}).
+ * <p>
+ * The pSets covered by a kSet are called its neighbours. Adding or removing a kSet only touches its neighbours,
+ * that is {@code sum binomial(k, j) * binomial(v-k, m-j)} pSets for {@code j >= t},
+ * rather than all pSets. The neighbour lists of the kSets in the cover are kept,
+ * while those of candidates are computed on demand.
+ * <p>
+ * Updates ({@link #add(long)}, {@link #remove(long)}) are not thread-safe, whereas move evaluation
+ * ({@link #swapDelta(long, long)}, {@link #swapDeltas(long[], long[])}) is read-only and runs in parallel.
+ */
+public final class CoverageCounts {
+
+    @Getter @Accessors(fluent = true) private final int v;
+    @Getter @Accessors(fluent = true) private final int k;
+    @Getter @Accessors(fluent = true) private final int m;
+    @Getter @Accessors(fluent = true) private final int t;
+
+    /// binomials[n][j] = binomial(n, j)
+    private final long[][] binomials;
+    /// per pSet rank, the number of covering kSets of the cover
+    private final int[] counts;
+    /// neighbour lists of the kSets in the cover, keyed by kSet rank
+    private final Map<Long, CoverEntry> cover = new HashMap<>();
+
+    @Getter @Accessors(fluent = true) private long uncoveredCount;
+    @Getter @Accessors(fluent = true) private long coverSize;
+
+    private static class CoverEntry {
+        final int[] neighbours;
+        int multiplicity;
+        CoverEntry(final int[] neighbours) {
+            this.neighbours = neighbours;
+        }
+    }
+
+    public CoverageCounts(final int v, final int k, final int m, final int t) {
+        if(k<1 || k>v) throw new IllegalArgumentException("k (%d) must be within [1, %d]".formatted(k, v));
+        if(m<1 || m>v) throw new IllegalArgumentException("m (%d) must be within [1, %d]".formatted(m, v));
+        if(t<1 || t>Math.min(k, m)) throw new IllegalArgumentException(
+                "t (%d) must be within [1, %d]".formatted(t, Math.min(k, m)));
+        this.v = v;
+        this.k = k;
+        this.m = m;
+        this.t = t;
+        this.binomials = binomials(v, Math.max(k, m));
+        this.counts = new int[Math.toIntExact(binomials[v][m])];
+        this.uncoveredCount = counts.length;
+    }
+
+    /**
+     * Number of pSets, that is {@code binomial(v, m)}.
+     */
+    public int pSetCount() {
+        return counts.length;
+    }
+
+    /**
+     * Number of kSets covering the pSet with given rank.
+     */
+    public int count(final int pSetRank) {
+        return counts[pSetRank];
+    }
+
+    public boolean isCovered(final int pSetRank) {
+        return counts[pSetRank]>0;
+    }
+
+    /**
+     * Visits the ranks of all pSets not (yet) covered.
+     */
+    public void forEachUncovered(final IntConsumer onPSetRank) {
+        for (int p = 0; p < counts.length; p++) {
+            if(counts[p]==0) onPSetRank.accept(p);
+        }
+    }
+
+    // -- UPDATES
+
+    /**
+     * Adds the kSet with given rank to the cover, in {@code O(neighbours)}.
+     * (The same kSet may be added multiple times.)
+     */
+    public void add(final long kSetRank) {
+        var entry = cover.computeIfAbsent(kSetRank, rank->new CoverEntry(neighbours(rank)));
+        ++entry.multiplicity;
+        ++coverSize;
+        for (int p : entry.neighbours) {
+            if(counts[p]++ == 0) --uncoveredCount;
+        }
+    }
+
+    /**
+     * Removes the kSet with given rank from the cover, in {@code O(neighbours)}.
+     * @throws IllegalArgumentException if not part of the cover
+     */
+    public void remove(final long kSetRank) {
+        var entry = cover.get(kSetRank);
+        if(entry==null) throw new IllegalArgumentException("kSet %d is not part of the cover".formatted(kSetRank));
+        if(--entry.multiplicity == 0) {
+            cover.remove(kSetRank);
+        }
+        --coverSize;
+        for (int p : entry.neighbours) {
+            if(--counts[p] == 0) ++uncoveredCount;
+        }
+    }
+
+    /**
+     * Replaces kSet {@code removeRank} by kSet {@code addRank}.
+     */
+    public void swap(final long removeRank, final long addRank) {
+        add(addRank);
+        remove(removeRank);
+    }
+
+    // -- MOVE EVALUATION
+
+    /**
+     * Change of {@link #uncoveredCount()}, if kSet {@code addRank} were added.
+     */
+    public int addDelta(final long addRank) {
+        int gained = 0;
+        for (int p : neighboursOf(addRank)) {
+            if(counts[p]==0) ++gained;
+        }
+        return -gained;
+    }
+
+    /**
+     * Change of {@link #uncoveredCount()}, if kSet {@code removeRank} (of the cover) were removed.
+     */
+    public int removeDelta(final long removeRank) {
+        int lost = 0;
+        for (int p : neighboursOf(removeRank)) {
+            if(counts[p]==1) ++lost;
+        }
+        return lost;
+    }
+
+    /**
+     * Change of {@link #uncoveredCount()}, if kSet {@code removeRank} (of the cover) were replaced
+     * by kSet {@code addRank}. Negative values are improvements.
+     */
+    public int swapDelta(final long removeRank, final long addRank) {
+        final int[] removed = neighboursOf(removeRank);
+        final int[] added = neighboursOf(addRank);
+        int lost = 0;
+        // merge walk, both neighbour lists are sorted
+        int j = 0;
+        for (int p : removed) {
+            if(counts[p]!=1) continue;
+            while(j < added.length && added[j] < p) ++j;
+            if(j < added.length && added[j] == p) continue; // stays covered
+            ++lost;
+        }
+        int gained = 0;
+        for (int p : added) {
+            if(counts[p]==0) ++gained;
+        }
+        return lost - gained;
+    }
+
+    /**
+     * Evaluates given swap moves {@code (removeRanks[i], addRanks[i])} in parallel.
+     * @return {@code swapDelta(removeRanks[i], addRanks[i])} for each i
+     */
+    public int[] swapDeltas(final long[] removeRanks, final long[] addRanks) {
+        return swapDeltas(removeRanks, addRanks, Parallelism.common());
+    }
+
+    /**
+     * Evaluates given swap moves {@code (removeRanks[i], addRanks[i])} within given {@link Parallelism},
+     * where each move counts as a task.
+     * @return {@code swapDelta(removeRanks[i], addRanks[i])} for each i
+     */
+    public int[] swapDeltas(final long[] removeRanks, final long[] addRanks, final Parallelism parallelism) {
+        if(removeRanks.length != addRanks.length) throw new IllegalArgumentException(
+                "move count mismatch: %d removals, %d additions".formatted(removeRanks.length, addRanks.length));
+        return parallelism.call(()->IntStream.range(0, removeRanks.length)
+            .parallel()
+            .map(i->parallelism.task(()->swapDelta(removeRanks[i], addRanks[i])))
+            .toArray());
+    }
+
+    // -- NEIGHBOURS
+
+    /**
+     * Sorted ranks of all pSets covered by the kSet with given rank.
+     */
+    public int[] neighbours(final long kSetRank) {
+        final int[] kSet = kSet(kSetRank);
+        final int[] complement = complement(kSet);
+
+        final int[] neighbours = new int[neighbourCount()];
+        int n = 0;
+        final int[] pSet = new int[m];
+        for (int j = t; j <= Math.min(k, m); j++) {
+            if(m - j > complement.length) continue;
+            // a: indices into kSet, b: indices into complement
+            final int[] a = IntStream.range(0, j).toArray();
+            do {
+                final int[] b = IntStream.range(0, m - j).toArray();
+                do {
+                    merge(kSet, a, complement, b, pSet);
+                    neighbours[n++] = Math.toIntExact(rank(pSet));
+                } while(ColexCombinations.next_colex(complement.length, b));
+            } while(ColexCombinations.next_colex(k, a));
+        }
+        Arrays.sort(neighbours);
+        return neighbours;
+    }
+
+    /**
+     * Number of pSets covered by any kSet, that is {@code sum binomial(k, j) * binomial(v-k, m-j)} for {@code j >= t}.
+     */
+    public int neighbourCount() {
+        long count = 0;
+        for (int j = t; j <= Math.min(k, m); j++) {
+            if(m - j > v - k) continue;
+            count += binomials[k][j] * binomials[v - k][m - j];
+        }
+        return Math.toIntExact(count);
+    }
+
+    /**
+     * Elements {@code c[0] < c[1] < ... < c[k-1]} of the kSet with given colex rank.
+     */
+    public int[] kSet(final long kSetRank) {
+        return unrank(kSetRank, new int[k]);
+    }
+
+    /**
+     * Elements {@code c[0] < c[1] < ... < c[m-1]} of the pSet with given colex rank.
+     */
+    public int[] pSet(final int pSetRank) {
+        return unrank(pSetRank, new int[m]);
+    }
+
+    /**
+     * Writes the elements of the set with given colex rank into c, where the set size is {@code c.length}.
+     * @return c
+     */
+    public int[] unrank(final long rank, final int[] c) {
+        long r = rank;
+        int upperExclusive = v;
+        for (int i = c.length; i > 0; i--) {
+            int x = upperExclusive - 1;
+            while(binomials[x][i] > r) --x;
+            c[i - 1] = x;
+            r -= binomials[x][i];
+            upperExclusive = x;
+        }
+        return c;
+    }
+
+    /**
+     * Colex rank of given (sorted) set.
+     */
+    public long rank(final int[] c) {
+        long rank = 0L;
+        for (int i = 0; i < c.length; i++) {
+            rank += binomials[c[i]][i + 1];
+        }
+        return rank;
+    }
+
+    // -- HELPER
+
+    private int[] neighboursOf(final long kSetRank) {
+        var entry = cover.get(kSetRank);
+        return entry!=null
+                ? entry.neighbours
+                : neighbours(kSetRank);
+    }
+
+    private int[] complement(final int[] kSet) {
+        final int[] complement = new int[v - kSet.length];
+        int n = 0;
+        int i = 0;
+        for (int x = 0; x < v; x++) {
+            if(i < kSet.length && kSet[i] == x) {
+                ++i;
+            } else {
+                complement[n++] = x;
+            }
+        }
+        return complement;
+    }
+
+    /**
+     * Merges the selected elements of two disjoint sorted sets into (sorted) pSet.
+     */
+    private static void merge(final int[] x, final int[] xIndices, final int[] y, final int[] yIndices, final int[] pSet) {
+        int i = 0;
+        int j = 0;
+        for (int n = 0; n < pSet.length; n++) {
+            if(j >= yIndices.length
+                    || (i < xIndices.length && x[xIndices[i]] < y[yIndices[j]])) {
+                pSet[n] = x[xIndices[i++]];
+            } else {
+                pSet[n] = y[yIndices[j++]];
+            }
+        }
+    }
+
+    private static long[][] binomials(final int n, final int kMax) {
+        final long[][] binomials = new long[n + 1][kMax + 2];
+        for (int i = 0; i <= n; i++) {
+            binomials[i][0] = 1;
+            for (int j = 1; j <= Math.min(i, kMax + 1); j++) {
+                binomials[i][j] = Math.addExact(binomials[i - 1][j - 1], binomials[i - 1][j]);
+            }
+        }
+        return binomials;
+    }
+
+}
@@ -0,0 +1,391 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.setcover;
+
+import java.lang.foreign.Arena;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import lombok.RequiredArgsConstructor;
+
+import jcompute.combinatorics.base.ColexCombinations;
+import jcompute.core.mem.LongArray;
+import jcompute.core.shape.Shape;
+import jcompute.core.util.concurrent.Parallelism;
+
+/**
+ * Searches for a covering design with a given number of blocks, that is a set of kSets (blocks),
+ * such that every pSet (m-subset of {@code {0, 1, ..., v-1}}) shares at least t elements with one of the blocks.
+ * <p>
+ * An initial set of blocks is built greedily, then improved by simulated annealing,
+ * where each move replaces a block by a modification of it, that covers a (randomly picked) uncovered pSet.
+ * Moves are evaluated incrementally with {@link CoverageCounts}.
+ * <p>
+ * Multiple annealing chains run in parallel, each with its own random seed. All chains stop, once one of them
+ * found a cover.
+ */
+public class CoveringDesignSolver {
+
+    /**
+     * @param chains - number of annealing chains, run in parallel
+     * @param maxIterations - per chain upper bound on the number of moves
+     * @param timeout - upper bound on the total solver run time, checked during the greedy phase
+     *      and at each progress report, {@code ChronoUnit.FOREVER.getDuration()} for none
+     * @param initialTemperature - starting temperature (in units of uncovered pSets)
+     * @param finalTemperature - temperature reached after {@code maxIterations}, by geometric cooling
+     * @param greedyCandidates - number of sampled candidates per greedy step
+     * @param progressInterval - number of moves between progress reports
+     * @param seed - random seed
+     */
+    public record Options(
+            int chains,
+            long maxIterations,
+            Duration timeout,
+            double initialTemperature,
+            double finalTemperature,
+            int greedyCandidates,
+            long progressInterval,
+            long seed) {
+
+        public Options {
+            if(chains<1) throw new IllegalArgumentException("chains (%d) must be positive".formatted(chains));
+            if(maxIterations<0) throw new IllegalArgumentException("maxIterations (%d) must be non-negative".formatted(maxIterations));
+            Objects.requireNonNull(timeout);
+            if(!(initialTemperature>0)) throw new IllegalArgumentException(
+                    "initialTemperature (%f) must be positive".formatted(initialTemperature));
+            if(!(finalTemperature>0)) throw new IllegalArgumentException(
+                    "finalTemperature (%f) must be positive".formatted(finalTemperature));
+            if(greedyCandidates<1) throw new IllegalArgumentException(
+                    "greedyCandidates (%d) must be positive".formatted(greedyCandidates));
+            if(progressInterval<1) throw new IllegalArgumentException(
+                    "progressInterval (%d) must be positive".formatted(progressInterval));
+        }
+
+        public static Options defaults() {
+            return new Options(
+                    Runtime.getRuntime().availableProcessors(),
+                    10_000_000L,
+                    Duration.ofMinutes(10),
+                    1.0,
+                    0.05,
+                    64,
+                    100_000L,
+                    42L);
+        }
+        public Options withChains(final int chains) {
+            return new Options(chains, maxIterations, timeout, initialTemperature, finalTemperature, greedyCandidates,
+                    progressInterval, seed);
+        }
+        public Options withMaxIterations(final long maxIterations) {
+            return new Options(chains, maxIterations, timeout, initialTemperature, finalTemperature, greedyCandidates,
+                    progressInterval, seed);
+        }
+        public Options withTimeout(final Duration timeout) {
+            return new Options(chains, maxIterations, timeout, initialTemperature, finalTemperature, greedyCandidates,
+                    progressInterval, seed);
+        }
+        public Options withSeed(final long seed) {
+            return new Options(chains, maxIterations, timeout, initialTemperature, finalTemperature, greedyCandidates,
+                    progressInterval, seed);
+        }
+    }
+
+    /**
+     * Progress report of a single chain.
+     * @param chain - chain index
+     * @param iteration - moves tried so far (by this chain)
+     * @param temperature - current temperature
+     * @param uncoveredCount - pSets currently not covered
+     * @param bestUncoveredCount - fewest pSets not covered, seen so far (by this chain)
+     */
+    public record Progress(
+            int chain,
+            long iteration,
+            double temperature,
+            long uncoveredCount,
+            long bestUncoveredCount) {
+    }
+
+    /**
+     * @param v - universe size
+     * @param k - block size
+     * @param kSetRanks - colex ranks of the blocks
+     * @param uncoveredCount - number of pSets not covered by the blocks, zero for a cover
+     */
+    public record Result(
+            int v,
+            int k,
+            long[] kSetRanks,
+            long uncoveredCount) {
+
+        public boolean isCover() {
+            return uncoveredCount==0;
+        }
+
+        /**
+         * The blocks as bitmasks, in the same layout as {@link SetCoverParams#kSets()},
+         * hence ready for {@link LongArray#write(java.io.OutputStream)} and verification.
+         */
+        public LongArray kSets(final Arena arena) {
+            final int wordCount = ColexCombinations.wordCount(v);
+            var kSets = LongArray.of(arena, wordCount==1
+                    ? Shape.of(kSetRanks.length)
+                    : Shape.of(kSetRanks.length, wordCount));
+            final int[] c = new int[k];
+            for (int b = 0; b < kSetRanks.length; b++) {
+                ColexCombinations.unrank_colex(v, kSetRanks[b], c);
+                for (int i = 0; i < k; i++) {
+                    final long wordIndex = (long)b * wordCount + (c[i] >>> 6);
+                    kSets.put(wordIndex, kSets.get(wordIndex) | (1L << c[i]));
+                }
+            }
+            return kSets;
+        }
+    }
+
+    final int v;
+    final int k;
+    final int m;
+    final int t;
+    /// number of blocks (kSets) of the design
+    final int blockCount;
+    final Options options;
+    final Consumer<Progress> onProgress;
+
+    /**
+     * @param v - universe size
+     * @param k - block size
+     * @param m - size of the sets to be covered (pSets)
+     * @param t - minimum intersection size, for a block to cover a pSet
+     * @param blockCount - number of blocks (kSets) of the design
+     * @param onProgress - called by each chain every {@link Options#progressInterval()} moves
+     */
+    public CoveringDesignSolver(
+            final int v,
+            final int k,
+            final int m,
+            final int t,
+            final int blockCount,
+            final Options options,
+            final Consumer<Progress> onProgress) {
+        if(blockCount<1) throw new IllegalArgumentException("blockCount (%d) must be positive".formatted(blockCount));
+        this.v = v;
+        this.k = k;
+        this.m = m;
+        this.t = t;
+        this.blockCount = blockCount;
+        this.options = Objects.requireNonNull(options);
+        this.onProgress = Objects.requireNonNull(onProgress);
+    }
+
+    public Result solve() {
+        return solve(Parallelism.common());
+    }
+
+    /**
+     * Runs the chains within given {@link Parallelism}, where each chain counts as a task.
+     */
+    public Result solve(final Parallelism parallelism) {
+        final long start = System.nanoTime();
+        // saturates, e.g. for ChronoUnit.FOREVER
+        final long timeoutNanos = TimeUnit.NANOSECONDS.convert(options.timeout());
+        final AtomicBoolean solved = new AtomicBoolean();
+        return parallelism.call(()->IntStream.range(0, options.chains())
+            .parallel()
+            .mapToObj(chain->parallelism.task(()->
+                new Chain(chain, new SplittableRandom(options.seed() + chain), solved, start, timeoutNanos).run()))
+            .min(Comparator.comparingLong(Result::uncoveredCount))
+            .orElseThrow());
+    }
+
+    // -- HELPER
+
+    @RequiredArgsConstructor
+    private class Chain {
+        final int chain;
+        final SplittableRandom random;
+        final AtomicBoolean solved;
+        /// {@link System#nanoTime()} at solver start
+        final long start;
+        final long timeoutNanos;
+
+        final CoverageCounts coverage = new CoverageCounts(v, k, m, t);
+        final long[] blocks = new long[blockCount];
+
+        Result run() {
+            greedy();
+            if(isTimedOut()) return new Result(v, k, blocks.clone(), coverage.uncoveredCount());
+
+            final double cooling = Math.pow(options.finalTemperature() / options.initialTemperature(),
+                    1.0 / Math.max(1, options.maxIterations()));
+            double temperature = options.initialTemperature();
+            long bestUncoveredCount = coverage.uncoveredCount();
+            long[] bestBlocks = blocks.clone();
+
+            final int[] candidate = new int[k];
+            for (long iteration = 1; iteration <= options.maxIterations(); iteration++, temperature *= cooling) {
+                if(coverage.uncoveredCount()==0) {
+                    solved.set(true);
+                    break;
+                }
+                if(solved.get()) break;
+
+                final int[] pSet = coverage.pSet(randomUncovered());
+                final int blockIndex = random.nextInt(blockCount);
+                final long removeRank = blocks[blockIndex];
+                final long addRank = coverage.rank(modifyToCover(coverage.kSet(removeRank), pSet, candidate));
+
+                final int delta = coverage.swapDelta(removeRank, addRank);
+                if(delta <= 0
+                        || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    coverage.swap(removeRank, addRank);
+                    blocks[blockIndex] = addRank;
+                    if(coverage.uncoveredCount() < bestUncoveredCount) {
+                        bestUncoveredCount = coverage.uncoveredCount();
+                        bestBlocks = blocks.clone();
+                    }
+                }
+
+                if(iteration % options.progressInterval() == 0) {
+                    onProgress.accept(new Progress(chain, iteration, temperature,
+                            coverage.uncoveredCount(), bestUncoveredCount));
+                    if(isTimedOut()) break;
+                }
+            }
+            return new Result(v, k, bestBlocks, bestUncoveredCount);
+        }
+
+        /**
+         * Adds blocks one by one, each the best of some sampled candidates that cover the next uncovered pSet.
+         * Stops early, once all pSets are covered or the solver timed out, in which case remaining blocks are random.
+         */
+        private void greedy() {
+            int nextUncovered = 0;
+            boolean timedOut = false;
+            final int[] candidate = new int[k];
+            for (int b = 0; b < blockCount; b++) {
+                while(nextUncovered < coverage.pSetCount()
+                        && coverage.isCovered(nextUncovered)) {
+                    ++nextUncovered;
+                }
+                timedOut = timedOut || isTimedOut();
+                if(nextUncovered == coverage.pSetCount()
+                        || timedOut) {
+                    blocks[b] = random.nextLong(ColexCombinations.count(v, k));
+                } else {
+                    final int[] pSet = coverage.pSet(nextUncovered);
+                    long bestRank = -1;
+                    int bestDelta = Integer.MAX_VALUE;
+                    for (int i = 0; i < options.greedyCandidates(); i++) {
+                        final long rank = coverage.rank(randomCovering(pSet, candidate));
+                        final int delta = coverage.addDelta(rank);
+                        if(delta < bestDelta) {
+                            bestDelta = delta;
+                            bestRank = rank;
+                        }
+                    }
+                    blocks[b] = bestRank;
+                }
+                coverage.add(blocks[b]);
+            }
+        }
+
+        /**
+         * Overflow-safe, as only the elapsed time is compared.
+         */
+        private boolean isTimedOut() {
+            return System.nanoTime() - start > timeoutNanos;
+        }
+
+        /**
+         * Rank of a random uncovered pSet, found by scanning from a random position.
+         */
+        private int randomUncovered() {
+            final int pSetCount = coverage.pSetCount();
+            int p = random.nextInt(pSetCount);
+            while(coverage.isCovered(p)) {
+                if(++p == pSetCount) p = 0;
+            }
+            return p;
+        }
+
+        /**
+         * Random kSet sharing at least t elements with given pSet,
+         * made of t random elements of the pSet, filled up with random other elements.
+         */
+        private int[] randomCovering(final int[] pSet, final int[] kSet) {
+            final boolean[] chosen = new boolean[v];
+            int n = 0;
+            while(n < t) {
+                final int x = pSet[random.nextInt(pSet.length)];
+                if(!chosen[x]) {
+                    chosen[x] = true;
+                    ++n;
+                }
+            }
+            while(n < k) {
+                final int x = random.nextInt(v);
+                if(!chosen[x]) {
+                    chosen[x] = true;
+                    ++n;
+                }
+            }
+            return toSortedSet(chosen, kSet);
+        }
+
+        /**
+         * Modifies given block minimally, such that it covers given pSet:
+         * random elements not in the pSet are replaced by random elements of the pSet,
+         * until they share t elements.
+         */
+        private int[] modifyToCover(final int[] block, final int[] pSet, final int[] kSet) {
+            final boolean[] chosen = new boolean[v];
+            final boolean[] inPSet = new boolean[v];
+            for (int x : block) chosen[x] = true;
+            for (int x : pSet) inPSet[x] = true;
+            int shared = 0;
+            for (int x : block) if(inPSet[x]) ++shared;
+            while(shared < t) {
+                final int removed = block[random.nextInt(k)];
+                if(!chosen[removed] || inPSet[removed]) continue;
+                final int added = pSet[random.nextInt(pSet.length)];
+                if(chosen[added]) continue;
+                chosen[removed] = false;
+                chosen[added] = true;
+                ++shared;
+            }
+            return toSortedSet(chosen, kSet);
+        }
+
+        private static int[] toSortedSet(final boolean[] chosen, final int[] set) {
+            int n = 0;
+            for (int x = 0; x < chosen.length; x++) {
+                if(chosen[x]) set[n++] = x;
+            }
+            return set;
+        }
+    }
+
+}
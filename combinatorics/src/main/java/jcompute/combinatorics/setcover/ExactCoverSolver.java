@@ -0,0 +1,417 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.setcover;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import org.jspecify.annotations.Nullable;
+
+import jcompute.combinatorics.product.Cancellation;
+import jcompute.core.mem.IntArray;
+import jcompute.core.shape.Shape;
+import jcompute.core.util.concurrent.Parallelism;
+
+/**
+ * Exact cover solver, based on Knuth's Algorithm X with dancing links (DLX).
+ * <p>
+ * Given a 0/1 matrix by its rows (each row listing the columns it has a 1 in), finds sets of rows,
+ * such that each primary column is covered exactly once, and each secondary column at most once.
+ * <p>
+ * The links are held off-heap in a single {@link IntArray} of {@value #FIELD_COUNT} fields per node.
+ * The search tree is expanded sequentially up to {@link Options#splitDepth()}, then the subtrees are searched
+ * in parallel batches. Each batch searches on its own copy of the links, where per subtree the prefix of chosen rows
+ * is replayed, then undone by uncovering, such that the copy is reused for the next subtree.
+ * <p>
+ * When counting, each search keeps a plain counter, which are summed up once all batches are done,
+ * while rows of a solution are only materialized by {@link #findAny(Options)}.
+ * <p>
+ * Example (N queens, with the diagonals as secondary columns):
+ * <pre>
+ * try(var arena = Arena.ofShared()) {
+ *     var solver = new ExactCoverSolver(arena, columnCount, primaryColumnCount, rows);
+ *     long count = solver.count(ExactCoverSolver.Options.defaults());
+ * }
+ * </pre>
+ */
+public final class ExactCoverSolver {
+
+    public enum ColumnHeuristic {
+        /// branches on the primary column with the fewest rows (Knuth's S heuristic), first one on ties
+        MIN_SIZE,
+        /// branches on the first primary column
+        FIRST
+    }
+
+    /**
+     * @param splitDepth - depth of the search tree, at which subtrees are searched in parallel, 0 for sequential
+     * @param columnHeuristic - how to pick the column to branch on
+     * @param cancellation - checked every {@value ExactCoverSolver#CANCELLATION_CHECK_INTERVAL} branches
+     * @param parallelism - where subtrees are searched, each counting as a task
+     */
+    public record Options(
+            int splitDepth,
+            ColumnHeuristic columnHeuristic,
+            Cancellation cancellation,
+            Parallelism parallelism) {
+
+        public Options {
+            if(splitDepth<0) throw new IllegalArgumentException("splitDepth (%d) must be non-negative".formatted(splitDepth));
+        }
+
+        public static Options defaults() {
+            return new Options(3, ColumnHeuristic.MIN_SIZE, Cancellation.none(), Parallelism.common());
+        }
+        public Options withSplitDepth(final int splitDepth) {
+            return new Options(splitDepth, columnHeuristic, cancellation, parallelism);
+        }
+        public Options withColumnHeuristic(final ColumnHeuristic columnHeuristic) {
+            return new Options(splitDepth, columnHeuristic, cancellation, parallelism);
+        }
+        public Options withCancellation(final Cancellation cancellation) {
+            return new Options(splitDepth, columnHeuristic, cancellation, parallelism);
+        }
+        public Options withParallelism(final Parallelism parallelism) {
+            return new Options(splitDepth, columnHeuristic, cancellation, parallelism);
+        }
+    }
+
+    /// number of branches between cancellation checks
+    static final int CANCELLATION_CHECK_INTERVAL = 4096;
+    /// number of subtree batches per worker of {@link Options#parallelism()}, for load balancing
+    static final int BATCHES_PER_WORKER = 4;
+
+    // node fields
+    private static final int L = 0;
+    private static final int R = 1;
+    private static final int U = 2;
+    private static final int D = 3;
+    /// column header of a node
+    private static final int C = 4;
+    /// row index of a node, for column headers the size of the column
+    private static final int ROW = 5;
+    static final int FIELD_COUNT = 6;
+
+    private static final int ROOT = 0;
+
+    private final int columnCount;
+    private final int rowCount;
+    private final int nodeCount;
+    /// initial links, copied per search
+    private final IntArray links;
+
+    /**
+     * All columns are primary.
+     */
+    public ExactCoverSolver(final Arena arena, final int columnCount, final List<int[]> rows) {
+        this(arena, columnCount, columnCount, rows);
+    }
+
+    /**
+     * @param arena - holds the initial links, which are read by all subtree searches,
+     *      hence must be accessible by the threads of {@link Options#parallelism()} (e.g. {@link Arena#ofShared()})
+     * @param columnCount - number of columns, where columns {@code 0..primaryColumnCount-1} are primary,
+     *      the remaining ones secondary
+     * @param rows - per row, the (distinct) columns it has a 1 in
+     */
+    public ExactCoverSolver(final Arena arena, final int columnCount, final int primaryColumnCount, final List<int[]> rows) {
+        if(primaryColumnCount<0
+                || primaryColumnCount>columnCount) throw new IllegalArgumentException(
+                        "primaryColumnCount (%d) must be within [0, %d]".formatted(primaryColumnCount, columnCount));
+        this.columnCount = columnCount;
+        this.rowCount = rows.size();
+        this.nodeCount = 1 + columnCount + rows.stream().mapToInt(row->row.length).sum();
+        this.links = IntArray.of(arena, Shape.of((long)nodeCount * FIELD_COUNT));
+
+        // root and column headers, only primary columns are linked into the header list
+        for (int node = 0; node <= columnCount; node++) {
+            set(links, node, U, node);
+            set(links, node, D, node);
+            set(links, node, C, node);
+            set(links, node, ROW, 0);
+            final boolean primary = node <= primaryColumnCount;
+            set(links, node, L, primary ? (node==0 ? primaryColumnCount : node - 1) : node);
+            set(links, node, R, primary ? (node==primaryColumnCount ? 0 : node + 1) : node);
+        }
+
+        int node = columnCount + 1;
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            final int[] row = rows.get(rowIndex);
+            if(row.length==0) throw new IllegalArgumentException("row %d is empty".formatted(rowIndex));
+            if(Arrays.stream(row).distinct().count()!=row.length) throw new IllegalArgumentException(
+                    "row %d has duplicate columns %s".formatted(rowIndex, Arrays.toString(row)));
+            final int first = node;
+            for (int column : row) {
+                if(column<0 || column>=columnCount) throw new IllegalArgumentException(
+                        "column %d of row %d out of bounds [0, %d)".formatted(column, rowIndex, columnCount));
+                final int header = column + 1;
+                final int last = get(links, header, U);
+                set(links, node, C, header);
+                set(links, node, ROW, rowIndex);
+                set(links, node, U, last);
+                set(links, node, D, header);
+                set(links, last, D, node);
+                set(links, header, U, node);
+                set(links, header, ROW, get(links, header, ROW) + 1);
+                set(links, node, L, node==first ? first + row.length - 1 : node - 1);
+                set(links, node, R, node==first + row.length - 1 ? first : node + 1);
+                ++node;
+            }
+        }
+    }
+
+    public int columnCount() { return columnCount; }
+    public int rowCount() { return rowCount; }
+
+    /**
+     * Number of exact covers. If cancelled, returns the number of those found so far.
+     */
+    public long count(final Options options) {
+        return run(options, new AtomicBoolean(), null);
+    }
+
+    /**
+     * Optionally returns any exact cover, as the sorted indices of its rows. Once found, all subtree searches stop.
+     * Returns empty, if there is none or if cancelled before one was found.
+     */
+    public Optional<int[]> findAny(final Options options) {
+        final var found = new AtomicReference<int[]>();
+        final var stop = new AtomicBoolean();
+        run(options, stop, solution->{
+            if(found.compareAndSet(null, solution)) {
+                stop.set(true);
+            }
+        });
+        return Optional.ofNullable(found.get());
+    }
+
+    // -- HELPER
+
+    @FunctionalInterface
+    private interface SolutionConsumer {
+        /**
+         * @param rows - sorted row indices of an exact cover
+         */
+        void accept(int[] rows);
+    }
+
+    /**
+     * @param onSolution - nullable, if {@code null} solutions are only counted
+     * @return number of exact covers found
+     */
+    private long run(final Options options, final AtomicBoolean stop, final @Nullable SolutionConsumer onSolution) {
+        if(options.cancellation().isCancelled()) return 0L;
+        final List<int[]> prefixes = new ArrayList<>();
+        final long count;
+        try(var arena = Arena.ofConfined()) {
+            var search = new Search(copyOfLinks(arena), options, stop, onSolution, prefixes);
+            search.search(0);
+            count = search.solutionCount;
+        }
+        if(prefixes.isEmpty()) return count;
+        final Parallelism parallelism = options.parallelism();
+        final int batchCount = Math.min(prefixes.size(), BATCHES_PER_WORKER * parallelism.pool().getParallelism());
+        return count + parallelism.call(()->IntStream.range(0, batchCount)
+            .parallel()
+            .mapToLong(batch->parallelism.task(()->searchBatch(options, stop, onSolution, prefixes, batch, batchCount)))
+            .sum());
+    }
+
+    /**
+     * Searches the subtrees of every {@code batchCount}-th prefix, starting at given batch,
+     * on a single copy of the links.
+     * @return number of exact covers found
+     */
+    private long searchBatch(final Options options, final AtomicBoolean stop, final @Nullable SolutionConsumer onSolution,
+            final List<int[]> prefixes, final int batch, final int batchCount) {
+        try(var arena = Arena.ofConfined()) {
+            var search = new Search(copyOfLinks(arena), options.withSplitDepth(Integer.MAX_VALUE), stop, onSolution, null);
+            for (int i = batch; i < prefixes.size(); i += batchCount) {
+                if(stop.get() || options.cancellation().isCancelled()) break;
+                final int[] prefix = prefixes.get(i);
+                search.replay(prefix);
+                search.search(prefix.length);
+                search.undo(prefix);
+            }
+            return search.solutionCount;
+        }
+    }
+
+    private IntArray copyOfLinks(final Arena arena) {
+        var copy = IntArray.of(arena, links.shape());
+        MemorySegment.copy(links.memorySegment(), 0L, copy.memorySegment(), 0L, links.memorySegment().byteSize());
+        return copy;
+    }
+
+    private final class Search {
+        final IntArray links;
+        final Options options;
+        final AtomicBoolean stop;
+        /// receives the rows of each solution, if not null
+        final @Nullable SolutionConsumer onSolution;
+        /// collects the prefixes (chosen row nodes) at split depth, if not null
+        final @Nullable List<int[]> prefixes;
+        /// chosen row nodes per depth
+        final int[] chosen = new int[columnCount + 1];
+        int branchesUntilCheck = CANCELLATION_CHECK_INTERVAL;
+        /// number of solutions found by this search
+        long solutionCount;
+
+        Search(final IntArray links, final Options options, final AtomicBoolean stop,
+                final @Nullable SolutionConsumer onSolution, final @Nullable List<int[]> prefixes) {
+            this.links = links;
+            this.options = options;
+            this.stop = stop;
+            this.onSolution = onSolution;
+            this.prefixes = prefixes;
+        }
+
+        /**
+         * Covers the columns of the given (chosen) row nodes, same as the search did when choosing them.
+         */
+        void replay(final int[] prefix) {
+            for (int depth = 0; depth < prefix.length; depth++) {
+                final int r = prefix[depth];
+                chosen[depth] = r;
+                cover(get(links, r, C));
+                for (int j = get(links, r, R); j != r; j = get(links, j, R)) {
+                    cover(get(links, j, C));
+                }
+            }
+        }
+
+        /**
+         * Uncovers the columns of the given (chosen) row nodes in reverse order, which restores the links
+         * to their state before {@link #replay(int[])}, given the search in between completed or stopped.
+         */
+        void undo(final int[] prefix) {
+            for (int depth = prefix.length - 1; depth >= 0; depth--) {
+                final int r = prefix[depth];
+                for (int j = get(links, r, L); j != r; j = get(links, j, L)) {
+                    uncover(get(links, j, C));
+                }
+                uncover(get(links, r, C));
+            }
+        }
+
+        void search(final int depth) {
+            if(get(links, ROOT, R) == ROOT) {
+                ++solutionCount;
+                if(onSolution!=null) {
+                    onSolution.accept(solution(depth));
+                }
+                return;
+            }
+            if(prefixes!=null
+                    && depth == options.splitDepth()) {
+                prefixes.add(Arrays.copyOf(chosen, depth));
+                return;
+            }
+            final int c = chooseColumn();
+            if(get(links, c, ROW) == 0) return; // dead end
+            cover(c);
+            for (int r = get(links, c, D); r != c; r = get(links, r, D)) {
+                if(isStopped()) break;
+                chosen[depth] = r;
+                for (int j = get(links, r, R); j != r; j = get(links, j, R)) {
+                    cover(get(links, j, C));
+                }
+                search(depth + 1);
+                for (int j = get(links, r, L); j != r; j = get(links, j, L)) {
+                    uncover(get(links, j, C));
+                }
+            }
+            uncover(c);
+        }
+
+        private boolean isStopped() {
+            if(stop.get()) return true;
+            if(--branchesUntilCheck == 0) {
+                branchesUntilCheck = CANCELLATION_CHECK_INTERVAL;
+                return options.cancellation().isCancelled();
+            }
+            return false;
+        }
+
+        private int chooseColumn() {
+            int best = get(links, ROOT, R);
+            if(options.columnHeuristic()==ColumnHeuristic.FIRST) return best;
+            int bestSize = get(links, best, ROW);
+            for (int c = get(links, best, R); c != ROOT && bestSize > 1; c = get(links, c, R)) {
+                final int size = get(links, c, ROW);
+                if(size < bestSize) {
+                    best = c;
+                    bestSize = size;
+                }
+            }
+            return best;
+        }
+
+        private void cover(final int c) {
+            set(links, get(links, c, R), L, get(links, c, L));
+            set(links, get(links, c, L), R, get(links, c, R));
+            for (int i = get(links, c, D); i != c; i = get(links, i, D)) {
+                for (int j = get(links, i, R); j != i; j = get(links, j, R)) {
+                    set(links, get(links, j, D), U, get(links, j, U));
+                    set(links, get(links, j, U), D, get(links, j, D));
+                    final int header = get(links, j, C);
+                    set(links, header, ROW, get(links, header, ROW) - 1);
+                }
+            }
+        }
+
+        private void uncover(final int c) {
+            for (int i = get(links, c, U); i != c; i = get(links, i, U)) {
+                for (int j = get(links, i, L); j != i; j = get(links, j, L)) {
+                    final int header = get(links, j, C);
+                    set(links, header, ROW, get(links, header, ROW) + 1);
+                    set(links, get(links, j, D), U, j);
+                    set(links, get(links, j, U), D, j);
+                }
+            }
+            set(links, get(links, c, R), L, c);
+            set(links, get(links, c, L), R, c);
+        }
+
+        private int[] solution(final int depth) {
+            final int[] rows = new int[depth];
+            for (int i = 0; i < depth; i++) {
+                rows[i] = get(links, chosen[i], ROW);
+            }
+            Arrays.sort(rows);
+            return rows;
+        }
+    }
+
+    private static int get(final IntArray links, final int node, final int field) {
+        return links.get((long)node * FIELD_COUNT + field);
+    }
+
+    private static void set(final IntArray links, final int node, final int field, final int value) {
+        links.put((long)node * FIELD_COUNT + field, value);
+    }
+
+}
@@ -18,16 +18,37 @@
  */
 package jcompute.combinatorics.setcover;
 
+import java.util.stream.LongStream;
+
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.UtilityClass;
 
 import jcompute.core.mem.ByteArray;
+import jcompute.core.mem.IntArray;
 import jcompute.core.mem.LongArray;
+import jcompute.core.util.concurrent.Parallelism;
 import jcompute.opencl.ClDevice;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
 
 @UtilityClass
 public class SetCoverKernels {
 
+    /**
+     * Number of pSets covered at threshold t, given a match level histogram
+     * (as computed by {@link JavaVector64BitHistogram} or {@link OpenCL64BitHistogram}),
+     * that is the sum of {@code histogram[j]} for {@code j >= t}.
+     */
+    public long coveredCount(final IntArray histogram, final int t) {
+        long count = 0L;
+        for (long j = Math.max(0, t); j < histogram.shape().totalSize(); j++) {
+            count += histogram.get(j);
+        }
+        return count;
+    }
+
     @RequiredArgsConstructor
     public static class Java64Bit {
 
@@ -37,13 +58,21 @@ public class SetCoverKernels {
         final ByteArray covered;
 
         public void run() {
-            params.shape().stream()
+            run(Parallelism.common());
+        }
+
+        /**
+         * Runs within given {@link Parallelism}, where each pSet counts as a task.
+         */
+        public void run(final Parallelism parallelism) {
+            checkSingleWord(params, JavaVectorMultiWord.class);
+            parallelism.run(()->params.shape().stream()
             .parallel()
-            .forEach(gid->{
+            .forEach(gid->parallelism.task(()->{
                 covered.put(gid, covers(params.pSets().get(gid), params.t(), params.kSets())
                         ? (byte)1
                         : 0);
-            });
+            })));
         }
 
         private static boolean covers(final long p, final int t, final LongArray kSets) {
@@ -53,6 +82,375 @@ public class SetCoverKernels {
         }
     }
 
+    /**
+     * Vectorized and blocked variant of {@link Java64Bit}.
+     * <p>
+     * The pSets are split into tiles, that are processed in parallel. Each tile sweeps over
+     * the kSets in tiles small enough to stay L1-resident, where the lanes of a {@link LongVector}
+     * hold consecutive kSets. Once a pSet is covered, it is not considered any further (early exit).
+     */
+    @RequiredArgsConstructor
+    public static class JavaVector64Bit {
+
+        private final static VectorSpecies<Long> SPECIES = LongArray.SPECIES;
+
+        /// number of pSets per (parallel) task
+        final static int P_TILE_SIZE = 4096;
+        /// number of kSets per tile, that is 16 KiB
+        final static int K_TILE_SIZE = 2048;
+
+        //in
+        final SetCoverParams params;
+        //out
+        final ByteArray covered;
+
+        public void run() {
+            run(Parallelism.common());
+        }
+
+        /**
+         * Runs within given {@link Parallelism}, where each tile of pSets counts as a task.
+         */
+        public void run(final Parallelism parallelism) {
+            checkSingleWord(params, JavaVectorMultiWord.class);
+            final long pSetCount = params.pSets().shape().totalSize();
+            final long tileCount = (pSetCount + P_TILE_SIZE - 1) / P_TILE_SIZE;
+            parallelism.run(()->LongStream.range(0, tileCount)
+                .parallel()
+                .forEach(tile->parallelism.task(()->coverTile(
+                        tile * P_TILE_SIZE,
+                        (int)Math.min(P_TILE_SIZE, pSetCount - tile * P_TILE_SIZE)))));
+        }
+
+        private void coverTile(final long pOffset, final int pSetCount) {
+            final LongArray kSets = params.kSets();
+            final long kSetCount = kSets.shape().totalSize();
+            final int t = params.t();
+
+            // not yet covered pSets of this tile, as (value, index relative to pOffset) pairs
+            final long[] pSets = new long[pSetCount];
+            final int[] pIndices = new int[pSetCount];
+            for (int i = 0; i < pSetCount; i++) {
+                pSets[i] = params.pSets().get(pOffset + i);
+                pIndices[i] = i;
+                covered.put(pOffset + i, (byte)0);
+            }
+
+            int uncoveredCount = pSetCount;
+            for (long kStart = 0; kStart < kSetCount && uncoveredCount > 0; kStart += K_TILE_SIZE) {
+                final long kEnd = Math.min(kSetCount, kStart + K_TILE_SIZE);
+                int i = 0;
+                while(i < uncoveredCount) {
+                    if(covers(pSets[i], t, kSets, kStart, kEnd)) {
+                        covered.put(pOffset + pIndices[i], (byte)1);
+                        // swap remove
+                        --uncoveredCount;
+                        pSets[i] = pSets[uncoveredCount];
+                        pIndices[i] = pIndices[uncoveredCount];
+                    } else {
+                        ++i;
+                    }
+                }
+            }
+        }
+
+        private static boolean covers(final long p, final int t, final LongArray kSets, final long kStart, final long kEnd) {
+            final LongVector pVector = LongVector.broadcast(SPECIES, p);
+            final int lanes = SPECIES.length();
+            long k = kStart;
+            // 4 vectors per iteration, such that lane tests are combined into a single branch
+            final long kUnrolledEnd = kStart + (kEnd - kStart) / (4 * lanes) * (4 * lanes);
+            for (; k < kUnrolledEnd; k += 4 * lanes) {
+                if(coveringLanes(pVector, t, kSets, k)
+                        .or(coveringLanes(pVector, t, kSets, k + lanes))
+                        .or(coveringLanes(pVector, t, kSets, k + 2 * lanes))
+                        .or(coveringLanes(pVector, t, kSets, k + 3 * lanes))
+                        .anyTrue()) {
+                    return true;
+                }
+            }
+            final long kVectorEnd = k + SPECIES.loopBound(kEnd - k);
+            for (; k < kVectorEnd; k += lanes) {
+                if(coveringLanes(pVector, t, kSets, k).anyTrue()) {
+                    return true;
+                }
+            }
+            for (; k < kEnd; ++k) {
+                if(Long.bitCount(p & kSets.get(k)) >= t) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static VectorMask<Long> coveringLanes(final LongVector pVector, final int t, final LongArray kSets, final long k) {
+            return kSets.longVector(SPECIES, k)
+                .and(pVector)
+                .lanewise(VectorOperators.BIT_COUNT)
+                .compare(VectorOperators.GE, t);
+        }
+    }
+
+    /**
+     * Multi-word variant of {@link JavaVector64Bit}, for universes of any size {@code v},
+     * where each set occupies {@link SetCoverParams#wordCount()} words.
+     * <p>
+     * The kSets are transposed once into word-major order (structure of arrays), such that the lanes
+     * of a {@link LongVector} hold the same word of consecutive kSets. Per pSet the popcounts are then summed up
+     * over all words, before being compared with {@code t}.
+     */
+    @RequiredArgsConstructor
+    public static class JavaVectorMultiWord {
+
+        private final static VectorSpecies<Long> SPECIES = LongArray.SPECIES;
+
+        /// number of pSets per (parallel) task
+        final static int P_TILE_SIZE = 4096;
+        /// number of words per kSet tile (summed over all words), that is 16 KiB
+        final static int K_TILE_WORDS = 2048;
+
+        //in
+        final SetCoverParams params;
+        //out
+        final ByteArray covered;
+
+        public void run() {
+            run(Parallelism.common());
+        }
+
+        /**
+         * Runs within given {@link Parallelism}, where each tile of pSets counts as a task.
+         */
+        public void run(final Parallelism parallelism) {
+            final int wordCount = params.wordCount();
+            final long[][] kWords = transpose(params.kSets(), params.kSetCount(), wordCount);
+            final int kTileSize = Math.max(SPECIES.length(), K_TILE_WORDS / wordCount / SPECIES.length() * SPECIES.length());
+            final long pSetCount = params.pSetCount();
+            final long tileCount = (pSetCount + P_TILE_SIZE - 1) / P_TILE_SIZE;
+            parallelism.run(()->LongStream.range(0, tileCount)
+                .parallel()
+                .forEach(tile->parallelism.task(()->coverTile(
+                        kWords,
+                        kTileSize,
+                        tile * P_TILE_SIZE,
+                        (int)Math.min(P_TILE_SIZE, pSetCount - tile * P_TILE_SIZE)))));
+        }
+
+        private void coverTile(final long[][] kWords, final int kTileSize, final long pOffset, final int pSetCount) {
+            final int wordCount = kWords.length;
+            final int kSetCount = kWords[0].length;
+            final int t = params.t();
+            final LongArray pSetsIn = params.pSets();
+
+            // not yet covered pSets of this tile, as (words, index relative to pOffset) pairs
+            final long[][] pSets = new long[pSetCount][wordCount];
+            final int[] pIndices = new int[pSetCount];
+            for (int i = 0; i < pSetCount; i++) {
+                final long offset = (pOffset + i) * wordCount;
+                for (int w = 0; w < wordCount; w++) {
+                    pSets[i][w] = pSetsIn.get(offset + w);
+                }
+                pIndices[i] = i;
+                covered.put(pOffset + i, (byte)0);
+            }
+
+            final LongVector[] pVectors = new LongVector[wordCount];
+            int uncoveredCount = pSetCount;
+            for (int kStart = 0; kStart < kSetCount && uncoveredCount > 0; kStart += kTileSize) {
+                final int kEnd = Math.min(kSetCount, kStart + kTileSize);
+                int i = 0;
+                while(i < uncoveredCount) {
+                    if(covers(pSets[i], pVectors, t, kWords, kStart, kEnd)) {
+                        covered.put(pOffset + pIndices[i], (byte)1);
+                        // swap remove
+                        --uncoveredCount;
+                        pSets[i] = pSets[uncoveredCount];
+                        pIndices[i] = pIndices[uncoveredCount];
+                    } else {
+                        ++i;
+                    }
+                }
+            }
+        }
+
+        private static boolean covers(
+                final long[] p,
+                final LongVector[] pVectors, // scratch
+                final int t,
+                final long[][] kWords,
+                final int kStart,
+                final int kEnd) {
+            final int wordCount = p.length;
+            for (int w = 0; w < wordCount; w++) {
+                pVectors[w] = LongVector.broadcast(SPECIES, p[w]);
+            }
+            final int kVectorEnd = kStart + SPECIES.loopBound(kEnd - kStart);
+            int k = kStart;
+            for (; k < kVectorEnd; k += SPECIES.length()) {
+                LongVector intersectionSize = LongVector.fromArray(SPECIES, kWords[0], k)
+                    .and(pVectors[0])
+                    .lanewise(VectorOperators.BIT_COUNT);
+                for (int w = 1; w < wordCount; w++) {
+                    intersectionSize = intersectionSize.add(LongVector.fromArray(SPECIES, kWords[w], k)
+                        .and(pVectors[w])
+                        .lanewise(VectorOperators.BIT_COUNT));
+                }
+                if(intersectionSize.compare(VectorOperators.GE, t).anyTrue()) {
+                    return true;
+                }
+            }
+            for (; k < kEnd; ++k) {
+                int intersectionSize = 0;
+                for (int w = 0; w < wordCount; w++) {
+                    intersectionSize += Long.bitCount(p[w] & kWords[w][k]);
+                }
+                if(intersectionSize >= t) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns {@code kWords[w][k]}, the w-th word of the k-th kSet.
+         */
+        private static long[][] transpose(final LongArray kSets, final long kSetCount, final int wordCount) {
+            final long[][] kWords = new long[wordCount][Math.toIntExact(kSetCount)];
+            for (int k = 0; k < kSetCount; k++) {
+                final long offset = (long)k * wordCount;
+                for (int w = 0; w < wordCount; w++) {
+                    kWords[w][k] = kSets.get(offset + w);
+                }
+            }
+            return kWords;
+        }
+    }
+
+    /**
+     * Single pass alternative to running {@link JavaVector64Bit} for each threshold {@code t}.
+     * <p>
+     * Per pSet the maximum intersection size {@code popcount(p & k)} over all kSets (its match level) is computed,
+     * then reduced into a histogram of {@code m + 1} counts, where {@code histogram[j]} is the number of pSets
+     * of match level {@code j}. The threshold {@link SetCoverParams#t()} is ignored,
+     * see {@link SetCoverKernels#coveredCount(IntArray, int)} for the count of pSets covered at any threshold.
+     * <p>
+     * Same tiling as {@link JavaVector64Bit}, where a pSet drops out, once it reaches its highest possible match level.
+     */
+    @RequiredArgsConstructor
+    public static class JavaVector64BitHistogram {
+
+        private final static VectorSpecies<Long> SPECIES = LongArray.SPECIES;
+
+        /// number of pSets per (parallel) task
+        final static int P_TILE_SIZE = 4096;
+        /// number of kSets per tile, that is 16 KiB
+        final static int K_TILE_SIZE = 2048;
+
+        //in
+        final SetCoverParams params;
+        //out
+        final IntArray histogram;
+
+        public void run() {
+            run(Parallelism.common());
+        }
+
+        /**
+         * Runs within given {@link Parallelism}, where each tile of pSets counts as a task.
+         */
+        public void run(final Parallelism parallelism) {
+            checkSingleWord(params, JavaVectorMultiWord.class);
+            final int levelCount = params.m() + 1;
+            checkHistogramSize(histogram, levelCount);
+            final long pSetCount = params.pSets().shape().totalSize();
+            final long tileCount = (pSetCount + P_TILE_SIZE - 1) / P_TILE_SIZE;
+            final int[] counts = parallelism.call(()->LongStream.range(0, tileCount)
+                .parallel()
+                .mapToObj(tile->parallelism.task(()->histogramOfTile(
+                        levelCount,
+                        tile * P_TILE_SIZE,
+                        (int)Math.min(P_TILE_SIZE, pSetCount - tile * P_TILE_SIZE))))
+                .reduce(new int[levelCount], (a, b)->{
+                    final int[] sum = new int[levelCount];
+                    for (int j = 0; j < levelCount; j++) {
+                        sum[j] = a[j] + b[j];
+                    }
+                    return sum;
+                }));
+            for (int j = 0; j < levelCount; j++) {
+                histogram.put(j, counts[j]);
+            }
+        }
+
+        private int[] histogramOfTile(final int levelCount, final long pOffset, final int pSetCount) {
+            final LongArray kSets = params.kSets();
+            final long kSetCount = kSets.shape().totalSize();
+
+            // pSets of this tile, not yet at their highest possible level, as (value, level) pairs
+            final long[] pSets = new long[pSetCount];
+            final int[] levels = new int[pSetCount];
+            for (int i = 0; i < pSetCount; i++) {
+                pSets[i] = params.pSets().get(pOffset + i);
+            }
+
+            final int[] counts = new int[levelCount];
+            int openCount = pSetCount;
+            for (long kStart = 0; kStart < kSetCount && openCount > 0; kStart += K_TILE_SIZE) {
+                final long kEnd = Math.min(kSetCount, kStart + K_TILE_SIZE);
+                int i = 0;
+                while(i < openCount) {
+                    levels[i] = Math.max(levels[i], maxIntersectionSize(pSets[i], kSets, kStart, kEnd));
+                    if(levels[i] == Long.bitCount(pSets[i])) {
+                        ++counts[levels[i]];
+                        // swap remove
+                        --openCount;
+                        pSets[i] = pSets[openCount];
+                        levels[i] = levels[openCount];
+                    } else {
+                        ++i;
+                    }
+                }
+            }
+            for (int i = 0; i < openCount; i++) {
+                ++counts[levels[i]];
+            }
+            return counts;
+        }
+
+        private static int maxIntersectionSize(final long p, final LongArray kSets, final long kStart, final long kEnd) {
+            final LongVector pVector = LongVector.broadcast(SPECIES, p);
+            final int lanes = SPECIES.length();
+            LongVector max0 = LongVector.zero(SPECIES);
+            LongVector max1 = LongVector.zero(SPECIES);
+            long k = kStart;
+            // 2 independent accumulators per iteration, to hide the latency of max
+            final long kUnrolledEnd = kStart + (kEnd - kStart) / (2 * lanes) * (2 * lanes);
+            for (; k < kUnrolledEnd; k += 2 * lanes) {
+                max0 = max0.max(intersectionSizes(pVector, kSets, k));
+                max1 = max1.max(intersectionSizes(pVector, kSets, k + lanes));
+            }
+            final long kVectorEnd = k + SPECIES.loopBound(kEnd - k);
+            for (; k < kVectorEnd; k += lanes) {
+                max0 = max0.max(intersectionSizes(pVector, kSets, k));
+            }
+            int max = (int)max0.max(max1).reduceLanes(VectorOperators.MAX);
+            for (; k < kEnd; ++k) {
+                max = Math.max(max, Long.bitCount(p & kSets.get(k)));
+            }
+            return max;
+        }
+
+        private static LongVector intersectionSizes(final LongVector pVector, final LongArray kSets, final long k) {
+            return kSets.longVector(SPECIES, k)
+                .and(pVector)
+                .lanewise(VectorOperators.BIT_COUNT);
+        }
+    }
+
+    /**
+     * The kSet count and t are compiled into the kernel (as {@code KSET_COUNT} and {@code T}),
+     * such that the compiler can unroll the loop over the kSets.
+     */
     @RequiredArgsConstructor
     static class OpenCL64Bit /*implements ComputeKernel*/ {
 
@@ -65,6 +463,81 @@ public class SetCoverKernels {
         final String setCoverKernelSource =
         """
             __kernel void cover64(
+                __global const unsigned long* pSets,
+                __global const unsigned long* kSets,
+                __global unsigned char* covered,
+                const int pSetCount) {
+
+                // get index into global data array
+                const int gid = get_global_id(0);
+
+                // bound check, equivalent to the limit on a 'for' loop
+                if (gid >= pSetCount)  {
+                    return;
+                }
+
+                covered[gid] = 1; // assume happy case
+                unsigned long pSet = pSets[gid];
+
+                for(int k=0; k<KSET_COUNT; ++k){
+                    if(popcount(pSet & kSets[k]) >= T) {
+                        return; // covered
+                    }
+                }
+
+                covered[gid] = 0; // not covered
+            }
+        """;
+
+        public void run() {
+            checkSingleWord(params, OpenCLMultiWord.class);
+            try (var context = device.createContext()) {
+
+                var queue = context.createQueue();
+
+                var program = context.programBuilder(setCoverKernelSource)
+                        .define("KSET_COUNT", params.kSetCount())
+                        .define("T", params.t())
+                        .build();
+
+                var kernel = program.createKernel("cover64");
+
+                var memA = context.createMemoryReadOnly(params.pSets());
+                var memB = context.createMemoryReadOnly(params.kSets());
+                var memC = context.createMemoryWriteOnly(covered);
+
+                kernel.setArgs(memA, memB, memC,
+                        (int)memA.size());
+
+                queue.enqueueWriteBuffer(memA);
+                queue.enqueueWriteBuffer(memB);
+
+                queue.enqueueNDRangeKernel(kernel, params.shape());
+
+                queue.enqueueReadBuffer(memC);
+            }
+        }
+    }
+
+    /**
+     * Multi-word variant of {@link OpenCL64Bit}, for universes of any size {@code v},
+     * where each set occupies {@link SetCoverParams#wordCount()} words.
+     * <p>
+     * The word count is compiled into the kernel (as {@code WORD_COUNT}), such that the per kSet loop over
+     * the words can be unrolled.
+     */
+    @RequiredArgsConstructor
+    static class OpenCLMultiWord {
+
+        //in
+        final ClDevice device;
+        final SetCoverParams params;
+        //out
+        final ByteArray covered;
+
+        final String setCoverKernelSource =
+        """
+            __kernel void coverN(
                 __global const unsigned long* pSets,
                 __global const unsigned long* kSets,
                 __global unsigned char* covered,
@@ -73,7 +546,7 @@ public class SetCoverKernels {
                 const int t) {
 
                 // get index into global data array
-                const int gid = get_global_id(0);
+                const size_t gid = get_global_id(0);
 
                 // bound check, equivalent to the limit on a 'for' loop
                 if (gid >= pSetCount)  {
@@ -81,10 +554,19 @@ public class SetCoverKernels {
                 }
 
                 covered[gid] = 1; // assume happy case
-                unsigned long pSet = pSets[gid];
+                unsigned long pSet[WORD_COUNT];
+                for(int w=0; w<WORD_COUNT; ++w){
+                    pSet[w] = pSets[gid * WORD_COUNT + w];
+                }
 
                 for(int k=0; k<kSetCount; ++k){
-                    if(popcount(pSet & kSets[k]) >= t) {
+                    __global const unsigned long* kSet = kSets + (size_t)k * WORD_COUNT;
+                    int intersectionSize = 0;
+                    #pragma unroll
+                    for(int w=0; w<WORD_COUNT; ++w){
+                        intersectionSize += popcount(pSet[w] & kSet[w]);
+                    }
+                    if(intersectionSize >= t) {
                         return; // covered
                     }
                 }
@@ -98,17 +580,19 @@ public class SetCoverKernels {
 
                 var queue = context.createQueue();
 
-                var program = context.createProgram(setCoverKernelSource);
+                var program = context.programBuilder(setCoverKernelSource)
+                        .define("WORD_COUNT", params.wordCount())
+                        .build();
 
-                var kernel = program.createKernel("cover64");
+                var kernel = program.createKernel("coverN");
 
                 var memA = context.createMemoryReadOnly(params.pSets());
                 var memB = context.createMemoryReadOnly(params.kSets());
                 var memC = context.createMemoryWriteOnly(covered);
 
                 kernel.setArgs(memA, memB, memC,
-                        (int)memA.size(),
-                        (int)memB.size(),
+                        (int)params.pSetCount(),
+                        (int)params.kSetCount(),
                         params.t());
 
                 queue.enqueueWriteBuffer(memA);
@@ -120,4 +604,111 @@ public class SetCoverKernels {
             }
         }
     }
+
+    /**
+     * OpenCL variant of {@link JavaVector64BitHistogram}.
+     * <p>
+     * Each work-group accumulates its match levels in local memory, which are then added to the global histogram.
+     * Hence only the histogram of {@code m + 1} counts is read back.
+     */
+    @RequiredArgsConstructor
+    static class OpenCL64BitHistogram {
+
+        //in
+        final ClDevice device;
+        final SetCoverParams params;
+        //out
+        final IntArray histogram;
+
+        final String histogramKernelSource =
+        """
+            __kernel void histogram64(
+                __global const unsigned long* pSets,
+                __global const unsigned long* kSets,
+                __global unsigned int* histogram,
+                const int pSetCount,
+                const int kSetCount) {
+
+                __local unsigned int localHistogram[LEVEL_COUNT];
+
+                const int gid = get_global_id(0);
+                const int lid = get_local_id(0);
+                const int localSize = get_local_size(0);
+
+                for(int j=lid; j<LEVEL_COUNT; j+=localSize){
+                    localHistogram[j] = 0;
+                }
+                barrier(CLK_LOCAL_MEM_FENCE);
+
+                // no early return, all work items must reach the barriers
+                if (gid < pSetCount) {
+                    const unsigned long pSet = pSets[gid];
+                    const int maxLevel = (int)popcount(pSet);
+                    int level = 0;
+                    for(int k=0; k<kSetCount && level<maxLevel; ++k){
+                        level = max(level, (int)popcount(pSet & kSets[k]));
+                    }
+                    atomic_inc(&localHistogram[level]);
+                }
+                barrier(CLK_LOCAL_MEM_FENCE);
+
+                for(int j=lid; j<LEVEL_COUNT; j+=localSize){
+                    if(localHistogram[j] > 0) {
+                        atomic_add(&histogram[j], localHistogram[j]);
+                    }
+                }
+            }
+        """;
+
+        public void run() {
+            checkSingleWord(params, OpenCLMultiWord.class);
+            final int levelCount = params.m() + 1;
+            checkHistogramSize(histogram, levelCount);
+            histogram.fill(j->0);
+
+            try (var context = device.createContext()) {
+
+                var queue = context.createQueue();
+
+                var program = context.programBuilder(histogramKernelSource)
+                        .define("LEVEL_COUNT", levelCount)
+                        .build();
+
+                var kernel = program.createKernel("histogram64");
+
+                var memA = context.createMemoryReadOnly(params.pSets());
+                var memB = context.createMemoryReadOnly(params.kSets());
+                var memC = context.createMemoryReadWrite(histogram);
+
+                kernel.setArgs(memA, memB, memC,
+                        (int)memA.size(),
+                        (int)memB.size());
+
+                queue.enqueueWriteBuffer(memA);
+                queue.enqueueWriteBuffer(memB);
+                queue.enqueueWriteBuffer(memC);
+
+                queue.enqueueNDRangeKernel(kernel, params.shape());
+
+                queue.enqueueReadBuffer(memC);
+            }
+        }
+    }
+
+    // -- HELPER
+
+    /**
+     * The 64-bit kernels hold each set in a single {@code long} word.
+     * @param multiWordKernel - the kernel to use instead, if sets span multiple words
+     */
+    private void checkSingleWord(final SetCoverParams params, final Class<?> multiWordKernel) {
+        if(params.wordCount()!=1) throw new IllegalArgumentException(
+                "64-bit kernels require v <= 64, got v=%d (%d words per set), use %s instead"
+                .formatted(params.v(), params.wordCount(), multiWordKernel.getSimpleName()));
+    }
+
+    private void checkHistogramSize(final IntArray histogram, final int levelCount) {
+        if(histogram.shape().totalSize() != levelCount) throw new IllegalArgumentException(
+                "histogram of shape %s does not fit %d match levels".formatted(histogram.shape(), levelCount));
+    }
 }
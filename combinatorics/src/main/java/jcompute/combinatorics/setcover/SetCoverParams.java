@@ -20,10 +20,24 @@ package jcompute.combinatorics.setcover;
 
 import java.lang.foreign.Arena;
 
-import jcompute.combinatorics.base.Combinations;
+import org.jspecify.annotations.Nullable;
+
+import jcompute.combinatorics.base.ColexCombinations;
 import jcompute.core.mem.LongArray;
 import jcompute.core.shape.Shape;
+import jcompute.core.util.concurrent.Parallelism;
 
+/**
+ * Sets are encoded as bitmasks over the universe {@code {0, 1, ..., v-1}}, where each set occupies
+ * {@link #wordCount()} consecutive {@code long} words (bits {@code 64*w ..64*w+63} in word {@code w}).
+ * Hence for {@code v <= 64} a set is a single {@code long}.
+ *
+ * @param v - universe size
+ * @param m - size of the sets to be covered (pSets)
+ * @param t - minimum intersection size, for a kSet to cover a pSet
+ * @param kSets - the candidate cover, {@link #wordCount()} words per kSet
+ * @param pSets - all m-subsets of the universe, {@link #wordCount()} words per pSet
+ */
 public record SetCoverParams(
         int v,
         int m,
@@ -31,34 +45,64 @@ public record SetCoverParams(
         LongArray kSets,
         LongArray pSets) {
 
+    public SetCoverParams {
+        if(v<1) throw new IllegalArgumentException("universe size v (%d) must be greater than 0".formatted(v));
+        final int wordCount = ColexCombinations.wordCount(v);
+        if(kSets.shape().totalSize() % wordCount != 0) throw new IllegalArgumentException(
+                "kSets of shape %s are not made of %d-word sets".formatted(kSets.shape(), wordCount));
+        if(pSets.shape().totalSize() % wordCount != 0) throw new IllegalArgumentException(
+                "pSets of shape %s are not made of %d-word sets".formatted(pSets.shape(), wordCount));
+    }
+
+    /**
+     * With pSets generated in the calling thread.
+     */
     SetCoverParams(
             final Arena arena,
             final int v,
             final int m,
             final int t,
             final LongArray kSets) {
-        this(v, m, t, kSets, pSets(arena, v, m));
+        this(arena, v, m, t, kSets, null);
     }
 
     /**
-     * Problem size.
+     * With pSets generated within given {@link Parallelism}, see {@link ColexCombinations#masks(Arena, int, int, Parallelism)}.
+     * @param arena - must allocate segments accessible by the threads of given parallelism (e.g. {@link Arena#ofShared()})
+     * @param parallelism - nullable, generates in the calling thread if {@code null}
      */
-    public Shape shape() {
-        return pSets.shape();
+    SetCoverParams(
+            final Arena arena,
+            final int v,
+            final int m,
+            final int t,
+            final LongArray kSets,
+            final @Nullable Parallelism parallelism) {
+        this(v, m, t, kSets, ColexCombinations.masks(arena, v, m, parallelism));
+    }
+
+    /**
+     * Number of {@code long} words per set.
+     */
+    public int wordCount() {
+        return ColexCombinations.wordCount(v);
     }
 
-    // -- HELPER
+    public long pSetCount() {
+        return pSets.shape().totalSize() / wordCount();
+    }
 
-    private static LongArray pSets(final Arena arena, final int v, final int m) {
-        final long size = Combinations.binomialAsLongValueExact(v, m);
-        var shape = Shape.of(size);
-        var pSets = LongArray.of(arena, shape);
-        long colex = (1L << m) - 1;
-        for (long gid = 0; gid < size; gid++) {
-            pSets.put(gid, colex);
-            colex = Combinations.next_colex(colex);
-        }
-        return pSets;
+    public long kSetCount() {
+        return kSets.shape().totalSize() / wordCount();
+    }
+
+    /**
+     * Problem size, that is one work item per pSet.
+     */
+    public Shape shape() {
+        return wordCount()==1
+                ? pSets.shape()
+                : Shape.of(pSetCount());
     }
 
 }
@@ -0,0 +1,151 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.base;
+
+import java.lang.foreign.Arena;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.core.util.concurrent.Parallelism;
+
+class ColexCombinationsTest {
+
+    @Test
+    void rankUnrank() {
+        // exhaustive walk for small v
+        final int v = 20;
+        final int k = 4;
+        final long count = ColexCombinations.count(v, k);
+        final int[] c = {0, 1, 2, 3};
+        for (long rank = 0; rank < count; rank++) {
+            assertEquals(rank, ColexCombinations.rank_colex(c));
+            assertArrayEquals(c, ColexCombinations.unrank_colex(v, rank, new int[k]));
+            assertEquals(rank+1<count, ColexCombinations.next_colex(v, c));
+        }
+    }
+
+    @Test
+    void rankUnrankSampled() {
+        final int v = 70;
+        final int k = 4;
+        final long count = ColexCombinations.count(v, k);
+        var ranks = LongStream.builder();
+        // first, last and around the boundaries, where the largest element changes
+        LongStream.of(0, 1, count - 2, count - 1).forEach(ranks);
+        for (int x = k; x < v; x++) {
+            final long boundary = ColexCombinations.count(x, k);
+            LongStream.of(boundary - 1, boundary, boundary + 1)
+                .filter(rank->rank < count)
+                .forEach(ranks);
+        }
+        new Random(42).longs(1000, 0, count).forEach(ranks);
+
+        ranks.build().forEach(rank->{
+            final int[] c = ColexCombinations.unrank_colex(v, rank, new int[k]);
+            assertEquals(rank, ColexCombinations.rank_colex(c));
+            if(rank + 1 < count) {
+                assertTrue(ColexCombinations.next_colex(v, c));
+                assertArrayEquals(ColexCombinations.unrank_colex(v, rank + 1, new int[k]), c);
+            } else {
+                assertFalse(ColexCombinations.next_colex(v, c));
+            }
+        });
+    }
+
+    @Test
+    void masksMatchSerialGosper() {
+        try(Arena arena = Arena.ofShared()) {
+            for(int k : new int[] {0, 1, 5, 7}) {
+                var masks = ColexCombinations.masks(arena, 35, k);
+                assertEquals(Combinations.binomialAsLongValueExact(35, k), masks.shape().totalSize());
+                long colex = (1L << k) - 1;
+                for (long gid = 0; gid < masks.shape().totalSize(); gid++) {
+                    assertEquals(colex, masks.get(gid));
+                    colex = Combinations.next_colex(colex);
+                }
+                // streaming yields the same sequence, also in parallel
+                assertArrayEquals(masks.toArray(), ColexCombinations.streamMasks(35, k).toArray());
+                assertArrayEquals(masks.toArray(), ColexCombinations.streamMasks(35, k).parallel().toArray());
+            }
+            // full word
+            assertEquals(-1L, ColexCombinations.masks(arena, 64, 64).get(0));
+        }
+    }
+
+    @Test
+    void dedicatedPool() {
+        try(Arena arena = Arena.ofShared();
+                var pool = new ForkJoinPool(2)) {
+            var stats = new Parallelism.RunStats();
+            var masks = ColexCombinations.masks(arena, 35, 5, Parallelism.of(pool).withStats(stats));
+            assertArrayEquals(ColexCombinations.streamMasks(35, 5).toArray(), masks.toArray());
+            assertEquals(1, stats.runs());
+            assertTrue(stats.tasks() > 1);
+        }
+    }
+
+    @Test
+    void confinedArena() {
+        try(Arena arena = Arena.ofConfined()) {
+            var masks = ColexCombinations.masks(arena, 30, 6);
+            assertEquals(ColexCombinations.unrank_colex_mask(30, 6, 12345), masks.get(12345));
+        }
+    }
+
+    @Test
+    void multiWord() {
+        final int v = 130;
+        final int k = 3;
+        try(Arena arena = Arena.ofShared()) {
+            var masks = ColexCombinations.masks(arena, v, k);
+            var tuples = ColexCombinations.tuples(arena, v, k);
+            final int wordCount = ColexCombinations.wordCount(v);
+            assertEquals(3, wordCount);
+            assertEquals(masks.shape().sizeX(), tuples.shape().sizeX());
+
+            var streamed = ColexCombinations.streamTuples(v, k).parallel().toList();
+            final int[] c = new int[k];
+            for (long gid = 0; gid < tuples.shape().sizeX(); gid++) {
+                for (int i = 0; i < k; i++) {
+                    c[i] = tuples.get(gid * k + i);
+                }
+                assertEquals(gid, ColexCombinations.rank_colex(c));
+                assertArrayEquals(c, streamed.get((int)gid));
+                // bits set in the mask correspond to the tuple's elements
+                int bitCount = 0;
+                for (int w = 0; w < wordCount; w++) {
+                    bitCount += Long.bitCount(masks.get(gid * wordCount + w));
+                }
+                assertEquals(k, bitCount);
+                for (int i = 0; i < k; i++) {
+                    assertFalse((masks.get(gid * wordCount + (c[i] >>> 6)) & (1L << c[i])) == 0);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.base;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.core.util.concurrent.Parallelism;
+
+class MinimalChangeOrdersTest {
+
+    @Test
+    void grayCode() {
+        final int n = 12;
+        final long count = MinimalChangeOrders.count_gray(n);
+        final long[] mask = {MinimalChangeOrders.unrank_gray(0)};
+        final var seen = new HashSet<Long>();
+        seen.add(mask[0]);
+        MinimalChangeOrders.visit_gray(n, 0, count, (rank, out, in)->{
+            assertTrue(out==-1 ^ in==-1);
+            if(in!=-1) {
+                assertEquals(0L, mask[0] & (1L << in));
+                mask[0] |= 1L << in;
+            } else {
+                assertEquals(1L << out, mask[0] & (1L << out));
+                mask[0] &= ~(1L << out);
+            }
+            assertEquals(MinimalChangeOrders.unrank_gray(rank), mask[0]);
+            assertEquals(rank, MinimalChangeOrders.rank_gray(mask[0]));
+            seen.add(mask[0]);
+        });
+        assertEquals(count, seen.size());
+    }
+
+    @Test
+    void revolvingDoor() {
+        for(int[] nk : new int[][] {{1, 1}, {5, 0}, {6, 1}, {7, 3}, {9, 4}, {10, 5}, {12, 7}}) {
+            final int n = nk[0];
+            final int k = nk[1];
+            final long count = MinimalChangeOrders.count_revdoor(n, k);
+            for(long startRank : new long[] {0, count / 3}) {
+                final int[] c = MinimalChangeOrders.unrank_revdoor(n, startRank, new int[k]);
+                assertEquals(startRank, MinimalChangeOrders.rank_revdoor(c));
+                final var seen = new HashSet<String>();
+                seen.add(Arrays.toString(c));
+                MinimalChangeOrders.visit_revdoor(n, k, startRank, count, (rank, out, in)->{
+                    // apply the delta
+                    final int i = Arrays.binarySearch(c, out);
+                    assertTrue(i>=0, ()->"%d not in %s".formatted(out, Arrays.toString(c)));
+                    assertTrue(Arrays.binarySearch(c, in)<0);
+                    c[i] = in;
+                    Arrays.sort(c);
+
+                    assertArrayEquals(MinimalChangeOrders.unrank_revdoor(n, rank, new int[k]), c,
+                        ()->"n=%d k=%d rank=%d".formatted(n, k, rank));
+                    assertEquals(rank, MinimalChangeOrders.rank_revdoor(c));
+                    seen.add(Arrays.toString(c));
+                });
+                assertEquals(count - startRank, seen.size());
+            }
+        }
+    }
+
+    @Test
+    void steinhausJohnsonTrotter() {
+        for(int n = 0; n <= 7; n++) {
+            final int nFinal = n;
+            final long count = MinimalChangeOrders.count_sjt(n);
+            for(long startRank : new long[] {0, count / 3}) {
+                final int[] perm = MinimalChangeOrders.unrank_sjt(startRank, new int[n]);
+                assertEquals(startRank, MinimalChangeOrders.rank_sjt(perm));
+                final var seen = new HashSet<String>();
+                seen.add(Arrays.toString(perm));
+                MinimalChangeOrders.visit_sjt(n, startRank, count, (rank, out, in)->{
+                    assertEquals(out + 1, in);
+                    final int swap = perm[out];
+                    perm[out] = perm[in];
+                    perm[in] = swap;
+
+                    assertArrayEquals(MinimalChangeOrders.unrank_sjt(rank, new int[nFinal]), perm,
+                        ()->"n=%d rank=%d".formatted(nFinal, rank));
+                    assertEquals(rank, MinimalChangeOrders.rank_sjt(perm));
+                    seen.add(Arrays.toString(perm));
+                });
+                assertEquals(count - startRank, seen.size());
+            }
+        }
+    }
+
+    /// chunks resume by unranking, such that all steps are visited exactly once
+    @Test
+    void chunks() {
+        final int n = 22;
+        final int k = 6;
+        final long count = MinimalChangeOrders.count_revdoor(n, k);
+        final var steps = new LongAdder();
+        final var chunks = new LongAdder();
+        MinimalChangeOrders.visitChunks(Parallelism.common(), count, (start, end)->{
+            chunks.increment();
+            MinimalChangeOrders.visit_revdoor(n, k, start, end, (rank, out, in)->steps.increment());
+        });
+        // one step less per chunk, as each chunk starts with an unranked combination
+        assertEquals(count, steps.sum() + chunks.sum());
+    }
+
+}
@@ -18,11 +18,27 @@
  */
 package jcompute.combinatorics.product;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import jcompute.combinatorics.base.Combinations;
+import jcompute.combinatorics.product.IndexSpace.Concurrency;
+import jcompute.combinatorics.product.IndexSpace.IndexOrder;
+import jcompute.combinatorics.product.IndexSpace.Visiting;
+import jcompute.core.util.concurrent.Parallelism;
+import jcompute.core.util.function.MultiIntPredicate;
 
 class CartesianProductTest {
 
@@ -54,6 +70,253 @@ class CartesianProductTest {
         assertEquals(337184640L, adder.longValue());
     }
 
+    @Test
+    void composite() {
+        final int[] dims = {3, 2, 3, 2, 2, 3, 2, 2, 3, 2, 3};
+        var fs = IndexSpace.create(dims);
+        assertTrue(fs instanceof IndexSpaceComposite);
+        var reference = new IndexSpaceN(dims);
+        assertEquals(reference.cardinality(), fs.cardinality());
+
+        var expected = new LongAdder();
+        reference.forEachSequential(v->expected.add(hashN(v)));
+
+        var adder = new LongAdder();
+        fs.forEachSequential(v->adder.add(hashN(v)));
+        assertEquals(expected.longValue(), adder.longValue());
+
+        adder.reset();
+        fs.forEachParallel(v->adder.add(hashN(v)));
+        assertEquals(expected.longValue(), adder.longValue());
+
+        assertEquals(expected.longValue(), fs.streamSequential().mapToLong(this::hashN).sum());
+        assertEquals(expected.longValue(), fs.streamParallel().mapToLong(this::hashN).sum());
+
+        assertEquals(expected.longValue(), fs.streamCollectors(i->new LongAdder(), (collector, v)->collector.add(hashN(v)))
+            .mapToLong(LongAdder::longValue)
+            .sum());
+
+        // only visit branches, where all indices are either 0 or 1
+        adder.reset();
+        fs.forEachParallel(v->v[v.length - 1]<2, v->adder.increment());
+        assertEquals(1L<<dims.length, adder.longValue());
+    }
+
+    @Test
+    void compositeAscending() {
+        final int n = 13;
+        final int k = 10;
+        var fs = IndexSpace.create(IntStream.generate(()->n).limit(k).toArray());
+        var expected = Combinations.binomial(n, k).longValue();
+
+        var adder = new LongAdder();
+        fs.forEach(new Visiting(IndexOrder.ASCENDING, Concurrency.PARALLEL), v->{
+            for (int i = 1; i < v.length; i++) {
+                assertTrue(v[i-1] < v[i]);
+            }
+            adder.increment();
+        });
+        assertEquals(expected, adder.longValue());
+        assertEquals(expected, fs.stream(new Visiting(IndexOrder.ASCENDING, Concurrency.SEQUENTIAL)).count());
+    }
+
+    @Test
+    void compositeFindAny() {
+        var fs = IndexSpace.create(IntStream.generate(()->4).limit(10).toArray());
+        var found = fs.findAny(v->v[0]==3 && v[5]==1 && v[9]==2);
+        assertTrue(found.isPresent());
+        assertEquals(3, found.get()[0]);
+        assertEquals(1, found.get()[5]);
+        assertEquals(2, found.get()[9]);
+
+        assertTrue(fs.findAny(v->v[9]==4).isEmpty());
+    }
+
+    @Test
+    void indexOrders() {
+        final int n = 11;
+        for(int k : new int[] {1, 2, 3, 5, 9, 10}) {
+            final int[] dim = IntStream.generate(()->n).limit(k).toArray();
+            for(var fs : new IndexSpace[] {IndexSpace.create(dim), new IndexSpaceN(dim)}) {
+                for(var indexOrder : IndexOrder.values()) {
+                    // unconstrained is covered above, skip large spaces
+                    if(indexOrder==IndexOrder.ANY && k>5) continue;
+                    final long expected = switch (indexOrder) {
+                        case ANY -> (long)Math.pow(n, k);
+                        case ASCENDING, DESCENDING -> Combinations.binomial(n, k).longValue();
+                        case NON_DECREASING -> Combinations.binomial(n + k - 1, k).longValue();
+                    };
+                    for(var concurrency : Concurrency.values()) {
+                        var visiting = new Visiting(indexOrder, concurrency);
+                        var adder = new LongAdder();
+                        fs.forEach(visiting, v->{
+                            assertTrue(isOrdered(indexOrder, v));
+                            adder.increment();
+                        });
+                        assertEquals(expected, adder.longValue(), ()->"%s k=%d %s".formatted(fs.getClass().getSimpleName(), k, visiting));
+
+                        adder.reset();
+                        fs.forEach(visiting, prefix->isOrdered(indexOrder, prefix), v->adder.increment());
+                        assertEquals(expected, adder.longValue());
+
+                        assertEquals(expected, fs.stream(visiting).filter(v->isOrdered(indexOrder, v)).count(), ()->"%s k=%d %s".formatted(fs.getClass().getSimpleName(), k, visiting));
+                        assertEquals(expected, fs.streamCollectors(visiting, i->new LongAdder(), (collector, v)->collector.increment())
+                            .mapToLong(LongAdder::longValue)
+                            .sum());
+
+                        assertTrue(fs.findAny(visiting, v->!isOrdered(indexOrder, v)).isEmpty());
+                        assertEquals(expected>0, fs.findAny(visiting, v->true).isPresent());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void findFirst() {
+        final int n = 7;
+        for(int k : new int[] {1, 3, 10}) {
+            final int[] dim = IntStream.generate(()->n).limit(k).toArray();
+            for(var fs : new IndexSpace[] {IndexSpace.create(dim), new IndexSpaceN(dim)}) {
+                for(var indexOrder : IndexOrder.values()) {
+                    if(indexOrder==IndexOrder.ANY && k>5) continue;
+                    // matches about every 5th tuple, such that multiple branches have matches
+                    final MultiIntPredicate predicate = v->hashN(v) % 5 == 3;
+                    var expected = fs.stream(new Visiting(indexOrder, Concurrency.SEQUENTIAL))
+                        .filter(predicate::test)
+                        .findFirst();
+                    for(var concurrency : Concurrency.values()) {
+                        var visiting = new Visiting(indexOrder, concurrency);
+                        var actual = fs.findFirst(visiting, predicate);
+                        assertEquals(expected.isPresent(), actual.isPresent());
+                        expected.ifPresent(e->assertArrayEquals(e, actual.get(),
+                            ()->"%s k=%d %s".formatted(fs.getClass().getSimpleName(), k, visiting)));
+
+                        fs.findAny(visiting, predicate).ifPresent(any->assertTrue(predicate.test(any)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void cancellation() {
+        final int[] dim = IntStream.generate(()->4).limit(10).toArray();
+        for(var fs : new IndexSpace[] {IndexSpace.create(4, 4, 4), IndexSpace.create(dim), new IndexSpaceN(dim)}) {
+            // cancelled up front
+            var cancelled = Cancellation.create();
+            cancelled.cancel();
+            var visiting = Visiting.parallel().withCancellation(cancelled);
+            fs.forEach(visiting, v->{
+                throw new AssertionError("must not visit any tuple");
+            });
+            assertTrue(fs.findAny(visiting, v->true).isEmpty());
+            assertTrue(fs.findFirst(visiting, v->true).isEmpty());
+
+            // cancelled from within, checking at every depth stops right away
+            var cancellation = Cancellation.create(fs.indexCount() - 1);
+            var adder = new LongAdder();
+            fs.forEach(Visiting.sequential().withCancellation(cancellation), v->{
+                adder.increment();
+                if(adder.longValue()==42) {
+                    cancellation.cancel();
+                }
+            });
+            assertEquals(42, adder.longValue());
+        }
+
+        // times out on a huge space, without any match, checking deep enough to react quickly
+        var huge = IndexSpace.create(IntStream.generate(()->50).limit(12).toArray());
+        var timeout = Cancellation.timeout(Duration.ofMillis(200), 8);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), ()->{
+            assertTrue(huge.findAny(Visiting.parallel().withCancellation(timeout), v->false).isEmpty());
+        });
+        assertTrue(timeout.isCancelled());
+    }
+
+    @Test
+    void dedicatedPool() {
+        final int[] dim = IntStream.generate(()->5).limit(10).toArray();
+        try(var pool = new ForkJoinPool(2)) {
+            var stats = new Parallelism.RunStats();
+            var visiting = Visiting.parallel().withParallelism(Parallelism.of(pool).withStats(stats));
+            for(var fs : new IndexSpace[] {IndexSpace.create(5, 5, 5), IndexSpace.create(dim), new IndexSpaceN(dim)}) {
+                stats.reset();
+                var adder = new LongAdder();
+                fs.forEach(visiting, v->{
+                    assertSame(pool, ForkJoinTask.getPool());
+                    adder.increment();
+                });
+                assertEquals(fs.cardinality().longValueExact(), adder.longValue());
+                assertEquals(1, stats.runs());
+                assertEquals(5, stats.tasks());
+                assertTrue(stats.busyNanos() > 0);
+
+                assertEquals(fs.cardinality().longValueExact(), visiting.invoke(()->fs.stream(visiting)
+                    .peek(v->assertSame(pool, ForkJoinTask.getPool()))
+                    .count()));
+
+                // the last tuple is only found in the last branch
+                var last = IntStream.generate(()->4).limit(fs.indexCount()).toArray();
+                assertArrayEquals(last, fs.findFirst(visiting, v->Arrays.equals(v, last)).orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    void reduce() {
+        // 4 workers, such that the first two dimensions are fused for 2 branches (when parallel), but not for 11
+        try(var pool = new ForkJoinPool(4)) {
+            for(var dim : new int[][] {{2, 11, 7, 5}, {11, 7, 5}, {2, 3, 2, 3, 2, 3, 2, 3, 2, 3}}) {
+                for(var fs : new IndexSpace[] {IndexSpace.create(dim), new IndexSpaceN(dim)}) {
+                    for(var indexOrder : IndexOrder.values()) {
+                        // histogram of the tuple's index sum
+                        final int levelCount = IntStream.of(dim).sum();
+                        final long[] expected = new long[levelCount];
+                        fs.forEach(new Visiting(indexOrder, Concurrency.SEQUENTIAL), v->++expected[IntStream.of(v).sum()]);
+
+                        for(var concurrency : Concurrency.values()) {
+                            var visiting = new Visiting(indexOrder, concurrency).withParallelism(Parallelism.of(pool));
+                            var histogram = fs.reduce(visiting,
+                                ()->new long[levelCount],
+                                (h, v)->++h[IntStream.of(v).sum()],
+                                (a, b)->{
+                                    for (int j = 0; j < levelCount; j++) {
+                                        a[j] += b[j];
+                                    }
+                                    return a;
+                                });
+                            assertArrayEquals(expected, histogram, ()->"%s %s".formatted(fs.getClass().getSimpleName(), visiting));
+                            assertEquals(expected[3], fs.count(visiting, v->IntStream.of(v).sum()==3));
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(0L, IndexSpace.create().count(v->true));
+    }
+
+    static boolean isOrdered(final IndexOrder indexOrder, final int...v) {
+        for (int i = 1; i < v.length; i++) {
+            final boolean ordered = switch (indexOrder) {
+                case ANY -> true;
+                case ASCENDING -> v[i-1] < v[i];
+                case DESCENDING -> v[i-1] > v[i];
+                case NON_DECREASING -> v[i-1] <= v[i];
+            };
+            if(!ordered) return false;
+        }
+        return true;
+    }
+
+    long hashN(final int...v) {
+        long hash = 0L;
+        for (int i = 0; i < v.length; i++) {
+            hash = 31L * hash + v[i];
+        }
+        return hash;
+    }
+
     int hash(final int...v) {
         return 100_000 + 10_000*v[0] + 1000*v[1] + 100*v[2] + 10*v[3] + v[4];
     }
@@ -0,0 +1,143 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.combinatorics.product.IndexSpace.Concurrency;
+import jcompute.combinatorics.product.IndexSpace.IndexOrder;
+import jcompute.combinatorics.product.IndexSpace.Visiting;
+import jcompute.core.mem.LongArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+
+class OpenCLIndexSpaceTest {
+
+    final static String TEST_SOURCE =
+    """
+        bool test(const int* v) {
+            int sum = 0;
+            for(int d=0; d<INDEX_COUNT; ++d) sum += v[d];
+            return sum % 7 == 3;
+        }
+    """;
+
+    final static String BIN_SOURCE =
+    """
+        int bin(const int* v) {
+            int sum = 0;
+            for(int d=0; d<INDEX_COUNT; ++d) sum += v[d];
+            return sum;
+        }
+    """;
+
+    /// host side decoding (same algorithm as on the device) enumerates exactly the tuples visited on the CPU
+    @Test
+    void decode() {
+        for(var indexOrder : new IndexOrder[] {IndexOrder.ANY, IndexOrder.ASCENDING}) {
+            var indexSpace = IndexSpace.create(9, 9, 9, 9);
+            var clSpace = OpenCLIndexSpace.of(null, indexSpace, indexOrder);
+
+            var expected = new ArrayList<int[]>();
+            indexSpace.forEach(new Visiting(indexOrder, Concurrency.SEQUENTIAL), v->expected.add(v.clone()));
+            assertEquals(expected.size(), clSpace.cardinality());
+
+            var actual = new ArrayList<int[]>();
+            for (long rank = 0; rank < clSpace.cardinality(); rank++) {
+                actual.add(clSpace.decode(rank, new int[4]));
+            }
+            if(indexOrder==IndexOrder.ANY) {
+                // mixed radix decoding preserves the visiting order
+                assertListEquals(expected, actual);
+            } else {
+                // colex order differs, same tuples though
+                actual.sort(Arrays::compare);
+                assertListEquals(expected, actual);
+            }
+            assertTrue(clSpace.prelude().contains("void decode(ulong rank, int* v)"));
+        }
+
+        assertThrows(IllegalArgumentException.class, ()->OpenCLIndexSpace.of(null, IndexSpace.create(3, 4), IndexOrder.ASCENDING));
+        assertThrows(IllegalArgumentException.class, ()->OpenCLIndexSpace.of(null, IndexSpace.create(3, 3), IndexOrder.DESCENDING));
+    }
+
+    /**
+     * Counts, matches and histograms against the CPU, runs on any device (including CPU runtimes like POCL).
+     */
+    @Test
+    void devices() {
+        ClDevice.streamAll()
+            .forEach(this::devices);
+    }
+
+    void devices(final ClDevice clDevice) {
+
+        System.err.printf("devices(%s)%n", clDevice);
+
+        for(var indexOrder : new IndexOrder[] {IndexOrder.ANY, IndexOrder.ASCENDING}) {
+            var indexSpace = IndexSpace.create(IntStream.generate(()->12).limit(6).toArray());
+            var visiting = new Visiting(indexOrder, Concurrency.PARALLEL);
+            // small tiles, such that multiple launches are required
+            var clSpace = OpenCLIndexSpace.of(clDevice, indexSpace, indexOrder).withTileSize(100_000);
+
+            final long expectedCount = indexSpace.count(visiting, v->IntStream.of(v).sum() % 7 == 3);
+            assertEquals(expectedCount, clSpace.count(TEST_SOURCE));
+
+            var matches = clSpace.matches(TEST_SOURCE, 1000);
+            assertEquals(expectedCount, matches.count());
+            assertEquals(Math.min(1000, expectedCount), matches.tuples().size());
+            matches.tuples().forEach(v->assertEquals(3, IntStream.of(v).sum() % 7));
+
+            final int binCount = 6 * 11 + 1;
+            final long[] expected = indexSpace.reduce(visiting,
+                ()->new long[binCount],
+                (h, v)->++h[IntStream.of(v).sum()],
+                (a, b)->{
+                    for (int j = 0; j < binCount; j++) a[j] += b[j];
+                    return a;
+                });
+            try(var arena = Arena.ofConfined()) {
+                var histogram = LongArray.of(arena, Shape.of(binCount));
+                clSpace.histogram(BIN_SOURCE, histogram);
+                assertArrayEquals(expected, histogram.toArray());
+            }
+        }
+    }
+
+    // -- HELPER
+
+    private static void assertListEquals(final List<int[]> expected, final List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+}
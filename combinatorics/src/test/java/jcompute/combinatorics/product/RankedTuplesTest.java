@@ -0,0 +1,159 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import jcompute.core.util.function.MultiIntPredicate;
+
+class RankedTuplesTest {
+
+    @Test
+    void permutations() {
+        assertMatchesBruteForce(new Permutations(6), 6, RankedTuplesTest::isPermutation);
+        assertEquals(2432902008176640000L, new Permutations(20).count());
+    }
+
+    @Test
+    void derangements() {
+        for(int n = 0; n <= 7; n++) {
+            assertMatchesBruteForce(new Derangements(n), n, v->isPermutation(v) && isDerangement(v));
+        }
+        // subfactorials
+        assertEquals(14833L, new Derangements(8).count());
+        assertEquals(895014631192902121L, new Derangements(20).count());
+    }
+
+    @Test
+    void multisetPermutations() {
+        final int[] multiplicities = {2, 1, 3};
+        assertMatchesBruteForce(new MultisetPermutations(multiplicities), multiplicities.length, v->{
+            final int[] counts = new int[multiplicities.length];
+            for (int e : v) ++counts[e];
+            return Arrays.equals(counts, multiplicities);
+        });
+        assertEquals(60L, new MultisetPermutations(multiplicities).count());
+    }
+
+    @Test
+    void subsets() {
+        var subsets = new Subsets(7);
+        assertMatchesBruteForce(subsets, 2, v->true, true);
+        assertEquals(subsets.count(), subsets.streamMasks(IndexSpace.Visiting.parallel()).distinct().count());
+        var adder = new LongAdder();
+        subsets.forEachMask(IndexSpace.Visiting.parallel(), mask->adder.add(Long.bitCount(mask)));
+        assertEquals(7L << 6, adder.sum());
+    }
+
+    // -- HELPER
+
+    private static void assertMatchesBruteForce(final RankedTuples tuples, final int range, final MultiIntPredicate filter) {
+        assertMatchesBruteForce(tuples, range, filter, false);
+    }
+
+    /**
+     * @param reversed - whether rank order is the lexicographic order of the reversed tuples (little endian)
+     */
+    private static void assertMatchesBruteForce(final RankedTuples tuples, final int range, final MultiIntPredicate filter,
+            final boolean reversed) {
+        final int length = tuples.tupleLength();
+        final List<int[]> expected = new ArrayList<>();
+        if(length==0) {
+            expected.add(new int[0]);
+        } else {
+            IndexSpace.create(IntStream.generate(()->range).limit(length).toArray())
+                .forEachSequential(v->{
+                    if(filter.test(v)) expected.add(reversed ? reverse(v) : v.clone());
+                });
+        }
+        if(reversed) {
+            expected.sort(Arrays::compare);
+            expected.replaceAll(RankedTuplesTest::reverse);
+        }
+        assertEquals(expected.size(), tuples.count());
+
+        // rank, unrank, next
+        for (int rank = 0; rank < expected.size(); rank++) {
+            final int[] v = tuples.unrank(rank, new int[length]);
+            assertArrayEquals(expected.get(rank), v);
+            assertEquals(rank, tuples.rank(v));
+            assertEquals(rank + 1 < expected.size(), tuples.next(v));
+            if(rank + 1 < expected.size()) {
+                assertArrayEquals(expected.get(rank + 1), v);
+            }
+        }
+
+        // visiting
+        final List<int[]> visited = new ArrayList<>();
+        tuples.forEachSequential(v->visited.add(v.clone()));
+        assertListEquals(expected, visited);
+        assertListEquals(expected, tuples.streamSequential().toList());
+        assertListEquals(expected, tuples.streamParallel().toList());
+
+        final var adder = new LongAdder();
+        tuples.forEachParallel(v->adder.increment());
+        assertEquals(expected.size(), adder.sum());
+
+        final long[] count = tuples.reduce(IndexSpace.Visiting.parallel(), ()->new long[1], (a, v)->++a[0], (a, b)->{
+            a[0] += b[0];
+            return a;
+        });
+        assertEquals(expected.size(), count[0]);
+
+        if(!expected.isEmpty()) {
+            final int[] last = expected.getLast();
+            assertArrayEquals(last, tuples.findAny(v->Arrays.equals(v, last)).orElseThrow());
+        }
+        assertFalse(tuples.findAny(v->false).isPresent());
+    }
+
+    private static void assertListEquals(final List<int[]> expected, final List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    private static boolean isPermutation(final int... v) {
+        return IntStream.of(v).distinct().count()==v.length;
+    }
+
+    private static boolean isDerangement(final int... v) {
+        return IntStream.range(0, v.length).noneMatch(i->v[i]==i);
+    }
+
+    private static int[] reverse(final int[] v) {
+        final int[] reversed = new int[v.length];
+        for (int i = 0; i < v.length; i++) {
+            reversed[i] = v[v.length - 1 - i];
+        }
+        return reversed;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.setcover;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.combinatorics.base.ColexCombinations;
+import jcompute.core.util.concurrent.Parallelism;
+
+class CoverageCountsTest {
+
+    @Test
+    void neighbours() {
+        var coverage = new CoverageCounts(35, 7, 7, 6);
+        // binomial(7, 6) * 28 + 1
+        assertEquals(197, coverage.neighbourCount());
+
+        final long kSetRank = 123456;
+        var kSet = coverage.kSet(kSetRank);
+        assertArrayEquals(ColexCombinations.unrank_colex(35, kSetRank, new int[7]), kSet);
+        assertEquals(kSetRank, coverage.rank(kSet));
+
+        var neighbours = coverage.neighbours(kSetRank);
+        assertEquals(197, neighbours.length);
+        for (int p : neighbours) {
+            var pSet = ColexCombinations.unrank_colex(35, p, new int[7]);
+            assertTrue(intersectionSize(kSet, pSet) >= 6);
+        }
+    }
+
+    @Test
+    void incrementalMatchesBruteForce() {
+        final int v = 12, k = 5, m = 4, t = 3;
+        var coverage = new CoverageCounts(v, k, m, t);
+        var random = new Random(42);
+        final long kSetCount = ColexCombinations.count(v, k);
+
+        var cover = new ArrayList<Long>();
+        for (int i = 0; i < 20; i++) {
+            final long kSetRank = random.nextLong(kSetCount);
+            final int expectedDelta = coverage.addDelta(kSetRank);
+            final long uncoveredBefore = coverage.uncoveredCount();
+            coverage.add(kSetRank);
+            cover.add(kSetRank);
+            assertEquals(uncoveredBefore + expectedDelta, coverage.uncoveredCount());
+        }
+        assertCounts(coverage, cover);
+
+        // swap moves: predicted deltas match the actual change
+        final long[] removeRanks = new long[50];
+        final long[] addRanks = new long[50];
+        for (int i = 0; i < removeRanks.length; i++) {
+            removeRanks[i] = cover.get(random.nextInt(cover.size()));
+            addRanks[i] = random.nextLong(kSetCount);
+        }
+        final int[] deltas = coverage.swapDeltas(removeRanks, addRanks);
+        // same within a dedicated pool, one task per move
+        try(var pool = new ForkJoinPool(2)) {
+            var stats = new Parallelism.RunStats();
+            assertArrayEquals(deltas, coverage.swapDeltas(removeRanks, addRanks, Parallelism.of(pool).withStats(stats)));
+            assertEquals(removeRanks.length, stats.tasks());
+        }
+        for (int i = 0; i < removeRanks.length; i++) {
+            final long uncoveredBefore = coverage.uncoveredCount();
+            coverage.swap(removeRanks[i], addRanks[i]);
+            assertEquals(uncoveredBefore + deltas[i], coverage.uncoveredCount());
+            // undo
+            coverage.swap(addRanks[i], removeRanks[i]);
+            assertEquals(uncoveredBefore, coverage.uncoveredCount());
+        }
+        assertCounts(coverage, cover);
+
+        for (long kSetRank : cover) {
+            coverage.remove(kSetRank);
+        }
+        assertEquals(coverage.pSetCount(), coverage.uncoveredCount());
+        assertEquals(0, coverage.coverSize());
+    }
+
+    // -- HELPER
+
+    private static void assertCounts(final CoverageCounts coverage, final ArrayList<Long> cover) {
+        long uncovered = 0;
+        for (int p = 0; p < coverage.pSetCount(); p++) {
+            var pSet = ColexCombinations.unrank_colex(coverage.v(), p, new int[coverage.m()]);
+            int count = 0;
+            for (long kSetRank : cover) {
+                if(intersectionSize(coverage.kSet(kSetRank), pSet) >= coverage.t()) ++count;
+            }
+            assertEquals(count, coverage.count(p));
+            if(count==0) ++uncovered;
+        }
+        assertEquals(uncovered, coverage.uncoveredCount());
+    }
+
+    private static int intersectionSize(final int[] a, final int[] b) {
+        int size = 0;
+        for (int x : a) {
+            for (int y : b) {
+                if(x==y) ++size;
+            }
+        }
+        return size;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.combinatorics.setcover;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.combinatorics.product.Cancellation;
+import jcompute.core.util.concurrent.Parallelism;
+
+class ExactCoverSolverTest {
+
+    @Test
+    void knuthExample() {
+        // the example from Knuth's 'Dancing Links' paper, columns A..G
+        var rows = List.of(
+                new int[] {2, 4, 5},
+                new int[] {0, 3, 6},
+                new int[] {1, 2, 5},
+                new int[] {0, 3},
+                new int[] {1, 6},
+                new int[] {3, 4, 6});
+        try(Arena arena = Arena.ofShared()) {
+            var solver = new ExactCoverSolver(arena, 7, rows);
+            for(var heuristic : ExactCoverSolver.ColumnHeuristic.values()) {
+                var options = ExactCoverSolver.Options.defaults().withColumnHeuristic(heuristic);
+                assertEquals(1L, solver.count(options));
+                assertArrayEquals(new int[] {0, 3, 4}, solver.findAny(options).orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    void queens() {
+        var pool = new ForkJoinPool(4);
+        try(Arena arena = Arena.ofShared()) {
+            for(int[] nAndCount : new int[][] {{1, 1}, {4, 2}, {6, 4}, {8, 92}, {10, 724}}) {
+                final int n = nAndCount[0];
+                var solver = queens(arena, n);
+                for(int splitDepth : new int[] {0, 1, 3}) {
+                    var options = ExactCoverSolver.Options.defaults()
+                        .withSplitDepth(splitDepth)
+                        .withParallelism(Parallelism.of(pool));
+                    assertEquals(nAndCount[1], solver.count(options), ()->"n=%d".formatted(n));
+
+                    var solution = solver.findAny(options).orElseThrow();
+                    assertEquals(n, solution.length);
+                    assertIsQueensSolution(n, solution);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void perfectMatchings() {
+        // perfect matchings of the complete graph on 12 vertices: 11!! = 10395
+        final int v = 12;
+        var rows = new ArrayList<int[]>();
+        for (int i = 0; i < v; i++) {
+            for (int j = i + 1; j < v; j++) {
+                rows.add(new int[] {i, j});
+            }
+        }
+        try(Arena arena = Arena.ofShared()) {
+            var solver = new ExactCoverSolver(arena, v, rows);
+            assertEquals(10395L, solver.count(ExactCoverSolver.Options.defaults()));
+            assertEquals(10395L, solver.count(ExactCoverSolver.Options.defaults()
+                .withColumnHeuristic(ExactCoverSolver.ColumnHeuristic.FIRST)
+                .withSplitDepth(0)));
+        }
+    }
+
+    @Test
+    void noSolution() {
+        try(Arena arena = Arena.ofShared()) {
+            var solver = new ExactCoverSolver(arena, 3, List.of(new int[] {0, 1}, new int[] {1, 2}));
+            assertEquals(0L, solver.count(ExactCoverSolver.Options.defaults()));
+            assertTrue(solver.findAny(ExactCoverSolver.Options.defaults()).isEmpty());
+        }
+    }
+
+    @Test
+    void cancellation() {
+        var cancellation = Cancellation.create();
+        cancellation.cancel();
+        var options = ExactCoverSolver.Options.defaults().withCancellation(cancellation);
+        try(Arena arena = Arena.ofShared()) {
+            var solver = queens(arena, 8);
+            assertEquals(0L, solver.count(options));
+            assertTrue(solver.findAny(options).isEmpty());
+        }
+    }
+
+    @Test
+    void invalidRows() {
+        try(Arena arena = Arena.ofShared()) {
+            assertThrows(IllegalArgumentException.class, ()->
+                new ExactCoverSolver(arena, 3, List.of(new int[] {0, 3})));
+            assertThrows(IllegalArgumentException.class, ()->
+                new ExactCoverSolver(arena, 3, List.of(new int[] {1, 1})));
+            assertThrows(IllegalArgumentException.class, ()->
+                new ExactCoverSolver(arena, 3, List.of(new int[0])));
+            assertThrows(IllegalArgumentException.class, ()->
+                new ExactCoverSolver(arena, 3, 4, List.of(new int[] {0})));
+        }
+    }
+
+    // -- HELPER
+
+    /**
+     * Rows are the squares {@code n*row + col}, primary columns are the ranks and files,
+     * secondary columns are the diagonals, which need not be covered.
+     */
+    private static ExactCoverSolver queens(final Arena arena, final int n) {
+        var rows = new ArrayList<int[]>();
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                rows.add(new int[] {row, n + col, 2*n + row + col, 4*n - 1 + (row - col + n - 1)});
+            }
+        }
+        return new ExactCoverSolver(arena, 6*n - 2, 2*n, rows);
+    }
+
+    private static void assertIsQueensSolution(final int n, final int[] squares) {
+        final int[] cols = Arrays.stream(squares).map(square->square % n).distinct().toArray();
+        final int[] rows = Arrays.stream(squares).map(square->square / n).distinct().toArray();
+        final int[] diagonals = Arrays.stream(squares).map(square->square / n + square % n).distinct().toArray();
+        final int[] antiDiagonals = Arrays.stream(squares).map(square->square / n - square % n).distinct().toArray();
+        assertEquals(n, cols.length);
+        assertEquals(n, rows.length);
+        assertEquals(n, diagonals.length);
+        assertEquals(n, antiDiagonals.length);
+    }
+
+}
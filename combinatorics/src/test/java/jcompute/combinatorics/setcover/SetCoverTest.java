@@ -19,18 +19,24 @@
 package jcompute.combinatorics.setcover;
 
 import java.lang.foreign.Arena;
+import java.util.Random;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import lombok.SneakyThrows;
 
+import jcompute.combinatorics.base.ColexCombinations;
 import jcompute.core.io.Compressor;
 import jcompute.core.mem.ByteArray;
+import jcompute.core.mem.IntArray;
 import jcompute.core.mem.LongArray;
+import jcompute.core.shape.Shape;
+import jcompute.core.util.concurrent.Parallelism;
 import jcompute.core.util.timing.Timing;
 import jcompute.opencl.ClDevice;
 
@@ -53,6 +59,164 @@ class SetCoverTest {
         }
     }
 
+    /**
+     * <pre>
+     * AVX-512 (8 lanes): 160s single threaded, scales with the number of cores
+     * </pre>
+     */
+    @Test @Disabled("takes ~160s per core")
+    void cpuVectorized() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            setup(arena);
+
+            var setCover = new SetCoverKernels.JavaVector64Bit(setCoverParams, outputMem);
+            Timing.run("cpu (vectorized)", ()->{
+                setCover.run();
+            });
+
+            validate();
+        }
+    }
+
+    @Test
+    void cpuVectorizedMatchesReference() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            // random kSets, such that only some pSets are covered
+            var random = new Random(42);
+            var kSets = LongArray.of(arena, Shape.of(1001));
+            kSets.fill(gid->random.nextLong() & ((1L << 22) - 1));
+            var params = new SetCoverParams(arena, 22, 5, 4, kSets, Parallelism.common());
+
+            var expected = ByteArray.of(arena, params.shape());
+            var actual = ByteArray.of(arena, params.shape());
+            new SetCoverKernels.Java64Bit(params, expected).run();
+            new SetCoverKernels.JavaVector64Bit(params, actual).run();
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void cpuHistogramMatchesPerThresholdPasses() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            var random = new Random(42);
+            var kSets = LongArray.of(arena, Shape.of(101));
+            kSets.fill(gid->random.nextLong() & ((1L << 22) - 1));
+            final int m = 5;
+            var params = new SetCoverParams(arena, 22, m, 0, kSets, Parallelism.common());
+
+            var histogram = IntArray.of(arena, Shape.of(m + 1));
+            new SetCoverKernels.JavaVector64BitHistogram(params, histogram).run();
+            assertEquals(params.pSetCount(), SetCoverKernels.coveredCount(histogram, 0));
+
+            for (int t = 1; t <= m; t++) {
+                var paramsAtT = new SetCoverParams(params.v(), m, t, kSets, params.pSets());
+                var covered = ByteArray.of(arena, paramsAtT.shape());
+                new SetCoverKernels.Java64Bit(paramsAtT, covered).run();
+                long expected = 0L;
+                for (byte b : covered.toArray()) {
+                    expected += b;
+                }
+                assertEquals(expected, SetCoverKernels.coveredCount(histogram, t), "t="+t);
+            }
+        }
+    }
+
+    @Test
+    void gpuHistogram() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            var random = new Random(42);
+            var kSets = LongArray.of(arena, Shape.of(101));
+            kSets.fill(gid->random.nextLong() & ((1L << 22) - 1));
+            var params = new SetCoverParams(arena, 22, 5, 0, kSets, Parallelism.common());
+
+            ClDevice.getDefault().ifPresent(clDevice->{
+                var expected = IntArray.of(arena, Shape.of(6));
+                var actual = IntArray.of(arena, Shape.of(6));
+                new SetCoverKernels.JavaVector64BitHistogram(params, expected).run();
+                new SetCoverKernels.OpenCL64BitHistogram(clDevice, params, actual).run();
+
+                assertEquals(expected, actual);
+            });
+        }
+    }
+
+    @Test
+    void cpuMultiWord() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            var params = randomMultiWordParams(arena, 75, 4, 3, 500);
+            var actual = ByteArray.of(arena, params.shape());
+            new SetCoverKernels.JavaVectorMultiWord(params, actual).run();
+
+            assertEquals(multiWordReference(arena, params), actual);
+        }
+    }
+
+    @Test
+    void cpuMultiWordMatchesSingleWord() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            var random = new Random(42);
+            var kSets = LongArray.of(arena, Shape.of(1001));
+            kSets.fill(gid->random.nextLong() & ((1L << 22) - 1));
+            var params = new SetCoverParams(arena, 22, 5, 4, kSets, Parallelism.common());
+
+            var expected = ByteArray.of(arena, params.shape());
+            var actual = ByteArray.of(arena, params.shape());
+            new SetCoverKernels.JavaVector64Bit(params, expected).run();
+            new SetCoverKernels.JavaVectorMultiWord(params, actual).run();
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void singleWordKernelsRejectMultiWordParams() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            var params = randomMultiWordParams(arena, 75, 4, 3, 10);
+            var covered = ByteArray.of(arena, params.shape());
+            var histogram = IntArray.of(arena, Shape.of(params.m() + 1));
+
+            assertThrows(IllegalArgumentException.class, ()->new SetCoverKernels.Java64Bit(params, covered).run());
+            assertThrows(IllegalArgumentException.class, ()->new SetCoverKernels.JavaVector64Bit(params, covered).run());
+            assertThrows(IllegalArgumentException.class, ()->new SetCoverKernels.JavaVector64BitHistogram(params, histogram).run());
+
+            ClDevice.getDefault().ifPresent(clDevice->{
+                assertThrows(IllegalArgumentException.class, ()->new SetCoverKernels.OpenCL64Bit(clDevice, params, covered).run());
+                assertThrows(IllegalArgumentException.class, ()->new SetCoverKernels.OpenCL64BitHistogram(clDevice, params, histogram).run());
+            });
+        }
+    }
+
+    @Test
+    void gpuMultiWord() {
+
+        try(Arena arena = Arena.ofShared()) {
+
+            var params = randomMultiWordParams(arena, 75, 4, 3, 500);
+
+            ClDevice.getDefault().ifPresent(clDevice->{
+                var actual = ByteArray.of(arena, params.shape());
+                new SetCoverKernels.OpenCLMultiWord(clDevice, params, actual).run();
+
+                assertEquals(multiWordReference(arena, params), actual);
+            });
+        }
+    }
+
     /**
      * <pre>
      * AMD Radeon RX 6950XT: 2800ms per iteration at 225W, 2540MHz (80 CUs)
@@ -64,7 +228,7 @@ class SetCoverTest {
     @Test
     void gpu() {
 
-        try(Arena arena = Arena.ofConfined()) {
+        try(Arena arena = Arena.ofShared()) {
 
             setup(arena);
 
@@ -95,7 +259,7 @@ class SetCoverTest {
         try(var fis = this.getClass().getResourceAsStream("wheel-35-7-6.lzma")) {
             var kSets = LongArray.read(arena, Compressor.lzma().in(fis));
             assertNotNull(kSets);
-            this.setCoverParams = new SetCoverParams(arena, 35, 7, 6, kSets);
+            this.setCoverParams = new SetCoverParams(arena, 35, 7, 6, kSets, Parallelism.common());
         }
 
         this.outputMem = ByteArray.of(arena, setCoverParams.shape());
@@ -105,6 +269,47 @@ class SetCoverTest {
         System.out.printf("setup took %s%n", stopWatch);
     }
 
+    /**
+     * Random kSets of size (m + 2), spread over a universe of v elements.
+     */
+    private static SetCoverParams randomMultiWordParams(
+            final Arena arena, final int v, final int m, final int t, final int kSetCount) {
+        var random = new Random(42);
+        final int wordCount = ColexCombinations.wordCount(v);
+        final long kCombinationCount = ColexCombinations.count(v, m + 2);
+        var kSets = LongArray.of(arena, Shape.of(kSetCount, wordCount));
+        for (int k = 0; k < kSetCount; k++) {
+            var c = ColexCombinations.unrank_colex(v, random.nextLong(kCombinationCount), new int[m + 2]);
+            for (int i = 0; i < c.length; i++) {
+                final long wordIndex = (long)k * wordCount + (c[i] >>> 6);
+                kSets.put(wordIndex, kSets.get(wordIndex) | (1L << c[i]));
+            }
+        }
+        return new SetCoverParams(arena, v, m, t, kSets, Parallelism.common());
+    }
+
+    /**
+     * Straightforward (scalar) multi-word reference.
+     */
+    private static ByteArray multiWordReference(final Arena arena, final SetCoverParams params) {
+        final int wordCount = params.wordCount();
+        var expected = ByteArray.of(arena, params.shape());
+        for (long p = 0; p < params.pSetCount(); p++) {
+            for (long k = 0; k < params.kSetCount(); k++) {
+                int intersectionSize = 0;
+                for (int w = 0; w < wordCount; w++) {
+                    intersectionSize += Long.bitCount(params.pSets().get(p * wordCount + w)
+                            & params.kSets().get(k * wordCount + w));
+                }
+                if(intersectionSize >= params.t()) {
+                    expected.put(p, (byte)1);
+                    break;
+                }
+            }
+        }
+        return expected;
+    }
+
     private void validate() {
         //assert all ones
         setCoverParams.shape().forEach(gid->{
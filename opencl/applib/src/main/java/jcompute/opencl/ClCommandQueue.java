@@ -18,37 +18,102 @@
  */
 package jcompute.opencl;
 
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 import org.jspecify.annotations.Nullable;
 
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import jcompute.core.mem.JComputeArray;
 import jcompute.core.shape.Shape;
+import jcompute.opencl.ClMem.MapMode;
+import jcompute.opencl.ClProfiler.CommandKind;
 
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class ClCommandQueue implements ClResource {
 
+    static final ClEvent[] NO_EVENTS = new ClEvent[0];
+
     @Getter private final ClContext context;
+    @Getter private final ClDevice device;
+    /**
+     * As effective, that is with hints not supported by the device dropped.
+     */
+    @Getter private final ClQueueProperties properties;
+
+    /**
+     * Where futures returned by the async methods are completed,
+     * such that dependent stages do not run on threads of the OpenCL runtime.
+     */
+    private volatile Executor completionExecutor = ForkJoinPool.commonPool();
+    private volatile @Nullable ClProfiler profiler;
 
     protected abstract int flushQueue();
     protected abstract int finishQueue();
     protected abstract int releaseQueue();
 
-    protected abstract int enqueueWriteBuffer(ClMem memObj, boolean blocking);
-    protected abstract int enqueueReadBuffer(ClMem memObj, boolean blocking);
+    /**
+     * Transfers the byte range {@code [offset, offset + host.byteSize())} of given memory object
+     * from or to given host memory.
+     * @param waitList - events that need to complete before this command can be executed
+     * @param event_ret - if not null, receives (at index 0) a new event identifying this command
+     */
+    protected abstract int enqueueWriteBuffer(ClMem memObj, boolean blocking, long offset, MemorySegment host,
+            ClEvent[] waitList, ClEvent @Nullable [] event_ret);
+    protected abstract int enqueueReadBuffer(ClMem memObj, boolean blocking, long offset, MemorySegment host,
+            ClEvent[] waitList, ClEvent @Nullable [] event_ret);
+
+    /**
+     * Transfers a rectangular region between given memory object and the same region of its underlying array,
+     * both sharing origin and pitches.
+     * @param origin - {@code (byte offset, row, slice)}
+     * @param region - {@code (bytes per row, rows, slices)}
+     * @param rowPitch - bytes per row
+     * @param slicePitch - bytes per slice
+     * @param waitList - events that need to complete before this command can be executed
+     * @param event_ret - if not null, receives (at index 0) a new event identifying this command
+     */
+    protected abstract int enqueueWriteBufferRect(ClMem memObj, boolean blocking,
+            long[] origin, long[] region, long rowPitch, long slicePitch,
+            ClEvent[] waitList, ClEvent @Nullable [] event_ret);
+    protected abstract int enqueueReadBufferRect(ClMem memObj, boolean blocking,
+            long[] origin, long[] region, long rowPitch, long slicePitch,
+            ClEvent[] waitList, ClEvent @Nullable [] event_ret);
+
+    /**
+     * Maps the byte range {@code [offset, offset + size)} of given memory object into host memory.
+     * @param errcode_ret - receives (at index 0) the error code
+     * @return the mapped memory (of given size)
+     */
+    protected abstract MemorySegment enqueueMapBuffer(ClMem memObj, boolean blocking, MapMode mapMode,
+            long offset, long size, ClEvent[] waitList, ClEvent @Nullable [] event_ret, int[] errcode_ret);
+    protected abstract int enqueueUnmapMemObject(ClMem memObj, MemorySegment mapped,
+            ClEvent[] waitList, ClEvent @Nullable [] event_ret);
 
     /**
      * Execute OpenCL kernel
      * @param kernel
      * @param work_dim - number of dimensions used to specify the global work-items and work-items in
             the work-group
+     * @param waitList - events that need to complete before this command can be executed
+     * @param event_ret - if not null, receives (at index 0) a new event identifying this command
      */
     protected abstract int enqueueNDRangeKernel(
             ClKernel kernel,
             int work_dim,
             Shape globalSize,
-            @Nullable Shape localSize);
+            @Nullable Shape localSize,
+            ClEvent[] waitList,
+            ClEvent @Nullable [] event_ret);
 
     @Override
     public final void free() {
@@ -72,13 +137,13 @@ public abstract class ClCommandQueue implements ClResource {
     }
 
     public final ClCommandQueue enqueueWriteBuffer(final ClMem memObj) {
-        _Util.assertSuccess(enqueueWriteBuffer(memObj, true), ()->
+        _Util.assertSuccess(writeBuffer(memObj, true, 0L, hostSlice(memObj, 0L, memObj.size()), NO_EVENTS, null), ()->
             String.format("failed to enqueue WriteBuffer for context %s", getContext()));
         return this;
     }
 
     public final ClCommandQueue enqueueReadBuffer(final ClMem memObj) {
-        _Util.assertSuccess(enqueueReadBuffer(memObj, true), ()->
+        _Util.assertSuccess(readBuffer(memObj, true, 0L, hostSlice(memObj, 0L, memObj.size()), NO_EVENTS, null), ()->
             String.format("failed to enqueue ReadBuffer for context %s", getContext()));
         return this;
     }
@@ -96,10 +161,537 @@ public abstract class ClCommandQueue implements ClResource {
             final ClKernel kernel,
             final Shape globalSize,
             final Shape localSize) {
-        int ret = enqueueNDRangeKernel(kernel, globalSize.dimensionCount(), globalSize, localSize);
+        int ret = ndRangeKernel(kernel, globalSize.dimensionCount(), globalSize, localSize, NO_EVENTS, null);
+        _Util.assertSuccess(ret, ()->
+            String.format("failed to enqueue Kernel for context %s", getContext()));
+        return this;
+    }
+
+    // -- PARTIAL TRANSFERS
+
+    /**
+     * Writes the elements {@code [offset, offset + length)} of the underlying array
+     * to the same range of given memory object.
+     */
+    public final ClCommandQueue enqueueWriteBuffer(final ClMem memObj, final long offset, final long length) {
+        checkRange(memObj, offset, length);
+        _Util.assertSuccess(writeBuffer(memObj, true, offset * memObj.sizeOf(), hostSlice(memObj, offset, length),
+                NO_EVENTS, null), ()->
+            String.format("failed to enqueue WriteBuffer for context %s", getContext()));
+        return this;
+    }
+
+    /**
+     * Reads the elements {@code [offset, offset + length)} of given memory object
+     * into the same range of the underlying array.
+     */
+    public final ClCommandQueue enqueueReadBuffer(final ClMem memObj, final long offset, final long length) {
+        checkRange(memObj, offset, length);
+        _Util.assertSuccess(readBuffer(memObj, true, offset * memObj.sizeOf(), hostSlice(memObj, offset, length),
+                NO_EVENTS, null), ()->
+            String.format("failed to enqueue ReadBuffer for context %s", getContext()));
+        return this;
+    }
+
+    /**
+     * Non-blocking variant of {@link #enqueueWriteBuffer(ClMem, long, long)}.
+     * @return event identifying the write, owned by the caller
+     */
+    public final ClEvent enqueueWriteBufferNonBlocking(final ClMem memObj, final long offset, final long length,
+            final ClEvent... waitList) {
+        checkRange(memObj, offset, length);
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(writeBuffer(memObj, false, offset * memObj.sizeOf(), hostSlice(memObj, offset, length),
+                waitList, event_ret), ()->
+            String.format("failed to enqueue WriteBuffer for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * Non-blocking variant of {@link #enqueueReadBuffer(ClMem, long, long)}.
+     * @return event identifying the read, owned by the caller
+     */
+    public final ClEvent enqueueReadBufferNonBlocking(final ClMem memObj, final long offset, final long length,
+            final ClEvent... waitList) {
+        checkRange(memObj, offset, length);
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(readBuffer(memObj, false, offset * memObj.sizeOf(), hostSlice(memObj, offset, length),
+                waitList, event_ret), ()->
+            String.format("failed to enqueue ReadBuffer for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * Enqueues a non-blocking write of given (host) array to given memory object, starting at element offset,
+     * regardless of the memory object's own underlying array. Both must have the same element type.
+     * The array must not be modified, until the returned event has completed.
+     * @param waitList - events that need to complete before the write starts
+     * @return event identifying the write, owned by the caller
+     */
+    public final ClEvent enqueueWriteBufferNonBlocking(final ClMem memObj, final long offset, final JComputeArray source,
+            final ClEvent... waitList) {
+        checkRange(memObj, offset, source);
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(writeBuffer(memObj, false, offset * memObj.sizeOf(), source.memorySegment(),
+                waitList, event_ret), ()->
+            String.format("failed to enqueue WriteBuffer for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * Enqueues a non-blocking read from given memory object, starting at element offset, into given (host) array,
+     * regardless of the memory object's own underlying array. Both must have the same element type.
+     * The array must not be accessed, until the returned event has completed.
+     * @param waitList - events that need to complete before the read starts
+     * @return event identifying the read, owned by the caller
+     */
+    public final ClEvent enqueueReadBufferNonBlocking(final ClMem memObj, final long offset, final JComputeArray target,
+            final ClEvent... waitList) {
+        checkRange(memObj, offset, target);
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(readBuffer(memObj, false, offset * memObj.sizeOf(), target.memorySegment(),
+                waitList, event_ret), ()->
+            String.format("failed to enqueue ReadBuffer for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * Writes a rectangular region of the underlying (2d or 3d) array to the same region of given memory object.
+     * @param origin - index of the region's first element, {@code (i, j)} or {@code (i, j, k)}
+     *      as in {@link Shape#gid2d(long, long)} and {@link Shape#gid3d(long, long, long)}
+     * @param region - size of the region, same dimension count as the array's shape
+     */
+    public final ClCommandQueue enqueueWriteBufferRect(final ClMem memObj, final long[] origin, final Shape region) {
+        var rect = Rect.of(memObj, origin, region);
+        _Util.assertSuccess(writeBufferRect(memObj, true, rect.origin(), rect.region(),
+                rect.rowPitch(), rect.slicePitch(), NO_EVENTS, null), ()->
+            String.format("failed to enqueue WriteBufferRect for context %s", getContext()));
+        return this;
+    }
+
+    /**
+     * Reads a rectangular region of given memory object into the same region of the underlying (2d or 3d) array.
+     * @see #enqueueWriteBufferRect(ClMem, long[], Shape)
+     */
+    public final ClCommandQueue enqueueReadBufferRect(final ClMem memObj, final long[] origin, final Shape region) {
+        var rect = Rect.of(memObj, origin, region);
+        _Util.assertSuccess(readBufferRect(memObj, true, rect.origin(), rect.region(),
+                rect.rowPitch(), rect.slicePitch(), NO_EVENTS, null), ()->
+            String.format("failed to enqueue ReadBufferRect for context %s", getContext()));
+        return this;
+    }
+
+    /**
+     * Non-blocking variant of {@link #enqueueWriteBufferRect(ClMem, long[], Shape)}.
+     * @return event identifying the write, owned by the caller
+     */
+    public final ClEvent enqueueWriteBufferRectNonBlocking(final ClMem memObj, final long[] origin, final Shape region,
+            final ClEvent... waitList) {
+        var rect = Rect.of(memObj, origin, region);
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(writeBufferRect(memObj, false, rect.origin(), rect.region(),
+                rect.rowPitch(), rect.slicePitch(), waitList, event_ret), ()->
+            String.format("failed to enqueue WriteBufferRect for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * Non-blocking variant of {@link #enqueueReadBufferRect(ClMem, long[], Shape)}.
+     * @return event identifying the read, owned by the caller
+     */
+    public final ClEvent enqueueReadBufferRectNonBlocking(final ClMem memObj, final long[] origin, final Shape region,
+            final ClEvent... waitList) {
+        var rect = Rect.of(memObj, origin, region);
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(readBufferRect(memObj, false, rect.origin(), rect.region(),
+                rect.rowPitch(), rect.slicePitch(), waitList, event_ret), ()->
+            String.format("failed to enqueue ReadBufferRect for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    // -- NON-BLOCKING
+
+    /**
+     * Enqueues a non-blocking write of the whole underlying array to given memory object.
+     * The array must not be modified, until the returned event has completed.
+     * @param waitList - events that need to complete before the write starts
+     * @return event identifying the write, owned by the caller
+     */
+    public final ClEvent enqueueWriteBufferNonBlocking(final ClMem memObj, final ClEvent... waitList) {
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(writeBuffer(memObj, false, 0L, hostSlice(memObj, 0L, memObj.size()), waitList, event_ret), ()->
+            String.format("failed to enqueue WriteBuffer for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * Enqueues a non-blocking read of given memory object into its whole underlying array.
+     * The array must not be accessed, until the returned event has completed.
+     * @param waitList - events that need to complete before the read starts
+     * @return event identifying the read, owned by the caller
+     */
+    public final ClEvent enqueueReadBufferNonBlocking(final ClMem memObj, final ClEvent... waitList) {
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(readBuffer(memObj, false, 0L, hostSlice(memObj, 0L, memObj.size()), waitList, event_ret), ()->
+            String.format("failed to enqueue ReadBuffer for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * localSize is auto
+     * @see #enqueueNDRangeKernelNonBlocking(ClKernel, Shape, Shape, ClEvent...)
+     */
+    public final ClEvent enqueueNDRangeKernelNonBlocking(
+            final ClKernel kernel,
+            final Shape globalSize,
+            final ClEvent... waitList) {
+        return enqueueNDRangeKernelNonBlocking(kernel, globalSize, null, waitList);
+    }
+
+    /**
+     * Enqueues given kernel, same as {@link #enqueueNDRangeKernel(ClKernel, Shape, Shape)},
+     * but waiting for given events and returning an event, that identifies the kernel execution.
+     * @param waitList - events that need to complete before the kernel starts
+     * @return event identifying the kernel execution, owned by the caller
+     */
+    public final ClEvent enqueueNDRangeKernelNonBlocking(
+            final ClKernel kernel,
+            final Shape globalSize,
+            final @Nullable Shape localSize,
+            final ClEvent... waitList) {
+        final ClEvent[] event_ret = new ClEvent[1];
+        int ret = ndRangeKernel(kernel, globalSize.dimensionCount(), globalSize, localSize, waitList, event_ret);
         _Util.assertSuccess(ret, ()->
             String.format("failed to enqueue Kernel for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    // -- ASYNC
+
+    /**
+     * Sets the executor, that completes futures returned by the async methods,
+     * defaults to {@link ForkJoinPool#commonPool()}.
+     * Completions rejected by the executor run on the thread of the OpenCL runtime instead.
+     */
+    public final ClCommandQueue completionExecutor(final Executor completionExecutor) {
+        this.completionExecutor = completionExecutor;
+        return this;
+    }
+
+    /**
+     * Enqueues a non-blocking write of the whole underlying array to given memory object and flushes the queue.
+     * The array must not be modified, until the returned future has completed.
+     * <p>
+     * No thread is blocked while the write is in flight, the future is completed from a driver callback.
+     * @param waitList - events that need to complete before the write starts
+     * @return future completing with given memory object, once the write has completed
+     */
+    public final CompletableFuture<ClMem> writeAsync(final ClMem memObj, final ClEvent... waitList) {
+        return async(()->enqueueWriteBufferNonBlocking(memObj, waitList), memObj);
+    }
+
+    /**
+     * Enqueues a non-blocking read of given memory object into its whole underlying array and flushes the queue.
+     * The array must not be accessed, until the returned future has completed.
+     * <p>
+     * No thread is blocked while the read is in flight, the future is completed from a driver callback.
+     * @param waitList - events that need to complete before the read starts
+     * @return future completing with given memory object, once its array holds the read data
+     */
+    public final CompletableFuture<ClMem> readAsync(final ClMem memObj, final ClEvent... waitList) {
+        return async(()->enqueueReadBufferNonBlocking(memObj, waitList), memObj);
+    }
+
+    /**
+     * localSize is auto
+     * @see #launchAsync(ClKernel, Shape, Shape, ClEvent...)
+     */
+    public final CompletableFuture<ClKernel> launchAsync(
+            final ClKernel kernel,
+            final Shape globalSize,
+            final ClEvent... waitList) {
+        return launchAsync(kernel, globalSize, null, waitList);
+    }
+
+    /**
+     * Enqueues given kernel and flushes the queue.
+     * <p>
+     * No thread is blocked while the kernel is in flight, the future is completed from a driver callback.
+     * @param waitList - events that need to complete before the kernel starts
+     * @return future completing with given kernel, once its execution has completed
+     */
+    public final CompletableFuture<ClKernel> launchAsync(
+            final ClKernel kernel,
+            final Shape globalSize,
+            final @Nullable Shape localSize,
+            final ClEvent... waitList) {
+        return async(()->enqueueNDRangeKernelNonBlocking(kernel, globalSize, localSize, waitList), kernel);
+    }
+
+    // -- MAPPING
+
+    /**
+     * Maps given memory object into host memory (blocking), for the host to access its contents,
+     * without a copy for memory objects created with {@code USE_HOST_PTR} or {@code ALLOC_HOST_PTR}
+     * on devices sharing host memory.
+     * @see ClContext#createMemoryUseHostPtr(JComputeArray, ClMem.MemMode)
+     * @see ClContext#createMemoryAllocHostPtr(JComputeArray, ClMem.MemMode)
+     */
+    public final ClMapping map(final ClMem memObj, final MapMode mapMode) {
+        return map(memObj, mapMode, 0L, memObj.size(), memObj.computeArray().shape());
+    }
+
+    /**
+     * Maps the elements {@code [offset, offset + length)} of given memory object into host memory (blocking).
+     * @see #map(ClMem, MapMode)
+     */
+    public final ClMapping map(final ClMem memObj, final MapMode mapMode, final long offset, final long length) {
+        return map(memObj, mapMode, offset, length, Shape.of(length));
+    }
+
+    // -- PROFILING
+
+    /**
+     * Attaches given profiler, which from now on records every command enqueued to this queue,
+     * or detaches the current one, if {@code null}.
+     * @throws IllegalStateException if this queue was not created with profiling enabled
+     * @see ClQueueProperties#withProfiling(boolean)
+     */
+    public final ClCommandQueue profiler(final @Nullable ClProfiler profiler) {
+        if(profiler!=null
+                && !properties.profiling()) throw new IllegalStateException(
+                        "queue %s was not created with profiling enabled".formatted(this));
+        this.profiler = profiler;
         return this;
     }
 
+    public final Optional<ClProfiler> getProfiler() {
+        return Optional.ofNullable(profiler);
+    }
+
+    @Nullable ClProfiler profilerOrNull() {
+        return profiler;
+    }
+
+    /**
+     * Event out-parameter of a profiled command, that is given one or else a new one,
+     * as the profiler requires an event.
+     */
+    static ClEvent[] profiledEventRet(final ClEvent @Nullable [] event_ret) {
+        return event_ret!=null
+                ? event_ret
+                : new ClEvent[1];
+    }
+
+    /**
+     * Passes the event of a successfully enqueued command on to given profiler.
+     * @param ret - return code of the enqueue call
+     * @param event_ret - the caller's event out-parameter, {@code null} if the caller does not own the event
+     */
+    static int tracked(final ClProfiler profiler, final int ret,
+            final ClEvent[] profiled_ret, final ClEvent @Nullable [] event_ret,
+            final CommandKind kind, final String name, final long bytes) {
+        if(ret==0) {
+            profiler.track(profiled_ret[0], kind, name, bytes, event_ret!=null);
+        }
+        return ret;
+    }
+
+    private int writeBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var profiler = this.profiler;
+        if(profiler==null) return enqueueWriteBuffer(memObj, blocking, offset, host, waitList, event_ret);
+        final ClEvent[] profiled_ret = profiledEventRet(event_ret);
+        return tracked(profiler, enqueueWriteBuffer(memObj, blocking, offset, host, waitList, profiled_ret),
+                profiled_ret, event_ret, CommandKind.WRITE, ClProfiler.transferName(CommandKind.WRITE), host.byteSize());
+    }
+
+    private int readBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var profiler = this.profiler;
+        if(profiler==null) return enqueueReadBuffer(memObj, blocking, offset, host, waitList, event_ret);
+        final ClEvent[] profiled_ret = profiledEventRet(event_ret);
+        return tracked(profiler, enqueueReadBuffer(memObj, blocking, offset, host, waitList, profiled_ret),
+                profiled_ret, event_ret, CommandKind.READ, ClProfiler.transferName(CommandKind.READ), host.byteSize());
+    }
+
+    private int writeBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var profiler = this.profiler;
+        if(profiler==null) return enqueueWriteBufferRect(memObj, blocking, origin, region, rowPitch, slicePitch,
+                waitList, event_ret);
+        final ClEvent[] profiled_ret = profiledEventRet(event_ret);
+        return tracked(profiler, enqueueWriteBufferRect(memObj, blocking, origin, region, rowPitch, slicePitch,
+                        waitList, profiled_ret),
+                profiled_ret, event_ret, CommandKind.WRITE, ClProfiler.transferName(CommandKind.WRITE),
+                region[0] * region[1] * region[2]);
+    }
+
+    private int readBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var profiler = this.profiler;
+        if(profiler==null) return enqueueReadBufferRect(memObj, blocking, origin, region, rowPitch, slicePitch,
+                waitList, event_ret);
+        final ClEvent[] profiled_ret = profiledEventRet(event_ret);
+        return tracked(profiler, enqueueReadBufferRect(memObj, blocking, origin, region, rowPitch, slicePitch,
+                        waitList, profiled_ret),
+                profiled_ret, event_ret, CommandKind.READ, ClProfiler.transferName(CommandKind.READ),
+                region[0] * region[1] * region[2]);
+    }
+
+    private MemorySegment mapBuffer(final ClMem memObj, final boolean blocking, final MapMode mapMode,
+            final long offset, final long size, final ClEvent[] waitList, final ClEvent @Nullable [] event_ret,
+            final int[] errcode_ret) {
+        final var profiler = this.profiler;
+        if(profiler==null) return enqueueMapBuffer(memObj, blocking, mapMode, offset, size, waitList, event_ret,
+                errcode_ret);
+        final ClEvent[] profiled_ret = profiledEventRet(event_ret);
+        final MemorySegment mapped = enqueueMapBuffer(memObj, blocking, mapMode, offset, size, waitList,
+                profiled_ret, errcode_ret);
+        tracked(profiler, errcode_ret[0], profiled_ret, event_ret,
+                CommandKind.MAP, ClProfiler.transferName(CommandKind.MAP), size);
+        return mapped;
+    }
+
+    private int unmapMemObject(final ClMem memObj, final MemorySegment mapped,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var profiler = this.profiler;
+        if(profiler==null) return enqueueUnmapMemObject(memObj, mapped, waitList, event_ret);
+        final ClEvent[] profiled_ret = profiledEventRet(event_ret);
+        return tracked(profiler, enqueueUnmapMemObject(memObj, mapped, waitList, profiled_ret),
+                profiled_ret, event_ret, CommandKind.UNMAP, ClProfiler.transferName(CommandKind.UNMAP),
+                mapped.byteSize());
+    }
+
+    private int ndRangeKernel(final ClKernel kernel, final int work_dim,
+            final Shape globalSize, final @Nullable Shape localSize,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var profiler = this.profiler;
+        if(profiler==null) return enqueueNDRangeKernel(kernel, work_dim, globalSize, localSize, waitList, event_ret);
+        final ClEvent[] profiled_ret = profiledEventRet(event_ret);
+        return tracked(profiler, enqueueNDRangeKernel(kernel, work_dim, globalSize, localSize, waitList, profiled_ret),
+                profiled_ret, event_ret, CommandKind.KERNEL, kernel.name(), 0L);
+    }
+
+    // -- HELPER
+
+    private static void checkRange(final ClMem memObj, final long offset, final long length) {
+        if(offset<0
+                || length<0
+                || offset + length > memObj.size()) throw new IllegalArgumentException(
+                        "range [%d, %d) out of bounds for memory object of size %d".formatted(
+                                offset, offset + length, memObj.size()));
+    }
+
+    private static void checkRange(final ClMem memObj, final long offset, final JComputeArray hostArray) {
+        if(hostArray.bytesPerElement()!=memObj.sizeOf()) throw new IllegalArgumentException(
+                "element size mismatch: host array has %d, memory object %d bytes per element".formatted(
+                        hostArray.bytesPerElement(), memObj.sizeOf()));
+        checkRange(memObj, offset, hostArray.shape().totalSize());
+    }
+
+    /**
+     * The elements {@code [offset, offset + length)} of the memory object's underlying array.
+     */
+    private static MemorySegment hostSlice(final ClMem memObj, final long offset, final long length) {
+        return memObj.computeArray().memorySegment().asSlice(offset * memObj.sizeOf(), length * memObj.sizeOf());
+    }
+
+    private ClMapping map(final ClMem memObj, final MapMode mapMode, final long offset, final long length,
+            final Shape shape) {
+        checkRange(memObj, offset, length);
+        final int[] errcode_ret = new int[1];
+        final MemorySegment mapped = mapBuffer(memObj, true, mapMode, offset * memObj.sizeOf(),
+                length * memObj.sizeOf(), NO_EVENTS, null, errcode_ret);
+        _Util.assertSuccess(errcode_ret[0], ()->
+            String.format("failed to map memory object for context %s", getContext()));
+        return new ClMapping(this, memObj, _Util.arrayOf(memObj.computeArray(), shape, mapped));
+    }
+
+    ClEvent unmap(final ClMapping mapping, final ClEvent... waitList) {
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(unmapMemObject(mapping.memObj(), mapping.memorySegment(), waitList, event_ret), ()->
+            String.format("failed to unmap memory object for context %s", getContext()));
+        return event_ret[0];
+    }
+
+    /**
+     * Rectangular region in OpenCL terms, where the last index of the (row-major) shape is the contiguous one.
+     */
+    private record Rect(long[] origin, long[] region, long rowPitch, long slicePitch) {
+        static Rect of(final ClMem memObj, final long[] origin, final Shape region) {
+            final Shape shape = memObj.computeArray().shape();
+            final int sizeOf = memObj.sizeOf();
+            if(shape.dimensionCount()<2) throw new IllegalArgumentException(
+                    "rectangular transfers require a 2d or 3d shape, got %s".formatted(shape));
+            if(region.dimensionCount()!=shape.dimensionCount()
+                    || origin.length!=shape.dimensionCount()) throw new IllegalArgumentException(
+                            "origin %s and region %s must match the dimension count of shape %s".formatted(
+                                    Arrays.toString(origin), region, shape));
+            final long[] sizes = {shape.sizeX(), shape.sizeY(), shape.sizeZ()};
+            final long[] regionSizes = {region.sizeX(), region.sizeY(), region.sizeZ()};
+            for (int d = 0; d < origin.length; d++) {
+                if(origin[d]<0
+                        || origin[d] + regionSizes[d] > sizes[d]) throw new IllegalArgumentException(
+                                "region %s at origin %s out of bounds for shape %s".formatted(
+                                        region, Arrays.toString(origin), shape));
+            }
+            return shape.dimensionCount()==2
+                    ? new Rect(
+                            new long[] {origin[1] * sizeOf, origin[0], 0},
+                            new long[] {region.sizeY() * sizeOf, region.sizeX(), 1},
+                            shape.sizeY() * sizeOf,
+                            0L)
+                    : new Rect(
+                            new long[] {origin[2] * sizeOf, origin[1], origin[0]},
+                            new long[] {region.sizeZ() * sizeOf, region.sizeY(), region.sizeX()},
+                            shape.sizeZ() * sizeOf,
+                            shape.sizeY() * shape.sizeZ() * sizeOf);
+        }
+    }
+
+    /**
+     * Enqueues a command, then completes the returned future with given value, once the command has completed,
+     * or exceptionally, if enqueuing failed or the command terminated abnormally.
+     * The event of the command is released on completion.
+     */
+    private <T> CompletableFuture<T> async(final Supplier<ClEvent> enqueue, final T value) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Executor executor = completionExecutor;
+        final ClEvent event;
+        try {
+            event = enqueue.get();
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            event.onComplete(executionStatus->{
+                // releasing is non-blocking, hence allowed within the callback
+                event.free();
+                final Runnable completion = ()->{
+                    if(executionStatus==ClEvent.CL_COMPLETE) {
+                        future.complete(value);
+                    } else {
+                        future.completeExceptionally(new IllegalStateException(String.format(
+                                "command terminated abnormally (execution status %d) on queue %s",
+                                executionStatus, this)));
+                    }
+                };
+                try {
+                    executor.execute(completion);
+                } catch (RejectedExecutionException e) {
+                    // e.g. executor shut down, completing on the callback thread beats never completing
+                    completion.run();
+                }
+            });
+        } catch (IllegalStateException e) {
+            event.free();
+            return CompletableFuture.failedFuture(e);
+        }
+        flush();
+        return future;
+    }
+
 }
@@ -19,9 +19,13 @@
 package jcompute.opencl;
 
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
+import org.jspecify.annotations.Nullable;
+
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +33,7 @@ import lombok.SneakyThrows;
 import lombok.experimental.Accessors;
 
 import jcompute.core.mem.JComputeArray;
+import jcompute.opencl.ClMem.HostPtrMode;
 import jcompute.opencl.ClMem.MemMode;
 
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
@@ -37,10 +42,27 @@ public abstract class ClContext implements AutoCloseable {
     //public abstract cl_context id();
     @Getter @Accessors(fluent = true) private final List<ClDevice> devices;
     private final Stack<ClResource> childResources = new Stack<ClResource>();
+    /**
+     * Programs built by this context, keyed by {@link ClProgramCache#key(ClDevice, String, String)}.
+     */
+    private final Map<String, ClProgram> programs = new HashMap<>();
+
+    private ClProgramCache programCache = ClProgramCache.getDefault();
 
-    protected abstract ClCommandQueue createQueueInternal();
-    protected abstract ClProgram createProgramInternal(String programSource);
-    protected abstract ClMem createMemoryInternal(JComputeArray array, MemMode memMode);
+    /**
+     * Returns a new command queue for given device, with given (effective) properties.
+     */
+    protected abstract ClCommandQueue createQueueInternal(ClDevice device, ClQueueProperties properties);
+    /**
+     * Returns a new program created from source and built with given build options.
+     */
+    protected abstract ClProgram createProgramInternal(String programSource, String buildOptions);
+    /**
+     * Returns a new program created from given (previously retrieved) binary and built with given build options,
+     * or {@code null} if the runtime rejects the binary.
+     */
+    protected abstract @Nullable ClProgram createProgramFromBinaryInternal(byte[] programBinary, String buildOptions);
+    protected abstract ClMem createMemoryInternal(JComputeArray array, MemMode memMode, HostPtrMode hostPtrMode);
     protected abstract int releaseContextIntenral();
 
     public final ClDevice getSingleDeviceElseFail() {
@@ -51,25 +73,116 @@ public abstract class ClContext implements AutoCloseable {
     }
 
     /**
-     * Returns a new command queue for given context.
+     * Returns a new (in-order) command queue for given context.
      * @implNote yet only supports contexts bound to only a single device
      */
     public final ClCommandQueue createQueue() {
-        return add(createQueueInternal());
+        return createQueue(ClQueueProperties.defaults());
+    }
+
+    /**
+     * Returns a new command queue for given context with given properties.
+     * @implNote yet only supports contexts bound to only a single device
+     */
+    public final ClCommandQueue createQueue(final ClQueueProperties properties) {
+        return createQueue(getSingleDeviceElseFail(), properties);
     }
 
+    /**
+     * Returns a new command queue for given device of this context with given properties,
+     * where hints not supported by the device are dropped, see {@link ClQueueProperties#supportedBy(ClDevice)}.
+     * <p>
+     * Any number of queues may be created per context and device. Commands of different queues
+     * may execute concurrently, e.g. transfers overlapping kernel execution on devices with separate
+     * copy engines, and are ordered by events only.
+     */
+    public final ClCommandQueue createQueue(final ClDevice device, final ClQueueProperties properties) {
+        if(!devices().contains(device)) throw new IllegalArgumentException(
+                "device %s is not bound to context %s".formatted(device, this));
+        return add(createQueueInternal(device, properties.supportedBy(device)));
+    }
+
+    /**
+     * Returns a built program for given source, reusing programs built before:
+     * within this context by returning the same instance,
+     * across contexts (and processes) by loading the binary from the {@link #programCache(ClProgramCache) program cache}.
+     */
     public final ClProgram createProgram(final String programSource) {
-        return add(createProgramInternal(programSource));
+        return createProgram(programSource, "");
+    }
+
+    /**
+     * Returns a built program for given source and build options, reusing programs built before,
+     * see {@link #createProgram(String)}.
+     * @see #programBuilder(String)
+     */
+    public final ClProgram createProgram(final String programSource, final String buildOptions) {
+        final String key = programCache.key(getSingleDeviceElseFail(), programSource, buildOptions);
+        var program = programs.get(key);
+        if(program!=null) return program;
+        program = programCache.load(key)
+                .map(binary->createProgramFromBinaryInternal(binary, buildOptions))
+                .orElse(null);
+        if(program==null) {
+            // not cached or rejected, in which case the entry is replaced
+            program = createProgramInternal(programSource, buildOptions);
+            if(programCache.isEnabled()) {
+                programCache.store(key, program.getBinary());
+            }
+        }
+        programs.put(key, program);
+        return add(program);
+    }
+
+    /**
+     * Returns a builder for a program of given source, to specify build options and preprocessor definitions.
+     */
+    public final ClProgramBuilder programBuilder(final String programSource) {
+        return new ClProgramBuilder(this, programSource);
+    }
+
+    /**
+     * Sets the on-disk program cache used by {@link #createProgram(String)},
+     * by default {@link ClProgramCache#getDefault()}, which is disabled unless configured.
+     */
+    public final ClContext programCache(final ClProgramCache programCache) {
+        this.programCache = programCache;
+        return this;
     }
 
     public final ClMem createMemoryReadWrite(final JComputeArray array) {
-        return add(createMemoryInternal(array, MemMode.MEM_READ_WRITE));
+        return add(createMemoryInternal(array, MemMode.MEM_READ_WRITE, HostPtrMode.NONE));
     }
     public final ClMem createMemoryReadOnly(final JComputeArray array) {
-        return add(createMemoryInternal(array, MemMode.MEM_READ_ONLY));
+        return add(createMemoryInternal(array, MemMode.MEM_READ_ONLY, HostPtrMode.NONE));
     }
     public final ClMem createMemoryWriteOnly(final JComputeArray array) {
-        return add(createMemoryInternal(array, MemMode.MEM_WRITE_ONLY));
+        return add(createMemoryInternal(array, MemMode.MEM_WRITE_ONLY, HostPtrMode.NONE));
+    }
+
+    /**
+     * Returns a new memory object, that uses the memory segment of given array as its storage
+     * ({@code CL_MEM_USE_HOST_PTR}), such that devices sharing host memory (CPUs, integrated GPUs)
+     * can operate on the array without copies. The segment must be native and outlive the memory object.
+     * <p>
+     * While the memory object is in use by the device, the host must access the array only through
+     * a {@link ClCommandQueue#map(ClMem, ClMem.MapMode) mapping}, which on such devices does not copy either.
+     */
+    public final ClMem createMemoryUseHostPtr(final JComputeArray array, final MemMode memMode) {
+        if(!array.memorySegment().isNative()) throw new IllegalArgumentException(
+                "array of shape %s is not backed by native memory".formatted(array.shape()));
+        return add(createMemoryInternal(array, memMode, HostPtrMode.USE_HOST_PTR));
+    }
+
+    /**
+     * Returns a new memory object, allocated by the runtime in host accessible memory
+     * ({@code CL_MEM_ALLOC_HOST_PTR}), with the element type and shape of given array.
+     * Its contents are accessed by {@link ClCommandQueue#map(ClMem, ClMem.MapMode) mapping},
+     * which yields a new array backed by the mapped memory.
+     * Explicit transfers still copy from and to the given array.
+     */
+    public final ClMem createMemoryAllocHostPtr(final JComputeArray array, final MemMode memMode) {
+        return add(createMemoryInternal(array, memMode, HostPtrMode.ALLOC_HOST_PTR));
     }
 
     @Override
@@ -98,6 +211,24 @@ public abstract class ClContext implements AutoCloseable {
 
     // -- HELPER
 
+    /**
+     * Registers a resource created by one of the context's resources (e.g. a sub-buffer),
+     * to be freed (in reverse order of creation) when closing this context.
+     */
+    final <T extends ClResource> T register(final T resource) {
+        return add(resource);
+    }
+
+    /**
+     * Frees given resource ahead of closing this context, such that closing does not free it again.
+     * No-op if given resource is not (or no longer) registered with this context.
+     */
+    final void free(final ClResource resource) {
+        if(childResources.remove(resource)) {
+            resource.free();
+        }
+    }
+
     private final <T extends ClResource> T add(final T resource) {
         childResources.push(resource);
         return resource;
@@ -63,12 +63,34 @@ public abstract class ClDevice {
 
     public abstract DeviceType getType();
     public abstract String getName();
+    public abstract String getDriverVersion();
+    /**
+     * Space separated list of supported extensions ({@code CL_DEVICE_EXTENSIONS}).
+     */
+    public abstract String getExtensions();
+    /**
+     * Bitfield of supported command queue properties ({@code CL_DEVICE_QUEUE_ON_HOST_PROPERTIES}).
+     */
+    public abstract long getQueueOnHostProperties();
     public abstract int getMaxComputeUnits();
     public abstract long[] getMaxWorkItemSizes();
     public abstract long getMaxWorkGroupSize();
     public abstract long getMaxClockFrequency();
     public abstract ClContext createContext();
 
+    public final boolean hasExtension(final String extensionName) {
+        return Stream.of(getExtensions().split("\\s+"))
+                .anyMatch(extensionName::equals);
+    }
+
+    public final boolean supportsOutOfOrderExecution() {
+        return (getQueueOnHostProperties() & ClQueueProperties.CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE) != 0L;
+    }
+
+    public final boolean supportsPriorityHints() {
+        return hasExtension("cl_khr_priority_hints");
+    }
+
     @Override
     public String toString() {
         return "%s (%s)".formatted(getName(), getType().name());
@@ -0,0 +1,223 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * Event object, that identifies a command enqueued (non-blocking) to a {@link ClCommandQueue}.
+ * Events can be waited for, passed as wait list to subsequent commands, or notify a callback once complete.
+ * <p>
+ * Unlike other resources, events are not owned by their context. They are released by {@link #free()},
+ * once no longer needed (e.g. after having been awaited or passed as wait list).
+ * Releasing an event does not cancel its command, nor its completion callbacks.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PROTECTED)
+public abstract class ClEvent implements ClResource, AutoCloseable {
+
+    /** command execution status: the command has completed */
+    public static final int CL_COMPLETE = 0;
+    /** command execution status: device is currently executing the command */
+    public static final int CL_RUNNING = 1;
+    /** command execution status: enqueued command has been submitted to the device */
+    public static final int CL_SUBMITTED = 2;
+    /** command execution status: command has been enqueued */
+    public static final int CL_QUEUED = 3;
+
+    /** profiling info: when the command was enqueued by the host */
+    public static final int CL_PROFILING_COMMAND_QUEUED = 0x1280;
+    /** profiling info: when the command was submitted to the device */
+    public static final int CL_PROFILING_COMMAND_SUBMIT = 0x1281;
+    /** profiling info: when the command started execution on the device */
+    public static final int CL_PROFILING_COMMAND_START = 0x1282;
+    /** profiling info: when the command finished execution on the device */
+    public static final int CL_PROFILING_COMMAND_END = 0x1283;
+
+    /**
+     * Device timestamps in nanoseconds of the command identified by an event,
+     * available once complete, for commands enqueued to a queue with profiling enabled.
+     * @see ClQueueProperties#profiling()
+     */
+    public record Profile(
+            long queued,
+            long submit,
+            long start,
+            long end) {
+        /**
+         * Time from being enqueued by the host to execution start, that is queueing and driver overhead.
+         */
+        public long pendingNanos() {
+            return start - queued;
+        }
+        /**
+         * Execution time on the device.
+         */
+        public long executionNanos() {
+            return end - start;
+        }
+    }
+
+    @Getter @Accessors(fluent = true) private final ClCommandQueue queue;
+
+    protected abstract int waitForEvent();
+    /**
+     * Returns {@code CL_EVENT_COMMAND_EXECUTION_STATUS}, that is one of
+     * {@link #CL_COMPLETE}, {@link #CL_RUNNING}, {@link #CL_SUBMITTED}, {@link #CL_QUEUED}
+     * or a negative error code, if the command terminated abnormally.
+     */
+    protected abstract int queryExecutionStatus();
+    /**
+     * Registers a {@code CL_COMPLETE} callback via {@code clSetEventCallback}, that calls
+     * {@link #dispatchCallback(long, int)} with given callbackId.
+     */
+    protected abstract int setCompletionCallback(long callbackId);
+    protected abstract int retainEvent();
+    protected abstract int releaseEvent();
+    /**
+     * Returns given {@code CL_PROFILING_COMMAND_*} timestamp via {@code clGetEventProfilingInfo}.
+     * @throws IllegalStateException if not available
+     */
+    protected abstract long queryProfilingInfo(int paramName);
+
+    @Override
+    public final void free() {
+        _Util.assertSuccess(releaseEvent(), ()->
+            String.format("failed to release event for queue %s", queue));
+    }
+
+    @Override
+    public final void close() {
+        free();
+    }
+
+    /**
+     * Blocks until the command identified by this event has completed.
+     * @throws IllegalStateException if the command terminated abnormally
+     */
+    public final ClEvent await() {
+        final int ret = waitForEvent();
+        _Util.assertSuccess(ret, ()->
+            String.format("failed to wait for event (execution status %d) on queue %s",
+                    ret==0 ? 0 : queryExecutionStatus(), queue));
+        return this;
+    }
+
+    /**
+     * Device timestamps of the (complete) command, see {@link Profile}.
+     * @throws IllegalStateException if not available, e.g. when the queue was not created with profiling enabled
+     */
+    public final Profile profile() {
+        return new Profile(
+                queryProfilingInfo(CL_PROFILING_COMMAND_QUEUED),
+                queryProfilingInfo(CL_PROFILING_COMMAND_SUBMIT),
+                queryProfilingInfo(CL_PROFILING_COMMAND_START),
+                queryProfilingInfo(CL_PROFILING_COMMAND_END));
+    }
+
+    /**
+     * Current execution status, see {@link #queryExecutionStatus()}.
+     */
+    public final int executionStatus() {
+        return queryExecutionStatus();
+    }
+
+    /**
+     * Whether the command has completed, either successfully or abnormally.
+     */
+    public final boolean isDone() {
+        return executionStatus()<=CL_COMPLETE;
+    }
+
+    /**
+     * Registers given callback, to be called once the command identified by this event has completed,
+     * with the final execution status, that is {@link #CL_COMPLETE} or a negative error code.
+     * <p>
+     * The callback is called from a thread of the OpenCL runtime, hence must return quickly
+     * and must not call blocking OpenCL functions. Exceptions thrown by the callback are logged and dropped.
+     */
+    public final ClEvent onComplete(final IntConsumer executionStatusConsumer) {
+        final long callbackId = NEXT_CALLBACK_ID.getAndIncrement();
+        CALLBACKS.put(callbackId, executionStatusConsumer);
+        final int ret = setCompletionCallback(callbackId);
+        if(ret!=0) {
+            CALLBACKS.remove(callbackId);
+        }
+        _Util.assertSuccess(ret, ()->
+            String.format("failed to set event callback for queue %s", queue));
+        return this;
+    }
+
+    /**
+     * Increments the reference count, such that this event stays valid until released once more.
+     */
+    final ClEvent retain() {
+        _Util.assertSuccess(retainEvent(), ()->
+            String.format("failed to retain event for queue %s", queue));
+        return this;
+    }
+
+    // -- UTILITY
+
+    /**
+     * Blocks until all commands identified by given events have completed.
+     */
+    public static void awaitAll(final ClEvent... events) {
+        for (var event : events) {
+            event.await();
+        }
+    }
+
+    /**
+     * Releases all given events.
+     */
+    public static void freeAll(final ClEvent... events) {
+        for (var event : events) {
+            event.free();
+        }
+    }
+
+    // -- CALLBACK DISPATCH
+
+    private static final AtomicLong NEXT_CALLBACK_ID = new AtomicLong(1L);
+    private static final Map<Long, IntConsumer> CALLBACKS = new ConcurrentHashMap<>();
+
+    /**
+     * Called by bindings from within their native event callback, with the callbackId passed as user data.
+     * Each callback is called at most once.
+     */
+    protected static void dispatchCallback(final long callbackId, final int executionStatus) {
+        var callback = CALLBACKS.remove(callbackId);
+        if(callback==null) return;
+        try {
+            callback.accept(executionStatus);
+        } catch (Throwable e) {
+            // must not propagate into native code
+            System.err.printf("event callback failed: %s%n", e);
+        }
+    }
+
+}
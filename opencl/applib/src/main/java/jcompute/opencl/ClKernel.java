@@ -18,11 +18,15 @@
  */
 package jcompute.opencl;
 
+import org.jspecify.annotations.Nullable;
+
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.Accessors;
 
+import jcompute.core.shape.Shape;
+
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class ClKernel implements ClResource {
 
@@ -46,6 +50,31 @@ public abstract class ClKernel implements ClResource {
     public abstract ClKernel setArg(final int argIndex, final float value);
     public abstract ClKernel setArg(final int argIndex, final double value);
 
+    /**
+     * Returns a new {@link ClLaunch} of this kernel on given queue, for repeated low-overhead enqueueing.
+     * localSize is auto
+     */
+    public final ClLaunch prepareLaunch(final ClCommandQueue queue, final Shape globalSize) {
+        return prepareLaunch(queue, globalSize, null);
+    }
+
+    /**
+     * Returns a new {@link ClLaunch} of this kernel on given queue, for repeated low-overhead enqueueing.
+     * @param localSize - {@code null} if auto
+     */
+    public final ClLaunch prepareLaunch(final ClCommandQueue queue, final Shape globalSize,
+            final @Nullable Shape localSize) {
+        return createLaunch(queue, globalSize, localSize);
+    }
+
+    /**
+     * Bindings may override to provide a launch that avoids per call native allocations.
+     */
+    protected ClLaunch createLaunch(final ClCommandQueue queue, final Shape globalSize,
+            final @Nullable Shape localSize) {
+        return new ClLaunch(this, queue, globalSize, localSize);
+    }
+
     // -- UTILITY
 
     public final ClKernel setArgs(final Object... args) {
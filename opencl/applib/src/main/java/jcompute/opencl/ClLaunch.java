@@ -0,0 +1,239 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.Nullable;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import jcompute.core.shape.Shape;
+
+/**
+ * Prepared launch of a {@link ClKernel} on a {@link ClCommandQueue}, for repeated low-overhead enqueueing,
+ * see {@link ClKernel#prepareLaunch(ClCommandQueue, Shape, Shape)}.
+ * <p>
+ * Remembers the arguments last set, such that re-setting an unchanged argument is a no-op
+ * and only changed arguments are passed on to OpenCL. Scalars are taken as primitives, hence never boxed.
+ * Bindings may further keep pre-allocated native scratch memory for arguments, work sizes and events.
+ * <p>
+ * Assumes exclusive use of the kernel's arguments: when the kernel's arguments are set by other means
+ * in between, call {@link #invalidateArgs()}. Not thread-safe.
+ */
+public class ClLaunch {
+
+    private enum ArgKind {
+        UNSET, MEM, BYTE, SHORT, INT, LONG, FLOAT, DOUBLE
+    }
+
+    @Getter @Accessors(fluent = true) private final ClKernel kernel;
+    @Getter @Accessors(fluent = true) private final ClCommandQueue queue;
+    @Getter @Accessors(fluent = true) private Shape globalSize;
+    /**
+     * {@code null} if auto
+     */
+    @Getter @Accessors(fluent = true) private @Nullable Shape localSize;
+    /**
+     * Number of arguments actually passed on to OpenCL (that is, not skipped as unchanged), for diagnostics.
+     */
+    @Getter @Accessors(fluent = true) private long appliedArgCount;
+
+    private ArgKind[] argKinds = new ArgKind[0];
+    private long[] argBits = new long[0];
+    private @Nullable ClMem[] argMems = new ClMem[0];
+
+    protected ClLaunch(final ClKernel kernel, final ClCommandQueue queue,
+            final Shape globalSize, final @Nullable Shape localSize) {
+        if(kernel.program().getContext()!=queue.getContext()) throw new IllegalArgumentException(
+                "kernel '%s' and queue do not share the same context".formatted(kernel.name()));
+        this.kernel = kernel;
+        this.queue = queue;
+        this.globalSize = globalSize;
+        this.localSize = localSize;
+    }
+
+    // -- ARGUMENTS
+
+    public final ClLaunch setArg(final int argIndex, final ClMem memObj) {
+        if(argKind(argIndex)!=ArgKind.MEM
+                || argMems[argIndex]!=memObj) {
+            applyArg(argIndex, memObj);
+            remember(argIndex, ArgKind.MEM, 0L);
+            argMems[argIndex] = memObj;
+        }
+        return this;
+    }
+    public final ClLaunch setArg(final int argIndex, final byte value) {
+        if(isChanged(argIndex, ArgKind.BYTE, value)) {
+            applyArg(argIndex, value);
+            remember(argIndex, ArgKind.BYTE, value);
+        }
+        return this;
+    }
+    public final ClLaunch setArg(final int argIndex, final short value) {
+        if(isChanged(argIndex, ArgKind.SHORT, value)) {
+            applyArg(argIndex, value);
+            remember(argIndex, ArgKind.SHORT, value);
+        }
+        return this;
+    }
+    public final ClLaunch setArg(final int argIndex, final int value) {
+        if(isChanged(argIndex, ArgKind.INT, value)) {
+            applyArg(argIndex, value);
+            remember(argIndex, ArgKind.INT, value);
+        }
+        return this;
+    }
+    public final ClLaunch setArg(final int argIndex, final long value) {
+        if(isChanged(argIndex, ArgKind.LONG, value)) {
+            applyArg(argIndex, value);
+            remember(argIndex, ArgKind.LONG, value);
+        }
+        return this;
+    }
+    public final ClLaunch setArg(final int argIndex, final float value) {
+        final long bits = Float.floatToRawIntBits(value);
+        if(isChanged(argIndex, ArgKind.FLOAT, bits)) {
+            applyArg(argIndex, value);
+            remember(argIndex, ArgKind.FLOAT, bits);
+        }
+        return this;
+    }
+    public final ClLaunch setArg(final int argIndex, final double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+        if(isChanged(argIndex, ArgKind.DOUBLE, bits)) {
+            applyArg(argIndex, value);
+            remember(argIndex, ArgKind.DOUBLE, bits);
+        }
+        return this;
+    }
+
+    /**
+     * Forgets all remembered arguments, such that subsequent {@code setArg} calls are passed on to OpenCL
+     * regardless of their previous value.
+     */
+    public final ClLaunch invalidateArgs() {
+        Arrays.fill(argKinds, ArgKind.UNSET);
+        Arrays.fill(argMems, null);
+        return this;
+    }
+
+    // -- WORK SIZES
+
+    public final ClLaunch globalSize(final Shape globalSize) {
+        this.globalSize = globalSize;
+        onWorkSizeChanged();
+        return this;
+    }
+
+    /**
+     * @param localSize - {@code null} if auto
+     */
+    public final ClLaunch localSize(final @Nullable Shape localSize) {
+        this.localSize = localSize;
+        onWorkSizeChanged();
+        return this;
+    }
+
+    // -- ENQUEUE
+
+    /**
+     * Enqueues the kernel with the current arguments and work sizes.
+     */
+    public final ClLaunch enqueue() {
+        _Util.assertSuccess(launch(ClCommandQueue.NO_EVENTS, null), ()->
+            String.format("failed to enqueue Kernel '%s' for context %s", kernel.name(), queue.getContext()));
+        return this;
+    }
+
+    /**
+     * Enqueues the kernel with the current arguments and work sizes,
+     * same as {@link ClCommandQueue#enqueueNDRangeKernelNonBlocking(ClKernel, Shape, Shape, ClEvent...)}.
+     * @param waitList - events that need to complete before the kernel starts
+     * @return event identifying the kernel execution, owned by the caller
+     */
+    public final ClEvent enqueueNonBlocking(final ClEvent... waitList) {
+        final ClEvent[] event_ret = new ClEvent[1];
+        _Util.assertSuccess(launch(waitList, event_ret), ()->
+            String.format("failed to enqueue Kernel '%s' for context %s", kernel.name(), queue.getContext()));
+        return event_ret[0];
+    }
+
+    // -- BINDING HOOKS
+
+    protected void applyArg(final int argIndex, final ClMem memObj) { kernel.setArg(argIndex, memObj); }
+    protected void applyArg(final int argIndex, final byte value) { kernel.setArg(argIndex, value); }
+    protected void applyArg(final int argIndex, final short value) { kernel.setArg(argIndex, value); }
+    protected void applyArg(final int argIndex, final int value) { kernel.setArg(argIndex, value); }
+    protected void applyArg(final int argIndex, final long value) { kernel.setArg(argIndex, value); }
+    protected void applyArg(final int argIndex, final float value) { kernel.setArg(argIndex, value); }
+    protected void applyArg(final int argIndex, final double value) { kernel.setArg(argIndex, value); }
+
+    /**
+     * Called after {@link #globalSize()} or {@link #localSize()} changed.
+     */
+    protected void onWorkSizeChanged() {}
+
+    protected int enqueueKernel(final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        return queue.enqueueNDRangeKernel(kernel, globalSize.dimensionCount(), globalSize, localSize,
+                waitList, event_ret);
+    }
+
+    // -- HELPER
+
+    /**
+     * Enqueues the kernel, tracked by the queue's profiler, if any.
+     */
+    private int launch(final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var profiler = queue.profilerOrNull();
+        if(profiler==null) return enqueueKernel(waitList, event_ret);
+        final ClEvent[] profiled_ret = ClCommandQueue.profiledEventRet(event_ret);
+        return ClCommandQueue.tracked(profiler, enqueueKernel(waitList, profiled_ret),
+                profiled_ret, event_ret, ClProfiler.CommandKind.KERNEL, kernel.name(), 0L);
+    }
+
+    private ArgKind argKind(final int argIndex) {
+        return argIndex < argKinds.length
+                ? argKinds[argIndex]
+                : ArgKind.UNSET;
+    }
+
+    private boolean isChanged(final int argIndex, final ArgKind kind, final long bits) {
+        return argKind(argIndex)!=kind
+                || argBits[argIndex]!=bits;
+    }
+
+    private void remember(final int argIndex, final ArgKind kind, final long bits) {
+        if(argIndex >= argKinds.length) {
+            final int length = Math.max(argIndex + 1, 2 * argKinds.length);
+            final int oldLength = argKinds.length;
+            argKinds = Arrays.copyOf(argKinds, length);
+            Arrays.fill(argKinds, oldLength, length, ArgKind.UNSET);
+            argBits = Arrays.copyOf(argBits, length);
+            argMems = Arrays.copyOf(argMems, length);
+        }
+        argKinds[argIndex] = kind;
+        argBits[argIndex] = bits;
+        argMems[argIndex] = null;
+        ++appliedArgCount;
+    }
+
+}
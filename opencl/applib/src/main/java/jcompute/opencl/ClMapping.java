@@ -0,0 +1,76 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.lang.foreign.MemorySegment;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+
+import jcompute.core.mem.JComputeArray;
+
+/**
+ * Host access to (a range of) a memory object, as returned by {@link ClCommandQueue#map(ClMem, ClMem.MapMode)}.
+ * <p>
+ * The mapped memory is valid until unmapped, either by {@link #close()} (blocking)
+ * or by {@link #unmapNonBlocking(ClEvent...)}. Until then, the device must not operate on the mapped range.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class ClMapping implements AutoCloseable {
+
+    @Getter @Accessors(fluent = true) private final ClCommandQueue queue;
+    @Getter @Accessors(fluent = true) private final ClMem memObj;
+    /**
+     * Array backed by the mapped memory, with the element type of the memory object.
+     */
+    @Getter @Accessors(fluent = true) private final JComputeArray computeArray;
+
+    private boolean unmapped;
+
+    public MemorySegment memorySegment() {
+        return computeArray.memorySegment();
+    }
+
+    /**
+     * Enqueues the unmapping, after which the mapped memory must no longer be accessed.
+     * @param waitList - events that need to complete before the unmapping
+     * @return event identifying the unmapping, owned by the caller
+     */
+    public ClEvent unmapNonBlocking(final ClEvent... waitList) {
+        if(unmapped) throw new IllegalStateException(
+                "memory object %s was already unmapped".formatted(memObj));
+        unmapped = true;
+        return queue.unmap(this, waitList);
+    }
+
+    /**
+     * Unmaps (unless already unmapped), blocking until complete,
+     * such that the device observes any changes made through the mapping.
+     */
+    @Override
+    public void close() {
+        if(unmapped) return;
+        try(var event = unmapNonBlocking()) {
+            event.await();
+        }
+    }
+
+}
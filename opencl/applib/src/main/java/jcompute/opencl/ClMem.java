@@ -24,6 +24,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.Accessors;
 
 import jcompute.core.mem.JComputeArray;
+import jcompute.core.shape.Shape;
 
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class ClMem implements ClResource {
@@ -34,6 +35,29 @@ public abstract class ClMem implements ClResource {
         MEM_WRITE_ONLY,
     }
 
+    /**
+     * Where the memory object is allocated, relative to host memory.
+     */
+    public enum HostPtrMode {
+        /** allocated by the device, contents are copied with explicit transfers */
+        NONE,
+        /** backed by (the memory segment of) the underlying array, which may be used as storage directly */
+        USE_HOST_PTR,
+        /** allocated by the runtime in host accessible memory, to be accessed by mapping */
+        ALLOC_HOST_PTR,
+    }
+
+    /**
+     * Host access granted by a mapping, see {@link ClCommandQueue#map(ClMem, MapMode)}.
+     */
+    public enum MapMode {
+        MAP_READ,
+        MAP_WRITE,
+        MAP_READ_WRITE,
+        /** write access, where the mapped contents are undefined, hence need not be transferred to the host */
+        MAP_WRITE_INVALIDATE_REGION,
+    }
+
     @Getter @Accessors(fluent = true) final ClContext context;
     @Getter @Accessors(fluent = true) final JComputeArray computeArray;
 
@@ -51,12 +75,46 @@ public abstract class ClMem implements ClResource {
         return computeArray().bytesPerElement();
     }
 
+    /**
+     * The number of bytes of the underlying array.
+     */
+    public final long byteSize() {
+        return size() * sizeOf();
+    }
+
     protected abstract int releaseMemObject();
 
+    /**
+     * Creates a sub-buffer (with flags inherited) over the byte range {@code [origin, origin + size)},
+     * bound to given view of the same range of the underlying array.
+     */
+    protected abstract ClMem createSubBufferInternal(long origin, long size, JComputeArray computeArray);
+
     @Override
     public final void free() {
         _Util.assertSuccess(releaseMemObject(), ()->
             String.format("failed to release memory object for context %s", context));
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns a sub-buffer of this memory object, that covers the elements {@code [offset, offset + shape.totalSize())}
+     * and is bound to the same range of the underlying array (viewed with given shape).
+     * Hence transfers and kernels can operate on chunks of a single allocation.
+     * <p>
+     * The sub-buffer is owned by the context, like any other memory object.
+     * Its byte offset must be a multiple of the device's {@code CL_DEVICE_MEM_BASE_ADDR_ALIGN} (in bits),
+     * otherwise creation fails.
+     */
+    public final ClMem subBuffer(final long offset, final Shape shape) {
+        if(offset<0
+                || offset + shape.totalSize() > size()) throw new IllegalArgumentException(
+                        "sub-buffer [%d, %d) out of bounds for memory object of size %d".formatted(
+                                offset, offset + shape.totalSize(), size()));
+        final long origin = offset * sizeOf();
+        final long byteSize = shape.totalSize() * sizeOf();
+        final JComputeArray view = _Util.arrayOf(computeArray, shape,
+                computeArray.memorySegment().asSlice(origin, byteSize));
+        return context.register(createSubBufferInternal(origin, byteSize, view));
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects device timestamps ({@code CL_PROFILING_COMMAND_QUEUED/SUBMIT/START/END}) of the commands
+ * enqueued to command queues it is attached to, see {@link ClCommandQueue#profiler(ClProfiler)},
+ * aggregated per kernel name and per transfer direction.
+ * <p>
+ * Unlike host side stop watches, execution times exclude driver queueing and host blocking,
+ * which are reported separately as pending time. Comparing the total execution time of transfers with that
+ * of kernels tells whether a workload is transfer-bound or compute-bound.
+ * <p>
+ * Timestamps are read from within event completion callbacks, hence recording is thread-safe.
+ * Memory is bounded: execution times are counted in log-linear buckets (16 per power of two),
+ * such that percentiles are accurate to within 1/16 (about 6%), while count, totals and maximum are exact.
+ * Samples are kept until {@link #reset()}.
+ */
+public final class ClProfiler {
+
+    public enum CommandKind {
+        KERNEL,
+        /** host to device */
+        WRITE,
+        /** device to host */
+        READ,
+        MAP,
+        UNMAP;
+        public boolean isTransfer() { return this != KERNEL; }
+    }
+
+    /**
+     * Aggregated samples of one kernel (by name) or one transfer direction.
+     * @param name - kernel name, for transfers the direction
+     * @param count - number of commands
+     * @param bytes - total bytes transferred, zero for kernels
+     * @param totalNanos - total execution time on the device
+     * @param p50Nanos - median execution time (bucketed, see {@link ClProfiler})
+     * @param p90Nanos - 90th percentile of execution time (bucketed)
+     * @param p99Nanos - 99th percentile of execution time (bucketed)
+     * @param maxNanos - longest execution time
+     * @param pendingNanos - total time from being enqueued by the host to execution start
+     */
+    public record Stats(
+            CommandKind kind,
+            String name,
+            long count,
+            long bytes,
+            long totalNanos,
+            long p50Nanos,
+            long p90Nanos,
+            long p99Nanos,
+            long maxNanos,
+            long pendingNanos) {
+
+        public double meanNanos() {
+            return count==0 ? 0. : (double)totalNanos / count;
+        }
+
+        /**
+         * Effective transfer rate during execution, in GB/s (that is bytes per nanosecond).
+         */
+        public double gigabytesPerSecond() {
+            return totalNanos==0 ? 0. : (double)bytes / totalNanos;
+        }
+    }
+
+    /**
+     * Handle of a periodic summary, stops it when closed.
+     */
+    public interface Reporting extends AutoCloseable {
+        @Override void close();
+    }
+
+    private record Key(CommandKind kind, String name) {}
+    private final Map<Key, Samples> samplesByKey = new ConcurrentHashMap<>();
+
+    /**
+     * Current aggregates, sorted by total execution time (descending).
+     */
+    public List<Stats> stats() {
+        return samplesByKey.entrySet().stream()
+            .map(entry->entry.getValue().stats(entry.getKey()))
+            .sorted(Comparator.comparingLong(Stats::totalNanos).reversed())
+            .toList();
+    }
+
+    /**
+     * Current aggregate for given kernel name.
+     */
+    public Optional<Stats> kernelStats(final String kernelName) {
+        return stats(CommandKind.KERNEL, kernelName);
+    }
+
+    /**
+     * Current aggregate for given transfer direction.
+     */
+    public Optional<Stats> transferStats(final CommandKind kind) {
+        if(!kind.isTransfer()) throw new IllegalArgumentException("%s is not a transfer".formatted(kind));
+        return stats(kind, transferName(kind));
+    }
+
+    /**
+     * Total execution time of all kernels.
+     */
+    public long kernelNanos() {
+        return stats().stream().filter(stats->!stats.kind().isTransfer()).mapToLong(Stats::totalNanos).sum();
+    }
+
+    /**
+     * Total execution time of all transfers.
+     */
+    public long transferNanos() {
+        return stats().stream().filter(stats->stats.kind().isTransfer()).mapToLong(Stats::totalNanos).sum();
+    }
+
+    /**
+     * Discards all samples.
+     */
+    public void reset() {
+        samplesByKey.clear();
+    }
+
+    /**
+     * Human readable table of the current aggregates.
+     */
+    public String summary() {
+        var sb = new StringBuilder();
+        sb.append("%-8s %-32s %8s %12s %10s %10s %10s %10s %12s %8s%n".formatted(
+                "kind", "name", "count", "total[ms]", "p50[us]", "p90[us]", "p99[us]", "max[us]", "pending[ms]",
+                "GB/s"));
+        for (var stats : stats()) {
+            sb.append("%-8s %-32s %8d %12.3f %10.1f %10.1f %10.1f %10.1f %12.3f %8s%n".formatted(
+                    stats.kind(), stats.name(), stats.count(),
+                    stats.totalNanos() * 1e-6,
+                    stats.p50Nanos() * 1e-3, stats.p90Nanos() * 1e-3, stats.p99Nanos() * 1e-3,
+                    stats.maxNanos() * 1e-3,
+                    stats.pendingNanos() * 1e-6,
+                    stats.kind().isTransfer()
+                        ? "%.2f".formatted(stats.gigabytesPerSecond())
+                        : "-"));
+        }
+        final long kernelNanos = kernelNanos();
+        final long transferNanos = transferNanos();
+        sb.append("kernels %.3f ms, transfers %.3f ms (%s-bound)%n".formatted(
+                kernelNanos * 1e-6, transferNanos * 1e-6,
+                transferNanos > kernelNanos ? "transfer" : "compute"));
+        return sb.toString();
+    }
+
+    /**
+     * Passes the {@link #summary()} to given sink periodically, from a daemon thread, until closed.
+     */
+    public Reporting reportEvery(final Duration interval, final Consumer<String> sink) {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("jcompute-cl-profiler").factory());
+        final long millis = Math.max(1L, interval.toMillis());
+        scheduler.scheduleAtFixedRate(()->sink.accept(summary()), millis, millis, TimeUnit.MILLISECONDS);
+        return scheduler::shutdownNow;
+    }
+
+    // -- RECORDING
+
+    /**
+     * Records the command identified by given event, once complete.
+     * @param callerOwned - whether the event is (also) owned by the caller, in which case it is retained
+     *      until recorded, otherwise it is released once recorded
+     */
+    void track(final ClEvent event, final CommandKind kind, final String name, final long bytes,
+            final boolean callerOwned) {
+        if(callerOwned) {
+            event.retain();
+        }
+        event.onComplete(executionStatus->{
+            try {
+                if(executionStatus==ClEvent.CL_COMPLETE) {
+                    record(kind, name, bytes, event.profile());
+                }
+            } finally {
+                // releasing is non-blocking, hence allowed within the callback
+                event.free();
+            }
+        });
+    }
+
+    void record(final CommandKind kind, final String name, final long bytes, final ClEvent.Profile profile) {
+        samplesByKey.computeIfAbsent(new Key(kind, name), __->new Samples())
+            .add(bytes, profile);
+    }
+
+    static String transferName(final CommandKind kind) {
+        return kind.name().toLowerCase();
+    }
+
+    // -- HELPER
+
+    private Optional<Stats> stats(final CommandKind kind, final String name) {
+        final var key = new Key(kind, name);
+        return Optional.ofNullable(samplesByKey.get(key))
+            .map(samples->samples.stats(key));
+    }
+
+    /**
+     * Running sums, plus a histogram of execution times, where values below {@value #SUB_BUCKET_COUNT} have
+     * their own bucket, and each power of two above is split into {@value #SUB_BUCKET_COUNT} equally wide buckets.
+     */
+    private static final class Samples {
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+        /// covers all non-negative longs, the highest bit being bit 62
+        private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+        private final long[] bucketCounts = new long[BUCKET_COUNT];
+        private long count;
+        private long bytes;
+        private long totalNanos;
+        private long maxNanos;
+        private long pendingNanos;
+
+        synchronized void add(final long bytes, final ClEvent.Profile profile) {
+            final long nanos = Math.max(0L, profile.executionNanos());
+            ++bucketCounts[bucketIndex(nanos)];
+            ++count;
+            this.bytes += bytes;
+            this.totalNanos += nanos;
+            this.maxNanos = Math.max(maxNanos, nanos);
+            this.pendingNanos += profile.pendingNanos();
+        }
+
+        synchronized Stats stats(final Key key) {
+            return new Stats(key.kind(), key.name(), count, bytes, totalNanos,
+                    percentile(50), percentile(90), percentile(99),
+                    maxNanos,
+                    pendingNanos);
+        }
+
+        /**
+         * Nearest-rank percentile, as the upper bound of the bucket holding that rank (capped by the maximum).
+         */
+        private long percentile(final int percent) {
+            if(count==0) return 0L;
+            final long rank = Math.max(1L, (long)Math.ceil(percent / 100. * count));
+            long cumulative = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                cumulative += bucketCounts[i];
+                if(cumulative >= rank) return Math.min(maxNanos, bucketUpperBound(i));
+            }
+            return maxNanos;
+        }
+
+        static int bucketIndex(final long nanos) {
+            if(nanos < SUB_BUCKET_COUNT) return (int)nanos;
+            final int highestBit = 63 - Long.numberOfLeadingZeros(nanos);
+            final int shift = highestBit - SUB_BUCKET_BITS;
+            // the SUB_BUCKET_BITS bits below the highest one
+            final int subBucket = (int)(nanos >>> shift) - SUB_BUCKET_COUNT;
+            return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+        }
+
+        static long bucketUpperBound(final int index) {
+            if(index < SUB_BUCKET_COUNT) return index;
+            final int shift = index / SUB_BUCKET_COUNT - 1;
+            final long top = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+            return ((top + 1) << shift) - 1;
+        }
+    }
+
+}
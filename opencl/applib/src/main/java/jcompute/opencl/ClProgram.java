@@ -31,10 +31,28 @@ public abstract class ClProgram implements ClResource {
     @Getter private final ClContext context;
     private final List<ClResource> childResources = new LinkedList<ClResource>();
 
-    public abstract ClProgram build();
+    /**
+     * Builds (compiles and links) this program with given build options, e.g. {@code -cl-fast-relaxed-math}
+     * or {@code -D NAME=value}, see {@link ClProgramBuilder}.
+     * @throws IllegalStateException if the build fails, with the build-log as message
+     */
+    public abstract ClProgram build(String buildOptions);
+    /**
+     * Returns the binary of this (built) program ({@code CL_PROGRAM_BINARIES}) for the context's device,
+     * which can be used to re-create the program without compiling.
+     * @implNote yet only supports contexts bound to only a single device
+     */
+    public abstract byte[] getBinary();
     protected abstract ClKernel createKernelInternal(final String kernelName);
     protected abstract int releaseProgramInternal();
 
+    /**
+     * Builds this program with default build options.
+     */
+    public final ClProgram build() {
+        return build("");
+    }
+
     /**
      * Returns a new OpenCL kernel for given program.
      */
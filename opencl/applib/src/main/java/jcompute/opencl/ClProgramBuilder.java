@@ -0,0 +1,138 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.jspecify.annotations.Nullable;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Collects build options and preprocessor definitions ({@code -D NAME=value}) for a program,
+ * such that constants can be compiled into kernels (e.g. loop bounds the compiler may unroll),
+ * rather than passed as kernel arguments.
+ * <p>
+ * Programs are built via {@link ClContext#createProgram(String, String)}, hence each distinct
+ * combination of source and build options is compiled once and cached.
+ *
+ * @see <a href="https://registry.khronos.org/OpenCL/sdk/3.0/docs/man/html/clBuildProgram.html">clBuildProgram</a>
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class ClProgramBuilder {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+
+    private final ClContext context;
+    private final String programSource;
+    private final List<String> options = new ArrayList<>();
+    /** insertion ordered, values are null for definitions without value */
+    private final Map<String, @Nullable String> defines = new LinkedHashMap<>();
+
+    /**
+     * Adds given build option, e.g. {@code -cl-std=CL2.0}.
+     */
+    public ClProgramBuilder option(final String option) {
+        if(_Util.isEmpty(option)
+                || WHITESPACE.matcher(option).find()) throw new IllegalArgumentException(
+                        "build option '%s' must be non-empty and must not contain whitespace".formatted(option));
+        options.add(option);
+        return this;
+    }
+
+    /**
+     * Adds {@code -cl-fast-relaxed-math}, which allows optimizations that violate IEEE 754 rules.
+     */
+    public ClProgramBuilder fastRelaxedMath() {
+        return option("-cl-fast-relaxed-math");
+    }
+
+    /**
+     * Adds {@code -cl-mad-enable}, which allows {@code a * b + c} to be computed with reduced accuracy.
+     */
+    public ClProgramBuilder madEnable() {
+        return option("-cl-mad-enable");
+    }
+
+    /**
+     * Defines given preprocessor macro (as {@code 1}).
+     */
+    public ClProgramBuilder define(final String name) {
+        defines.put(checkIdentifier(name), null);
+        return this;
+    }
+
+    /**
+     * Defines given preprocessor macro with the string representation of given value.
+     * Redefining a macro replaces its value.
+     */
+    public ClProgramBuilder define(final String name, final Object value) {
+        var string = String.valueOf(value);
+        if(string.isEmpty()
+                || WHITESPACE.matcher(string).find()) throw new IllegalArgumentException(
+                        "value '%s' of macro %s must be non-empty and must not contain whitespace".formatted(string, name));
+        defines.put(checkIdentifier(name), string);
+        return this;
+    }
+
+    /**
+     * Defines all given preprocessor macros, see {@link #define(String, Object)}.
+     */
+    public ClProgramBuilder defines(final Map<String, ?> defines) {
+        defines.forEach(this::define);
+        return this;
+    }
+
+    /**
+     * The build options as passed to {@code clBuildProgram}, options first followed by definitions,
+     * each in order of addition.
+     */
+    public String buildOptions() {
+        var all = new ArrayList<String>(options);
+        defines.forEach((name, value)->
+            all.add(value!=null
+                ? "-D" + name + "=" + value
+                : "-D" + name));
+        return String.join(" ", all);
+    }
+
+    /**
+     * Returns the built program.
+     * @throws IllegalStateException if the build fails, with the build-log as message
+     */
+    public ClProgram build() {
+        return context.createProgram(programSource, buildOptions());
+    }
+
+    // -- HELPER
+
+    private static String checkIdentifier(final String name) {
+        if(name==null
+                || !IDENTIFIER.matcher(name).matches()) throw new IllegalArgumentException(
+                        "macro name '%s' is not a valid identifier".formatted(name));
+        return name;
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.jspecify.annotations.Nullable;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache of program binaries ({@code CL_PROGRAM_BINARIES}), such that programs built before
+ * are loaded via {@code clCreateProgramWithBinary} rather than compiled from source.
+ * Either process-wide in memory (the default), covering contexts created per invocation,
+ * or on disk, covering any process.
+ * <p>
+ * Entries are keyed by a hash of the program source, the build options, the device name,
+ * the driver version and the platform version. Hence driver updates invalidate entries implicitly.
+ * Binaries rejected by the runtime anyway are evicted, the program is then built from source.
+ * <p>
+ * The cache is best effort: failing to read or write an entry only costs a compilation.
+ * It is bounded to a maximum number of entries, beyond which the least recently used (stored or loaded) are evicted.
+ * <p>
+ * Caching on disk is opt-in via system property {@value #DIRECTORY_PROPERTY}, where value {@code on} selects
+ * the directory {@code ~/.cache/jcompute/opencl-programs}, value {@code off} disables caching altogether,
+ * any other value is the directory to use.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ClProgramCache {
+
+    public static final String DIRECTORY_PROPERTY = "jcompute.opencl.programCache";
+
+    /// max number of entries of {@link #ofDirectory(Path)} and {@link #getDefault()}
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /// max number of entries of {@link #inMemory()}, binaries are held on the heap
+    public static final int IN_MEMORY_MAX_ENTRIES = 64;
+
+    private static final String FILE_SUFFIX = ".bin";
+
+    private static final ClProgramCache DISABLED = new ClProgramCache(null, null, 0);
+    private static final ClProgramCache IN_MEMORY = new ClProgramCache(null, new LinkedHashMap<>(16, .75f, true) {
+        private static final long serialVersionUID = 1L;
+        @Override protected boolean removeEldestEntry(final Map.Entry<String, byte[]> eldest) {
+            return size() > IN_MEMORY_MAX_ENTRIES;
+        }
+    }, IN_MEMORY_MAX_ENTRIES);
+
+    /**
+     * Where binaries are stored, {@code null} if not on disk.
+     */
+    private final @Nullable Path directory;
+    /**
+     * Process-wide binaries in access order, {@code null} if not in memory. Guarded by itself.
+     */
+    private final @Nullable Map<String, byte[]> binaries;
+    private final int maxEntries;
+
+    /**
+     * Bounded to {@value #DEFAULT_MAX_ENTRIES} entries.
+     */
+    public static ClProgramCache ofDirectory(final Path directory) {
+        return ofDirectory(directory, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries - number of entries, beyond which the least recently used are evicted
+     */
+    public static ClProgramCache ofDirectory(final Path directory, final int maxEntries) {
+        if(maxEntries<1) throw new IllegalArgumentException("maxEntries (%d) must be positive".formatted(maxEntries));
+        return new ClProgramCache(directory, null, maxEntries);
+    }
+
+    /**
+     * The process-wide in-memory cache, bounded to {@value #IN_MEMORY_MAX_ENTRIES} entries.
+     */
+    public static ClProgramCache inMemory() {
+        return IN_MEMORY;
+    }
+
+    public static ClProgramCache disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * The cache as configured by system property {@value #DIRECTORY_PROPERTY}, {@link #inMemory()} unless set.
+     */
+    public static ClProgramCache getDefault() {
+        var directory = System.getProperty(DIRECTORY_PROPERTY);
+        if(!_Util.isNotEmpty(directory)) return inMemory();
+        if("off".equals(directory)) return disabled();
+        return ofDirectory("on".equals(directory)
+                ? Path.of(System.getProperty("user.home"), ".cache", "jcompute", "opencl-programs")
+                : Path.of(directory));
+    }
+
+    public boolean isEnabled() {
+        return directory!=null
+                || binaries!=null;
+    }
+
+    /**
+     * Where binaries are stored, empty unless cached on disk.
+     */
+    public Optional<Path> directory() {
+        return Optional.ofNullable(directory);
+    }
+
+    /**
+     * Cache key of given program (as SHA-256 hex string).
+     */
+    public String key(final ClDevice device, final String programSource, final String buildOptions) {
+        final MessageDigest digest = sha256();
+        for(var part : new String[] {
+                programSource,
+                buildOptions,
+                device.getName(),
+                device.getDriverVersion(),
+                device.getPlatform().getPlatformVersion()}) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte)0); // separator
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The binary stored with given key, if any. Marks the entry as recently used.
+     */
+    public Optional<byte[]> load(final String key) {
+        if(binaries!=null) {
+            synchronized(binaries) {
+                return Optional.ofNullable(binaries.get(key));
+            }
+        }
+        if(directory==null) return Optional.empty();
+        var file = file(key);
+        if(!Files.isRegularFile(file)) return Optional.empty();
+        try {
+            var binary = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return Optional.of(binary);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores given binary with given key, replacing any previous entry, then evicts the least recently used entries
+     * beyond the maximum number of entries.
+     * Writes to a temporary file first, then moves it into place, such that concurrent readers
+     * never see partially written entries.
+     */
+    public void store(final String key, final byte[] binary) {
+        if(binary.length==0) return;
+        if(binaries!=null) {
+            synchronized(binaries) {
+                binaries.put(key, binary);
+            }
+            return;
+        }
+        if(directory==null) return;
+        try {
+            Files.createDirectories(directory);
+            var tempFile = Files.createTempFile(directory, key, ".tmp");
+            try {
+                Files.write(tempFile, binary);
+                Files.move(tempFile, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            evictLeastRecentlyUsed();
+        } catch (IOException e) {
+            System.err.printf("failed to store program binary %s in %s: %s%n", key, directory, e);
+        }
+    }
+
+    /**
+     * Removes the entry with given key, if any.
+     */
+    public void evict(final String key) {
+        if(binaries!=null) {
+            synchronized(binaries) {
+                binaries.remove(key);
+            }
+            return;
+        }
+        if(directory==null) return;
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    @Override
+    public String toString() {
+        return directory!=null
+                ? String.format("ClProgramCache[%s, maxEntries=%d]", directory, maxEntries)
+                : binaries!=null
+                    ? String.format("ClProgramCache[in-memory, maxEntries=%d]", maxEntries)
+                    : "ClProgramCache[disabled]";
+    }
+
+    // -- HELPER
+
+    private Path file(final String key) {
+        return directory.resolve(key + FILE_SUFFIX);
+    }
+
+    /**
+     * Entries are ordered by last modified time, which is updated on store and load.
+     */
+    private void evictLeastRecentlyUsed() throws IOException {
+        final List<Path> files;
+        try(var stream = Files.list(directory)) {
+            files = stream
+                .filter(file->file.getFileName().toString().endsWith(FILE_SUFFIX))
+                .toList();
+        }
+        if(files.size()<=maxEntries) return;
+        files.stream()
+            .sorted(Comparator.comparing(ClProgramCache::lastModified))
+            .limit(files.size() - maxEntries)
+            .forEach(file->{
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // best effort
+                }
+            });
+    }
+
+    private static FileTime lastModified(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0L);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
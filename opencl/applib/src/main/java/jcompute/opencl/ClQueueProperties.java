@@ -0,0 +1,113 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.util.Arrays;
+
+/**
+ * Creation properties of a {@link ClCommandQueue},
+ * see <a href="https://registry.khronos.org/OpenCL/sdk/3.0/docs/man/html/clCreateCommandQueueWithProperties.html">
+ * clCreateCommandQueueWithProperties</a>.
+ * <p>
+ * Out-of-order execution and priority are hints, that are dropped on devices not supporting them
+ * (see {@link #supportedBy(ClDevice)}), which is safe, as in-order execution is a valid out-of-order schedule.
+ * Profiling is supported by all devices.
+ *
+ * @param outOfOrder - whether commands may execute in any order, that respects their event wait lists
+ *      ({@code CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE}); when enabled, dependent commands must be ordered
+ *      by events, e.g. using the {@code NonBlocking} variants of {@link ClCommandQueue}
+ * @param profiling - whether events record timestamps ({@code CL_QUEUE_PROFILING_ENABLE})
+ * @param priority - queue priority hint ({@code cl_khr_priority_hints})
+ */
+public record ClQueueProperties(
+        boolean outOfOrder,
+        boolean profiling,
+        Priority priority) {
+
+    public enum Priority {
+        /** no priority hint */
+        DEFAULT(0),
+        HIGH(1 << 0),
+        MEDIUM(1 << 1),
+        LOW(1 << 2);
+        /** {@code CL_QUEUE_PRIORITY_*_KHR} */
+        final long clValue;
+        private Priority(final long clValue) {
+            this.clValue = clValue;
+        }
+    }
+
+    /** {@code cl_queue_properties} key */
+    static final long CL_QUEUE_PROPERTIES = 0x1093;
+    /** {@code cl_queue_properties} key, requires extension {@code cl_khr_priority_hints} */
+    static final long CL_QUEUE_PRIORITY_KHR = 0x1096;
+    /** {@code cl_command_queue_properties} bit */
+    static final long CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE = 1L << 0;
+    /** {@code cl_command_queue_properties} bit */
+    static final long CL_QUEUE_PROFILING_ENABLE = 1L << 1;
+
+    /**
+     * In-order, not profiling, no priority hint.
+     */
+    public static ClQueueProperties defaults() {
+        return new ClQueueProperties(false, false, Priority.DEFAULT);
+    }
+    public ClQueueProperties withOutOfOrder(final boolean outOfOrder) {
+        return new ClQueueProperties(outOfOrder, profiling, priority);
+    }
+    public ClQueueProperties withProfiling(final boolean profiling) {
+        return new ClQueueProperties(outOfOrder, profiling, priority);
+    }
+    public ClQueueProperties withPriority(final Priority priority) {
+        return new ClQueueProperties(outOfOrder, profiling, priority);
+    }
+
+    /**
+     * These properties, with the hints not supported by given device dropped.
+     */
+    public ClQueueProperties supportedBy(final ClDevice device) {
+        return new ClQueueProperties(
+                outOfOrder && device.supportsOutOfOrderExecution(),
+                profiling,
+                device.supportsPriorityHints()
+                    ? priority
+                    : Priority.DEFAULT);
+    }
+
+    /**
+     * Zero terminated list of {@code cl_queue_properties} key-value pairs,
+     * as passed to {@code clCreateCommandQueueWithProperties}.
+     */
+    public long[] toPropertyList() {
+        final long[] list = new long[5];
+        int n = 0;
+        final long bitfield = (outOfOrder ? CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE : 0L)
+                | (profiling ? CL_QUEUE_PROFILING_ENABLE : 0L);
+        if(bitfield!=0L) {
+            list[n++] = CL_QUEUE_PROPERTIES;
+            list[n++] = bitfield;
+        }
+        if(priority!=Priority.DEFAULT) {
+            list[n++] = CL_QUEUE_PRIORITY_KHR;
+            list[n++] = priority.clValue;
+        }
+        return Arrays.copyOf(list, n + 1);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Kernel source with {@code ${name}} placeholders, from which specialized variants are rendered per parameter set,
+ * e.g. to generate type or arity specific kernels, that preprocessor definitions cannot express
+ * (see {@link ClProgramBuilder#define(String, Object)} for plain constants).
+ * <p>
+ * Rendering is strict: every placeholder must be bound, and every binding must be used.
+ *
+ * @param template - source containing placeholders {@code ${name}}, where name is a valid identifier
+ */
+public record ClSourceTemplate(String template) {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([A-Za-z_][A-Za-z0-9_]*)\\}");
+
+    public static ClSourceTemplate of(final String template) {
+        return new ClSourceTemplate(template);
+    }
+
+    /**
+     * Names of all placeholders in order of first occurrence.
+     */
+    public Set<String> parameterNames() {
+        var names = new LinkedHashSet<String>();
+        var matcher = PLACEHOLDER.matcher(template);
+        while(matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    /**
+     * Replaces each placeholder by the string representation of its bound value.
+     * @throws IllegalArgumentException if a placeholder is not bound or a binding is not used
+     */
+    public String render(final Map<String, ?> parameters) {
+        var names = parameterNames();
+        for(var name : names) {
+            if(!parameters.containsKey(name)) throw new IllegalArgumentException(
+                    "template parameter '%s' is not bound".formatted(name));
+        }
+        for(var name : parameters.keySet()) {
+            if(!names.contains(name)) throw new IllegalArgumentException(
+                    "template has no parameter '%s', available are %s".formatted(name, names));
+        }
+        return PLACEHOLDER.matcher(template)
+                .replaceAll(match->Matcher.quoteReplacement(String.valueOf(parameters.get(match.group(1)))));
+    }
+
+}
@@ -0,0 +1,438 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jspecify.annotations.Nullable;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.experimental.Accessors;
+
+import jcompute.core.mem.JComputeArray;
+import jcompute.core.shape.Shape;
+
+/**
+ * Streams a (host) input array through a kernel in chunks, such that host to device transfers,
+ * kernel executions and device to host transfers of consecutive chunks overlap.
+ * <p>
+ * Items are the slices of the arrays along their first dimension ({@code sizeX}).
+ * The input is split into chunks of {@link Options#chunkItems()} items, each written into one of
+ * {@link Options#bufferCount()} device buffer slots (used round robin), processed by the kernel into the slot's
+ * output buffer and read back into the corresponding items of the (host) output array.
+ * <p>
+ * Transfers and kernels are enqueued to separate queues, linked by events only where required:
+ * the kernel of chunk i waits for its write, the read of chunk i waits for its kernel, and the write into a slot
+ * waits for the read of the chunk, that previously used that slot. Hence while chunk i is processed,
+ * chunk i+1 is written and chunk i-1 is read.
+ * <p>
+ * Device buffers are allocated on first use and reused by subsequent runs with compatible arrays,
+ * otherwise freed and replaced. Closing the pipeline frees its queues and device buffers.
+ */
+public final class ClStreamingPipeline implements AutoCloseable {
+
+    /**
+     * @param bufferCount - number of device buffer slots (each an input and an output buffer), at least 2
+     * @param queueCount - 3 for separate write, kernel and read queues,
+     *      2 for writes and reads sharing the same queue
+     * @param chunkItems - number of items (along the first dimension) per chunk
+     */
+    public record Options(
+            int bufferCount,
+            int queueCount,
+            long chunkItems) {
+        public Options {
+            if(bufferCount<2) throw new IllegalArgumentException(
+                    "bufferCount (%d) must be at least 2".formatted(bufferCount));
+            if(queueCount<2 || queueCount>3) throw new IllegalArgumentException(
+                    "queueCount (%d) must be either 2 or 3".formatted(queueCount));
+            if(chunkItems<1) throw new IllegalArgumentException(
+                    "chunkItems (%d) must be positive".formatted(chunkItems));
+        }
+        /**
+         * Triple buffered with separate write, kernel and read queues.
+         */
+        public static Options defaults(final long chunkItems) {
+            return new Options(3, 3, chunkItems);
+        }
+    }
+
+    /**
+     * Chunk to be processed by a {@link ChunkKernel}.
+     * @param index - chunk index
+     * @param firstItem - index of the chunk's first item within the input (and output) array
+     * @param itemCount - number of items of this chunk, at most {@link Options#chunkItems()}
+     *      (less only for the last chunk)
+     * @param input - device buffer holding the chunk's input items (starting at index zero)
+     * @param output - device buffer to receive the chunk's output items (starting at index zero)
+     */
+    public record Chunk(
+            long index,
+            long firstItem,
+            long itemCount,
+            ClMem input,
+            ClMem output) {
+    }
+
+    @FunctionalInterface
+    public interface ChunkKernel {
+        /**
+         * Enqueues (non-blocking) the processing of given chunk, typically by setting kernel arguments
+         * to the chunk's buffers and item count, followed by {@link ClCommandQueue#enqueueNDRangeKernelNonBlocking}.
+         * @param waitList - to be passed on to the enqueued command
+         * @return event identifying the (last) enqueued command, ownership is passed to the pipeline
+         */
+        ClEvent enqueue(ClCommandQueue queue, Chunk chunk, ClEvent... waitList);
+    }
+
+    /**
+     * Instrumentation of a single run.
+     * <p>
+     * Stage durations are derived from completion times, observed by event callbacks: a command is accounted
+     * busy from the completion of whatever it waited for (its wait list and its predecessor on the same queue),
+     * until its own completion. Hence these are upper bounds, including queueing latency.
+     *
+     * @param chunkCount - number of chunks processed
+     * @param bytesIn - bytes transferred host to device
+     * @param bytesOut - bytes transferred device to host
+     * @param wallNanos - elapsed time of the run
+     * @param writeNanos - accumulated busy time of host to device transfers
+     * @param kernelNanos - accumulated busy time of kernel executions
+     * @param readNanos - accumulated busy time of device to host transfers
+     */
+    public record Stats(
+            long chunkCount,
+            long bytesIn,
+            long bytesOut,
+            long wallNanos,
+            long writeNanos,
+            long kernelNanos,
+            long readNanos) {
+
+        /**
+         * Accumulated stage busy times relative to the elapsed time, where values above 1 indicate,
+         * that stages actually overlapped.
+         */
+        public double overlapFactor() {
+            return wallNanos>0
+                    ? (double)(writeNanos + kernelNanos + readNanos) / wallNanos
+                    : 0.;
+        }
+
+        /**
+         * Transferred bytes (both directions) per second of elapsed time.
+         */
+        public double throughputBytesPerSecond() {
+            return wallNanos>0
+                    ? (bytesIn + bytesOut) * 1e9 / wallNanos
+                    : 0.;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats[chunks=%d, wall=%.3fms, write=%.3fms, kernel=%.3fms, read=%.3fms, "
+                    + "overlap=%.2f, throughput=%.1fMB/s]",
+                    chunkCount, wallNanos*1e-6, writeNanos*1e-6, kernelNanos*1e-6, readNanos*1e-6,
+                    overlapFactor(), throughputBytesPerSecond()*1e-6);
+        }
+    }
+
+    @Getter @Accessors(fluent = true) private final ClContext context;
+    @Getter @Accessors(fluent = true) private final Options options;
+
+    private final ClCommandQueue writeQueue;
+    private final ClCommandQueue kernelQueue;
+    private final ClCommandQueue readQueue;
+
+    private @Nullable Slots slots;
+
+    public ClStreamingPipeline(final ClContext context, final Options options) {
+        this.context = context;
+        this.options = options;
+        this.writeQueue = context.createQueue();
+        this.kernelQueue = context.createQueue();
+        this.readQueue = options.queueCount()==3
+                ? context.createQueue()
+                : writeQueue;
+    }
+
+    /**
+     * Frees the queues and device buffers of this pipeline, waiting for pending commands to finish.
+     * The context stays open.
+     */
+    @Override
+    public void close() {
+        freeSlots();
+        context.free(kernelQueue);
+        context.free(writeQueue);
+        context.free(readQueue);
+    }
+
+    /**
+     * Processes all items of given input array chunk by chunk with given kernel,
+     * collecting the results into the corresponding items of given output array. Blocks until done.
+     * <p>
+     * Both arrays must have the same number of items (that is {@code sizeX}),
+     * while their element types and item sizes may differ.
+     */
+    public Stats run(final JComputeArray input, final JComputeArray output, final ChunkKernel kernel) {
+        final long itemCount = input.shape().sizeX();
+        if(output.shape().sizeX()!=itemCount) throw new IllegalArgumentException(
+                "item count mismatch: input has %d, output %d items".formatted(itemCount, output.shape().sizeX()));
+        final Slots slots = slots(input, output);
+        final long chunkItems = options.chunkItems();
+        final int chunkCount = Math.toIntExact((itemCount + chunkItems - 1) / chunkItems);
+        final int bufferCount = options.bufferCount();
+
+        final Timeline timeline = new Timeline(chunkCount);
+        final ClEvent[] written = new ClEvent[chunkCount];
+        final ClEvent[] slotReleased = new ClEvent[bufferCount];
+        final long start = System.nanoTime();
+
+        // prime the first slots, then keep writes bufferCount-1 chunks ahead of the kernels
+        for (int i = 0; i < Math.min(bufferCount - 1, chunkCount); i++) {
+            written[i] = write(timeline, slots, i, input, slotReleased);
+        }
+        for (int i = 0; i < chunkCount; i++) {
+            final int ahead = i + bufferCount - 1;
+            if(ahead < chunkCount) {
+                written[ahead] = write(timeline, slots, ahead, input, slotReleased);
+            }
+            final int slot = i % bufferCount;
+            final long firstItem = i * chunkItems;
+            final var chunk = new Chunk(i, firstItem, Math.min(chunkItems, itemCount - firstItem),
+                    slots.input[slot], slots.output[slot]);
+
+            final ClEvent processed = kernel.enqueue(kernelQueue, chunk, written[i]);
+            timeline.record(processed, Timeline.KERNEL, i);
+            written[i].free();
+            written[i] = null;
+
+            final ClEvent read = readQueue.enqueueReadBufferNonBlocking(slots.output[slot], 0L,
+                    items(output, chunk.firstItem(), chunk.itemCount()), processed);
+            timeline.record(read, Timeline.READ, i);
+            processed.free();
+            slotReleased[slot] = read;
+
+            writeQueue.flush();
+            kernelQueue.flush();
+            readQueue.flush();
+        }
+        for (var read : slotReleased) {
+            if(read==null) continue;
+            read.await();
+            read.free();
+        }
+        timeline.await();
+        final long wallNanos = System.nanoTime() - start;
+
+        return new Stats(chunkCount,
+                input.shape().totalSize() * input.bytesPerElement(),
+                output.shape().totalSize() * output.bytesPerElement(),
+                wallNanos,
+                timeline.busyNanos(Timeline.WRITE, start),
+                timeline.busyNanos(Timeline.KERNEL, start),
+                timeline.busyNanos(Timeline.READ, start));
+    }
+
+    // -- HELPER
+
+    private ClEvent write(final Timeline timeline, final Slots slots, final int chunkIndex, final JComputeArray input,
+            final ClEvent[] slotReleased) {
+        final int slot = chunkIndex % options.bufferCount();
+        final long firstItem = chunkIndex * options.chunkItems();
+        final long itemCount = Math.min(options.chunkItems(), input.shape().sizeX() - firstItem);
+        final ClEvent released = slotReleased[slot];
+        final ClEvent written = released!=null
+                ? writeQueue.enqueueWriteBufferNonBlocking(slots.input[slot], 0L, items(input, firstItem, itemCount),
+                        released)
+                : writeQueue.enqueueWriteBufferNonBlocking(slots.input[slot], 0L, items(input, firstItem, itemCount));
+        timeline.record(written, Timeline.WRITE, chunkIndex);
+        if(released!=null) {
+            released.free();
+            slotReleased[slot] = null;
+        }
+        return written;
+    }
+
+    /**
+     * Device buffer slots, each sized to hold one chunk of input and output items.
+     */
+    private record Slots(
+            JComputeArray inputTemplate,
+            JComputeArray outputTemplate,
+            ClMem[] input,
+            ClMem[] output) {
+        boolean isCompatible(final JComputeArray input, final JComputeArray output) {
+            return isSameItemLayout(inputTemplate, input)
+                    && isSameItemLayout(outputTemplate, output);
+        }
+        private static boolean isSameItemLayout(final JComputeArray template, final JComputeArray array) {
+            return template.getClass()==array.getClass()
+                    && template.shape().totalSize() / template.shape().sizeX()
+                        == array.shape().totalSize() / array.shape().sizeX();
+        }
+    }
+
+    private Slots slots(final JComputeArray input, final JComputeArray output) {
+        if(slots!=null
+                && slots.isCompatible(input, output)) return slots;
+        freeSlots();
+        final int bufferCount = options.bufferCount();
+        // host side arrays only serve as templates for the device buffers, they are never transferred
+        final var arena = Arena.ofAuto();
+        final JComputeArray inputTemplate = allocate(arena, input);
+        final JComputeArray outputTemplate = allocate(arena, output);
+        final var slots = new Slots(inputTemplate, outputTemplate, new ClMem[bufferCount], new ClMem[bufferCount]);
+        for (int i = 0; i < bufferCount; i++) {
+            slots.input[i] = context.createMemoryReadOnly(inputTemplate);
+            slots.output[i] = context.createMemoryWriteOnly(outputTemplate);
+        }
+        return this.slots = slots;
+    }
+
+    private void freeSlots() {
+        if(slots==null) return;
+        for (int i = 0; i < slots.input.length; i++) {
+            context.free(slots.input[i]);
+            context.free(slots.output[i]);
+        }
+        slots = null;
+    }
+
+    private JComputeArray allocate(final Arena arena, final JComputeArray like) {
+        final Shape shape = withSizeX(like.shape(), options.chunkItems());
+        final MemorySegment segment = arena.allocate(shape.totalSize() * like.bytesPerElement(),
+                like.valueLayout().byteAlignment());
+        return _Util.arrayOf(like, shape, segment);
+    }
+
+    /**
+     * View of the items {@code [firstItem, firstItem + itemCount)} of given array.
+     */
+    private static JComputeArray items(final JComputeArray array, final long firstItem, final long itemCount) {
+        final Shape shape = array.shape();
+        final long bytesPerItem = shape.totalSize() / shape.sizeX() * array.bytesPerElement();
+        return _Util.arrayOf(array, withSizeX(shape, itemCount),
+                array.memorySegment().asSlice(firstItem * bytesPerItem, itemCount * bytesPerItem));
+    }
+
+    private static Shape withSizeX(final Shape shape, final long sizeX) {
+        return switch (shape.dimensionCount()) {
+            case 1 -> Shape.of(sizeX);
+            case 2 -> Shape.of(sizeX, shape.sizeY());
+            case 3 -> Shape.of(sizeX, shape.sizeY(), shape.sizeZ());
+            default -> throw new IllegalArgumentException(
+                    "unsupported dimension count %d".formatted(shape.dimensionCount()));
+        };
+    }
+
+    /**
+     * Completion times of all commands of a run, recorded by event callbacks.
+     */
+    private final class Timeline {
+        static final int WRITE = 0;
+        static final int KERNEL = 1;
+        static final int READ = 2;
+
+        final int chunkCount;
+        /** indexed by {@code stage * chunkCount + chunkIndex} */
+        final AtomicLongArray completedAt;
+        final CountDownLatch pending;
+        final AtomicInteger failedStatus = new AtomicInteger();
+
+        Timeline(final int chunkCount) {
+            this.chunkCount = chunkCount;
+            this.completedAt = new AtomicLongArray(3 * chunkCount);
+            this.pending = new CountDownLatch(3 * chunkCount);
+        }
+
+        void record(final ClEvent event, final int stage, final int chunkIndex) {
+            event.onComplete(status->{
+                completedAt.set(stage * chunkCount + chunkIndex, System.nanoTime());
+                if(status<0) failedStatus.compareAndSet(0, status);
+                pending.countDown();
+            });
+        }
+
+        @SneakyThrows
+        void await() {
+            pending.await();
+            if(failedStatus.get()!=0) throw new IllegalStateException(
+                    "streaming pipeline command failed with execution status %d".formatted(failedStatus.get()));
+        }
+
+        long busyNanos(final int stage, final long start) {
+            long busy = 0L;
+            for (int i = 0; i < chunkCount; i++) {
+                long ready = start;
+                for (long dependency : dependencies(stage, i)) {
+                    ready = Math.max(ready, dependency);
+                }
+                busy += Math.max(0L, completedAt(stage, i) - ready);
+            }
+            return busy;
+        }
+
+        /**
+         * Completion times of the commands given command had to wait for,
+         * that is its wait list and its predecessor on the same queue.
+         */
+        private List<Long> dependencies(final int stage, final int i) {
+            final var dependencies = new ArrayList<Long>(3);
+            switch (stage) {
+                case WRITE -> {
+                    completedAt(READ, i - options.bufferCount(), dependencies);
+                    completedAt(WRITE, i - 1, dependencies);
+                }
+                case KERNEL -> {
+                    completedAt(WRITE, i, dependencies);
+                    completedAt(KERNEL, i - 1, dependencies);
+                }
+                case READ -> {
+                    completedAt(KERNEL, i, dependencies);
+                    completedAt(READ, i - 1, dependencies);
+                    if(writeQueue==readQueue) {
+                        // on a shared transfer queue, read i is enqueued after write i + bufferCount - 1
+                        completedAt(WRITE, i + options.bufferCount() - 1, dependencies);
+                    }
+                }
+            }
+            return dependencies;
+        }
+
+        private long completedAt(final int stage, final int i) {
+            return completedAt.get(stage * chunkCount + i);
+        }
+
+        private void completedAt(final int stage, final int i, final List<Long> dependencies) {
+            if(i>=0 && i<chunkCount) {
+                dependencies.add(completedAt(stage, i));
+            }
+        }
+    }
+
+}
@@ -19,6 +19,7 @@
 package jcompute.opencl;
 
 import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
 import java.nio.charset.Charset;
 import java.util.Scanner;
 import java.util.function.Supplier;
@@ -26,6 +27,15 @@ import java.util.function.Supplier;
 import org.jspecify.annotations.NonNull;
 import lombok.experimental.UtilityClass;
 
+import jcompute.core.mem.ByteArray;
+import jcompute.core.mem.DoubleArray;
+import jcompute.core.mem.FloatArray;
+import jcompute.core.mem.IntArray;
+import jcompute.core.mem.JComputeArray;
+import jcompute.core.mem.LongArray;
+import jcompute.core.mem.ShortArray;
+import jcompute.core.shape.Shape;
+
 @UtilityClass
 class _Util {
 
@@ -76,4 +86,19 @@ class _Util {
         }
     }
 
+    /**
+     * Array of the same element type as given template, with given shape, backed by given memory segment.
+     */
+    JComputeArray arrayOf(final JComputeArray template, final Shape shape, final MemorySegment memorySegment) {
+        return switch (template) {
+            case ByteArray _ -> new ByteArray(shape, memorySegment);
+            case ShortArray _ -> new ShortArray(shape, memorySegment);
+            case IntArray _ -> new IntArray(shape, memorySegment);
+            case FloatArray _ -> new FloatArray(shape, memorySegment);
+            case LongArray _ -> new LongArray(shape, memorySegment);
+            case DoubleArray _ -> new DoubleArray(shape, memorySegment);
+            default -> throw new IllegalArgumentException("Unexpected value: " + template.getClass());
+        };
+    }
+
 }
@@ -18,36 +18,41 @@
  */
 package jcompute.opencl.bytedeco;
 
+import java.lang.foreign.MemorySegment;
+
+import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.PointerPointer;
 import org.bytedeco.javacpp.SizeTPointer;
 import org.bytedeco.opencl._cl_command_queue;
+import org.bytedeco.opencl._cl_event;
 import org.bytedeco.opencl.global.OpenCL;
 
 import static org.bytedeco.opencl.global.OpenCL.CL_FALSE;
 import static org.bytedeco.opencl.global.OpenCL.CL_TRUE;
 
+import org.jspecify.annotations.Nullable;
+
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
-import jcompute.core.mem.ByteArray;
-import jcompute.core.mem.DoubleArray;
-import jcompute.core.mem.JComputeArray;
-import jcompute.core.mem.LongArray;
-import jcompute.core.mem.ShortArray;
 import jcompute.core.shape.Shape;
 import jcompute.opencl.ClCommandQueue;
 import jcompute.opencl.ClContext;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClEvent;
 import jcompute.opencl.ClKernel;
 import jcompute.opencl.ClMem;
-import jcompute.opencl.bytedeco.util.PointerUtils;
+import jcompute.opencl.ClMem.MapMode;
+import jcompute.opencl.ClQueueProperties;
 
 public final class ClCommandQueueBd extends ClCommandQueue {
 
     @Getter @Accessors(fluent = true) private final _cl_command_queue id;
 
-    ClCommandQueueBd(final _cl_command_queue id, final ClContext context) {
-        super(context);
+    ClCommandQueueBd(final _cl_command_queue id, final ClContext context, final ClDevice device,
+            final ClQueueProperties properties) {
+        super(context, device, properties);
         this.id = id;
     }
 
@@ -64,24 +69,97 @@ public final class ClCommandQueueBd extends ClCommandQueue {
         return OpenCL.clReleaseCommandQueue(id());
     }
     @Override
-    protected int enqueueWriteBuffer(final ClMem memObj, final boolean blocking) {
-        return OpenCL.clEnqueueWriteBuffer(id(), ((ClMemBd)memObj).id(),
-                blocking ? CL_TRUE : CL_FALSE,
-                0,
-                memObj.size() * memObj.sizeOf(),
-                pointerOf(memObj.computeArray()),
-                0,
-                (PointerPointer<?>)null, null);
+    protected int enqueueWriteBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var event = eventPointer(event_ret)) {
+            final int ret = OpenCL.clEnqueueWriteBuffer(id(), ((ClMemBd)memObj).id(),
+                    blocking ? CL_TRUE : CL_FALSE,
+                    offset,
+                    host.byteSize(),
+                    hostPointer(host),
+                    waitList.length,
+                    ClEventBd.waitList(waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
+    }
+    @Override
+    protected int enqueueReadBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var event = eventPointer(event_ret)) {
+            final int ret = OpenCL.clEnqueueReadBuffer(id(), ((ClMemBd)memObj).id(),
+                    blocking ? CL_TRUE : CL_FALSE,
+                    offset,
+                    host.byteSize(),
+                    hostPointer(host),
+                    waitList.length,
+                    ClEventBd.waitList(waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
+    }
+
+    @Override
+    protected int enqueueWriteBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var originPointer = new SizeTPointer(origin[0], origin[1], origin[2]);
+                var regionPointer = new SizeTPointer(region[0], region[1], region[2]);
+                var event = eventPointer(event_ret)) {
+            final int ret = OpenCL.clEnqueueWriteBufferRect(id(), ((ClMemBd)memObj).id(),
+                    blocking ? CL_TRUE : CL_FALSE,
+                    originPointer, originPointer, regionPointer,
+                    rowPitch, slicePitch, rowPitch, slicePitch,
+                    hostPointer(memObj.computeArray().memorySegment()),
+                    waitList.length,
+                    ClEventBd.waitList(waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
     }
     @Override
-    protected int enqueueReadBuffer(final ClMem memObj, final boolean blocking) {
-        return OpenCL.clEnqueueReadBuffer(id(), ((ClMemBd)memObj).id(),
-                blocking ? CL_TRUE : CL_FALSE,
-                0,
-                memObj.size() * memObj.sizeOf(),
-                pointerOf(memObj.computeArray()),
-                0,
-                (PointerPointer<?>)null, null);
+    protected int enqueueReadBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var originPointer = new SizeTPointer(origin[0], origin[1], origin[2]);
+                var regionPointer = new SizeTPointer(region[0], region[1], region[2]);
+                var event = eventPointer(event_ret)) {
+            final int ret = OpenCL.clEnqueueReadBufferRect(id(), ((ClMemBd)memObj).id(),
+                    blocking ? CL_TRUE : CL_FALSE,
+                    originPointer, originPointer, regionPointer,
+                    rowPitch, slicePitch, rowPitch, slicePitch,
+                    hostPointer(memObj.computeArray().memorySegment()),
+                    waitList.length,
+                    ClEventBd.waitList(waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
+    }
+
+    @Override
+    protected MemorySegment enqueueMapBuffer(final ClMem memObj, final boolean blocking, final MapMode mapMode,
+            final long offset, final long size, final ClEvent[] waitList, final ClEvent @Nullable [] event_ret,
+            final int[] errcode_ret) {
+        try(var event = eventPointer(event_ret)) {
+            final Pointer mapped = OpenCL.clEnqueueMapBuffer(id(), ((ClMemBd)memObj).id(),
+                    blocking ? CL_TRUE : CL_FALSE,
+                    mapFlags(mapMode),
+                    offset,
+                    size,
+                    waitList.length,
+                    ClEventBd.waitList(waitList), event, errcode_ret);
+            errcode_ret[0] = collectEvent(errcode_ret[0], event, event_ret);
+            return mapped!=null
+                    ? MemorySegment.ofAddress(mapped.address()).reinterpret(size)
+                    : MemorySegment.NULL;
+        }
+    }
+    @Override
+    protected int enqueueUnmapMemObject(final ClMem memObj, final MemorySegment mapped,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var event = eventPointer(event_ret)) {
+            final int ret = OpenCL.clEnqueueUnmapMemObject(id(), ((ClMemBd)memObj).id(),
+                    hostPointer(mapped),
+                    waitList.length,
+                    ClEventBd.waitList(waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
     }
 
     @Override
@@ -92,29 +170,51 @@ public final class ClCommandQueueBd extends ClCommandQueue {
     @Override
     protected int enqueueNDRangeKernel(
             final ClKernel kernel, final int work_dim,
-            final Shape globalSize, final Shape localSize) {
+            final Shape globalSize, final Shape localSize,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
 
         var global_work_size = new SizeTPointer(globalSize.sizeX(), globalSize.sizeY(), globalSize.sizeZ());
         var local_work_size = localSize!=null
                 ? new SizeTPointer(localSize.sizeX(), localSize.sizeY(), localSize.sizeZ())
                 : null;
 
-        return OpenCL.clEnqueueNDRangeKernel(id(), ((ClKernelBd)kernel).id(), work_dim, null,
-                global_work_size, local_work_size, 0,
-                (PointerPointer<?>)null, null);
+        try(var event = eventPointer(event_ret)) {
+            final int ret = OpenCL.clEnqueueNDRangeKernel(id(), ((ClKernelBd)kernel).id(), work_dim, null,
+                    global_work_size, local_work_size, waitList.length,
+                    ClEventBd.waitList(waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
     }
 
     // -- HELPER
 
-    private static Pointer pointerOf(final JComputeArray jcomputeArray) {
-        final Pointer pointer = switch (jcomputeArray) {
-            case ByteArray array -> PointerUtils.pointer(array);
-            case ShortArray array -> PointerUtils.pointer(array);
-            case LongArray array -> PointerUtils.pointer(array);
-            case DoubleArray array -> PointerUtils.pointer(array);
-            default -> throw new IllegalArgumentException("Unexpected value: " + jcomputeArray.getClass());
+    /**
+     * Native out-parameter for the event of an enqueued command, null if not requested.
+     */
+    private static PointerPointer<_cl_event> eventPointer(final ClEvent @Nullable [] event_ret) {
+        return event_ret!=null
+                ? new PointerPointer<>(1)
+                : null;
+    }
+
+    private int collectEvent(final int ret, final PointerPointer<_cl_event> event, final ClEvent @Nullable [] event_ret) {
+        if(ret==OpenCL.CL_SUCCESS && event_ret!=null) {
+            event_ret[0] = new ClEventBd(new _cl_event(event.get(0)), this);
+        }
+        return ret;
+    }
+
+    private static long mapFlags(final MapMode mapMode) {
+        return switch (mapMode) {
+            case MAP_READ -> OpenCL.CL_MAP_READ;
+            case MAP_WRITE -> OpenCL.CL_MAP_WRITE;
+            case MAP_READ_WRITE -> OpenCL.CL_MAP_READ | OpenCL.CL_MAP_WRITE;
+            case MAP_WRITE_INVALIDATE_REGION -> OpenCL.CL_MAP_WRITE_INVALIDATE_REGION;
         };
-        return pointer;
+    }
+
+    private static Pointer hostPointer(final MemorySegment host) {
+        return new BytePointer(host.asByteBuffer());
     }
 
 }
@@ -20,11 +20,15 @@ package jcompute.opencl.bytedeco;
 
 import java.util.List;
 
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.IntPointer;
 import org.bytedeco.javacpp.LongPointer;
+import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.PointerPointer;
 import org.bytedeco.javacpp.SizeTPointer;
 import org.bytedeco.opencl._cl_context;
 import org.bytedeco.opencl.global.OpenCL;
+import org.jspecify.annotations.Nullable;
 
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -34,8 +38,10 @@ import jcompute.opencl.ClCommandQueue;
 import jcompute.opencl.ClContext;
 import jcompute.opencl.ClDevice;
 import jcompute.opencl.ClMem;
+import jcompute.opencl.ClMem.HostPtrMode;
 import jcompute.opencl.ClMem.MemMode;
 import jcompute.opencl.ClProgram;
+import jcompute.opencl.ClQueueProperties;
 
 public final class ClContextBd extends ClContext {
 
@@ -47,44 +53,73 @@ public final class ClContextBd extends ClContext {
     }
 
     @Override
-    protected ClCommandQueue createQueueInternal() {
+    protected ClCommandQueue createQueueInternal(final ClDevice device, final ClQueueProperties properties) {
         final ClContextBd context = this;
-        var deviceId = ((ClDeviceBd)context.getSingleDeviceElseFail()).id();
-        var properties = new LongPointer(new long[] {
-//              OpenCL.CL_QUEUE_PROPERTIES,
-//              | OpenCL.CL_QUEUE_ON_DEVICE
-//              | OpenCL.CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE,
-              0}); // zero terminated list of queue creation properties
-      // https://registry.khronos.org/OpenCL/sdk/3.0/docs/man/html/clCreateCommandQueueWithProperties.html
-        var queueId = _Util.checkedApply(ret_pointer->
-            OpenCL.clCreateCommandQueueWithProperties(
-                context.id(),
-                deviceId,
-                properties,
-                ret_pointer),
-            ()->String.format("failed to create command-queue for context %s", context));
-        return new ClCommandQueueBd(queueId, context);
+        var deviceId = ((ClDeviceBd)device).id();
+        // zero terminated list of queue creation properties
+        try(var propertyList = new LongPointer(properties.toPropertyList())) {
+            var queueId = _Util.checkedApply(ret_pointer->
+                OpenCL.clCreateCommandQueueWithProperties(
+                    context.id(),
+                    deviceId,
+                    propertyList,
+                    ret_pointer),
+                ()->String.format("failed to create command-queue for context %s", context));
+            return new ClCommandQueueBd(queueId, context, device, properties);
+        }
     }
 
     @Override
-    protected ClProgram createProgramInternal(final String programSource) {
+    protected ClProgram createProgramInternal(final String programSource, final String buildOptions) {
         try(var sizeTPtr = new SizeTPointer(1); var src = new PointerPointer<>(programSource)){
             sizeTPtr.put(programSource.length());
             var programId = _Util.checkedApply(ret_pointer->
                 OpenCL.clCreateProgramWithSource(this.id(), 1, src, sizeTPtr, ret_pointer),
                 ()-> String.format("failed to create program for context %s", this));
-            return new ClProgramBd(programId, this).build();
+            return new ClProgramBd(programId, this).build(buildOptions);
+        }
+    }
+
+    @Override
+    protected @Nullable ClProgram createProgramFromBinaryInternal(final byte[] programBinary, final String buildOptions) {
+        var deviceId = ((ClDeviceBd)getSingleDeviceElseFail()).id();
+        try(var devices = new PointerPointer<>(deviceId);
+                var lengths = new SizeTPointer(1);
+                var binary = new BytePointer(programBinary);
+                var binaries = new PointerPointer<>(binary);
+                var binaryStatus = new IntPointer(1);
+                var errcode = new IntPointer(1)) {
+            lengths.put(programBinary.length);
+            var programId = OpenCL.clCreateProgramWithBinary(this.id(), 1, devices, lengths, binaries,
+                    binaryStatus, errcode);
+            if(errcode.get()!=OpenCL.CL_SUCCESS
+                    || binaryStatus.get()!=OpenCL.CL_SUCCESS) return null;
+            var program = new ClProgramBd(programId, this);
+            if(program.buildProgram(buildOptions)!=OpenCL.CL_SUCCESS) {
+                program.free();
+                return null;
+            }
+            return program;
         }
     }
 
     @Override
-    protected ClMem createMemoryInternal(final JComputeArray computeArray, final MemMode memMode) {
+    protected ClMem createMemoryInternal(final JComputeArray computeArray, final MemMode memMode,
+            final HostPtrMode hostPtrMode) {
         var clMemMode = switch (memMode) {
             case MEM_READ_WRITE -> OpenCL.CL_MEM_READ_WRITE;
             case MEM_READ_ONLY -> OpenCL.CL_MEM_READ_ONLY;
             case MEM_WRITE_ONLY -> OpenCL.CL_MEM_WRITE_ONLY;
         };
-        return createMemoryInternal(computeArray, clMemMode);
+        var clHostPtrMode = switch (hostPtrMode) {
+            case NONE -> 0L;
+            case USE_HOST_PTR -> OpenCL.CL_MEM_USE_HOST_PTR;
+            case ALLOC_HOST_PTR -> OpenCL.CL_MEM_ALLOC_HOST_PTR;
+        };
+        var hostPtr = hostPtrMode==HostPtrMode.USE_HOST_PTR
+                ? new BytePointer(computeArray.memorySegment().asByteBuffer())
+                : null;
+        return createMemoryInternal(computeArray, clMemMode | clHostPtrMode, hostPtr);
     }
 
     @Override
@@ -97,12 +132,13 @@ public final class ClContextBd extends ClContext {
     /**
      * Returns a new memory object for given context.
      */
-    private ClMemBd createMemoryInternal(final JComputeArray computeArray, final long clMemMode) {
+    private ClMemBd createMemoryInternal(final JComputeArray computeArray, final long clMemMode,
+            final @Nullable Pointer hostPtr) {
         long size = computeArray.shape().totalSize();
         int sizeOf = computeArray.bytesPerElement();
 
         var memId = _Util.checkedApply(ret_pointer->
-            OpenCL.clCreateBuffer(this.id(), clMemMode, size * sizeOf, null, ret_pointer),
+            OpenCL.clCreateBuffer(this.id(), clMemMode, size * sizeOf, hostPtr, ret_pointer),
             ()->String.format("failed to create memory object (size=%d*%d) for context %s", sizeOf, size, this));
         return new ClMemBd(memId, this, computeArray);
     }
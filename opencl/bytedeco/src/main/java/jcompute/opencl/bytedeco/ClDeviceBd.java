@@ -68,6 +68,21 @@ public final class ClDeviceBd extends ClDevice {
         return getString(id, OpenCL.CL_DEVICE_NAME);
     }
 
+    @Override
+    public String getDriverVersion() {
+        return getString(id, OpenCL.CL_DRIVER_VERSION);
+    }
+
+    @Override
+    public String getExtensions() {
+        return getString(id, OpenCL.CL_DEVICE_EXTENSIONS);
+    }
+
+    @Override
+    public long getQueueOnHostProperties() {
+        return getLong(id, OpenCL.CL_DEVICE_QUEUE_ON_HOST_PROPERTIES);
+    }
+
     @Override
     public int getMaxComputeUnits() {
         return getInt(id, OpenCL.CL_DEVICE_MAX_COMPUTE_UNITS);
@@ -0,0 +1,126 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.bytedeco;
+
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.LongPointer;
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.PointerPointer;
+import org.bytedeco.javacpp.SizeTPointer;
+import org.bytedeco.opencl.Pfn_notify__cl_event_int_Pointer;
+import org.bytedeco.opencl._cl_event;
+import org.bytedeco.opencl.global.OpenCL;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import jcompute.opencl.ClCommandQueue;
+import jcompute.opencl.ClEvent;
+
+public final class ClEventBd extends ClEvent {
+
+    /**
+     * Single callback shared by all events, the callback id is passed as user data (address).
+     * Held strongly, such that it is never deallocated.
+     */
+    private static final Pfn_notify__cl_event_int_Pointer CALLBACK = new Pfn_notify__cl_event_int_Pointer() {
+        @Override
+        public void call(final _cl_event event, final int executionStatus, final Pointer userData) {
+            dispatchCallback(userData.address(), executionStatus);
+        }
+    };
+
+    @Getter @Accessors(fluent = true) private final _cl_event id;
+
+    ClEventBd(final _cl_event id, final ClCommandQueue queue) {
+        super(queue);
+        this.id = id;
+    }
+
+    @Override
+    protected int waitForEvent() {
+        try(var eventList = new PointerPointer<_cl_event>(id())) {
+            return OpenCL.clWaitForEvents(1, eventList);
+        }
+    }
+
+    @Override
+    protected int queryExecutionStatus() {
+        try(var status = new IntPointer(1)) {
+            _Util.assertSuccess(
+                    OpenCL.clGetEventInfo(id(), OpenCL.CL_EVENT_COMMAND_EXECUTION_STATUS, 4, status, (SizeTPointer)null),
+                    ()->String.format("failed to query execution status of event %s", this));
+            return status.get();
+        }
+    }
+
+    @Override
+    protected int setCompletionCallback(final long callbackId) {
+        return OpenCL.clSetEventCallback(id(), OpenCL.CL_COMPLETE, CALLBACK, new CallbackId(callbackId));
+    }
+
+    @Override
+    protected int retainEvent() {
+        return OpenCL.clRetainEvent(id());
+    }
+
+    @Override
+    protected long queryProfilingInfo(final int paramName) {
+        try(var value = new LongPointer(1)) {
+            _Util.assertSuccess(
+                    OpenCL.clGetEventProfilingInfo(id(), paramName, 8, value, (SizeTPointer)null),
+                    ()->String.format("failed to query profiling info of event %s", this));
+            return value.get();
+        }
+    }
+
+    @Override
+    protected int releaseEvent() {
+        return OpenCL.clReleaseEvent(id());
+    }
+
+    @Override
+    public String toString() {
+        return "addr: " + id.address();
+    }
+
+    // -- HELPER
+
+    /**
+     * Native event wait list, null if empty.
+     */
+    static PointerPointer<_cl_event> waitList(final ClEvent[] waitList) {
+        if(waitList.length==0) return null;
+        var ids = new _cl_event[waitList.length];
+        for (int i = 0; i < waitList.length; i++) {
+            ids[i] = ((ClEventBd)waitList[i]).id();
+        }
+        return new PointerPointer<>(ids);
+    }
+
+    /**
+     * Not pointing to any memory, just carrying the callback id as its address.
+     */
+    private static final class CallbackId extends Pointer {
+        CallbackId(final long callbackId) {
+            this.address = callbackId;
+        }
+    }
+
+}
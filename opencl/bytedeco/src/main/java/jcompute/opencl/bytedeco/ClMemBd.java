@@ -18,6 +18,7 @@
  */
 package jcompute.opencl.bytedeco;
 
+import org.bytedeco.javacpp.SizeTPointer;
 import org.bytedeco.opencl._cl_mem;
 import org.bytedeco.opencl.global.OpenCL;
 
@@ -45,4 +46,14 @@ public final class ClMemBd extends ClMem {
         return OpenCL.clReleaseMemObject(id());
     }
 
+    @Override
+    protected ClMem createSubBufferInternal(final long origin, final long size, final JComputeArray computeArray) {
+        try(var region = new SizeTPointer(origin, size)) { // cl_buffer_region
+            var subId = _Util.checkedApply(ret_pointer->
+                OpenCL.clCreateSubBuffer(id(), 0L, OpenCL.CL_BUFFER_CREATE_TYPE_REGION, region, ret_pointer),
+                ()->String.format("failed to create sub-buffer (origin=%d, size=%d) of memory object %s", origin, size, this));
+            return new ClMemBd(subId, context(), computeArray);
+        }
+    }
+
 }
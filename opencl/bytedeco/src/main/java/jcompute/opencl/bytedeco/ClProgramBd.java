@@ -18,6 +18,9 @@
  */
 package jcompute.opencl.bytedeco;
 
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.PointerPointer;
+import org.bytedeco.javacpp.SizeTPointer;
 import org.bytedeco.opencl._cl_program;
 import org.bytedeco.opencl.global.OpenCL;
 
@@ -43,17 +46,10 @@ public final class ClProgramBd extends ClProgram {
      * @implNote yet only supports contexts bound to only a single device
      */
     @Override
-    public ClProgram build()  {
-        var deviceId = ((ClDeviceBd)getContext().getSingleDeviceElseFail()).id();
-
-        // https://www.intel.com/content/www/us/en/docs/opencl-sdk/developer-reference-processor-graphics/2015-1/optimization-options.html
-        String options = null; // all enabled by default
-                //"-cl-opt-disable";
-                //"-cl-mad-enable";
-
+    public ClProgram build(final String buildOptions)  {
         /* Build Kernel Program */
         _Util.assertSuccess(
-                OpenCL.clBuildProgram(id(), 1, deviceId, options, null, null),
+                buildProgram(buildOptions),
                 ()->String.format("failed to build program %s%n"
                     + "build-log: %s",
                     this,
@@ -62,6 +58,25 @@ public final class ClProgramBd extends ClProgram {
         return this;
     }
 
+    @Override
+    public byte[] getBinary() {
+        try(var size = new SizeTPointer(1)) {
+            _Util.assertSuccess(
+                    OpenCL.clGetProgramInfo(id(), OpenCL.CL_PROGRAM_BINARY_SIZES, Long.BYTES, size, null),
+                    ()->String.format("failed to get binary size of program %s", this));
+            final byte[] binary = new byte[Math.toIntExact(size.get(0))];
+            if(binary.length==0) return binary;
+            try(var binaryPointer = new BytePointer(binary.length);
+                    var binaries = new PointerPointer<>(binaryPointer)) {
+                _Util.assertSuccess(
+                        OpenCL.clGetProgramInfo(id(), OpenCL.CL_PROGRAM_BINARIES, Long.BYTES, binaries, null),
+                        ()->String.format("failed to get binary of program %s", this));
+                binaryPointer.get(binary);
+            }
+            return binary;
+        }
+    }
+
     @Override
     protected int releaseProgramInternal() {
         return OpenCL.clReleaseProgram(id());
@@ -77,6 +92,15 @@ public final class ClProgramBd extends ClProgram {
 
     // -- HELPER
 
+    /**
+     * @return error code of {@code clBuildProgram}
+     */
+    int buildProgram(final String buildOptions) {
+        var deviceId = ((ClDeviceBd)getContext().getSingleDeviceElseFail()).id();
+        final String options = buildOptions.isEmpty() ? null : buildOptions;
+        return OpenCL.clBuildProgram(id(), 1, deviceId, options, null, null);
+    }
+
     private String getBuildProgramInfo(final int paramName) {
         var deviceId = ((ClDeviceBd)getContext().getSingleDeviceElseFail()).id();
         return _Util.readString((a, b, c)->OpenCL.clGetProgramBuildInfo(id(), deviceId, paramName, a, b, c));
@@ -22,6 +22,8 @@ import java.lang.foreign.MemorySegment;
 
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.FloatPointer;
+import org.bytedeco.javacpp.IntPointer;
 import org.bytedeco.javacpp.LongPointer;
 import org.bytedeco.javacpp.ShortPointer;
 
@@ -30,6 +32,8 @@ import lombok.experimental.UtilityClass;
 import jcompute.core.io.LongMarshaller;
 import jcompute.core.mem.ByteArray;
 import jcompute.core.mem.DoubleArray;
+import jcompute.core.mem.FloatArray;
+import jcompute.core.mem.IntArray;
 import jcompute.core.mem.LongArray;
 import jcompute.core.mem.ShortArray;
 
@@ -46,6 +50,14 @@ public class PointerUtils {
         return new ShortPointer(array.memorySegment().asByteBuffer().asShortBuffer());
     }
 
+    public IntPointer pointer(final IntArray array) {
+        return new IntPointer(array.memorySegment().asByteBuffer().asIntBuffer());
+    }
+
+    public FloatPointer pointer(final FloatArray array) {
+        return new FloatPointer(array.memorySegment().asByteBuffer().asFloatBuffer());
+    }
+
     public LongPointer pointer(final LongArray array) {
         return new LongPointer(array.memorySegment().asByteBuffer().asLongBuffer());
     }
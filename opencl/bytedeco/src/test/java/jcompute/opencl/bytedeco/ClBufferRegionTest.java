@@ -0,0 +1,125 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.bytedeco;
+
+import java.lang.foreign.Arena;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jcompute.core.mem.DoubleArray;
+import jcompute.core.mem.LongArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+
+class ClBufferRegionTest {
+
+    final String VEC_ADD_SRC = """
+            __kernel void vecAdd(__global double* a) {
+                int gid = get_global_id(0);
+                a[gid] += a[gid];
+            }
+            """;
+
+    @Test
+    void offsetTransfers() {
+        ClDevice.streamAll()
+            .forEach(this::offsetTransfers);
+    }
+
+    void offsetTransfers(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var queue = context.createQueue();
+            var mem = LongArray.of(arena, Shape.of(64));
+            mem.shape().forEach(gid->mem.put(gid, gid));
+            var memObj = context.createMemoryReadWrite(mem);
+            queue.enqueueWriteBuffer(memObj);
+
+            // update only [16, 32)
+            mem.shape().forEach(gid->mem.put(gid, -1L));
+            queue.enqueueWriteBuffer(memObj, 16, 16);
+
+            mem.shape().forEach(gid->mem.put(gid, 0L));
+            queue.enqueueReadBuffer(memObj);
+            mem.shape().forEach(gid->
+                assertEquals(gid>=16 && gid<32 ? -1L : gid, mem.get(gid)));
+
+            // read back only [40, 48)
+            mem.shape().forEach(gid->mem.put(gid, 0L));
+            queue.enqueueReadBuffer(memObj, 40, 8);
+            mem.shape().forEach(gid->
+                assertEquals(gid>=40 && gid<48 ? gid : 0L, mem.get(gid)));
+        }
+    }
+
+    @Test
+    void rectTransfers() {
+        ClDevice.streamAll()
+            .forEach(this::rectTransfers);
+    }
+
+    void rectTransfers(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var queue = context.createQueue();
+            var mem = LongArray.of(arena, Shape.of(8, 16));
+            mem.shape().forEach(gid->mem.put(gid, gid));
+            var memObj = context.createMemoryReadWrite(mem);
+            queue.enqueueWriteBuffer(memObj);
+
+            mem.shape().forEach(gid->mem.put(gid, 0L));
+            queue.enqueueReadBufferRect(memObj, new long[] {2, 4}, Shape.of(3, 5));
+            mem.shape().forEach((i, j)->{
+                final long gid = mem.shape().gid2d(i, j);
+                final boolean inRegion = i>=2 && i<5 && j>=4 && j<9;
+                assertEquals(inRegion ? gid : 0L, mem.get(gid));
+            });
+        }
+    }
+
+    @Test
+    void subBuffer() {
+        ClDevice.streamAll()
+            .forEach(this::subBuffer);
+    }
+
+    void subBuffer(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var queue = context.createQueue();
+            var kernel = context.createProgram(VEC_ADD_SRC).createKernel("vecAdd");
+            var mem = DoubleArray.of(arena, Shape.of(128));
+            mem.shape().forEach(gid->mem.put(gid, gid));
+            var memObj = context.createMemoryReadWrite(mem);
+            queue.enqueueWriteBuffer(memObj);
+
+            // second half only, 64 doubles keep the sub-buffer aligned
+            var upperHalf = memObj.subBuffer(64, Shape.of(64));
+            kernel.setArgs(upperHalf);
+            queue.enqueueNDRangeKernel(kernel, upperHalf.computeArray().shape());
+            queue.enqueueReadBuffer(upperHalf);
+
+            mem.shape().forEach(gid->
+                assertEquals(gid>=64 ? 2.*gid : gid, mem.get(gid), 1E-6));
+        }
+    }
+
+}
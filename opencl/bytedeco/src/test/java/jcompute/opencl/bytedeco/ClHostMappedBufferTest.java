@@ -0,0 +1,99 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.bytedeco;
+
+import java.lang.foreign.Arena;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jcompute.core.mem.DoubleArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClMem.MapMode;
+import jcompute.opencl.ClMem.MemMode;
+
+class ClHostMappedBufferTest {
+
+    final String VEC_ADD_SRC = """
+            __kernel void vecAdd(__global double* a) {
+                int gid = get_global_id(0);
+                a[gid] += a[gid];
+            }
+            """;
+
+    @Test
+    void useHostPtr() {
+        ClDevice.streamAll()
+            .forEach(this::useHostPtr);
+    }
+
+    void useHostPtr(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var queue = context.createQueue();
+            var kernel = context.createProgram(VEC_ADD_SRC).createKernel("vecAdd");
+            var mem = DoubleArray.of(arena, Shape.of(1024));
+            mem.shape().forEach(gid->mem.put(gid, gid));
+            // no explicit transfers
+            var memObj = context.createMemoryUseHostPtr(mem, MemMode.MEM_READ_WRITE);
+            kernel.setArgs(memObj);
+            queue.enqueueNDRangeKernel(kernel, mem.shape());
+
+            try(var mapping = queue.map(memObj, MapMode.MAP_READ)) {
+                var mapped = (DoubleArray) mapping.computeArray();
+                assertEquals(mem.shape(), mapped.shape());
+                mem.shape().forEach(gid->
+                    assertEquals(2.*gid, mapped.get(gid), 1E-6));
+            }
+        }
+    }
+
+    @Test
+    void allocHostPtr() {
+        ClDevice.streamAll()
+            .forEach(this::allocHostPtr);
+    }
+
+    void allocHostPtr(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var queue = context.createQueue();
+            var kernel = context.createProgram(VEC_ADD_SRC).createKernel("vecAdd");
+            var template = DoubleArray.of(arena, Shape.of(1024));
+            var memObj = context.createMemoryAllocHostPtr(template, MemMode.MEM_READ_WRITE);
+
+            try(var mapping = queue.map(memObj, MapMode.MAP_WRITE_INVALIDATE_REGION)) {
+                var mapped = (DoubleArray) mapping.computeArray();
+                mapped.shape().forEach(gid->mapped.put(gid, gid));
+            }
+            kernel.setArgs(memObj);
+            queue.enqueueNDRangeKernel(kernel, template.shape());
+
+            // map only [512, 1024)
+            try(var mapping = queue.map(memObj, MapMode.MAP_READ, 512, 512)) {
+                var mapped = (DoubleArray) mapping.computeArray();
+                mapped.shape().forEach(gid->
+                    assertEquals(2.*(512 + gid), mapped.get(gid), 1E-6));
+            }
+        }
+    }
+
+}
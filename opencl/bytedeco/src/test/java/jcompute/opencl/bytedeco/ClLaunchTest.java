@@ -0,0 +1,82 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.bytedeco;
+
+import java.lang.foreign.Arena;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jcompute.core.mem.IntArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+
+class ClLaunchTest {
+
+    final String ADD_SOURCE = """
+            __kernel void add(__global int* a, int delta) {
+                int gid = get_global_id(0);
+                a[gid] += delta;
+            }
+            """;
+
+    @Test
+    void preparedLaunch() {
+        ClDevice.streamAll()
+            .forEach(this::preparedLaunch);
+    }
+
+    void preparedLaunch(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var queue = context.createQueue();
+            var kernel = context.createProgram(ADD_SOURCE).createKernel("add");
+
+            var mem = IntArray.of(arena, Shape.of(64));
+            var memObj = context.createMemoryReadWrite(mem);
+            queue.enqueueWriteBuffer(memObj);
+
+            var launch = kernel.prepareLaunch(queue, mem.shape());
+            launch.setArg(0, memObj).setArg(1, 1);
+            assertEquals(2, launch.appliedArgCount());
+            for (int i = 0; i < 10; i++) {
+                launch.setArg(0, memObj).setArg(1, 1).enqueue();
+            }
+            // unchanged arguments are not set again
+            assertEquals(2, launch.appliedArgCount());
+
+            // only the changed argument is set, and only the first half is visited
+            launch.setArg(1, 100).globalSize(Shape.of(32));
+            assertEquals(3, launch.appliedArgCount());
+            try(var first = launch.enqueueNonBlocking();
+                    var second = launch.setArg(1, 1000).enqueueNonBlocking(first)) {
+                second.await();
+            }
+
+            queue.enqueueReadBuffer(memObj);
+            mem.shape().forEach(gid->
+                assertEquals(gid < 32 ? 1110 : 10, mem.get(gid)));
+
+            launch.invalidateArgs().setArg(1, 1000);
+            assertEquals(5, launch.appliedArgCount());
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.bytedeco;
+
+import java.lang.foreign.Arena;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.core.mem.IntArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClProfiler;
+import jcompute.opencl.ClProfiler.CommandKind;
+import jcompute.opencl.ClQueueProperties;
+
+class ClProfilerTest {
+
+    final String ADD_SOURCE = """
+            __kernel void add(__global int* a, int delta) {
+                int gid = get_global_id(0);
+                a[gid] += delta;
+            }
+            """;
+
+    @Test
+    void profiling() {
+        ClDevice.streamAll()
+            .forEach(this::profiling);
+    }
+
+    void profiling(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            assertThrows(IllegalStateException.class, ()->context.createQueue().profiler(new ClProfiler()));
+
+            var profiler = new ClProfiler();
+            var queue = context.createQueue(ClQueueProperties.defaults().withProfiling(true))
+                    .profiler(profiler);
+            var kernel = context.createProgram(ADD_SOURCE).createKernel("add");
+
+            var mem = IntArray.of(arena, Shape.of(1024));
+            var memObj = context.createMemoryReadWrite(mem);
+            queue.enqueueWriteBuffer(memObj);
+            kernel.setArgs(memObj, 1);
+            for (int i = 0; i < 10; i++) {
+                queue.enqueueNDRangeKernel(kernel, mem.shape());
+            }
+            var launch = kernel.prepareLaunch(queue, mem.shape());
+            launch.setArg(0, memObj).setArg(1, 1).enqueue();
+            queue.enqueueReadBuffer(memObj);
+            queue.finish();
+
+            // completion callbacks run asynchronously
+            awaitCommandCount(profiler, 13);
+            var kernelStats = profiler.kernelStats("add").orElseThrow();
+            assertEquals(11, kernelStats.count());
+            assertTrue(kernelStats.p50Nanos() <= kernelStats.p99Nanos());
+            assertTrue(kernelStats.p99Nanos() <= kernelStats.maxNanos());
+            var writeStats = profiler.transferStats(CommandKind.WRITE).orElseThrow();
+            assertEquals(1, writeStats.count());
+            assertEquals(mem.shape().totalSize() * 4, writeStats.bytes());
+            assertTrue(profiler.summary().contains("add"));
+
+            mem.shape().forEach(gid->
+                assertEquals(11, mem.get(gid)));
+        }
+    }
+
+    // -- HELPER
+
+    private static void awaitCommandCount(final ClProfiler profiler, final long count) {
+        final long deadline = System.nanoTime() + 10_000_000_000L;
+        while(profiler.stats().stream().mapToLong(ClProfiler.Stats::count).sum() < count) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for profiling callbacks");
+            Thread.onSpinWait();
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.bytedeco;
+
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import lombok.SneakyThrows;
+
+import jcompute.core.mem.DoubleArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClContext;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClKernel;
+import jcompute.opencl.ClProgramCache;
+
+class ClProgramCacheTest {
+
+    final String VEC_ADD_SRC = """
+            __kernel void vecAdd(__global double* a) {
+                int gid = get_global_id(0);
+                a[gid] += a[gid];
+            }
+            """;
+
+    @TempDir Path cacheDirectory;
+
+    @Test
+    void programBinaries() {
+        ClDevice.streamAll()
+            .forEach(this::programBinaries);
+    }
+
+    @SneakyThrows
+    void programBinaries(final ClDevice device) {
+        var programCache = ClProgramCache.ofDirectory(cacheDirectory);
+        var key = programCache.key(device, VEC_ADD_SRC, "");
+
+        // built from source, binary stored
+        try(var context = device.createContext()) {
+            context.programCache(programCache);
+            var program = context.createProgram(VEC_ADD_SRC);
+            assertSame(program, context.createProgram(VEC_ADD_SRC));
+            vecAdd(context, program.createKernel("vecAdd"));
+        }
+        assertTrue(programCache.load(key).isPresent());
+
+        // loaded from binary
+        try(var context = device.createContext()) {
+            context.programCache(programCache);
+            vecAdd(context, context.createProgram(VEC_ADD_SRC).createKernel("vecAdd"));
+        }
+
+        // rejected binary falls back to source and replaces the entry
+        Files.write(cacheDirectory.resolve(key + ".bin"), new byte[] {1, 2, 3});
+        try(var context = device.createContext()) {
+            context.programCache(programCache);
+            vecAdd(context, context.createProgram(VEC_ADD_SRC).createKernel("vecAdd"));
+        }
+        assertTrue(programCache.load(key).orElseThrow().length > 3);
+
+        // contexts created per invocation share binaries via the in-memory default
+        var inMemoryKey = ClProgramCache.inMemory().key(device, VEC_ADD_SRC, "");
+        ClProgramCache.inMemory().evict(inMemoryKey);
+        try(var context = device.createContext()) {
+            context.programCache(ClProgramCache.inMemory());
+            vecAdd(context, context.createProgram(VEC_ADD_SRC).createKernel("vecAdd"));
+        }
+        assertTrue(ClProgramCache.inMemory().load(inMemoryKey).isPresent());
+        try(var context = device.createContext()) {
+            context.programCache(ClProgramCache.inMemory());
+            vecAdd(context, context.createProgram(VEC_ADD_SRC).createKernel("vecAdd"));
+        }
+    }
+
+    /**
+     * Runs without a device.
+     */
+    @Test @SneakyThrows
+    void leastRecentlyUsedEviction() {
+        var programCache = ClProgramCache.ofDirectory(cacheDirectory, 2);
+        programCache.store("a", new byte[] {1});
+        programCache.store("b", new byte[] {2});
+        // make b the least recently used, regardless of file time resolution
+        final Instant now = Instant.now();
+        Files.setLastModifiedTime(cacheDirectory.resolve("a.bin"), FileTime.from(now.minus(Duration.ofHours(2))));
+        Files.setLastModifiedTime(cacheDirectory.resolve("b.bin"), FileTime.from(now.minus(Duration.ofHours(1))));
+        assertTrue(programCache.load("a").isPresent());
+
+        programCache.store("c", new byte[] {3});
+        assertTrue(programCache.load("a").isPresent());
+        assertFalse(programCache.load("b").isPresent());
+        assertTrue(programCache.load("c").isPresent());
+
+        // on disk is opt-in, unless configured the cache is in memory
+        if(System.getProperty(ClProgramCache.DIRECTORY_PROPERTY)==null) {
+            assertSame(ClProgramCache.inMemory(), ClProgramCache.getDefault());
+            assertFalse(ClProgramCache.getDefault().directory().isPresent());
+        }
+    }
+
+    /**
+     * Runs without a device.
+     */
+    @Test
+    void inMemoryEviction() {
+        var programCache = ClProgramCache.inMemory();
+        var prefix = getClass().getName() + "-";
+        programCache.store(prefix + "a", new byte[] {1});
+        for(int i = 0; i < ClProgramCache.IN_MEMORY_MAX_ENTRIES - 1; i++) {
+            programCache.store(prefix + i, new byte[] {2});
+        }
+        // marks a as recently used
+        assertTrue(programCache.load(prefix + "a").isPresent());
+        programCache.store(prefix + "b", new byte[] {3});
+        assertTrue(programCache.load(prefix + "a").isPresent());
+        assertFalse(programCache.load(prefix + 0).isPresent());
+        assertTrue(programCache.load(prefix + "b").isPresent());
+
+        programCache.evict(prefix + "a");
+        assertFalse(programCache.load(prefix + "a").isPresent());
+    }
+
+    void vecAdd(final ClContext context, final ClKernel kernel) {
+        try(var arena = Arena.ofConfined()) {
+            var queue = context.createQueue();
+            var mem = DoubleArray.of(arena, Shape.of(64));
+            mem.shape().forEach(gid->mem.put(gid, gid));
+            var memObj = context.createMemoryReadWrite(mem);
+            kernel.setArgs(memObj);
+            queue.enqueueWriteBuffer(memObj);
+            queue.enqueueNDRangeKernel(kernel, mem.shape());
+            queue.enqueueReadBuffer(memObj);
+            mem.shape().forEach(gid->
+                assertEquals(2.*gid, mem.get(gid), 1E-6));
+        }
+    }
+
+}
@@ -26,25 +26,28 @@ import org.jspecify.annotations.Nullable;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
-import jcompute.core.mem.ByteArray;
-import jcompute.core.mem.DoubleArray;
-import jcompute.core.mem.JComputeArray;
 import jcompute.core.mem.LongArray;
-import jcompute.core.mem.ShortArray;
 import jcompute.core.shape.Shape;
 import jcompute.opencl.ClCommandQueue;
 import jcompute.opencl.ClContext;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClEvent;
 import jcompute.opencl.ClKernel;
 import jcompute.opencl.ClMem;
+import jcompute.opencl.ClMem.MapMode;
+import jcompute.opencl.ClQueueProperties;
+import jcompute.opencl.ffm._CL.AddressArray;
 import jcompute.opencl.ffm._CL.AddressConstant;
+import jcompute.opencl.ffm._CL.UInt;
 import jcompute.opencl.ffm.gen.opencl_h;
 
 final class ClCommandQueueFFM extends ClCommandQueue {
 
     @Getter @Accessors(fluent = true) private final AddressConstant address;
 
-    ClCommandQueueFFM(final AddressConstant address, final ClContext context) {
-        super(context);
+    ClCommandQueueFFM(final AddressConstant address, final ClContext context, final ClDevice device,
+            final ClQueueProperties properties) {
+        super(context, device, properties);
         this.address = address;
     }
 
@@ -63,22 +66,94 @@ final class ClCommandQueueFFM extends ClCommandQueue {
         return opencl_h.clReleaseCommandQueue(address.memorySegment());
     }
     @Override
-    protected int enqueueWriteBuffer(final ClMem memObj, final boolean blocking) {
-        return opencl_h.clEnqueueWriteBuffer(address.memorySegment(), ((ClMemFFM)memObj).id(),
-                blocking ? opencl_h.CL_TRUE() : opencl_h.CL_FALSE(),
-                0,
-                memObj.size() * memObj.sizeOf(),
-                pointerOf(memObj.computeArray()),
-                0, MemorySegment.NULL, MemorySegment.NULL);
+    protected int enqueueWriteBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var arena = Arena.ofConfined()) {
+            final MemorySegment event = eventPointer(arena, event_ret);
+            final int ret = opencl_h.clEnqueueWriteBuffer(address.memorySegment(), ((ClMemFFM)memObj).id(),
+                    blocking ? opencl_h.CL_TRUE() : opencl_h.CL_FALSE(),
+                    offset,
+                    host.byteSize(),
+                    host,
+                    waitList.length, ClEventFFM.waitList(arena, waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
     }
     @Override
-    protected int enqueueReadBuffer(final ClMem memObj, final boolean blocking) {
-        return opencl_h.clEnqueueReadBuffer(address.memorySegment(), ((ClMemFFM)memObj).id(),
-                blocking ? opencl_h.CL_TRUE() : opencl_h.CL_FALSE(),
-                0,
-                memObj.size() * memObj.sizeOf(),
-                pointerOf(memObj.computeArray()),
-                0, MemorySegment.NULL, MemorySegment.NULL);
+    protected int enqueueReadBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var arena = Arena.ofConfined()) {
+            final MemorySegment event = eventPointer(arena, event_ret);
+            final int ret = opencl_h.clEnqueueReadBuffer(address.memorySegment(), ((ClMemFFM)memObj).id(),
+                    blocking ? opencl_h.CL_TRUE() : opencl_h.CL_FALSE(),
+                    offset,
+                    host.byteSize(),
+                    host,
+                    waitList.length, ClEventFFM.waitList(arena, waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
+    }
+
+    @Override
+    protected int enqueueWriteBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var arena = Arena.ofConfined()) {
+            final MemorySegment originPointer = LongArray.wrap(arena, origin).memorySegment();
+            final MemorySegment event = eventPointer(arena, event_ret);
+            final int ret = opencl_h.clEnqueueWriteBufferRect(address.memorySegment(), ((ClMemFFM)memObj).id(),
+                    blocking ? opencl_h.CL_TRUE() : opencl_h.CL_FALSE(),
+                    originPointer, originPointer, LongArray.wrap(arena, region).memorySegment(),
+                    rowPitch, slicePitch, rowPitch, slicePitch,
+                    hostPointer(memObj),
+                    waitList.length, ClEventFFM.waitList(arena, waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
+    }
+    @Override
+    protected int enqueueReadBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var arena = Arena.ofConfined()) {
+            final MemorySegment originPointer = LongArray.wrap(arena, origin).memorySegment();
+            final MemorySegment event = eventPointer(arena, event_ret);
+            final int ret = opencl_h.clEnqueueReadBufferRect(address.memorySegment(), ((ClMemFFM)memObj).id(),
+                    blocking ? opencl_h.CL_TRUE() : opencl_h.CL_FALSE(),
+                    originPointer, originPointer, LongArray.wrap(arena, region).memorySegment(),
+                    rowPitch, slicePitch, rowPitch, slicePitch,
+                    hostPointer(memObj),
+                    waitList.length, ClEventFFM.waitList(arena, waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
+    }
+
+    @Override
+    protected MemorySegment enqueueMapBuffer(final ClMem memObj, final boolean blocking, final MapMode mapMode,
+            final long offset, final long size, final ClEvent[] waitList, final ClEvent @Nullable [] event_ret,
+            final int[] errcode_ret) {
+        try(var arena = Arena.ofConfined()) {
+            final MemorySegment event = eventPointer(arena, event_ret);
+            final var ret_pointer = new UInt(arena);
+            final MemorySegment mapped = opencl_h.clEnqueueMapBuffer(address.memorySegment(), ((ClMemFFM)memObj).id(),
+                    blocking ? opencl_h.CL_TRUE() : opencl_h.CL_FALSE(),
+                    mapFlags(mapMode),
+                    offset,
+                    size,
+                    waitList.length, ClEventFFM.waitList(arena, waitList), event, ret_pointer.memorySegment());
+            errcode_ret[0] = collectEvent(ret_pointer.intValue(), event, event_ret);
+            return mapped.reinterpret(size);
+        }
+    }
+    @Override
+    protected int enqueueUnmapMemObject(final ClMem memObj, final MemorySegment mapped,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        try(var arena = Arena.ofConfined()) {
+            final MemorySegment event = eventPointer(arena, event_ret);
+            final int ret = opencl_h.clEnqueueUnmapMemObject(address.memorySegment(), ((ClMemFFM)memObj).id(),
+                    mapped,
+                    waitList.length, ClEventFFM.waitList(arena, waitList), event);
+            return collectEvent(ret, event, event_ret);
+        }
     }
 
     @Override
@@ -89,7 +164,8 @@ final class ClCommandQueueFFM extends ClCommandQueue {
     @Override
     protected int enqueueNDRangeKernel(
             final ClKernel kernel, final int work_dim,
-            final Shape globalSize, final @Nullable Shape localSize) {
+            final Shape globalSize, final @Nullable Shape localSize,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
 
     	try(var arena = Arena.ofConfined()) {
 	        final MemorySegment global_work_offset = MemorySegment.NULL;
@@ -99,23 +175,43 @@ final class ClCommandQueueFFM extends ClCommandQueue {
 	                ? LongArray.wrap(arena, localSize.sizeX(), localSize.sizeY(), localSize.sizeZ())
 	    	        		.memorySegment()
 	                : MemorySegment.NULL;
-	        return opencl_h.clEnqueueNDRangeKernel(address.memorySegment(), ((ClKernelFFM)kernel).id(), work_dim,
+	        final MemorySegment event = eventPointer(arena, event_ret);
+	        final int ret = opencl_h.clEnqueueNDRangeKernel(address.memorySegment(), ((ClKernelFFM)kernel).id(), work_dim,
 	        		global_work_offset, global_work_size, local_work_size,
-	                0, MemorySegment.NULL, MemorySegment.NULL);
+	                waitList.length, ClEventFFM.waitList(arena, waitList), event);
+	        return collectEvent(ret, event, event_ret);
     	}
     }
 
     // -- HELPER
 
-    private static MemorySegment pointerOf(final JComputeArray jcomputeArray) {
-        final MemorySegment pointer = switch (jcomputeArray) {
-            case ByteArray array -> array.memorySegment();
-            case ShortArray array -> array.memorySegment();
-            case LongArray array -> array.memorySegment();
-            case DoubleArray array -> array.memorySegment();
-            default -> throw new IllegalArgumentException("Unexpected value: " + jcomputeArray.getClass());
+    /**
+     * Native out-parameter for the event of an enqueued command, {@link MemorySegment#NULL} if not requested.
+     */
+    private static MemorySegment eventPointer(final Arena arena, final ClEvent @Nullable [] event_ret) {
+        return event_ret!=null
+                ? new AddressArray(arena, 1).memorySegment()
+                : MemorySegment.NULL;
+    }
+
+    int collectEvent(final int ret, final MemorySegment event, final ClEvent @Nullable [] event_ret) {
+        if(ret==0 && event_ret!=null) {
+            event_ret[0] = new ClEventFFM(new AddressArray(event, 1).pointerAt(0), this);
+        }
+        return ret;
+    }
+
+    private static long mapFlags(final MapMode mapMode) {
+        return switch (mapMode) {
+            case MAP_READ -> opencl_h.CL_MAP_READ();
+            case MAP_WRITE -> opencl_h.CL_MAP_WRITE();
+            case MAP_READ_WRITE -> opencl_h.CL_MAP_READ() | opencl_h.CL_MAP_WRITE();
+            case MAP_WRITE_INVALIDATE_REGION -> opencl_h.CL_MAP_WRITE_INVALIDATE_REGION();
         };
-        return pointer;
+    }
+
+    private static MemorySegment hostPointer(final ClMem memObj) {
+        return memObj.computeArray().memorySegment();
     }
 
 }
@@ -18,24 +18,32 @@
  */
 package jcompute.opencl.ffm;
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.util.List;
 
+import org.jspecify.annotations.Nullable;
+
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
+import jcompute.core.mem.ByteArray;
 import jcompute.core.mem.JComputeArray;
 import jcompute.core.mem.LongArray;
 import jcompute.opencl.ClCommandQueue;
 import jcompute.opencl.ClContext;
 import jcompute.opencl.ClDevice;
 import jcompute.opencl.ClMem;
+import jcompute.opencl.ClMem.HostPtrMode;
 import jcompute.opencl.ClMem.MemMode;
 import jcompute.opencl.ClProgram;
+import jcompute.opencl.ClQueueProperties;
 import jcompute.opencl.ffm._CL.AddressArray;
 import jcompute.opencl.ffm._CL.AddressConstant;
 import jcompute.opencl.ffm._CL.StringConstant;
+import jcompute.opencl.ffm._CL.UInt;
 import jcompute.opencl.ffm.gen.opencl_h;
+import jcompute.opencl.ffm.gen.opencl_h_1;
 
 final class ClContextFFM extends ClContext {
 
@@ -49,32 +57,26 @@ final class ClContextFFM extends ClContext {
     MemorySegment id() { return address.memorySegment(); }
 
     @Override
-    protected ClCommandQueue createQueueInternal() {
+    protected ClCommandQueue createQueueInternal(final ClDevice device, final ClQueueProperties properties) {
         final ClContextFFM context = this;
-        var deviceId = ((ClDeviceFFM)context.getSingleDeviceElseFail()).id();
+        var deviceId = ((ClDeviceFFM)device).id();
         var queueId = _CL.checkedApply2((arena, ret_pointer)->{
-
-				// OpenCL.CL_QUEUE_PROPERTIES,
-				// | OpenCL.CL_QUEUE_ON_DEVICE
-				// | OpenCL.CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE,
 				// zero terminated list of queue creation properties
-				// https://registry.khronos.org/OpenCL/sdk/3.0/docs/man/html/clCreateCommandQueueWithProperties.html
-		        //var properties = LongArray.wrap(arena, 0L);
-	        	var properties = LongArray.wrap(arena, 0L);
+	        	var propertyList = LongArray.wrap(arena, properties.toPropertyList());
 	        	return new AddressConstant(
 	    			opencl_h.clCreateCommandQueueWithProperties(
 		                context.id(),
 		                deviceId,
-		                properties.memorySegment(),
+		                propertyList.memorySegment(),
 		                ret_pointer.memorySegment()));
 	    	},
             ()->"failed to create command-queue for context %s".formatted(context));
 
-        return new ClCommandQueueFFM(queueId, context);
+        return new ClCommandQueueFFM(queueId, context, device, properties);
     }
 
     @Override
-    protected ClProgram createProgramInternal(final String programSource) {
+    protected ClProgram createProgramInternal(final String programSource, final String buildOptions) {
     	var programId = _CL.checkedApply2((arena, ret_pointer)->{
     			var src = new StringConstant(arena, programSource);
     			final AddressArray sources = AddressArray.wrap(arena, src.memorySegment());
@@ -83,17 +85,49 @@ final class ClContextFFM extends ClContext {
     					opencl_h.clCreateProgramWithSource(this.id(), 1, sources.memorySegment(), lengths.memorySegment(), ret_pointer.memorySegment()));
     		},
 			()-> "failed to create program for context %s".formatted(this));
-    	return new ClProgramFFM(programId, this).build();
+    	return new ClProgramFFM(programId, this).build(buildOptions);
+    }
+
+    @Override
+    protected @Nullable ClProgram createProgramFromBinaryInternal(final byte[] programBinary, final String buildOptions) {
+        var deviceId = ((ClDeviceFFM)getSingleDeviceElseFail()).id();
+        try(var arena = Arena.ofConfined()) {
+            var binaries = AddressArray.wrap(arena, ByteArray.wrap(arena, programBinary).memorySegment());
+            var lengths = LongArray.wrap(arena, (long)programBinary.length);
+            var binaryStatus = new UInt(arena);
+            var errcode = new UInt(arena);
+            var programId = opencl_h_1.clCreateProgramWithBinary(this.id(), 1,
+                    AddressArray.wrap(arena, deviceId).memorySegment(),
+                    lengths.memorySegment(), binaries.memorySegment(),
+                    binaryStatus.memorySegment(), errcode.memorySegment());
+            if(errcode.intValue()!=0
+                    || binaryStatus.intValue()!=0) return null;
+            var program = new ClProgramFFM(new AddressConstant(programId), this);
+            if(program.buildProgram(buildOptions)!=0) {
+                program.free();
+                return null;
+            }
+            return program;
+        }
     }
 
     @Override
-    protected ClMem createMemoryInternal(final JComputeArray computeArray, final MemMode memMode) {
+    protected ClMem createMemoryInternal(final JComputeArray computeArray, final MemMode memMode,
+            final HostPtrMode hostPtrMode) {
         var clMemMode = switch (memMode) {
             case MEM_READ_WRITE -> opencl_h.CL_MEM_READ_WRITE();
             case MEM_READ_ONLY -> opencl_h.CL_MEM_READ_ONLY();
             case MEM_WRITE_ONLY -> opencl_h.CL_MEM_WRITE_ONLY();
         };
-        return createMemoryInternal(computeArray, clMemMode);
+        var clHostPtrMode = switch (hostPtrMode) {
+            case NONE -> 0;
+            case USE_HOST_PTR -> opencl_h.CL_MEM_USE_HOST_PTR();
+            case ALLOC_HOST_PTR -> opencl_h.CL_MEM_ALLOC_HOST_PTR();
+        };
+        var hostPtr = hostPtrMode==HostPtrMode.USE_HOST_PTR
+                ? computeArray.memorySegment()
+                : MemorySegment.NULL;
+        return createMemoryInternal(computeArray, clMemMode | clHostPtrMode, hostPtr);
     }
 
     @Override
@@ -106,12 +140,13 @@ final class ClContextFFM extends ClContext {
     /**
      * Returns a new memory object for given context.
      */
-    private ClMemFFM createMemoryInternal(final JComputeArray computeArray, final long clMemMode) {
+    private ClMemFFM createMemoryInternal(final JComputeArray computeArray, final long clMemMode,
+            final MemorySegment hostPtr) {
         long size = computeArray.shape().totalSize();
         int sizeOf = computeArray.bytesPerElement();
 
         var memId = _CL.checkedApply(ret_pointer->
-        	new AddressConstant(opencl_h.clCreateBuffer(this.id(), clMemMode, size * sizeOf, MemorySegment.NULL, ret_pointer.memorySegment())),
+        	new AddressConstant(opencl_h.clCreateBuffer(this.id(), clMemMode, size * sizeOf, hostPtr, ret_pointer.memorySegment())),
             ()->"failed to create memory object (size=%d*%d) for context %s".formatted(sizeOf, size, this));
         return new ClMemFFM(memId, this, computeArray);
     }
@@ -73,6 +73,21 @@ final class ClDeviceFFM extends ClDevice {
         return getString(id(), opencl_h.CL_DEVICE_NAME());
     }
 
+    @Override
+    public String getDriverVersion() {
+        return getString(id(), opencl_h_1.CL_DRIVER_VERSION());
+    }
+
+    @Override
+    public String getExtensions() {
+        return getString(id(), opencl_h_1.CL_DEVICE_EXTENSIONS());
+    }
+
+    @Override
+    public long getQueueOnHostProperties() {
+        return getLong(id(), opencl_h_1.CL_DEVICE_QUEUE_ON_HOST_PROPERTIES());
+    }
+
     @Override
     public int getMaxComputeUnits() {
         return getInt(id(), opencl_h.CL_DEVICE_MAX_COMPUTE_UNITS());
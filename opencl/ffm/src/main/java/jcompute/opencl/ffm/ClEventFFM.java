@@ -0,0 +1,123 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.ffm;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import jcompute.opencl.ClCommandQueue;
+import jcompute.opencl.ClEvent;
+import jcompute.opencl.ffm._CL.AddressArray;
+import jcompute.opencl.ffm._CL.AddressConstant;
+import jcompute.opencl.ffm._CL.UInt;
+import jcompute.opencl.ffm._CL.ULong;
+import jcompute.opencl.ffm.gen.clSetEventCallback$pfn_notify;
+import jcompute.opencl.ffm.gen.opencl_h;
+
+final class ClEventFFM extends ClEvent {
+
+    /**
+     * Single upcall stub shared by all event callbacks, the callback id is passed as user data.
+     */
+    private static final MemorySegment CALLBACK_STUB = clSetEventCallback$pfn_notify.allocate(
+            (event, executionStatus, userData)->dispatchCallback(userData.address(), executionStatus),
+            Arena.global());
+
+    @Getter @Accessors(fluent = true) private final AddressConstant address;
+
+    ClEventFFM(final AddressConstant address, final ClCommandQueue queue) {
+        super(queue);
+        this.address = address;
+    }
+
+    MemorySegment id() { return address.memorySegment(); }
+
+    @Override
+    protected int waitForEvent() {
+        try(var arena = Arena.ofConfined()) {
+            return opencl_h.clWaitForEvents(1, AddressArray.wrap(arena, id()).memorySegment());
+        }
+    }
+
+    @Override
+    protected int queryExecutionStatus() {
+        try(var arena = Arena.ofConfined()) {
+            var status = new UInt(arena);
+            _CL.assertSuccess(
+                    opencl_h.clGetEventInfo(id(), opencl_h.CL_EVENT_COMMAND_EXECUTION_STATUS(),
+                            JAVA_INT.byteSize(), status.memorySegment(), MemorySegment.NULL),
+                    ()->"failed to query execution status of event %s".formatted(this));
+            return status.intValue();
+        }
+    }
+
+    @Override
+    protected int setCompletionCallback(final long callbackId) {
+        return opencl_h.clSetEventCallback(id(), opencl_h.CL_COMPLETE(), CALLBACK_STUB,
+                MemorySegment.ofAddress(callbackId));
+    }
+
+    @Override
+    protected int retainEvent() {
+        return opencl_h.clRetainEvent(id());
+    }
+
+    @Override
+    protected int releaseEvent() {
+        return opencl_h.clReleaseEvent(id());
+    }
+
+    @Override
+    protected long queryProfilingInfo(final int paramName) {
+        try(var arena = Arena.ofConfined()) {
+            var value = new ULong(arena);
+            _CL.assertSuccess(
+                    opencl_h.clGetEventProfilingInfo(id(), paramName,
+                            JAVA_LONG.byteSize(), value.memorySegment(), MemorySegment.NULL),
+                    ()->"failed to query profiling info of event %s".formatted(this));
+            return value.longValue();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "addr: " + id().address();
+    }
+
+    // -- HELPER
+
+    /**
+     * Native event wait list, {@link MemorySegment#NULL} if empty.
+     */
+    static MemorySegment waitList(final Arena arena, final ClEvent[] waitList) {
+        if(waitList.length==0) return MemorySegment.NULL;
+        var ids = new MemorySegment[waitList.length];
+        for (int i = 0; i < waitList.length; i++) {
+            ids[i] = ((ClEventFFM)waitList[i]).id();
+        }
+        return AddressArray.wrap(arena, ids).memorySegment();
+    }
+
+}
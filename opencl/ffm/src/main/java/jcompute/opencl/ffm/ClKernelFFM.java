@@ -29,10 +29,15 @@ import static java.lang.foreign.ValueLayout.JAVA_INT;
 import static java.lang.foreign.ValueLayout.JAVA_LONG;
 import static java.lang.foreign.ValueLayout.JAVA_SHORT;
 
+import org.jspecify.annotations.Nullable;
+
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClCommandQueue;
 import jcompute.opencl.ClKernel;
+import jcompute.opencl.ClLaunch;
 import jcompute.opencl.ClMem;
 import jcompute.opencl.ClProgram;
 import jcompute.opencl.ffm._CL.AddressConstant;
@@ -120,6 +125,12 @@ final class ClKernelFFM extends ClKernel {
         }
     }
 
+    @Override
+    protected ClLaunch createLaunch(final ClCommandQueue queue, final Shape globalSize,
+            final @Nullable Shape localSize) {
+        return new ClLaunchFFM(this, (ClCommandQueueFFM)queue, globalSize, localSize);
+    }
+
     /* Set OpenCL kernel argument */
     private ClKernel setArg(final ClKernelFFM kernel, final int argIndex, final long sizeOf, final MemorySegment arg_value) {
         int ret = opencl_h.clSetKernelArg(kernel.id(), argIndex, sizeOf, arg_value);
@@ -0,0 +1,149 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.ffm;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+
+import org.jspecify.annotations.Nullable;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClEvent;
+import jcompute.opencl.ClLaunch;
+import jcompute.opencl.ClMem;
+import jcompute.opencl.ffm.gen.opencl_h;
+
+/**
+ * Launch with native memory for argument values, work sizes and the event out-parameter allocated once,
+ * rather than per call.
+ * <p>
+ * A single scratch slot suffices for argument values, as {@code clSetKernelArg} copies the value before it returns.
+ */
+final class ClLaunchFFM extends ClLaunch {
+
+    private final Arena arena = Arena.ofAuto();
+    private final MemorySegment argScratch = arena.allocate(JAVA_LONG);
+    private final MemorySegment globalWorkSize = arena.allocate(MemoryLayout.sequenceLayout(3, JAVA_LONG));
+    private final MemorySegment localWorkSize = arena.allocate(MemoryLayout.sequenceLayout(3, JAVA_LONG));
+    private final MemorySegment eventPointer = arena.allocate(ADDRESS);
+    /// grown on demand
+    private MemorySegment waitListScratch = MemorySegment.NULL;
+
+    ClLaunchFFM(final ClKernelFFM kernel, final ClCommandQueueFFM queue,
+            final Shape globalSize, final @Nullable Shape localSize) {
+        super(kernel, queue, globalSize, localSize);
+        onWorkSizeChanged();
+    }
+
+    @Override
+    protected void applyArg(final int argIndex, final ClMem memObj) {
+        argScratch.set(ADDRESS, 0, ((ClMemFFM)memObj).id());
+        setKernelArg(argIndex, ADDRESS.byteSize());
+    }
+    @Override
+    protected void applyArg(final int argIndex, final byte value) {
+        argScratch.set(JAVA_BYTE, 0, value);
+        setKernelArg(argIndex, 1L);
+    }
+    @Override
+    protected void applyArg(final int argIndex, final short value) {
+        argScratch.set(JAVA_SHORT, 0, value);
+        setKernelArg(argIndex, 2L);
+    }
+    @Override
+    protected void applyArg(final int argIndex, final int value) {
+        argScratch.set(JAVA_INT, 0, value);
+        setKernelArg(argIndex, 4L);
+    }
+    @Override
+    protected void applyArg(final int argIndex, final long value) {
+        argScratch.set(JAVA_LONG, 0, value);
+        setKernelArg(argIndex, 8L);
+    }
+    @Override
+    protected void applyArg(final int argIndex, final float value) {
+        argScratch.set(JAVA_FLOAT, 0, value);
+        setKernelArg(argIndex, 4L);
+    }
+    @Override
+    protected void applyArg(final int argIndex, final double value) {
+        argScratch.set(JAVA_DOUBLE, 0, value);
+        setKernelArg(argIndex, 8L);
+    }
+
+    @Override
+    protected void onWorkSizeChanged() {
+        writeSizes(globalWorkSize, globalSize());
+        if(localSize()!=null) {
+            writeSizes(localWorkSize, localSize());
+        }
+    }
+
+    @Override
+    protected int enqueueKernel(final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final var queue = (ClCommandQueueFFM)queue();
+        final MemorySegment event = event_ret!=null
+                ? eventPointer
+                : MemorySegment.NULL;
+        final int ret = opencl_h.clEnqueueNDRangeKernel(queue.id(), ((ClKernelFFM)kernel()).id(),
+                globalSize().dimensionCount(),
+                MemorySegment.NULL, globalWorkSize, localSize()!=null ? localWorkSize : MemorySegment.NULL,
+                waitList.length, waitList(waitList), event);
+        return queue.collectEvent(ret, event, event_ret);
+    }
+
+    // -- HELPER
+
+    private void setKernelArg(final int argIndex, final long sizeOf) {
+        final int ret = opencl_h.clSetKernelArg(((ClKernelFFM)kernel()).id(), argIndex, sizeOf, argScratch);
+        _CL.assertSuccess(ret, ()->
+            String.format("failed to set kernel argument for kernel %s", kernel().name()));
+    }
+
+    private static void writeSizes(final MemorySegment workSize, final Shape shape) {
+        workSize.setAtIndex(JAVA_LONG, 0, shape.sizeX());
+        workSize.setAtIndex(JAVA_LONG, 1, shape.sizeY());
+        workSize.setAtIndex(JAVA_LONG, 2, shape.sizeZ());
+    }
+
+    /**
+     * Native event wait list, {@link MemorySegment#NULL} if empty.
+     */
+    private MemorySegment waitList(final ClEvent[] waitList) {
+        if(waitList.length==0) return MemorySegment.NULL;
+        if(waitListScratch.byteSize() < waitList.length * ADDRESS.byteSize()) {
+            waitListScratch = arena.allocate(MemoryLayout.sequenceLayout(
+                    Math.max(4, Integer.highestOneBit(waitList.length) << 1), ADDRESS));
+        }
+        for (int i = 0; i < waitList.length; i++) {
+            waitListScratch.setAtIndex(ADDRESS, i, ((ClEventFFM)waitList[i]).id());
+        }
+        return waitListScratch;
+    }
+
+}
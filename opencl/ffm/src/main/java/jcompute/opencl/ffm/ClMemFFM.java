@@ -24,6 +24,7 @@ import lombok.Getter;
 import lombok.experimental.Accessors;
 
 import jcompute.core.mem.JComputeArray;
+import jcompute.core.mem.LongArray;
 import jcompute.opencl.ClContext;
 import jcompute.opencl.ClMem;
 import jcompute.opencl.ffm._CL.AddressConstant;
@@ -48,4 +49,14 @@ final class ClMemFFM extends ClMem {
         return opencl_h_1.clReleaseMemObject(id());
     }
 
+    @Override
+    protected ClMem createSubBufferInternal(final long origin, final long size, final JComputeArray computeArray) {
+        var subId = _CL.checkedApply2((arena, ret_pointer)->
+                new AddressConstant(opencl_h_1.clCreateSubBuffer(id(), 0L, opencl_h_1.CL_BUFFER_CREATE_TYPE_REGION(),
+                        LongArray.wrap(arena, origin, size).memorySegment(), // cl_buffer_region
+                        ret_pointer.memorySegment())),
+                ()->"failed to create sub-buffer (origin=%d, size=%d) of memory object %s".formatted(origin, size, this));
+        return new ClMemFFM(subId, context(), computeArray);
+    }
+
 }
@@ -20,6 +20,7 @@ package jcompute.opencl.ffm;
 
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -31,6 +32,7 @@ import jcompute.opencl.ffm._CL.AddressArray;
 import jcompute.opencl.ffm._CL.AddressConstant;
 import jcompute.opencl.ffm._CL.StringConstant;
 import jcompute.opencl.ffm.gen.opencl_h;
+import jcompute.opencl.ffm.gen.opencl_h_1;
 
 final class ClProgramFFM extends ClProgram {
 
@@ -49,30 +51,33 @@ final class ClProgramFFM extends ClProgram {
      * @implNote yet only supports contexts bound to only a single device
      */
     @Override
-    public ClProgram build()  {
-
-    	try(var arena = Arena.ofConfined()) {
-    		var deviceIds = getContext().devices().stream()
-    	    		.map(ClDeviceFFM.class::cast)
-    	    		.map(ClDeviceFFM::id)
-    	    		.toArray(MemorySegment[]::new);
-
-    		var devices = AddressArray.wrap(arena, deviceIds);
-
-            // https://www.intel.com/content/www/us/en/docs/opencl-sdk/developer-reference-processor-graphics/2015-1/optimization-options.html
-            MemorySegment options = MemorySegment.NULL; // all enabled by default
-                    //"-cl-opt-disable";
-                    //"-cl-mad-enable";
+    public ClProgram build(final String buildOptions)  {
+        /* Build Kernel Program */
+        _CL.assertSuccess(buildProgram(buildOptions),
+                ()->"failed to build program %s%nbuild-log: %s".formatted(
+                    this,
+                    getBuildProgramInfo(opencl_h.CL_PROGRAM_BUILD_LOG())
+                    ));
+        return this;
+    }
 
-            /* Build Kernel Program */
+    @Override
+    public byte[] getBinary() {
+        try(var ffm = new FFMHelper()) {
+            var size = ffm.ulong();
             _CL.assertSuccess(
-            		opencl_h.clBuildProgram(id(), 1, devices.memorySegment(), options, MemorySegment.NULL, MemorySegment.NULL),
-                    ()->"failed to build program %s%nbuild-log: %s".formatted(
-                        this,
-                        getBuildProgramInfo(opencl_h.CL_PROGRAM_BUILD_LOG())
-                        ));
-    	}
-        return this;
+                    opencl_h.clGetProgramInfo(id(), opencl_h_1.CL_PROGRAM_BINARY_SIZES(), ValueLayout.JAVA_LONG.byteSize(),
+                            size.memorySegment(), MemorySegment.NULL),
+                    ()->"failed to get binary size of program %s".formatted(this));
+            if(size.longValue()==0L) return new byte[0];
+            var binary = ffm.byteArray(size.longValue());
+            var binaries = AddressArray.wrap(ffm.arena(), binary.memorySegment());
+            _CL.assertSuccess(
+                    opencl_h.clGetProgramInfo(id(), opencl_h_1.CL_PROGRAM_BINARIES(), ValueLayout.ADDRESS.byteSize(),
+                            binaries.memorySegment(), MemorySegment.NULL),
+                    ()->"failed to get binary of program %s".formatted(this));
+            return binary.toArray();
+        }
     }
 
     @Override
@@ -93,6 +98,26 @@ final class ClProgramFFM extends ClProgram {
 
     // -- HELPER
 
+    /**
+     * @return error code of {@code clBuildProgram}
+     */
+    int buildProgram(final String buildOptions) {
+        try(var arena = Arena.ofConfined()) {
+            var deviceIds = getContext().devices().stream()
+                    .map(ClDeviceFFM.class::cast)
+                    .map(ClDeviceFFM::id)
+                    .toArray(MemorySegment[]::new);
+
+            var devices = AddressArray.wrap(arena, deviceIds);
+
+            var options = buildOptions.isEmpty()
+                    ? MemorySegment.NULL
+                    : new StringConstant(arena, buildOptions).memorySegment();
+
+            return opencl_h.clBuildProgram(id(), 1, devices.memorySegment(), options, MemorySegment.NULL, MemorySegment.NULL);
+        }
+    }
+
     private String getBuildProgramInfo(final int paramName) {
         var deviceId = ((ClDeviceFFM)getContext().getSingleDeviceElseFail()).id();
         try(var ffm = new FFMHelper()) {
@@ -0,0 +1,176 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.ffm;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.core.mem.DoubleArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClEvent;
+import jcompute.opencl.ClMem;
+
+class ClEventTest {
+
+    static final int MEM_SIZE = 128;
+    final String VEC_ADD_SRC = """
+            __kernel void vecAdd(__global double* a) {
+                int gid = get_global_id(0);
+                a[gid] += a[gid];
+            }
+            """;
+
+    /**
+     * Chains write, kernel and read by wait lists, without blocking in between,
+     * runs on any device (including CPU runtimes like POCL).
+     */
+    @Test
+    void nonBlockingChain() {
+        ClDevice.streamAll()
+            .forEach(this::nonBlockingChain);
+    }
+
+    void nonBlockingChain(final ClDevice device) {
+
+        System.err.printf("nonBlockingChain(%s)%n", device);
+
+        try(var arena = Arena.ofShared()) {
+            var mem = DoubleArray.of(arena, Shape.of(MEM_SIZE));
+            mem.shape().forEach(gid->mem.put(gid, gid));
+
+            try(var context = device.createContext()) {
+                var queue = context.createQueue();
+                var kernel = context.createProgram(VEC_ADD_SRC).createKernel("vecAdd");
+                var memObj = context.createMemoryReadWrite(mem);
+                kernel.setArgs(memObj);
+
+                var written = queue.enqueueWriteBufferNonBlocking(memObj);
+                var launched1 = queue.enqueueNDRangeKernelNonBlocking(kernel, mem.shape(), written);
+                var launched2 = queue.enqueueNDRangeKernelNonBlocking(kernel, mem.shape(), launched1);
+                var read = queue.enqueueReadBufferNonBlocking(memObj, launched2);
+
+                var completed = new CountDownLatch(1);
+                var executionStatus = new AtomicInteger(Integer.MIN_VALUE);
+                read.onComplete(status->{
+                    executionStatus.set(status);
+                    completed.countDown();
+                });
+                queue.flush();
+
+                read.await();
+                assertTrue(read.isDone());
+                assertTrue(completed.await(10, TimeUnit.SECONDS));
+                assertEquals(ClEvent.CL_COMPLETE, executionStatus.get());
+
+                ClEvent.freeAll(written, launched1, launched2, read);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+
+            ClKernelTest.validate(mem);
+        }
+    }
+
+    /**
+     * Runs several write, launch, read jobs through the CompletableFuture facade, without blocking per command.
+     */
+    @Test
+    void completableFutures() {
+        ClDevice.streamAll()
+            .forEach(this::completableFutures);
+    }
+
+    void completableFutures(final ClDevice device) {
+
+        System.err.printf("completableFutures(%s)%n", device);
+
+        final int jobCount = 16;
+        try(var arena = Arena.ofShared()) {
+            var mems = new ArrayList<DoubleArray>();
+            try(var context = device.createContext()) {
+                var queue = context.createQueue();
+                var program = context.createProgram(VEC_ADD_SRC);
+
+                var jobs = new ArrayList<CompletableFuture<ClMem>>();
+                for (int i = 0; i < jobCount; i++) {
+                    var mem = DoubleArray.of(arena, Shape.of(MEM_SIZE));
+                    mem.shape().forEach(gid->mem.put(gid, gid));
+                    var memObj = context.createMemoryReadWrite(mem);
+                    var kernel = program.createKernel("vecAdd");
+                    kernel.setArgs(memObj);
+
+                    mems.add(mem);
+                    // in-order queue: the commands are executed in order of their enqueuing
+                    queue.writeAsync(memObj);
+                    queue.launchAsync(kernel, mem.shape());
+                    queue.launchAsync(kernel, mem.shape());
+                    jobs.add(queue.readAsync(memObj));
+                }
+
+                CompletableFuture.allOf(jobs.toArray(CompletableFuture[]::new))
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+            }
+            mems.forEach(ClKernelTest::validate);
+        }
+    }
+
+
+    /**
+     * Futures complete, even if the completion executor rejects the completion (e.g. after shutdown).
+     */
+    @Test
+    void rejectingCompletionExecutor() {
+        ClDevice.streamAll()
+            .forEach(this::rejectingCompletionExecutor);
+    }
+
+    void rejectingCompletionExecutor(final ClDevice device) {
+
+        System.err.printf("rejectingCompletionExecutor(%s)%n", device);
+
+        try(var arena = Arena.ofShared()) {
+            var mem = DoubleArray.of(arena, Shape.of(MEM_SIZE));
+            mem.shape().forEach(gid->mem.put(gid, gid));
+            try(var context = device.createContext()) {
+                var queue = context.createQueue()
+                    .completionExecutor(command->{ throw new RejectedExecutionException(); });
+                var memObj = context.createMemoryReadWrite(mem);
+                queue.writeAsync(memObj);
+                queue.readAsync(memObj)
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+            }
+            mem.shape().forEach(gid->
+                assertEquals(gid, mem.get(gid), 1E-6));
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.ffm;
+
+import java.lang.foreign.Arena;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.core.mem.IntArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClEvent;
+import jcompute.opencl.ClQueueProperties;
+import jcompute.opencl.ClQueueProperties.Priority;
+
+class ClQueuePropertiesTest {
+
+    final String ADD_SOURCE = """
+            __kernel void add(__global int* a, int delta) {
+                int gid = get_global_id(0);
+                a[gid] += delta;
+            }
+            """;
+
+    @Test
+    void propertyList() {
+        assertArrayEquals(new long[] {0L}, ClQueueProperties.defaults().toPropertyList());
+        assertArrayEquals(new long[] {0x1093, 0b11, 0L}, ClQueueProperties.defaults()
+                .withOutOfOrder(true)
+                .withProfiling(true)
+                .toPropertyList());
+        assertArrayEquals(new long[] {0x1093, 0b10, 0x1096, 1, 0L}, ClQueueProperties.defaults()
+                .withProfiling(true)
+                .withPriority(Priority.HIGH)
+                .toPropertyList());
+    }
+
+    @Test
+    void multipleQueues() {
+        ClDevice.streamAll()
+            .forEach(this::multipleQueues);
+    }
+
+    void multipleQueues(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var requested = ClQueueProperties.defaults()
+                    .withOutOfOrder(true)
+                    .withProfiling(true)
+                    .withPriority(Priority.HIGH);
+            var copyQueue = context.createQueue(requested);
+            var computeQueue = context.createQueue(requested);
+            assertNotSame(copyQueue, computeQueue);
+            assertSame(device, computeQueue.getDevice());
+            assertTrue(computeQueue.getProperties().profiling());
+            assertEquals(device.supportsOutOfOrderExecution(), computeQueue.getProperties().outOfOrder());
+            assertEquals(device.supportsPriorityHints() ? Priority.HIGH : Priority.DEFAULT,
+                    computeQueue.getProperties().priority());
+
+            var kernel = context.createProgram(ADD_SOURCE).createKernel("add");
+            var mem = IntArray.of(arena, Shape.of(64));
+            var memObj = context.createMemoryReadWrite(mem);
+
+            // ordered by events only, as queues may execute out-of-order and concurrently
+            try(var written = copyQueue.enqueueWriteBufferNonBlocking(memObj);
+                    var first = computeQueue.enqueueNDRangeKernelNonBlocking(kernel.setArg(0, memObj).setArg(1, 1),
+                            mem.shape(), written);
+                    var second = computeQueue.enqueueNDRangeKernelNonBlocking(kernel.setArg(1, 10),
+                            mem.shape(), first);
+                    var read = copyQueue.enqueueReadBufferNonBlocking(memObj, second)) {
+                ClEvent.awaitAll(read);
+            }
+            mem.shape().forEach(gid->
+                assertEquals(11, mem.get(gid)));
+        }
+    }
+
+}
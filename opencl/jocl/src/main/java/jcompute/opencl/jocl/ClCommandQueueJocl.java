@@ -18,30 +18,35 @@
  */
 package jcompute.opencl.jocl;
 
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
 import org.jocl.CL;
 import org.jocl.Pointer;
 import org.jocl.cl_command_queue;
+import org.jocl.cl_event;
+import org.jspecify.annotations.Nullable;
 
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
-import jcompute.core.mem.ByteArray;
-import jcompute.core.mem.DoubleArray;
-import jcompute.core.mem.JComputeArray;
-import jcompute.core.mem.LongArray;
-import jcompute.core.mem.ShortArray;
 import jcompute.core.shape.Shape;
 import jcompute.opencl.ClCommandQueue;
 import jcompute.opencl.ClContext;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClEvent;
 import jcompute.opencl.ClKernel;
 import jcompute.opencl.ClMem;
+import jcompute.opencl.ClMem.MapMode;
+import jcompute.opencl.ClQueueProperties;
 
 public final class ClCommandQueueJocl extends ClCommandQueue {
 
     @Getter @Accessors(fluent = true) private final cl_command_queue id;
 
-    ClCommandQueueJocl(final cl_command_queue id, final ClContext context) {
-        super(context);
+    ClCommandQueueJocl(final cl_command_queue id, final ClContext context, final ClDevice device,
+            final ClQueueProperties properties) {
+        super(context, device, properties);
         this.id = id;
     }
 
@@ -58,24 +63,87 @@ public final class ClCommandQueueJocl extends ClCommandQueue {
         return CL.clReleaseCommandQueue(id());
     }
     @Override
-    protected int enqueueWriteBuffer(final ClMem memObj, final boolean blocking) {
-        return CL.clEnqueueWriteBuffer(id(), ((ClMemJocl)memObj).id(),
+    protected int enqueueWriteBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final cl_event event = event_ret!=null ? new cl_event() : null;
+        final int ret = CL.clEnqueueWriteBuffer(id(), ((ClMemJocl)memObj).id(),
+                blocking,
+                offset,
+                host.byteSize(),
+                Pointer.to(host.asByteBuffer()),
+                waitList.length,
+                ClEventJocl.waitList(waitList), event);
+        return collectEvent(ret, event, event_ret);
+    }
+    @Override
+    protected int enqueueReadBuffer(final ClMem memObj, final boolean blocking, final long offset, final MemorySegment host,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final cl_event event = event_ret!=null ? new cl_event() : null;
+        final int ret = CL.clEnqueueReadBuffer(id(), ((ClMemJocl)memObj).id(),
+                blocking,
+                offset,
+                host.byteSize(),
+                Pointer.to(host.asByteBuffer()),
+                waitList.length,
+                ClEventJocl.waitList(waitList), event);
+        return collectEvent(ret, event, event_ret);
+    }
+
+    @Override
+    protected int enqueueWriteBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final cl_event event = event_ret!=null ? new cl_event() : null;
+        final int ret = CL.clEnqueueWriteBufferRect(id(), ((ClMemJocl)memObj).id(),
+                blocking,
+                origin, origin, region,
+                rowPitch, slicePitch, rowPitch, slicePitch,
+                hostPointer(memObj),
+                waitList.length,
+                ClEventJocl.waitList(waitList), event);
+        return collectEvent(ret, event, event_ret);
+    }
+    @Override
+    protected int enqueueReadBufferRect(final ClMem memObj, final boolean blocking,
+            final long[] origin, final long[] region, final long rowPitch, final long slicePitch,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final cl_event event = event_ret!=null ? new cl_event() : null;
+        final int ret = CL.clEnqueueReadBufferRect(id(), ((ClMemJocl)memObj).id(),
                 blocking,
-                0,
-                memObj.size() * memObj.sizeOf(),
-                pointerOf(memObj.computeArray()),
-                0,
-                null, null);
+                origin, origin, region,
+                rowPitch, slicePitch, rowPitch, slicePitch,
+                hostPointer(memObj),
+                waitList.length,
+                ClEventJocl.waitList(waitList), event);
+        return collectEvent(ret, event, event_ret);
     }
+
     @Override
-    protected int enqueueReadBuffer(final ClMem memObj, final boolean blocking) {
-        return CL.clEnqueueReadBuffer(id(), ((ClMemJocl)memObj).id(),
+    protected MemorySegment enqueueMapBuffer(final ClMem memObj, final boolean blocking, final MapMode mapMode,
+            final long offset, final long size, final ClEvent[] waitList, final ClEvent @Nullable [] event_ret,
+            final int[] errcode_ret) {
+        final cl_event event = event_ret!=null ? new cl_event() : null;
+        final ByteBuffer mapped = CL.clEnqueueMapBuffer(id(), ((ClMemJocl)memObj).id(),
                 blocking,
-                0,
-                memObj.size() * memObj.sizeOf(),
-                pointerOf(memObj.computeArray()),
-                0,
-                null, null);
+                mapFlags(mapMode),
+                offset,
+                size,
+                waitList.length,
+                ClEventJocl.waitList(waitList), event, errcode_ret);
+        errcode_ret[0] = collectEvent(errcode_ret[0], event, event_ret);
+        return mapped!=null
+                ? MemorySegment.ofBuffer(mapped)
+                : MemorySegment.NULL;
+    }
+    @Override
+    protected int enqueueUnmapMemObject(final ClMem memObj, final MemorySegment mapped,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
+        final cl_event event = event_ret!=null ? new cl_event() : null;
+        final int ret = CL.clEnqueueUnmapMemObject(id(), ((ClMemJocl)memObj).id(),
+                mapped.asByteBuffer(),
+                waitList.length,
+                ClEventJocl.waitList(waitList), event);
+        return collectEvent(ret, event, event_ret);
     }
 
     @Override
@@ -86,29 +154,41 @@ public final class ClCommandQueueJocl extends ClCommandQueue {
     @Override
     protected int enqueueNDRangeKernel(
             final ClKernel kernel, final int work_dim,
-            final Shape globalSize, final Shape localSize) {
+            final Shape globalSize, final Shape localSize,
+            final ClEvent[] waitList, final ClEvent @Nullable [] event_ret) {
 
         final long[] global_work_size = new long[] {globalSize.sizeX(), globalSize.sizeY(), globalSize.sizeZ()};
         final long[] local_work_size = localSize!=null
                 ? new long[] {localSize.sizeX(), localSize.sizeY(), localSize.sizeZ()}
                 : null;
 
-        return CL.clEnqueueNDRangeKernel(id(), ((ClKernelJocl)kernel).id(), work_dim, null,
-                global_work_size, local_work_size, 0,
-                null, null);
+        final cl_event event = event_ret!=null ? new cl_event() : null;
+        final int ret = CL.clEnqueueNDRangeKernel(id(), ((ClKernelJocl)kernel).id(), work_dim, null,
+                global_work_size, local_work_size, waitList.length,
+                ClEventJocl.waitList(waitList), event);
+        return collectEvent(ret, event, event_ret);
     }
 
     // -- HELPER
 
-    private static Pointer pointerOf(final JComputeArray jcomputeArray) {
-        final Pointer pointer = switch (jcomputeArray) {
-            case ByteArray array -> Pointer.to(array.toBuffer());
-            case ShortArray array -> Pointer.to(array.toBuffer());
-            case LongArray array -> Pointer.to(array.toBuffer());
-            case DoubleArray array -> Pointer.to(array.toBuffer());
-            default -> throw new IllegalArgumentException("Unexpected value: " + jcomputeArray.getClass());
+    private int collectEvent(final int ret, final cl_event event, final ClEvent @Nullable [] event_ret) {
+        if(ret==CL.CL_SUCCESS && event_ret!=null) {
+            event_ret[0] = new ClEventJocl(event, this);
+        }
+        return ret;
+    }
+
+    private static long mapFlags(final MapMode mapMode) {
+        return switch (mapMode) {
+            case MAP_READ -> CL.CL_MAP_READ;
+            case MAP_WRITE -> CL.CL_MAP_WRITE;
+            case MAP_READ_WRITE -> CL.CL_MAP_READ | CL.CL_MAP_WRITE;
+            case MAP_WRITE_INVALIDATE_REGION -> CL.CL_MAP_WRITE_INVALIDATE_REGION;
         };
-        return pointer;
+    }
+
+    private static Pointer hostPointer(final ClMem memObj) {
+        return Pointer.to(memObj.computeArray().memorySegment().asByteBuffer());
     }
 
 }
@@ -21,8 +21,11 @@ package jcompute.opencl.jocl;
 import java.util.List;
 
 import org.jocl.CL;
+import org.jocl.Pointer;
 import org.jocl.cl_context;
+import org.jocl.cl_device_id;
 import org.jocl.cl_queue_properties;
+import org.jspecify.annotations.Nullable;
 
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -32,8 +35,10 @@ import jcompute.opencl.ClCommandQueue;
 import jcompute.opencl.ClContext;
 import jcompute.opencl.ClDevice;
 import jcompute.opencl.ClMem;
+import jcompute.opencl.ClMem.HostPtrMode;
 import jcompute.opencl.ClMem.MemMode;
 import jcompute.opencl.ClProgram;
+import jcompute.opencl.ClQueueProperties;
 
 public final class ClContextJocl extends ClContext {
 
@@ -45,37 +50,68 @@ public final class ClContextJocl extends ClContext {
     }
 
     @Override
-    protected ClCommandQueue createQueueInternal() {
+    protected ClCommandQueue createQueueInternal(final ClDevice device, final ClQueueProperties properties) {
         final ClContextJocl context = this;
-        var deviceId = ((ClDeviceJocl)context.getSingleDeviceElseFail()).id();
+        var deviceId = ((ClDeviceJocl)device).id();
+        // zero terminated list of queue creation properties
+        var propertyList = new cl_queue_properties();
+        final long[] keyValuePairs = properties.toPropertyList();
+        for (int i = 0; i + 1 < keyValuePairs.length; i += 2) {
+            propertyList.addProperty(keyValuePairs[i], keyValuePairs[i + 1]);
+        }
         var queueId = _Util.checkedApply(ret_pointer->
             CL.clCreateCommandQueueWithProperties(
                 context.id(),
                 deviceId,
-                // zero terminated list of queue creation properties
-                // https://registry.khronos.org/OpenCL/sdk/3.0/docs/man/html/clCreateCommandQueueWithProperties.html
-                new cl_queue_properties(),
+                propertyList,
                 ret_pointer),
             ()->String.format("failed to create command-queue for context %s", context));
-        return new ClCommandQueueJocl(queueId, context);
+        return new ClCommandQueueJocl(queueId, context, device, properties);
     }
 
     @Override
-    protected ClProgram createProgramInternal(final String programSource) {
+    protected ClProgram createProgramInternal(final String programSource, final String buildOptions) {
         var programId = _Util.checkedApply(ret_pointer->
             CL.clCreateProgramWithSource(this.id(), 1, new String[]{programSource}, null, ret_pointer),
             ()-> String.format("failed to create program for context %s", this));
-        return new ClProgramJocl(programId, this).build();
+        return new ClProgramJocl(programId, this).build(buildOptions);
     }
 
     @Override
-    protected ClMem createMemoryInternal(final JComputeArray computeArray, final MemMode memMode) {
+    protected @Nullable ClProgram createProgramFromBinaryInternal(final byte[] programBinary, final String buildOptions) {
+        var deviceId = ((ClDeviceJocl)getSingleDeviceElseFail()).id();
+        final int[] binaryStatus = new int[1];
+        final int[] errcode = new int[1];
+        var programId = CL.clCreateProgramWithBinary(this.id(), 1, new cl_device_id[] {deviceId},
+                new long[] {programBinary.length}, new byte[][] {programBinary},
+                binaryStatus, errcode);
+        if(errcode[0]!=CL.CL_SUCCESS
+                || binaryStatus[0]!=CL.CL_SUCCESS) return null;
+        var program = new ClProgramJocl(programId, this);
+        if(program.buildProgram(buildOptions)!=CL.CL_SUCCESS) {
+            program.free();
+            return null;
+        }
+        return program;
+    }
+
+    @Override
+    protected ClMem createMemoryInternal(final JComputeArray computeArray, final MemMode memMode,
+            final HostPtrMode hostPtrMode) {
         var clMemMode = switch (memMode) {
             case MEM_READ_WRITE -> CL.CL_MEM_READ_WRITE;
             case MEM_READ_ONLY -> CL.CL_MEM_READ_ONLY;
             case MEM_WRITE_ONLY -> CL.CL_MEM_WRITE_ONLY;
         };
-        return createMemoryInternal(computeArray, clMemMode);
+        var clHostPtrMode = switch (hostPtrMode) {
+            case NONE -> 0L;
+            case USE_HOST_PTR -> CL.CL_MEM_USE_HOST_PTR;
+            case ALLOC_HOST_PTR -> CL.CL_MEM_ALLOC_HOST_PTR;
+        };
+        var hostPtr = hostPtrMode==HostPtrMode.USE_HOST_PTR
+                ? Pointer.to(computeArray.memorySegment().asByteBuffer())
+                : null;
+        return createMemoryInternal(computeArray, clMemMode | clHostPtrMode, hostPtr);
     }
 
     @Override
@@ -88,12 +124,13 @@ public final class ClContextJocl extends ClContext {
     /**
      * Returns a new memory object for given context.
      */
-    private ClMemJocl createMemoryInternal(final JComputeArray computeArray, final long clMemMode) {
+    private ClMemJocl createMemoryInternal(final JComputeArray computeArray, final long clMemMode,
+            final @Nullable Pointer hostPtr) {
         long size = computeArray.shape().totalSize();
         int sizeOf = computeArray.bytesPerElement();
 
         var memId = _Util.checkedApply(ret_pointer->
-            CL.clCreateBuffer(this.id(), clMemMode, size * sizeOf, null, ret_pointer),
+            CL.clCreateBuffer(this.id(), clMemMode, size * sizeOf, hostPtr, ret_pointer),
             ()->String.format("failed to create memory object (size=%d*%d) for context %s", sizeOf, size, this));
         return new ClMemJocl(memId, this, computeArray);
     }
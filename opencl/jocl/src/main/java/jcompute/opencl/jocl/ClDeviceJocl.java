@@ -65,6 +65,21 @@ public final class ClDeviceJocl extends ClDevice {
         return getString(id, CL.CL_DEVICE_NAME);
     }
 
+    @Override
+    public String getDriverVersion() {
+        return getString(id, CL.CL_DRIVER_VERSION);
+    }
+
+    @Override
+    public String getExtensions() {
+        return getString(id, CL.CL_DEVICE_EXTENSIONS);
+    }
+
+    @Override
+    public long getQueueOnHostProperties() {
+        return getLong(id, CL.CL_DEVICE_QUEUE_ON_HOST_PROPERTIES);
+    }
+
     @Override
     public int getMaxComputeUnits() {
         return getInt(id, CL.CL_DEVICE_MAX_COMPUTE_UNITS);
@@ -0,0 +1,105 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.jocl;
+
+import org.jocl.CL;
+import org.jocl.EventCallbackFunction;
+import org.jocl.Pointer;
+import org.jocl.Sizeof;
+import org.jocl.cl_event;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+import jcompute.opencl.ClCommandQueue;
+import jcompute.opencl.ClEvent;
+
+public final class ClEventJocl extends ClEvent {
+
+    /**
+     * Single callback shared by all events, the callback id is passed as user data.
+     */
+    private static final EventCallbackFunction CALLBACK =
+            (event, executionStatus, userData)->dispatchCallback((Long)userData, executionStatus);
+
+    @Getter @Accessors(fluent = true) private final cl_event id;
+
+    ClEventJocl(final cl_event id, final ClCommandQueue queue) {
+        super(queue);
+        this.id = id;
+    }
+
+    @Override
+    protected int waitForEvent() {
+        return CL.clWaitForEvents(1, new cl_event[] {id()});
+    }
+
+    @Override
+    protected int queryExecutionStatus() {
+        final int[] status = new int[1];
+        _Util.assertSuccess(
+                CL.clGetEventInfo(id(), CL.CL_EVENT_COMMAND_EXECUTION_STATUS, Sizeof.cl_int, Pointer.to(status), null),
+                ()->String.format("failed to query execution status of event %s", this));
+        return status[0];
+    }
+
+    @Override
+    protected int setCompletionCallback(final long callbackId) {
+        return CL.clSetEventCallback(id(), CL.CL_COMPLETE, CALLBACK, callbackId);
+    }
+
+    @Override
+    protected int retainEvent() {
+        return CL.clRetainEvent(id());
+    }
+
+    @Override
+    protected int releaseEvent() {
+        return CL.clReleaseEvent(id());
+    }
+
+    @Override
+    protected long queryProfilingInfo(final int paramName) {
+        final long[] value = new long[1];
+        _Util.assertSuccess(
+                CL.clGetEventProfilingInfo(id(), paramName, Sizeof.cl_ulong, Pointer.to(value), null),
+                ()->String.format("failed to query profiling info of event %s", this));
+        return value[0];
+    }
+
+    @Override
+    public String toString() {
+        return "addr: " + id.getNativePointer();
+    }
+
+    // -- HELPER
+
+    /**
+     * Native event wait list, null if empty.
+     */
+    static cl_event[] waitList(final ClEvent[] waitList) {
+        if(waitList.length==0) return null;
+        var ids = new cl_event[waitList.length];
+        for (int i = 0; i < waitList.length; i++) {
+            ids[i] = ((ClEventJocl)waitList[i]).id();
+        }
+        return ids;
+    }
+
+}
@@ -19,6 +19,7 @@
 package jcompute.opencl.jocl;
 
 import org.jocl.CL;
+import org.jocl.cl_buffer_region;
 import org.jocl.cl_mem;
 
 import lombok.Getter;
@@ -45,5 +46,13 @@ public final class ClMemJocl extends ClMem {
         return CL.clReleaseMemObject(id());
     }
 
+    @Override
+    protected ClMem createSubBufferInternal(final long origin, final long size, final JComputeArray computeArray) {
+        var subId = _Util.checkedApply(ret_pointer->
+            CL.clCreateSubBuffer(id(), 0L, CL.CL_BUFFER_CREATE_TYPE_REGION, new cl_buffer_region(origin, size), ret_pointer),
+            ()->String.format("failed to create sub-buffer (origin=%d, size=%d) of memory object %s", origin, size, this));
+        return new ClMemJocl(subId, context(), computeArray);
+    }
+
 }
 
@@ -19,6 +19,8 @@
 package jcompute.opencl.jocl;
 
 import org.jocl.CL;
+import org.jocl.Pointer;
+import org.jocl.Sizeof;
 import org.jocl.cl_device_id;
 import org.jocl.cl_program;
 
@@ -44,17 +46,10 @@ public final class ClProgramJocl extends ClProgram {
      * @implNote yet only supports contexts bound to only a single device
      */
     @Override
-    public ClProgram build()  {
-        var deviceId = ((ClDeviceJocl)getContext().getSingleDeviceElseFail()).id();
-
-        // https://www.intel.com/content/www/us/en/docs/opencl-sdk/developer-reference-processor-graphics/2015-1/optimization-options.html
-        String options = null; // all enabled by default
-                //"-cl-opt-disable";
-                //"-cl-mad-enable";
-
+    public ClProgram build(final String buildOptions)  {
         /* Build Kernel Program */
         _Util.assertSuccess(
-                CL.clBuildProgram(id(), 1, new cl_device_id[] {deviceId}, options, null, null),
+                buildProgram(buildOptions),
                 ()->String.format("failed to build program %s%n"
                     + "build-log: %s",
                     this,
@@ -63,6 +58,20 @@ public final class ClProgramJocl extends ClProgram {
         return this;
     }
 
+    @Override
+    public byte[] getBinary() {
+        final long[] sizes = new long[1];
+        _Util.assertSuccess(
+                CL.clGetProgramInfo(id(), CL.CL_PROGRAM_BINARY_SIZES, Sizeof.size_t, Pointer.to(sizes), null),
+                ()->String.format("failed to get binary size of program %s", this));
+        final byte[] binary = new byte[Math.toIntExact(sizes[0])];
+        if(binary.length==0) return binary;
+        _Util.assertSuccess(
+                CL.clGetProgramInfo(id(), CL.CL_PROGRAM_BINARIES, Sizeof.POINTER, Pointer.to(Pointer.to(binary)), null),
+                ()->String.format("failed to get binary of program %s", this));
+        return binary;
+    }
+
     @Override
     protected int releaseProgramInternal() {
         return CL.clReleaseProgram(id());
@@ -78,6 +87,15 @@ public final class ClProgramJocl extends ClProgram {
 
     // -- HELPER
 
+    /**
+     * @return error code of {@code clBuildProgram}
+     */
+    int buildProgram(final String buildOptions) {
+        var deviceId = ((ClDeviceJocl)getContext().getSingleDeviceElseFail()).id();
+        final String options = buildOptions.isEmpty() ? null : buildOptions;
+        return CL.clBuildProgram(id(), 1, new cl_device_id[] {deviceId}, options, null, null);
+    }
+
     private String getBuildProgramInfo(final int paramName) {
         var deviceId = ((ClDeviceJocl)getContext().getSingleDeviceElseFail()).id();
         return _Util.readString((a, b, c)->CL.clGetProgramBuildInfo(id(), deviceId, paramName, a, b, c));
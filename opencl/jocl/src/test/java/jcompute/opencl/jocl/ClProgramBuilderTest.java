@@ -0,0 +1,97 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.jocl;
+
+import java.lang.foreign.Arena;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import jcompute.core.mem.IntArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClSourceTemplate;
+
+class ClProgramBuilderTest {
+
+    final ClSourceTemplate SCALE_TEMPLATE = ClSourceTemplate.of("""
+            __kernel void scale(__global ${TYPE}* a) {
+                int gid = get_global_id(0);
+            #ifdef NEGATE
+                a[gid] = -a[gid] * FACTOR;
+            #else
+                a[gid] = a[gid] * FACTOR;
+            #endif
+            }
+            """);
+
+    @Test
+    void sourceTemplate() {
+        assertEquals(Set.of("TYPE"), SCALE_TEMPLATE.parameterNames());
+        assertThrows(IllegalArgumentException.class, ()->SCALE_TEMPLATE.render(Map.of()));
+        assertThrows(IllegalArgumentException.class, ()->SCALE_TEMPLATE.render(Map.of("TYPE", "int", "OTHER", 1)));
+    }
+
+    @Test
+    void defines() {
+        ClDevice.streamAll()
+            .forEach(this::defines);
+    }
+
+    void defines(final ClDevice device) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var queue = context.createQueue();
+            var source = SCALE_TEMPLATE.render(Map.of("TYPE", "int"));
+
+            var builder = context.programBuilder(source)
+                    .madEnable()
+                    .define("FACTOR", 3)
+                    .define("NEGATE");
+            assertEquals("-cl-mad-enable -DFACTOR=3 -DNEGATE", builder.buildOptions());
+            var negating = builder.build();
+            var scaling = context.programBuilder(source)
+                    .define("FACTOR", 3)
+                    .build();
+            assertNotSame(negating, scaling);
+
+            var mem = IntArray.of(arena, Shape.of(64));
+            mem.shape().forEach(gid->mem.put(gid, (int)gid));
+            var memObj = context.createMemoryReadWrite(mem);
+            queue.enqueueWriteBuffer(memObj);
+
+            var kernel = negating.createKernel("scale");
+            kernel.setArgs(memObj);
+            queue.enqueueNDRangeKernel(kernel, mem.shape());
+            kernel = scaling.createKernel("scale");
+            kernel.setArgs(memObj);
+            queue.enqueueNDRangeKernel(kernel, mem.shape());
+            queue.enqueueReadBuffer(memObj);
+
+            mem.shape().forEach(gid->
+                assertEquals(-9 * (int)gid, mem.get(gid)));
+        }
+    }
+
+}
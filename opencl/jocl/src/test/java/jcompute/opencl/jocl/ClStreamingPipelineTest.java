@@ -0,0 +1,87 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jcompute.opencl.jocl;
+
+import java.lang.foreign.Arena;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jcompute.core.mem.IntArray;
+import jcompute.core.mem.LongArray;
+import jcompute.core.shape.Shape;
+import jcompute.opencl.ClDevice;
+import jcompute.opencl.ClStreamingPipeline;
+
+class ClStreamingPipelineTest {
+
+    final String SQUARE_SRC = """
+            __kernel void square(__global const int* in, __global long* out, const int itemCount) {
+                int gid = get_global_id(0);
+                if(gid < itemCount) {
+                    out[gid] = (long)in[gid] * in[gid];
+                }
+            }
+            """;
+
+    @Test
+    void tripleBuffered() {
+        ClDevice.streamAll()
+            .forEach(device->streaming(device, ClStreamingPipeline.Options.defaults(1000)));
+    }
+
+    @Test
+    void doubleBufferedSharedTransferQueue() {
+        ClDevice.streamAll()
+            .forEach(device->streaming(device, new ClStreamingPipeline.Options(2, 2, 1000)));
+    }
+
+    void streaming(final ClDevice device, final ClStreamingPipeline.Options options) {
+        try(var arena = Arena.ofConfined();
+                var context = device.createContext()) {
+            var kernel = context.createProgram(SQUARE_SRC).createKernel("square");
+            var input = IntArray.of(arena, Shape.of(10_500));
+            var output = LongArray.of(arena, Shape.of(10_500));
+            input.shape().forEach(gid->input.put(gid, (int)gid));
+
+            // closing the pipeline frees its queues and buffers, before the context is closed
+            try(var pipeline = new ClStreamingPipeline(context, options)) {
+                // run twice, the second run reuses the device buffers
+                for (int run = 0; run < 2; run++) {
+                    output.shape().forEach(gid->output.put(gid, -1L));
+                    var stats = pipeline.run(input, output, (queue, chunk, waitList)->{
+                        kernel.setArgs(chunk.input(), chunk.output(), (int)chunk.itemCount());
+                        return queue.enqueueNDRangeKernelNonBlocking(kernel, Shape.of(options.chunkItems()), waitList);
+                    });
+                    System.out.printf("%s%n", stats);
+
+                    assertEquals(11, stats.chunkCount());
+                    assertEquals(10_500L * 4, stats.bytesIn());
+                    assertEquals(10_500L * 8, stats.bytesOut());
+                    assertTrue(stats.kernelNanos() > 0);
+                    output.shape().forEach(gid->
+                        assertEquals(gid * gid, output.get(gid)));
+                }
+            }
+        }
+    }
+
+}